@@ -0,0 +1,131 @@
+package org.infinispan;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.remoting.transport.jgroups.JGroupsTransport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures embedded {@link Cache} operations for each cache mode.
+ * <p>
+ * Clustered modes run {@link #nodes} cache managers in the same JVM, connected with the JGroups
+ * {@code SHARED_LOOPBACK} transport, and operations are always invoked on the first one. With distribution and more
+ * than {@link #owners} nodes, part of the keys are therefore remote.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class CacheModeBenchmark {
+   private static final String JGROUPS_CONFIGURATION = "benchmark-jgroups-loopback.xml";
+
+   @Param({"LOCAL", "REPL_SYNC", "DIST_SYNC", "INVALIDATION_SYNC", "REPL_ASYNC", "DIST_ASYNC"})
+   CacheMode cacheMode;
+
+   @Param({"3"})
+   int nodes;
+
+   @Param({"2"})
+   int owners;
+
+   @Param({"10000"})
+   int keys;
+
+   @Param({"100"})
+   int valueSize;
+
+   private EmbeddedCacheManager[] cacheManagers;
+   private Cache<String, byte[]> cache;
+   private String[] keyArray;
+   private byte[] value;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.clustering().cacheMode(cacheMode);
+      if (cacheMode.isDistributed()) {
+         builder.clustering().hash().numOwners(owners);
+      }
+
+      int clusterSize = cacheMode.isClustered() ? nodes : 1;
+      cacheManagers = new EmbeddedCacheManager[clusterSize];
+      for (int i = 0; i < clusterSize; i++) {
+         GlobalConfigurationBuilder global;
+         if (cacheMode.isClustered()) {
+            global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+            global.transport().nodeName("node-" + i).clusterName("benchmark-" + cacheMode)
+                  .addProperty(JGroupsTransport.CONFIGURATION_FILE, JGROUPS_CONFIGURATION);
+         } else {
+            global = new GlobalConfigurationBuilder();
+         }
+         global.globalJmxStatistics().allowDuplicateDomains(true);
+         cacheManagers[i] = new DefaultCacheManager(global.build(), builder.build());
+      }
+      // Joining blocks until the initial state transfer is done
+      for (EmbeddedCacheManager cm : cacheManagers) {
+         cm.getCache();
+      }
+      cache = cacheManagers[0].getCache();
+
+      keyArray = new String[keys];
+      value = new byte[valueSize];
+      for (int i = 0; i < keys; i++) {
+         keyArray[i] = "key-" + i;
+         cache.put(keyArray[i], value);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      for (int i = cacheManagers.length - 1; i >= 0; i--) {
+         cacheManagers[i].stop();
+      }
+   }
+
+   @Benchmark
+   public byte[] get() {
+      return cache.get(randomKey());
+   }
+
+   @Benchmark
+   public byte[] put() {
+      return cache.put(randomKey(), value);
+   }
+
+   @Benchmark
+   public void putIgnoreReturnValue() {
+      cache.getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES).put(randomKey(), value);
+   }
+
+   @Benchmark
+   public boolean replaceIfUnchanged() {
+      return cache.replace(randomKey(), value, value);
+   }
+
+   private String randomKey() {
+      return keyArray[ThreadLocalRandom.current().nextInt(keys)];
+   }
+}
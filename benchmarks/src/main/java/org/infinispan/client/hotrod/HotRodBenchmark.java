@@ -0,0 +1,127 @@
+package org.infinispan.client.hotrod;
+
+import org.infinispan.client.hotrod.configuration.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures Hot Rod client-server round trips against a server running in the same JVM, over the loopback interface.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class HotRodBenchmark {
+   private static final String HOST = "127.0.0.1";
+
+   @Param({"11322"})
+   int port;
+
+   @Param({"10000"})
+   int keys;
+
+   @Param({"100", "10000"})
+   int valueSize;
+
+   @Param({"16"})
+   int bulkSize;
+
+   private EmbeddedCacheManager cacheManager;
+   private HotRodServer server;
+   private RemoteCacheManager remoteCacheManager;
+   private RemoteCache<String, byte[]> cache;
+   private String[] keyArray;
+   private byte[] value;
+
+   @Setup
+   public void setUp() {
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(),
+            new org.infinispan.configuration.cache.ConfigurationBuilder().build());
+      server = new HotRodServer();
+      server.start(new HotRodServerConfigurationBuilder().host(HOST).port(port).build(), cacheManager);
+
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.addServer().host(HOST).port(port).connectionPool().maxActive(64);
+      remoteCacheManager = new RemoteCacheManager(builder.build());
+      cache = remoteCacheManager.getCache();
+
+      keyArray = new String[keys];
+      value = new byte[valueSize];
+      for (int i = 0; i < keys; i++) {
+         keyArray[i] = "key-" + i;
+         cache.put(keyArray[i], value);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      remoteCacheManager.stop();
+      server.stop();
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public byte[] get() {
+      return cache.get(randomKey());
+   }
+
+   @Benchmark
+   public void put() {
+      cache.put(randomKey(), value);
+   }
+
+   @Benchmark
+   public boolean containsKey() {
+      return cache.containsKey(randomKey());
+   }
+
+   @Benchmark
+   public Map<String, byte[]> getAll() {
+      Set<String> bulk = new HashSet<>();
+      for (int i = 0; i < bulkSize; i++) {
+         bulk.add(randomKey());
+      }
+      return cache.getAll(bulk);
+   }
+
+   @Benchmark
+   public void putAll() {
+      Map<String, byte[]> bulk = new HashMap<>();
+      for (int i = 0; i < bulkSize; i++) {
+         bulk.put(randomKey(), value);
+      }
+      cache.putAll(bulk);
+   }
+
+   private String randomKey() {
+      return keyArray[ThreadLocalRandom.current().nextInt(keys)];
+   }
+}
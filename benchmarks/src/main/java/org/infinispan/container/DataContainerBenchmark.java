@@ -0,0 +1,100 @@
+package org.infinispan.container;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.eviction.EvictionStrategy;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.metadata.Metadata;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link DataContainer} get, put and evict, with and without a size bound.
+ * <p>
+ * The container is taken from a local cache, so it is wired with the same components as in production.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Threads(4)
+@Fork(1)
+public class DataContainerBenchmark {
+
+   @Param({"NONE", "LRU", "LIRS"})
+   EvictionStrategy eviction;
+
+   @Param({"100000"})
+   int keys;
+
+   private EmbeddedCacheManager cacheManager;
+   private DataContainer<String, byte[]> container;
+   private String[] keyArray;
+   private byte[] value;
+   private Metadata metadata;
+
+   @Setup
+   public void setUp() {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      if (eviction != EvictionStrategy.NONE) {
+         // Bound the container below the key count, so puts of absent keys evict
+         builder.eviction().strategy(eviction).size(keys / 2);
+      }
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      container = cacheManager.<String, byte[]>getCache().getAdvancedCache().getDataContainer();
+
+      keyArray = new String[keys];
+      value = new byte[100];
+      metadata = new EmbeddedMetadata.Builder().build();
+      for (int i = 0; i < keys; i++) {
+         keyArray[i] = "key-" + i;
+         container.put(keyArray[i], value, metadata);
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public InternalCacheEntry<String, byte[]> get() {
+      return container.get(randomKey());
+   }
+
+   @Benchmark
+   public void put() {
+      container.put(randomKey(), value, metadata);
+   }
+
+   @Benchmark
+   public void evictAndPut() {
+      String key = randomKey();
+      container.evict(key);
+      container.put(key, value, metadata);
+   }
+
+   private String randomKey() {
+      return keyArray[ThreadLocalRandom.current().nextInt(keys)];
+   }
+}
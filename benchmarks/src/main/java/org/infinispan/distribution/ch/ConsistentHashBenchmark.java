@@ -0,0 +1,89 @@
+package org.infinispan.distribution.ch;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.jgroups.JGroupsAddress;
+import org.jgroups.util.UUID;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures key hashing with {@link MurmurHash3} and owner lookup in a {@link DefaultConsistentHash}.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConsistentHashBenchmark {
+   private static final int KEYS = 1024;
+
+   @Param({"4", "32", "128"})
+   int members;
+
+   @Param({"256"})
+   int segments;
+
+   @Param({"2"})
+   int owners;
+
+   private final MurmurHash3 hash = MurmurHash3.getInstance();
+   private DefaultConsistentHash ch;
+   private byte[][] byteKeys;
+   private String[] stringKeys;
+
+   @Setup
+   public void setUp() {
+      List<Address> addresses = new ArrayList<>(members);
+      for (int i = 0; i < members; i++) {
+         addresses.add(new JGroupsAddress(UUID.randomUUID()));
+      }
+      ch = new DefaultConsistentHashFactory().create(hash, owners, segments, addresses, null);
+
+      byteKeys = new byte[KEYS][];
+      stringKeys = new String[KEYS];
+      for (int i = 0; i < KEYS; i++) {
+         stringKeys[i] = "key-" + i;
+         byteKeys[i] = stringKeys[i].getBytes();
+      }
+   }
+
+   @Benchmark
+   public int murmurHashBytes() {
+      return hash.hash(byteKeys[ThreadLocalRandom.current().nextInt(KEYS)]);
+   }
+
+   @Benchmark
+   public int murmurHashObject() {
+      return hash.hash(stringKeys[ThreadLocalRandom.current().nextInt(KEYS)]);
+   }
+
+   @Benchmark
+   public Address locatePrimaryOwner() {
+      return ch.locatePrimaryOwner(stringKeys[ThreadLocalRandom.current().nextInt(KEYS)]);
+   }
+
+   @Benchmark
+   public List<Address> locateOwners() {
+      return ch.locateOwners(stringKeys[ThreadLocalRandom.current().nextInt(KEYS)]);
+   }
+}
@@ -0,0 +1,140 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commands.CommandInvocationId;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheValue;
+import org.infinispan.context.InvocationContextContainer;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the compact encoding of RPC commands and responses with JBoss Marshalling (River).
+ * <p>
+ * Reports ns/op; run with {@code -prof gc} to get the allocated bytes/op as well. The size of the encoded payload in
+ * both formats is logged when the trial starts.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CommandMarshallingBenchmark {
+   private static final Log log = LogFactory.getLog(CommandMarshallingBenchmark.class);
+   private static final ByteString CACHE_NAME = ByteString.fromString("benchmark");
+
+   public enum Payload {
+      PUT_SMALL, PUT_LARGE, CLUSTERED_GET, RESPONSE
+   }
+
+   @Param
+   Payload payload;
+
+   private EmbeddedCacheManager cacheManager;
+   private JBossMarshaller river;
+   private CompactCommandMarshaller compact;
+   private Object object;
+   private ByteBuffer riverBuffer;
+   private ByteBuffer compactBuffer;
+
+   @Setup
+   public void setUp() throws Exception {
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(),
+            new ConfigurationBuilder().build());
+      ComponentRegistry registry = cacheManager.getCache().getAdvancedCache().getComponentRegistry();
+      ExternalizerTable externalizerTable = registry.getGlobalComponentRegistry().getComponent(ExternalizerTable.class);
+
+      river = new JBossMarshaller(externalizerTable, null, registry.getComponent(InvocationContextContainer.class),
+            cacheManager.getCacheManagerConfiguration());
+      river.start();
+      compact = new CompactCommandMarshaller(externalizerTable);
+
+      object = createPayload(payload);
+      riverBuffer = river.objectToBuffer(object);
+      compactBuffer = compact.objectToBuffer(object, 128);
+      if (compactBuffer == null) {
+         throw new IllegalStateException(payload + " is not supported by the compact encoding");
+      }
+      log.infof("%s: river %d bytes, compact %d bytes", payload, riverBuffer.getLength(), compactBuffer.getLength());
+   }
+
+   @TearDown
+   public void tearDown() {
+      river.stop();
+      cacheManager.stop();
+   }
+
+   @Benchmark
+   public ByteBuffer riverWrite() throws Exception {
+      return river.objectToBuffer(object);
+   }
+
+   @Benchmark
+   public ByteBuffer compactWrite() {
+      return compact.objectToBuffer(object, 128);
+   }
+
+   @Benchmark
+   public Object riverRead() throws Exception {
+      return river.objectFromByteBuffer(riverBuffer.getBuf(), riverBuffer.getOffset(), riverBuffer.getLength());
+   }
+
+   @Benchmark
+   public Object compactRead() throws Exception {
+      return compact.objectFromByteBuffer(compactBuffer.getBuf(), compactBuffer.getOffset(),
+            compactBuffer.getLength());
+   }
+
+   private static Object createPayload(Payload payload) {
+      switch (payload) {
+         case PUT_SMALL:
+            return put(new byte[16], new byte[64]);
+         case PUT_LARGE:
+            return put(new byte[16], new byte[16384]);
+         case CLUSTERED_GET:
+            return new ClusteredGetCommand(new byte[16], CACHE_NAME, EnumUtil.EMPTY_BIT_SET, false, null,
+                  AnyEquivalence.getInstance());
+         case RESPONSE:
+            return SuccessfulResponse.create(new ImmortalCacheValue(new byte[64]));
+         default:
+            throw new IllegalArgumentException(String.valueOf(payload));
+      }
+   }
+
+   private static Object put(byte[] key, byte[] value) {
+      PutKeyValueCommand put = new PutKeyValueCommand(key, value, false, null,
+            new EmbeddedMetadata.Builder().lifespan(10, TimeUnit.SECONDS).build(), EnumUtil.EMPTY_BIT_SET,
+            AnyEquivalence.getInstance(), CommandInvocationId.generateId(null));
+      put.setTopologyId(1);
+      return new SingleRpcCommand(CACHE_NAME, put);
+   }
+}
@@ -0,0 +1,210 @@
+package org.infinispan.persistence;
+
+import org.infinispan.commons.util.Util;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.manager.DefaultCacheManager;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryFactory;
+import org.infinispan.persistence.jdbc.configuration.JdbcStringBasedStoreConfigurationBuilder;
+import org.infinispan.persistence.leveldb.configuration.LevelDBStoreConfigurationBuilder;
+import org.infinispan.persistence.manager.PersistenceManager;
+import org.infinispan.persistence.remote.configuration.RemoteStoreConfigurationBuilder;
+import org.infinispan.persistence.rest.configuration.RestStoreConfigurationBuilder;
+import org.infinispan.persistence.sifs.configuration.SoftIndexFileStoreConfigurationBuilder;
+import org.infinispan.persistence.spi.AdvancedLoadWriteStore;
+import org.infinispan.rest.NettyRestServer;
+import org.infinispan.rest.configuration.RestServerConfigurationBuilder;
+import org.infinispan.server.hotrod.HotRodServer;
+import org.infinispan.server.hotrod.configuration.HotRodServerConfigurationBuilder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Measures write, load and process (iteration over all the entries) of the cache stores bundled with Infinispan.
+ * <p>
+ * The store is configured on a local cache and invoked directly, bypassing the data container and the
+ * {@link PersistenceManager}, so the numbers only include the store itself and the marshalling of the entries. The
+ * remote and REST stores write to a Hot Rod or REST server running in the same JVM, over the loopback interface.
+ * <p>
+ * The JPA store is not measured: it only stores JPA entities, not the {@code byte[]} values used here.
+ *
+ * @since 9.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StoreBenchmark {
+   private static final String HOST = "127.0.0.1";
+   private static final String BACKEND_CACHE = "backend";
+
+   public enum Store {
+      SINGLE_FILE, SOFT_INDEX, LEVELDB, JDBC_STRING_BASED, REMOTE, REST
+   }
+
+   @Param
+   Store store;
+
+   @Param({"10000"})
+   int keys;
+
+   @Param({"1024"})
+   int valueSize;
+
+   @Param({"11422"})
+   int hotRodPort;
+
+   @Param({"18180"})
+   int restPort;
+
+   private File location;
+   private EmbeddedCacheManager serverCacheManager;
+   private HotRodServer hotRodServer;
+   private NettyRestServer restServer;
+   private EmbeddedCacheManager cacheManager;
+   private AdvancedLoadWriteStore<String, byte[]> loadWriteStore;
+   private MarshalledEntryFactory<String, byte[]> entryFactory;
+   private ExecutorService executor;
+   private String[] keyArray;
+   private byte[] value;
+
+   @Setup
+   public void setUp() throws Exception {
+      location = Files.createTempDirectory("infinispan-store-benchmark").toFile();
+      startServer();
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      configureStore(builder, location.getAbsolutePath());
+      cacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), builder.build());
+      ComponentRegistry registry = cacheManager.getCache().getAdvancedCache().getComponentRegistry();
+      loadWriteStore = registry.getComponent(PersistenceManager.class).getStores(AdvancedLoadWriteStore.class)
+            .iterator().next();
+      entryFactory = registry.getComponent(MarshalledEntryFactory.class);
+      executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+      keyArray = new String[keys];
+      value = new byte[valueSize];
+      ThreadLocalRandom.current().nextBytes(value);
+      for (int i = 0; i < keys; i++) {
+         keyArray[i] = "key-" + i;
+         loadWriteStore.write(entryFactory.newMarshalledEntry(keyArray[i], value, null));
+      }
+   }
+
+   @TearDown
+   public void tearDown() {
+      executor.shutdownNow();
+      cacheManager.stop();
+      if (hotRodServer != null) hotRodServer.stop();
+      if (restServer != null) restServer.stop();
+      if (serverCacheManager != null) serverCacheManager.stop();
+      Util.recursiveFileRemove(location);
+   }
+
+   @Benchmark
+   public void write() {
+      loadWriteStore.write(entryFactory.newMarshalledEntry(randomKey(), value, null));
+   }
+
+   @Benchmark
+   public MarshalledEntry<String, byte[]> load() {
+      return loadWriteStore.load(randomKey());
+   }
+
+   @Benchmark
+   @BenchmarkMode(Mode.AverageTime)
+   @OutputTimeUnit(TimeUnit.MILLISECONDS)
+   public long process() {
+      LongAdder count = new LongAdder();
+      loadWriteStore.process(null, (entry, context) -> count.increment(), executor, true, true);
+      return count.sum();
+   }
+
+   private String randomKey() {
+      return keyArray[ThreadLocalRandom.current().nextInt(keys)];
+   }
+
+   /**
+    * Starts the server the remote or REST store writes to.
+    */
+   private void startServer() {
+      if (store != Store.REMOTE && store != Store.REST) {
+         return;
+      }
+      serverCacheManager = new DefaultCacheManager(new GlobalConfigurationBuilder().build(), new ConfigurationBuilder().build());
+      serverCacheManager.defineConfiguration(BACKEND_CACHE, new ConfigurationBuilder().build());
+      serverCacheManager.getCache(BACKEND_CACHE);
+      if (store == Store.REMOTE) {
+         hotRodServer = new HotRodServer();
+         hotRodServer.start(new HotRodServerConfigurationBuilder().host(HOST).port(hotRodPort).build(), serverCacheManager);
+      } else {
+         restServer = NettyRestServer.apply(new RestServerConfigurationBuilder().host(HOST).port(restPort).build(),
+               serverCacheManager);
+         restServer.start();
+      }
+   }
+
+   private void configureStore(ConfigurationBuilder builder, String location) {
+      switch (store) {
+         case SINGLE_FILE:
+            builder.persistence().addSingleFileStore().location(location);
+            break;
+         case SOFT_INDEX:
+            builder.persistence().addStore(SoftIndexFileStoreConfigurationBuilder.class)
+                  .dataLocation(location + File.separator + "data")
+                  .indexLocation(location + File.separator + "index");
+            break;
+         case LEVELDB:
+            builder.persistence().addStore(LevelDBStoreConfigurationBuilder.class)
+                  .location(location + File.separator + "data")
+                  .expiredLocation(location + File.separator + "expired");
+            break;
+         case JDBC_STRING_BASED:
+            builder.persistence().addStore(JdbcStringBasedStoreConfigurationBuilder.class)
+                  .table()
+                     .tableNamePrefix("ISPN_BENCHMARK")
+                     .idColumnName("ID").idColumnType("VARCHAR(255)")
+                     .dataColumnName("DATA").dataColumnType("BLOB")
+                     .timestampColumnName("TS").timestampColumnType("BIGINT")
+                     .createOnStart(true).dropOnExit(true)
+                  .connectionPool()
+                     .driverClass("org.h2.Driver")
+                     .connectionUrl("jdbc:h2:mem:benchmark;DB_CLOSE_DELAY=-1")
+                     .username("sa");
+            break;
+         case REMOTE:
+            builder.persistence().addStore(RemoteStoreConfigurationBuilder.class)
+                  .remoteCacheName(BACKEND_CACHE)
+                  .addServer().host(HOST).port(hotRodPort);
+            break;
+         case REST:
+            builder.persistence().addStore(RestStoreConfigurationBuilder.class)
+                  .host(HOST).port(restPort).path("/rest/" + BACKEND_CACHE);
+            break;
+         default:
+            throw new IllegalArgumentException(String.valueOf(store));
+      }
+   }
+}
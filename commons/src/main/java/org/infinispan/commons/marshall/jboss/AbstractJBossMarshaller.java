@@ -297,8 +297,8 @@ Unmarshaller getUnmarshaller() throws IOException {
       ExtendedRiverMarshaller getMarshaller(int estimatedSize) throws IOException {
          if (availableMarshallerIndex == PER_THREAD_REUSABLE_INSTANCES) {
             //we're above the pool threshold: make a throw-away-after usage Marshaller
-            //setting the buffer as cheap as possible:
-            configuration.setBufferSize(estimatedSize);
+            //setting the buffer as cheap as possible (large writes bypass River's buffer anyway):
+            configuration.setBufferSize(Math.min(estimatedSize, RIVER_INTERNAL_BUFFER));
             return factory.createMarshaller(configuration);
          }
          else {
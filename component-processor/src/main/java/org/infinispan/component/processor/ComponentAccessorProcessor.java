@@ -0,0 +1,205 @@
+package org.infinispan.component.processor;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.annotation.processing.SupportedAnnotationTypes;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.ElementKind;
+import javax.lang.model.element.ExecutableElement;
+import javax.lang.model.element.Modifier;
+import javax.lang.model.element.NestingKind;
+import javax.lang.model.element.PackageElement;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.PrimitiveType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.tools.Diagnostic;
+import javax.tools.JavaFileObject;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Generates a {@code ComponentAccessor} for every class declaring methods annotated with {@code @Inject},
+ * {@code @Start} or {@code @Stop}.
+ * <p>
+ * The accessor for {@code org.acme.Foo} is named {@code org.acme.Foo$$Accessor} and lives in the same package, so it
+ * can invoke the annotated methods directly instead of going through {@link java.lang.reflect.Method#invoke}. Methods
+ * that cannot be called from another class of the same package (private methods, methods of private classes or
+ * methods whose parameter types are not visible) are left out, and the component registry falls back to reflection
+ * for them.
+ * <p>
+ * The processor only refers to the annotations by name, so it does not depend on infinispan-core.
+ *
+ * @since 9.0
+ */
+@SupportedAnnotationTypes({
+      ComponentAccessorProcessor.INJECT,
+      ComponentAccessorProcessor.START,
+      ComponentAccessorProcessor.STOP
+})
+public class ComponentAccessorProcessor extends AbstractProcessor {
+   static final String INJECT = "org.infinispan.factories.annotations.Inject";
+   static final String START = "org.infinispan.factories.annotations.Start";
+   static final String STOP = "org.infinispan.factories.annotations.Stop";
+
+   static final String ACCESSOR_INTERFACE = "org.infinispan.factories.components.ComponentAccessor";
+   static final String ACCESSOR_SUFFIX = "$$Accessor";
+
+   @Override
+   public SourceVersion getSupportedSourceVersion() {
+      return SourceVersion.latestSupported();
+   }
+
+   @Override
+   public boolean process(Set<? extends TypeElement> annotations, RoundEnvironment roundEnv) {
+      Map<TypeElement, Set<ExecutableElement>> componentMethods = new LinkedHashMap<>();
+      for (TypeElement annotation : annotations) {
+         for (Element element : roundEnv.getElementsAnnotatedWith(annotation)) {
+            if (element.getKind() != ElementKind.METHOD)
+               continue;
+            TypeElement type = (TypeElement) element.getEnclosingElement();
+            componentMethods.computeIfAbsent(type, k -> new LinkedHashSet<>()).add((ExecutableElement) element);
+         }
+      }
+
+      for (Map.Entry<TypeElement, Set<ExecutableElement>> e : componentMethods.entrySet()) {
+         TypeElement type = e.getKey();
+         if (!isAccessible(type))
+            continue;
+
+         List<ExecutableElement> methods = new ArrayList<>(e.getValue().size());
+         for (ExecutableElement method : e.getValue()) {
+            if (isInvokable(method)) methods.add(method);
+         }
+         if (methods.isEmpty())
+            continue;
+
+         try {
+            writeAccessor(type, methods);
+         } catch (IOException ex) {
+            processingEnv.getMessager().printMessage(Diagnostic.Kind.ERROR,
+                  "Unable to generate component accessor: " + ex.getMessage(), type);
+         }
+      }
+      // Other processors may be interested in the same annotations
+      return false;
+   }
+
+   private void writeAccessor(TypeElement type, List<ExecutableElement> methods) throws IOException {
+      PackageElement pkg = processingEnv.getElementUtils().getPackageOf(type);
+      String packageName = pkg.isUnnamed() ? "" : pkg.getQualifiedName().toString();
+      String binaryName = processingEnv.getElementUtils().getBinaryName(type).toString();
+      String accessorName = binaryName.substring(packageName.isEmpty() ? 0 : packageName.length() + 1) + ACCESSOR_SUFFIX;
+      String typeName = type.getQualifiedName().toString();
+
+      JavaFileObject file = processingEnv.getFiler().createSourceFile(
+            packageName.isEmpty() ? accessorName : packageName + "." + accessorName, type);
+      try (PrintWriter w = new PrintWriter(file.openWriter())) {
+         if (!packageName.isEmpty()) {
+            w.printf("package %s;%n%n", packageName);
+         }
+         w.printf("/**%n * Accessor for the lifecycle methods of {@link %s}, generated by %s. Do not edit.%n */%n",
+               typeName, ComponentAccessorProcessor.class.getSimpleName());
+         w.printf("@SuppressWarnings({\"unchecked\", \"rawtypes\"})%n");
+         w.printf("public final class %s implements %s {%n", accessorName, ACCESSOR_INTERFACE);
+
+         w.printf("   private static final String[] METHODS = {%n");
+         for (ExecutableElement method : methods) {
+            w.printf("         \"%s\",%n", methodKey(method));
+         }
+         w.printf("   };%n%n");
+
+         w.printf("   @Override%n");
+         w.printf("   public String[] getMethods() {%n");
+         w.printf("      return METHODS.clone();%n");
+         w.printf("   }%n%n");
+
+         w.printf("   @Override%n");
+         w.printf("   public void invoke(int index, Object target, Object[] args) throws Throwable {%n");
+         w.printf("      switch (index) {%n");
+         for (int i = 0; i < methods.size(); i++) {
+            ExecutableElement method = methods.get(i);
+            w.printf("         case %d:%n", i);
+            w.printf("            ((%s) target).%s(", typeName, method.getSimpleName());
+            List<? extends VariableElement> parameters = method.getParameters();
+            for (int j = 0; j < parameters.size(); j++) {
+               if (j > 0) w.print(", ");
+               w.printf("(%s) args[%d]", castType(parameters.get(j).asType()), j);
+            }
+            w.printf(");%n");
+            w.printf("            return;%n");
+         }
+         w.printf("         default:%n");
+         w.printf("            throw new IllegalArgumentException(\"Unknown method index \" + index);%n");
+         w.printf("      }%n");
+         w.printf("   }%n");
+         w.printf("}%n");
+      }
+   }
+
+   /**
+    * The key must match the one computed at runtime from {@link java.lang.reflect.Method}: the method name followed by
+    * the comma-separated {@link Class#getName()} of each parameter type.
+    */
+   private String methodKey(ExecutableElement method) {
+      StringBuilder sb = new StringBuilder().append(method.getSimpleName()).append('(');
+      List<? extends VariableElement> parameters = method.getParameters();
+      for (int i = 0; i < parameters.size(); i++) {
+         if (i > 0) sb.append(',');
+         TypeMirror type = processingEnv.getTypeUtils().erasure(parameters.get(i).asType());
+         if (type.getKind().isPrimitive()) {
+            sb.append(type.toString());
+         } else {
+            TypeElement element = (TypeElement) ((DeclaredType) type).asElement();
+            sb.append(processingEnv.getElementUtils().getBinaryName(element));
+         }
+      }
+      return sb.append(')').toString();
+   }
+
+   private String castType(TypeMirror type) {
+      TypeMirror erased = processingEnv.getTypeUtils().erasure(type);
+      if (erased.getKind().isPrimitive()) {
+         return processingEnv.getTypeUtils().boxedClass((PrimitiveType) erased).getQualifiedName().toString();
+      }
+      return ((TypeElement) ((DeclaredType) erased).asElement()).getQualifiedName().toString();
+   }
+
+   private boolean isInvokable(ExecutableElement method) {
+      Set<Modifier> modifiers = method.getModifiers();
+      if (modifiers.contains(Modifier.PRIVATE) || modifiers.contains(Modifier.STATIC))
+         return false;
+      if (!method.getTypeParameters().isEmpty())
+         return false;
+      for (VariableElement parameter : method.getParameters()) {
+         TypeMirror type = processingEnv.getTypeUtils().erasure(parameter.asType());
+         if (type.getKind().isPrimitive())
+            continue;
+         if (type.getKind() != TypeKind.DECLARED || !isAccessible((TypeElement) ((DeclaredType) type).asElement()))
+            return false;
+      }
+      return true;
+   }
+
+   private boolean isAccessible(TypeElement type) {
+      Element current = type;
+      while (current instanceof TypeElement) {
+         TypeElement t = (TypeElement) current;
+         if (t.getNestingKind() != NestingKind.TOP_LEVEL && t.getNestingKind() != NestingKind.MEMBER)
+            return false;
+         if (t.getModifiers().contains(Modifier.PRIVATE))
+            return false;
+         current = t.getEnclosingElement();
+      }
+      return true;
+   }
+}
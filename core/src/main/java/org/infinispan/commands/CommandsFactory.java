@@ -19,11 +19,13 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
@@ -55,10 +57,15 @@
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.impl.KeyTrackingTerminalOperation;
+import org.infinispan.stream.impl.StreamIteratorCloseCommand;
+import org.infinispan.stream.impl.StreamIteratorNextCommand;
+import org.infinispan.stream.impl.StreamIteratorRequestCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
 import org.infinispan.stream.impl.StreamResponseCommand;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
+import org.infinispan.xsite.XSiteBatchCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
@@ -291,6 +298,13 @@ public interface CommandsFactory {
     */
    SingleRpcCommand buildSingleRpcCommand(ReplicableCommand call);
 
+   /**
+    * Builds a TxBatchCommand "envelope" containing the transaction commands sent to the same node
+    * @param commands the commands to include in the envelope
+    * @return a TxBatchCommand
+    */
+   TxBatchCommand buildTxBatchCommand(List<CacheRpcCommand> commands);
+
    /**
     * Builds a ClusteredGetCommand, which is a remote lookup command
     * @param key key to look up
@@ -441,6 +455,16 @@ public interface CommandsFactory {
     */
    SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command);
 
+   /**
+    * Builds XSiteBatchCommand used to apply a batch of modifications from an asynchronous replication log on the
+    * backup site.
+    * @param sequence the position of the batch in the replication log.
+    * @param payload the marshalled modifications, compressed if {@code uncompressedLength} is not {@code -1}.
+    * @param uncompressedLength the length of the marshalled modifications, or {@code -1} if not compressed.
+    * @return the XSiteBatchCommand created
+    */
+   XSiteBatchCommand buildXSiteBatchCommand(long sequence, byte[] payload, int uncompressedLength);
+
    /**
     * Builds {@link org.infinispan.commands.remote.GetKeysInGroupCommand} used to fetch all the keys belonging to a group.
     *
@@ -466,6 +490,37 @@ <K> StreamRequestCommand<K> buildStreamRequestCommand(Object id, boolean paralle
    <R> StreamResponseCommand<R> buildStreamResponseCommand(Object identifier, boolean complete, Set<Integer> lostSegments,
            R response);
 
+   /**
+    * Builds {@link StreamIteratorRequestCommand} used to start a pull based iteration on a remote node, which
+    * returns the first batch of entries.
+    * @param id the unique identifier for the iteration
+    * @param segments the segments to iterate over
+    * @param keys the keys to include, or {@code null} to include all of them
+    * @param excludedKeys the keys to exclude
+    * @param includeLoader whether or not a cache loader should be utilized
+    * @param terminalOperation the iterator operation
+    * @param batchSize the maximum number of entries of the first batch
+    * @param <K> the key type
+    * @return the command to start the iteration
+    */
+   <K> StreamIteratorRequestCommand<K> buildStreamIteratorRequestCommand(Object id, Set<Integer> segments, Set<K> keys,
+           Set<K> excludedKeys, boolean includeLoader, KeyTrackingTerminalOperation terminalOperation, int batchSize);
+
+   /**
+    * Builds {@link StreamIteratorNextCommand} used to retrieve the next batch of entries of a pull based iteration.
+    * @param id the unique identifier for the iteration
+    * @param batchSize the maximum number of entries of the batch
+    * @return the command to retrieve the next batch
+    */
+   StreamIteratorNextCommand buildStreamIteratorNextCommand(Object id, int batchSize);
+
+   /**
+    * Builds {@link StreamIteratorCloseCommand} used to release a pull based iteration on a remote node.
+    * @param id the unique identifier for the iteration
+    * @return the command to release the iteration
+    */
+   StreamIteratorCloseCommand buildStreamIteratorCloseCommand(Object id);
+
    <K, V, R> ReadOnlyKeyCommand<K, V, R> buildReadOnlyKeyCommand(K key, Function<ReadEntryView<K, V>, R> f);
 
    <K, V, R> ReadOnlyManyCommand<K, V, R> buildReadOnlyManyCommand(Set<? extends K> keys, Function<ReadEntryView<K, V>, R> f);
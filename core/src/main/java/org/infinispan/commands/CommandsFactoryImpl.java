@@ -21,11 +21,13 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
@@ -84,7 +86,11 @@
 import org.infinispan.statetransfer.StateResponseCommand;
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.stream.impl.ClusterStreamManager;
+import org.infinispan.stream.impl.KeyTrackingTerminalOperation;
 import org.infinispan.stream.impl.LocalStreamManager;
+import org.infinispan.stream.impl.StreamIteratorCloseCommand;
+import org.infinispan.stream.impl.StreamIteratorNextCommand;
+import org.infinispan.stream.impl.StreamIteratorRequestCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
 import org.infinispan.stream.impl.StreamResponseCommand;
 import org.infinispan.stream.impl.StreamSegmentResponseCommand;
@@ -100,6 +106,7 @@
 import org.infinispan.util.logging.LogFactory;
 import org.infinispan.xsite.BackupSender;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
+import org.infinispan.xsite.XSiteBatchCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
 import org.infinispan.xsite.statetransfer.XSiteStateConsumer;
@@ -115,6 +122,7 @@
 import java.util.Set;
 import java.util.UUID;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
 import java.util.function.BiConsumer;
 import java.util.function.BiFunction;
 import java.util.function.Consumer;
@@ -165,6 +173,7 @@ public class CommandsFactoryImpl implements CommandsFactory {
 
    private Map<Byte, ModuleCommandInitializer> moduleCommandInitializers;
    private ExternalizerTable externalizerTable;
+   private ExecutorService remoteExecutor;
 
    @Inject
    public void setupDependencies(DataContainer container, CacheNotifier<Object, Object> notifier, Cache<Object, Object> cache,
@@ -178,7 +187,8 @@ public void setupDependencies(DataContainer container, CacheNotifier<Object, Obj
                                  XSiteStateTransferManager xSiteStateTransferManager,
                                  GroupManager groupManager, PartitionHandlingManager partitionHandlingManager,
                                  LocalStreamManager localStreamManager, ClusterStreamManager clusterStreamManager,
-                                 ClusteringDependentLogic clusteringDependentLogic, ExternalizerTable externalizerTable) {
+                                 ClusteringDependentLogic clusteringDependentLogic, ExternalizerTable externalizerTable,
+                                 @ComponentName(KnownComponentNames.REMOTE_COMMAND_EXECUTOR) ExecutorService remoteExecutor) {
       this.dataContainer = container;
       this.notifier = notifier;
       this.cache = cache;
@@ -205,6 +215,7 @@ public void setupDependencies(DataContainer container, CacheNotifier<Object, Obj
       this.clusteringDependentLogic = clusteringDependentLogic;
       this.timeService = timeService;
       this.externalizerTable = externalizerTable;
+      this.remoteExecutor = remoteExecutor;
    }
 
    @Start(priority = 1)
@@ -330,6 +341,11 @@ public SingleRpcCommand buildSingleRpcCommand(ReplicableCommand call) {
       return new SingleRpcCommand(cacheName, call);
    }
 
+   @Override
+   public TxBatchCommand buildTxBatchCommand(List<CacheRpcCommand> commands) {
+      return new TxBatchCommand(cacheName, commands);
+   }
+
    @Override
    public ClusteredGetCommand buildClusteredGetCommand(Object key, long flagsBitSet, boolean acquireRemoteLock, GlobalTransaction gtx) {
       return new ClusteredGetCommand(key, cacheName, flagsBitSet, acquireRemoteLock, gtx,
@@ -494,7 +510,7 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
          case ClusteredGetAllCommand.COMMAND_ID:
             ClusteredGetAllCommand clusteredGetAllCommand = (ClusteredGetAllCommand) c;
             clusteredGetAllCommand.init(icf, this, entryFactory, interceptorChain, txTable,
-                  configuration.dataContainer().keyEquivalence());
+                  configuration.dataContainer().keyEquivalence(), distributionManager, remoteExecutor);
             break;
          case StreamRequestCommand.COMMAND_ID:
             StreamRequestCommand streamRequestCommand = (StreamRequestCommand) c;
@@ -508,6 +524,18 @@ public void initializeReplicableCommand(ReplicableCommand c, boolean isRemote) {
             StreamSegmentResponseCommand streamSegmentResponseCommand = (StreamSegmentResponseCommand) c;
             streamSegmentResponseCommand.inject(clusterStreamManager);
             break;
+         case StreamIteratorRequestCommand.COMMAND_ID:
+            StreamIteratorRequestCommand streamIteratorRequestCommand = (StreamIteratorRequestCommand) c;
+            streamIteratorRequestCommand.inject(localStreamManager);
+            break;
+         case StreamIteratorNextCommand.COMMAND_ID:
+            StreamIteratorNextCommand streamIteratorNextCommand = (StreamIteratorNextCommand) c;
+            streamIteratorNextCommand.inject(localStreamManager);
+            break;
+         case StreamIteratorCloseCommand.COMMAND_ID:
+            StreamIteratorCloseCommand streamIteratorCloseCommand = (StreamIteratorCloseCommand) c;
+            streamIteratorCloseCommand.inject(localStreamManager);
+            break;
          case RemoveExpiredCommand.COMMAND_ID:
             RemoveExpiredCommand removeExpiredCommand = (RemoveExpiredCommand) c;
             removeExpiredCommand.init(notifier, configuration);
@@ -624,6 +652,11 @@ public SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command
       return new SingleXSiteRpcCommand(cacheName, command);
    }
 
+   @Override
+   public XSiteBatchCommand buildXSiteBatchCommand(long sequence, byte[] payload, int uncompressedLength) {
+      return new XSiteBatchCommand(cacheName, sequence, payload, uncompressedLength);
+   }
+
    @Override
    public GetKeysInGroupCommand buildGetKeysInGroupCommand(long flagsBitSet, String groupName) {
       return new GetKeysInGroupCommand(flagsBitSet, groupName).setGroupManager(groupManager);
@@ -649,6 +682,24 @@ public <R> StreamResponseCommand<R> buildStreamResponseCommand(Object identifier
       }
    }
 
+   @Override
+   public <K> StreamIteratorRequestCommand<K> buildStreamIteratorRequestCommand(Object id, Set<Integer> segments,
+           Set<K> keys, Set<K> excludedKeys, boolean includeLoader, KeyTrackingTerminalOperation terminalOperation,
+           int batchSize) {
+      return new StreamIteratorRequestCommand<>(cacheName, cache.getCacheManager().getAddress(), id, segments, keys,
+              excludedKeys, includeLoader, terminalOperation, batchSize);
+   }
+
+   @Override
+   public StreamIteratorNextCommand buildStreamIteratorNextCommand(Object id, int batchSize) {
+      return new StreamIteratorNextCommand(cacheName, cache.getCacheManager().getAddress(), id, batchSize);
+   }
+
+   @Override
+   public StreamIteratorCloseCommand buildStreamIteratorCloseCommand(Object id) {
+      return new StreamIteratorCloseCommand(cacheName, cache.getCacheManager().getAddress(), id);
+   }
+
    @Override
    public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, long flagsBitSet) {
       return new GetCacheEntryCommand(key, flagsBitSet, entryFactory);
@@ -19,6 +19,7 @@
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
@@ -54,12 +55,16 @@
 import org.infinispan.manager.impl.ReplicableCommandRunnable;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.impl.StreamIteratorCloseCommand;
+import org.infinispan.stream.impl.StreamIteratorNextCommand;
+import org.infinispan.stream.impl.StreamIteratorRequestCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
 import org.infinispan.stream.impl.StreamResponseCommand;
 import org.infinispan.stream.impl.StreamSegmentResponseCommand;
 import org.infinispan.topology.CacheTopologyControlCommand;
 import org.infinispan.util.ByteString;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
+import org.infinispan.xsite.XSiteBatchCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
 import org.infinispan.xsite.statetransfer.XSiteStateTransferControlCommand;
@@ -242,6 +247,9 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case SingleRpcCommand.COMMAND_ID:
                command = new SingleRpcCommand(cacheName);
                break;
+            case TxBatchCommand.COMMAND_ID:
+               command = new TxBatchCommand(cacheName);
+               break;
             case ClusteredGetCommand.COMMAND_ID:
                command = new ClusteredGetCommand(cacheName);
                break;
@@ -287,6 +295,9 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case SingleXSiteRpcCommand.COMMAND_ID:
                command = new SingleXSiteRpcCommand(cacheName);
                break;
+            case XSiteBatchCommand.COMMAND_ID:
+               command = new XSiteBatchCommand(cacheName);
+               break;
             case ClusteredGetAllCommand.COMMAND_ID:
                command = new ClusteredGetAllCommand(cacheName);
                break;
@@ -299,6 +310,15 @@ public CacheRpcCommand fromStream(byte id, byte type, ByteString cacheName) {
             case StreamResponseCommand.COMMAND_ID:
                command = new StreamResponseCommand(cacheName);
                break;
+            case StreamIteratorRequestCommand.COMMAND_ID:
+               command = new StreamIteratorRequestCommand<>(cacheName);
+               break;
+            case StreamIteratorNextCommand.COMMAND_ID:
+               command = new StreamIteratorNextCommand(cacheName);
+               break;
+            case StreamIteratorCloseCommand.COMMAND_ID:
+               command = new StreamIteratorCloseCommand(cacheName);
+               break;
             default:
                throw new CacheException("Unknown command id " + id + "!");
          }
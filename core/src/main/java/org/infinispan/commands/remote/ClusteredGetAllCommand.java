@@ -6,6 +6,11 @@
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.control.LockControlCommand;
@@ -21,6 +26,8 @@
 import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.transaction.impl.TransactionTable;
 import org.infinispan.transaction.xa.GlobalTransaction;
@@ -39,6 +46,11 @@
    private static final Log log = LogFactory.getLog(ClusteredGetAllCommand.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   /**
+    * The minimum number of keys processed by each task when the keys are split to be processed in parallel.
+    */
+   private static final int MIN_KEYS_PER_TASK = 512;
+
    private List<?> keys;
    private GlobalTransaction gtx;
 
@@ -48,6 +60,8 @@
    private TransactionTable txTable;
    private InternalEntryFactory entryFactory;
    private Equivalence<? super K> keyEquivalence;
+   private DistributionManager distributionManager;
+   private ExecutorService remoteExecutor;
 
    ClusteredGetAllCommand() {
       super(null, EnumUtil.EMPTY_BIT_SET);
@@ -67,50 +81,126 @@ public ClusteredGetAllCommand(ByteString cacheName, List<?> keys, long flags,
 
    public void init(InvocationContextFactory icf, CommandsFactory commandsFactory,
          InternalEntryFactory entryFactory, InterceptorChain interceptorChain,
-         TransactionTable txTable, Equivalence<? super K> keyEquivalence) {
+         TransactionTable txTable, Equivalence<? super K> keyEquivalence,
+         DistributionManager distributionManager, ExecutorService remoteExecutor) {
       this.icf = icf;
       this.commandsFactory = commandsFactory;
       this.invoker = interceptorChain;
       this.txTable = txTable;
       this.entryFactory = entryFactory;
       this.keyEquivalence = keyEquivalence;
+      this.distributionManager = distributionManager;
+      this.remoteExecutor = remoteExecutor;
    }
 
-   @SuppressWarnings("unchecked")
    @Override
    public Object perform(InvocationContext ctx) throws Throwable {
       acquireLocksIfNeeded();
-      // make sure the get command doesn't perform a remote call
-      // as our caller is already calling the ClusteredGetCommand on all the relevant nodes
-      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, getFlagsBitSet(), true);
-      InvocationContext invocationContext = icf.createRemoteInvocationContextForCommand(command, getOrigin());
-      Map<K, CacheEntry<K, V>> map = (Map<K, CacheEntry<K, V>>) invoker.invoke(invocationContext, command);
-      if (trace) log.trace("Found: " + map);
-
+      int numTasks = Math.min(Runtime.getRuntime().availableProcessors(), keys.size() / MIN_KEYS_PER_TASK);
+      if (numTasks > 1 && distributionManager != null && remoteExecutor != null) {
+         return performParallel(numTasks);
+      }
+      Map<K, CacheEntry<K, V>> map = getAll(keys);
       if (map == null) {
          return null;
       }
 
       List<InternalCacheValue<V>> values = new ArrayList<>(keys.size());
       for (Object key : keys) {
-         if (map.containsKey(key)) {
-            CacheEntry<K, V> entry = map.get(key);
-            InternalCacheValue<V> value;
-            if (entry instanceof InternalCacheEntry) {
-               value = ((InternalCacheEntry<K, V>) entry).toInternalCacheValue();
-            } else if (entry != null) {
-               value = entryFactory.createValue(entry);
-            } else {
-               value = new ImmortalCacheValue(null);
+         values.add(toInternalCacheValue(map, key));
+      }
+      return values;
+   }
+
+   /**
+    * Splits the keys by segment and retrieves each part with a separate {@link GetAllCommand}. The parts are
+    * processed by the remote executor, but also by the current thread, so the keys are processed even if the
+    * executor doesn't have any free threads.
+    */
+   private List<InternalCacheValue<V>> performParallel(int numTasks) throws Throwable {
+      ConsistentHash ch = distributionManager.getReadConsistentHash();
+      List<List<Object>> taskKeys = new ArrayList<>(numTasks);
+      for (int i = 0; i < numTasks; i++) {
+         taskKeys.add(new ArrayList<>(keys.size() / numTasks + 1));
+      }
+      int[] keyTasks = new int[keys.size()];
+      for (int i = 0; i < keyTasks.length; i++) {
+         Object key = keys.get(i);
+         keyTasks[i] = ch.getSegment(key) % numTasks;
+         taskKeys.get(keyTasks[i]).add(key);
+      }
+
+      List<Map<K, CacheEntry<K, V>>> taskResults = new ArrayList<>(numTasks);
+      for (int i = 0; i < numTasks; i++) {
+         taskResults.add(null);
+      }
+      AtomicInteger nextTask = new AtomicInteger();
+      AtomicReference<Throwable> failure = new AtomicReference<>();
+      CountDownLatch completed = new CountDownLatch(numTasks);
+      Runnable worker = () -> {
+         int task;
+         while ((task = nextTask.getAndIncrement()) < numTasks) {
+            try {
+               // each task sets a different element, and the results are only read after all the tasks completed
+               taskResults.set(task, getAll(taskKeys.get(task)));
+            } catch (Throwable t) {
+               failure.compareAndSet(null, t);
+            } finally {
+               completed.countDown();
             }
-            values.add(value);
-         } else {
-            values.add(null);
          }
+      };
+      for (int i = 1; i < numTasks; i++) {
+         try {
+            remoteExecutor.execute(worker);
+         } catch (RejectedExecutionException e) {
+            // The remaining parts are processed by the current thread
+            break;
+         }
+      }
+      worker.run();
+      completed.await();
+      if (failure.get() != null) {
+         throw failure.get();
+      }
+
+      List<InternalCacheValue<V>> values = new ArrayList<>(keys.size());
+      for (int i = 0; i < keyTasks.length; i++) {
+         Map<K, CacheEntry<K, V>> map = taskResults.get(keyTasks[i]);
+         if (map == null) {
+            return null;
+         }
+         values.add(toInternalCacheValue(map, keys.get(i)));
       }
       return values;
    }
 
+   @SuppressWarnings("unchecked")
+   private Map<K, CacheEntry<K, V>> getAll(List<?> keys) throws Throwable {
+      // make sure the get command doesn't perform a remote call
+      // as our caller is already calling the ClusteredGetCommand on all the relevant nodes
+      GetAllCommand command = commandsFactory.buildGetAllCommand(keys, getFlagsBitSet(), true);
+      InvocationContext invocationContext = icf.createRemoteInvocationContextForCommand(command, getOrigin());
+      Map<K, CacheEntry<K, V>> map = (Map<K, CacheEntry<K, V>>) invoker.invoke(invocationContext, command);
+      if (trace) log.trace("Found: " + map);
+      return map;
+   }
+
+   @SuppressWarnings("unchecked")
+   private InternalCacheValue<V> toInternalCacheValue(Map<K, CacheEntry<K, V>> map, Object key) {
+      if (!map.containsKey(key)) {
+         return null;
+      }
+      CacheEntry<K, V> entry = map.get(key);
+      if (entry instanceof InternalCacheEntry) {
+         return ((InternalCacheEntry<K, V>) entry).toInternalCacheValue();
+      } else if (entry != null) {
+         return entryFactory.createValue(entry);
+      } else {
+         return new ImmortalCacheValue(null);
+      }
+   }
+
    private void acquireLocksIfNeeded() throws Throwable {
       if (hasFlag(Flag.FORCE_WRITE_LOCK)) {
          LockControlCommand lockControlCommand = commandsFactory.buildLockControlCommand(keys, getFlagsBitSet(), gtx);
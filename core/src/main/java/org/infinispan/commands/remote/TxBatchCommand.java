@@ -0,0 +1,85 @@
+package org.infinispan.commands.remote;
+
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.util.ByteString;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Carries the prepare and commit commands of several transactions that are sent to the same node within the commit
+ * batch window, see {@link org.infinispan.configuration.cache.TransactionConfigurationBuilder#batchWindow(long)}.
+ * <p>
+ * The receiver handles each command independently, like any other command received from the cluster, and replies
+ * with an array holding the {@link Response} of each command once all of them completed. This command is never
+ * performed on its own.
+ *
+ * @see org.infinispan.transaction.impl.TxCommandBatcher
+ * @since 9.0
+ */
+public class TxBatchCommand extends BaseRpcCommand {
+
+   public static final byte COMMAND_ID = 65;
+
+   private CacheRpcCommand[] commands;
+
+   private TxBatchCommand() {
+      super(null); // For command id uniqueness test
+   }
+
+   public TxBatchCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public TxBatchCommand(ByteString cacheName, List<CacheRpcCommand> commands) {
+      super(cacheName);
+      this.commands = commands.toArray(new CacheRpcCommand[commands.size()]);
+   }
+
+   public CacheRpcCommand[] getCommands() {
+      return commands;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new IllegalStateException("The commands of a batch are handled by the inbound invocation handler");
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      MarshallUtil.marshallArray(commands, output);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      commands = MarshallUtil.unmarshallArray(input, CacheRpcCommand[]::new);
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+
+   @Override
+   public String toString() {
+      return "TxBatchCommand{" +
+            "commands=" + (commands == null ? null : Arrays.asList(commands)) +
+            ", cacheName='" + cacheName + '\'' +
+            '}';
+   }
+}
@@ -55,6 +55,7 @@ public class PrepareCommand extends AbstractTransactionBoundaryCommand implement
    protected RecoveryManager recoveryManager;
    private transient boolean replayEntryWrapping  = false;
    protected boolean retriedCommand;
+   protected boolean forwardToBackups;
 
    private static final WriteCommand[] EMPTY_WRITE_COMMAND_ARRAY = new WriteCommand[0];
 
@@ -195,6 +196,7 @@ public void writeTo(ObjectOutput output) throws IOException {
       super.writeTo(output); //global tx
       output.writeBoolean(onePhaseCommit);
       output.writeBoolean(retriedCommand);
+      output.writeBoolean(forwardToBackups);
       MarshallUtil.marshallArray(modifications, output);
    }
 
@@ -203,6 +205,7 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
       super.readFrom(input);
       onePhaseCommit = input.readBoolean();
       retriedCommand = input.readBoolean();
+      forwardToBackups = input.readBoolean();
       modifications = MarshallUtil.unmarshallArray(input, WriteCommand[]::new);
    }
 
@@ -211,6 +214,7 @@ public PrepareCommand copy() {
       copy.globalTx = globalTx;
       copy.modifications = modifications == null ? null : modifications.clone();
       copy.onePhaseCommit = onePhaseCommit;
+      copy.forwardToBackups = forwardToBackups;
       return copy;
    }
 
@@ -220,6 +224,7 @@ public String toString() {
             "modifications=" + (modifications == null ? null : Arrays.asList(modifications)) +
             ", onePhaseCommit=" + onePhaseCommit +
             ", retried=" + retriedCommand +
+            ", forwardToBackups=" + forwardToBackups +
             ", " + super.toString();
    }
 
@@ -263,4 +268,20 @@ public boolean isRetriedCommand() {
    public void setRetriedCommand(boolean retriedCommand) {
       this.retriedCommand = retriedCommand;
    }
+
+   /**
+    * A one-phase prepare is only sent to the primary owner when all the keys of the transaction map to the same
+    * segment. The primary owner acquires the locks, validates the transaction and then replicates the modifications to
+    * the backup owners before committing.
+    */
+   public boolean isForwardToBackups() {
+      return forwardToBackups;
+   }
+
+   /**
+    * @see #isForwardToBackups()
+    */
+   public void setForwardToBackups(boolean forwardToBackups) {
+      this.forwardToBackups = forwardToBackups;
+   }
 }
@@ -72,6 +72,7 @@ public String toString() {
             "modifications=" + (modifications == null ? null : Arrays.asList(modifications)) +
             ", onePhaseCommit=" + onePhaseCommit +
             ", retried=" + retriedCommand +
+            ", forwardToBackups=" + forwardToBackups +
             ", versionsSeen=" + versionsSeen +
             ", gtx=" + globalTx +
             ", cacheName='" + cacheName + '\'' +
@@ -16,9 +16,13 @@ public class BackupConfiguration {
    public static final AttributeDefinition<String> FAILURE_POLICY_CLASS = AttributeDefinition.builder("failurePolicyClass", null, String.class).immutable().build();
    public static final AttributeDefinition<Boolean> USE_TWO_PHASE_COMMIT = AttributeDefinition.builder("useTwoPhaseCommit", false).immutable().build();
    public static final AttributeDefinition<Boolean> ENABLED = AttributeDefinition.builder("enabled", true).immutable().build();
+   public static final AttributeDefinition<Long> ASYNC_BATCH_WINDOW = AttributeDefinition.builder("asyncBatchWindow", 0l).xmlName("batch-window").immutable().build();
+   public static final AttributeDefinition<Integer> ASYNC_BATCH_SIZE = AttributeDefinition.builder("asyncBatchSize", 1024).xmlName("batch-size").immutable().build();
+   public static final AttributeDefinition<Boolean> ASYNC_COMPRESSION = AttributeDefinition.builder("asyncCompression", true).xmlName("compress").immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(BackupConfiguration.class, SITE, STRATEGY, REPLICATION_TIMEOUT, FAILURE_POLICY,  FAILURE_POLICY_CLASS, USE_TWO_PHASE_COMMIT, ENABLED);
+      return new AttributeSet(BackupConfiguration.class, SITE, STRATEGY, REPLICATION_TIMEOUT, FAILURE_POLICY,  FAILURE_POLICY_CLASS, USE_TWO_PHASE_COMMIT, ENABLED,
+            ASYNC_BATCH_WINDOW, ASYNC_BATCH_SIZE, ASYNC_COMPRESSION);
    }
 
    private final Attribute<String> site;
@@ -28,6 +32,9 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<String> failurePolicyClass;
    private final Attribute<Boolean> useTwoPhaseCommit;
    private final Attribute<Boolean> enabled;
+   private final Attribute<Long> asyncBatchWindow;
+   private final Attribute<Integer> asyncBatchSize;
+   private final Attribute<Boolean> asyncCompression;
    private final AttributeSet attributes;
    private final TakeOfflineConfiguration takeOfflineConfiguration;
    private final XSiteStateTransferConfiguration xSiteStateTransferConfiguration ;
@@ -43,6 +50,9 @@ public BackupConfiguration(AttributeSet attributes, TakeOfflineConfiguration tak
       this.failurePolicyClass = attributes.attribute(FAILURE_POLICY_CLASS);
       this.useTwoPhaseCommit = attributes.attribute(USE_TWO_PHASE_COMMIT);
       this.enabled = attributes.attribute(ENABLED);
+      this.asyncBatchWindow = attributes.attribute(ASYNC_BATCH_WINDOW);
+      this.asyncBatchSize = attributes.attribute(ASYNC_BATCH_SIZE);
+      this.asyncCompression = attributes.attribute(ASYNC_COMPRESSION);
    }
 
    /**
@@ -103,6 +113,34 @@ public boolean enabled() {
       return enabled.get();
    }
 
+   /**
+    * @see BackupConfigurationBuilder#asyncBatchWindow(long)
+    */
+   public long asyncBatchWindow() {
+      return asyncBatchWindow.get();
+   }
+
+   /**
+    * @return {@code true} if writes to this site are collected in a replication log and sent in batches.
+    */
+   public boolean isAsyncBatching() {
+      return isAsyncBackup() && asyncBatchWindow() > 0;
+   }
+
+   /**
+    * @see BackupConfigurationBuilder#asyncBatchSize(int)
+    */
+   public int asyncBatchSize() {
+      return asyncBatchSize.get();
+   }
+
+   /**
+    * @see BackupConfigurationBuilder#asyncCompression(boolean)
+    */
+   public boolean asyncCompression() {
+      return asyncCompression.get();
+   }
+
    public XSiteStateTransferConfiguration stateTransfer() {
       return xSiteStateTransferConfiguration;
    }
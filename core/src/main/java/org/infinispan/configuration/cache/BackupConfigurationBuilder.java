@@ -114,6 +114,34 @@ public BackupConfigurationBuilder enabled(boolean isEnabled) {
       return this;
    }
 
+   /**
+    * Only applies to {@link org.infinispan.configuration.cache.BackupConfiguration.BackupStrategy#ASYNC} backups. If
+    * greater than 0, writes are collected in a replication log for this many milliseconds before being sent to the site.
+    * Repeated updates to the same key within the window are coalesced, and batches are sent in order, each one waiting
+    * for the site's acknowledgement before the next is sent. Defaults to 0, i.e. every write is sent on its own.
+    */
+   public BackupConfigurationBuilder asyncBatchWindow(long asyncBatchWindow) {
+      attributes.attribute(ASYNC_BATCH_WINDOW).set(asyncBatchWindow);
+      return this;
+   }
+
+   /**
+    * The number of pending writes that triggers sending a batch before the {@link #asyncBatchWindow(long)} elapses.
+    * Defaults to 1024.
+    */
+   public BackupConfigurationBuilder asyncBatchSize(int asyncBatchSize) {
+      attributes.attribute(ASYNC_BATCH_SIZE).set(asyncBatchSize);
+      return this;
+   }
+
+   /**
+    * Whether the batches sent when {@link #asyncBatchWindow(long)} is enabled are compressed. Defaults to true.
+    */
+   public BackupConfigurationBuilder asyncCompression(boolean asyncCompression) {
+      attributes.attribute(ASYNC_COMPRESSION).set(asyncCompression);
+      return this;
+   }
+
    public XSiteStateTransferConfigurationBuilder stateTransfer() {
       return this.stateTransferBuilder;
    }
@@ -130,6 +158,16 @@ public void validate() {
       if (attributes.attribute(USE_TWO_PHASE_COMMIT).get() && attributes.attribute(STRATEGY).get() == BackupConfiguration.BackupStrategy.ASYNC) {
          throw log.twoPhaseCommitAsyncBackup();
       }
+      long batchWindow = attributes.attribute(ASYNC_BATCH_WINDOW).get();
+      if (batchWindow < 0) {
+         throw log.invalidBackupBatchWindow(attributes.attribute(SITE).get(), batchWindow);
+      }
+      if (batchWindow > 0 && attributes.attribute(STRATEGY).get() == BackupConfiguration.BackupStrategy.SYNC) {
+         throw log.batchWindowSyncBackup(attributes.attribute(SITE).get());
+      }
+      if (attributes.attribute(ASYNC_BATCH_SIZE).get() <= 0) {
+         throw log.invalidBackupBatchSize(attributes.attribute(SITE).get(), attributes.attribute(ASYNC_BATCH_SIZE).get());
+      }
    }
 
    @Override
@@ -0,0 +1,22 @@
+package org.infinispan.configuration.cache;
+
+/**
+ * The kind of an in-memory secondary index defined on a property of an entity, used to speed up queries on caches
+ * that are not indexed.
+ *
+ * @see IndexingConfigurationBuilder#addInMemoryIndex(String, String, InMemoryIndexType)
+ * @since 9.0
+ */
+public enum InMemoryIndexType {
+
+   /**
+    * A hash index, usable for equality and IN predicates.
+    */
+   HASH,
+
+   /**
+    * A sorted index, usable for range predicates in addition to equality and IN predicates. The property values must
+    * be {@link Comparable}.
+    */
+   SORTED
+}
@@ -7,7 +7,9 @@
 import org.infinispan.commons.configuration.attributes.AttributeSet;
 import org.infinispan.commons.util.TypedProperties;
 
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Map;
 import java.util.Set;
 
 /**
@@ -16,6 +18,7 @@
 public class IndexingConfiguration extends AbstractTypedPropertiesConfiguration {
    public static final AttributeDefinition<Index> INDEX = AttributeDefinition.builder("index", Index.NONE).immutable().build();
    public static final AttributeDefinition<Boolean> AUTO_CONFIG = AttributeDefinition.builder("autoConfig", false).immutable().build();
+   public static final AttributeDefinition<Integer> RESULT_CACHE_SIZE = AttributeDefinition.builder("resultCacheSize", 0).immutable().build();
    public static final AttributeDefinition<Set<Class<?>>> INDEXED_ENTITIES = AttributeDefinition.builder("indexed-entities", null, (Class<Set<Class<?>>>) (Class<?>) Set.class)
          .initializer(new AttributeInitializer<Set<Class<?>>>() {
             @Override
@@ -23,9 +26,16 @@ public Set<Class<?>> initialize() {
                return new HashSet<>(5);
             }
          }).immutable().build();
+   public static final AttributeDefinition<Map<String, Map<String, InMemoryIndexType>>> IN_MEMORY_INDEXES = AttributeDefinition.builder("in-memory-indexes", null, (Class<Map<String, Map<String, InMemoryIndexType>>>) (Class<?>) Map.class)
+         .initializer(new AttributeInitializer<Map<String, Map<String, InMemoryIndexType>>>() {
+            @Override
+            public Map<String, Map<String, InMemoryIndexType>> initialize() {
+               return new HashMap<>(5);
+            }
+         }).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(IndexingConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(), INDEX, AUTO_CONFIG, INDEXED_ENTITIES);
+      return new AttributeSet(IndexingConfiguration.class, AbstractTypedPropertiesConfiguration.attributeSet(), INDEX, AUTO_CONFIG, RESULT_CACHE_SIZE, INDEXED_ENTITIES, IN_MEMORY_INDEXES);
    }
 
    private static final String DIRECTORY_PROVIDER_KEY = "directory_provider";
@@ -33,13 +43,17 @@ static AttributeSet attributeDefinitionSet() {
 
    private final Attribute<Index> index;
    private final Attribute<Boolean> autoConfig;
+   private final Attribute<Integer> resultCacheSize;
    private final Attribute<Set<Class<?>>> indexedEntities;
+   private final Attribute<Map<String, Map<String, InMemoryIndexType>>> inMemoryIndexes;
 
    public IndexingConfiguration(AttributeSet attributes) {
       super(attributes);
       index = attributes.attribute(INDEX);
       autoConfig = attributes.attribute(AUTO_CONFIG);
+      resultCacheSize = attributes.attribute(RESULT_CACHE_SIZE);
       indexedEntities = attributes.attribute(INDEXED_ENTITIES);
+      inMemoryIndexes = attributes.attribute(IN_MEMORY_INDEXES);
    }
 
    /**
@@ -94,10 +108,26 @@ public boolean autoConfig() {
       return autoConfig.get();
    }
 
+   /**
+    * The maximum number of query results cached for this cache. Cached results are invalidated when a write could
+    * change them. 0 (the default) disables the query result cache.
+    */
+   public int resultCacheSize() {
+      return resultCacheSize.get();
+   }
+
    public Set<Class<?>> indexedEntities() {
       return indexedEntities.get();
    }
 
+   /**
+    * The in-memory secondary indexes, by entity name and then by property path (dot separated). These are used by
+    * queries that are not executed against a Lucene index.
+    */
+   public Map<String, Map<String, InMemoryIndexType>> inMemoryIndexes() {
+      return inMemoryIndexes.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -4,7 +4,11 @@
 import static org.infinispan.configuration.cache.IndexingConfiguration.AUTO_CONFIG;
 import static org.infinispan.configuration.cache.IndexingConfiguration.INDEX;
 import static org.infinispan.configuration.cache.IndexingConfiguration.INDEXED_ENTITIES;
+import static org.infinispan.configuration.cache.IndexingConfiguration.IN_MEMORY_INDEXES;
+import static org.infinispan.configuration.cache.IndexingConfiguration.RESULT_CACHE_SIZE;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
 
@@ -180,6 +184,22 @@ public boolean autoConfig() {
       return attributes.attribute(AUTO_CONFIG).get();
    }
 
+   /**
+    * Enables caching of query results, keeping at most the given number of results. A cached result is invalidated
+    * when a write of an entry that matched or now matches the query is performed. 0 (the default) disables the cache.
+    *
+    * @param resultCacheSize the maximum number of cached query results
+    * @return <code>this</code>, for method chaining
+    */
+   public IndexingConfigurationBuilder resultCacheSize(int resultCacheSize) {
+      attributes.attribute(RESULT_CACHE_SIZE).set(resultCacheSize);
+      return this;
+   }
+
+   public int resultCacheSize() {
+      return attributes.attribute(RESULT_CACHE_SIZE).get();
+   }
+
    public IndexingConfigurationBuilder addIndexedEntity(Class<?> indexedEntity) {
       Set<Class<?>> indexedEntities = indexedEntities();
       indexedEntities.add(indexedEntity);
@@ -191,6 +211,41 @@ Set<Class<?>> indexedEntities() {
       return attributes.attribute(INDEXED_ENTITIES).get();
    }
 
+   /**
+    * Defines an in-memory secondary index on a property of an entity. In-memory indexes are maintained on each node
+    * for the entries it stores and are used by queries that do not run against a Lucene index, to avoid scanning the
+    * whole cache when the query filters on the property with an equality, IN or, for {@link InMemoryIndexType#SORTED}
+    * indexes, a range predicate.
+    *
+    * @param entityName   the name of the entity type, i.e. the fully qualified class name for Java entities
+    * @param propertyPath the property path, nested properties being separated by dots
+    * @param type         the kind of index
+    * @return <code>this</code>, for method chaining
+    */
+   public IndexingConfigurationBuilder addInMemoryIndex(String entityName, String propertyPath, InMemoryIndexType type) {
+      if (entityName == null || propertyPath == null || type == null) {
+         throw new IllegalArgumentException("Entity name, property path and index type cannot be null");
+      }
+      Map<String, Map<String, InMemoryIndexType>> inMemoryIndexes = attributes.attribute(IN_MEMORY_INDEXES).get();
+      Map<String, InMemoryIndexType> entityIndexes = inMemoryIndexes.get(entityName);
+      if (entityIndexes == null) {
+         entityIndexes = new HashMap<>();
+         inMemoryIndexes.put(entityName, entityIndexes);
+      }
+      entityIndexes.put(propertyPath, type);
+      attributes.attribute(IN_MEMORY_INDEXES).set(inMemoryIndexes);
+      return this;
+   }
+
+   /**
+    * Defines an in-memory secondary index on a property of a Java entity.
+    *
+    * @see #addInMemoryIndex(String, String, InMemoryIndexType)
+    */
+   public IndexingConfigurationBuilder addInMemoryIndex(Class<?> entity, String propertyPath, InMemoryIndexType type) {
+      return addInMemoryIndex(entity.getName(), propertyPath, type);
+   }
+
    @Override
    public void validate() {
       if (enabled()) {
@@ -203,6 +258,9 @@ public void validate() {
             log.noIndexableClassesDefined();
          }
       }
+      if (resultCacheSize() < 0) {
+         throw log.invalidQueryResultCacheSize(resultCacheSize());
+      }
       //TODO [anistor] Infinispan 9 must not allow definition of indexed entities or properties if indexing not enabled
    }
 
@@ -16,14 +16,16 @@ public class L1Configuration {
    public static final AttributeDefinition<Integer> INVALIDATION_THRESHOLD = AttributeDefinition.builder("invalidationThreshold", 0).immutable().build();
    public static final AttributeDefinition<Long> LIFESPAN = AttributeDefinition.builder("lifespan", TimeUnit.MINUTES.toMillis(10)).immutable().build();
    public static final AttributeDefinition<Long> CLEANUP_TASK_FREQUENCY = AttributeDefinition.builder("cleanupTaskFrequency", TimeUnit.MINUTES.toMillis(1)).xmlName("l1-cleanup-interval").immutable().build();
+   public static final AttributeDefinition<Integer> HOT_KEYS = AttributeDefinition.builder("hotKeys", 0).xmlName("l1-hot-keys").immutable().build();
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(L1Configuration.class, ENABLED, INVALIDATION_THRESHOLD, LIFESPAN, CLEANUP_TASK_FREQUENCY);
+      return new AttributeSet(L1Configuration.class, ENABLED, INVALIDATION_THRESHOLD, LIFESPAN, CLEANUP_TASK_FREQUENCY, HOT_KEYS);
    }
 
    private final Attribute<Boolean> enabled;
    private final Attribute<Integer> invalidationThreshold;
    private final Attribute<Long> lifespan;
    private final Attribute<Long> cleanupTaskFrequency;
+   private final Attribute<Integer> hotKeys;
    private final AttributeSet attributes;
 
    L1Configuration(AttributeSet attributes) {
@@ -32,6 +34,7 @@ static AttributeSet attributeDefinitionSet() {
       invalidationThreshold = attributes.attribute(INVALIDATION_THRESHOLD);
       lifespan = attributes.attribute(LIFESPAN);
       cleanupTaskFrequency = attributes.attribute(CLEANUP_TASK_FREQUENCY);
+      hotKeys = attributes.attribute(HOT_KEYS);
    }
 
    public boolean enabled() {
@@ -71,6 +74,15 @@ public long lifespan() {
       return lifespan.get();
    }
 
+   /**
+    * Maximum number of keys tracked as frequently read. When positive, only the values of keys that are read often
+    * on this node are stored in the L1 cache, and the number of L1 entries never exceeds this value. When 0 (the
+    * default), every remotely retrieved value is stored in L1.
+    */
+   public int hotKeys() {
+      return hotKeys.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -75,6 +75,17 @@ public L1ConfigurationBuilder cleanupTaskFrequency(long frequencyMillis, TimeUni
       return cleanupTaskFrequency(unit.toMillis(frequencyMillis));
    }
 
+   /**
+    * Only store the values of frequently read keys in the L1 cache, keeping at most {@code hotKeys} entries. The
+    * access frequency of keys owned by other nodes is tracked locally, and a key is admitted once it was read at least
+    * twice while being tracked. Keys that are no longer among the most frequently read ones are removed from L1.
+    * A value of 0 (the default) stores every remotely retrieved value in L1.
+    */
+   public L1ConfigurationBuilder hotKeys(int hotKeys) {
+      attributes.attribute(HOT_KEYS).set(hotKeys);
+      return this;
+   }
+
    public L1ConfigurationBuilder enable() {
       attributes.attribute(ENABLED).set(true);
       return this;
@@ -99,6 +110,9 @@ public void validate() {
          if (attributes.attribute(LIFESPAN).get() < 1)
             throw log.l1InvalidLifespan();
 
+         if (attributes.attribute(HOT_KEYS).get() < 0)
+            throw log.l1InvalidHotKeys(attributes.attribute(HOT_KEYS).get());
+
       }
    }
 
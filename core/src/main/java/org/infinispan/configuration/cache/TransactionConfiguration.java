@@ -33,14 +33,17 @@ public class TransactionConfiguration {
    public static final AttributeDefinition<Boolean> USE_EAGER_LOCKING = AttributeDefinition.builder("eager-locking", false).build();
    public static final AttributeDefinition<Boolean> USE_SYNCHRONIZATION = AttributeDefinition.builder("synchronization", false).immutable().build();
    public static final AttributeDefinition<Boolean> USE_1_PC_FOR_AUTO_COMMIT_TRANSACTIONS = AttributeDefinition.builder("single-phase-auto-commit", false).build();
+   public static final AttributeDefinition<Boolean> USE_1_PC_FOR_SINGLE_OWNER_TRANSACTIONS = AttributeDefinition.builder("single-phase-single-owner", false).immutable().build();
    public static final AttributeDefinition<Long> REAPER_WAKE_UP_INTERVAL = AttributeDefinition.builder("reaper-wake-up-interval", 30000l).immutable().build();
    public static final AttributeDefinition<Long> COMPLETED_TX_TIMEOUT = AttributeDefinition.builder("complete-timeout", 60000l).immutable().build();
    public static final AttributeDefinition<TransactionProtocol> TRANSACTION_PROTOCOL = AttributeDefinition.builder("transaction-protocol", TransactionProtocol.DEFAULT).immutable().build();
    public static final AttributeDefinition<Boolean> NOTIFICATIONS = AttributeDefinition.builder("notifications", true).immutable().build();
+   public static final AttributeDefinition<Long> BATCH_WINDOW = AttributeDefinition.builder("batch-window", 0l).immutable().build();
+   public static final AttributeDefinition<Integer> BATCH_SIZE = AttributeDefinition.builder("batch-size", 64).immutable().build();
    static AttributeSet attributeDefinitionSet() {
       return new AttributeSet(TransactionConfiguration.class, AUTO_COMMIT, CACHE_STOP_TIMEOUT, EAGER_LOCKING_SINGLE_NODE, LOCKING_MODE, SYNC_COMMIT_PHASE, SYNC_ROLLBACK_PHASE,
             TRANSACTION_MANAGER_LOOKUP, TRANSACTION_SYNCHRONIZATION_REGISTRY_LOOKUP, TRANSACTION_MODE, USE_EAGER_LOCKING, USE_SYNCHRONIZATION, USE_1_PC_FOR_AUTO_COMMIT_TRANSACTIONS,
-            REAPER_WAKE_UP_INTERVAL, COMPLETED_TX_TIMEOUT, TRANSACTION_PROTOCOL, NOTIFICATIONS);
+            USE_1_PC_FOR_SINGLE_OWNER_TRANSACTIONS, REAPER_WAKE_UP_INTERVAL, COMPLETED_TX_TIMEOUT, TRANSACTION_PROTOCOL, NOTIFICATIONS, BATCH_WINDOW, BATCH_SIZE);
    }
 
    private final Attribute<Boolean> autoCommit;
@@ -55,10 +58,13 @@ static AttributeSet attributeDefinitionSet() {
    private final Attribute<Boolean> useEagerLocking;
    private final Attribute<Boolean> useSynchronization;
    private final Attribute<Boolean> use1PcForAutoCommitTransactions;
+   private final Attribute<Boolean> use1PcForSingleOwnerTransactions;
    private final Attribute<Long> reaperWakeUpInterval;
    private final Attribute<Long> completedTxTimeout;
    private final Attribute<TransactionProtocol> transactionProtocol;
    private final Attribute<Boolean> notifications;
+   private final Attribute<Long> batchWindow;
+   private final Attribute<Integer> batchSize;
    private final AttributeSet attributes;
    private final RecoveryConfiguration recovery;
 
@@ -76,10 +82,13 @@ static AttributeSet attributeDefinitionSet() {
       useEagerLocking = attributes.attribute(USE_EAGER_LOCKING);
       useSynchronization = attributes.attribute(USE_SYNCHRONIZATION);
       use1PcForAutoCommitTransactions = attributes.attribute(USE_1_PC_FOR_AUTO_COMMIT_TRANSACTIONS);
+      use1PcForSingleOwnerTransactions = attributes.attribute(USE_1_PC_FOR_SINGLE_OWNER_TRANSACTIONS);
       reaperWakeUpInterval = attributes.attribute(REAPER_WAKE_UP_INTERVAL);
       completedTxTimeout = attributes.attribute(COMPLETED_TX_TIMEOUT);
       transactionProtocol = attributes.attribute(TRANSACTION_PROTOCOL);
       notifications = attributes.attribute(NOTIFICATIONS);
+      batchWindow = attributes.attribute(BATCH_WINDOW);
+      batchSize = attributes.attribute(BATCH_SIZE);
       this.recovery = recovery;
    }
 
@@ -296,6 +305,13 @@ public boolean use1PcForAutoCommitTransactions() {
       return use1PcForAutoCommitTransactions.get();
    }
 
+   /**
+    * @see TransactionConfigurationBuilder#use1PcForSingleOwnerTransactions(boolean)
+    */
+   public boolean use1PcForSingleOwnerTransactions() {
+      return use1PcForSingleOwnerTransactions.get();
+   }
+
    /**
     * @return the transaction protocol in use (2PC or Total Order)
     */
@@ -312,6 +328,20 @@ public boolean notifications() {
       return notifications.get();
    }
 
+   /**
+    * @see TransactionConfigurationBuilder#batchWindow(long)
+    */
+   public long batchWindow() {
+      return batchWindow.get();
+   }
+
+   /**
+    * @see TransactionConfigurationBuilder#batchSize(int)
+    */
+   public int batchSize() {
+      return batchSize.get();
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
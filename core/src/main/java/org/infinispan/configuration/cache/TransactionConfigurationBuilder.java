@@ -238,6 +238,21 @@ public TransactionConfigurationBuilder use1PcForAutoCommitTransactions(boolean b
       return this;
    }
 
+   /**
+    * Commits the transactions whose keys all map to the same segment (e.g. because they belong to the same
+    * {@link org.infinispan.distribution.group.Group}) in a single phase, in optimistic distributed caches.
+    * <p/>
+    * The one-phase prepare is only sent to the primary owner, which acquires the locks, performs the write skew check
+    * and replicates the modifications to the backup owners, so the transaction needs 1 RPC instead of the 2 RPCs of a
+    * full 2 Phase Commit. Unlike {@link #use1PcForAutoCommitTransactions(boolean)}, the consistency guarantees are the
+    * same as with 2PC, but the cache no longer votes in the prepare phase of the transaction manager, so it should
+    * not be enabled if the transactions span other XA resources. Defaults to false.
+    */
+   public TransactionConfigurationBuilder use1PcForSingleOwnerTransactions(boolean b) {
+      attributes.attribute(USE_1_PC_FOR_SINGLE_OWNER_TRANSACTIONS).set(b);
+      return this;
+   }
+
    /**
     *The time interval (millis) at which the thread that cleans up transaction completion information kicks in. Defaults to 30000.
     */
@@ -278,6 +293,26 @@ public TransactionConfigurationBuilder notifications(boolean enabled) {
       return this;
    }
 
+   /**
+    * Only applies to optimistic transactions that don't use total order. If greater than 0, the prepare and commit
+    * commands sent to the same node within this many milliseconds are sent together in a single RPC. This trades
+    * some latency for fewer RPCs when many small transactions commit concurrently. Defaults to 0, i.e. each command is
+    * sent on its own.
+    */
+   public TransactionConfigurationBuilder batchWindow(long batchWindow) {
+      attributes.attribute(BATCH_WINDOW).set(batchWindow);
+      return this;
+   }
+
+   /**
+    * The number of commands that triggers sending a batch before the {@link #batchWindow(long)} elapses. Defaults to
+    * 64.
+    */
+   public TransactionConfigurationBuilder batchSize(int batchSize) {
+      attributes.attribute(BATCH_SIZE).set(batchSize);
+      return this;
+   }
+
    @Override
    public void validate() {
       Attribute<Long> reaperWakeUpInterval = attributes.attribute(REAPER_WAKE_UP_INTERVAL);
@@ -286,6 +321,10 @@ public void validate() {
          throw log.invalidReaperWakeUpInterval(reaperWakeUpInterval.get());
       if (completedTxTimeout.get() < 0)
          throw log.invalidCompletedTxTimeout(completedTxTimeout.get());
+      if (attributes.attribute(BATCH_WINDOW).get() < 0)
+         throw log.invalidTxBatchWindow(attributes.attribute(BATCH_WINDOW).get());
+      if (attributes.attribute(BATCH_SIZE).get() <= 0)
+         throw log.invalidTxBatchSize(attributes.attribute(BATCH_SIZE).get());
       if(attributes.attribute(TRANSACTION_PROTOCOL).get() == TransactionProtocol.TOTAL_ORDER) {
          //total order only supports transactional caches
          if(transactionMode() != TransactionMode.TRANSACTIONAL) {
@@ -15,15 +15,17 @@ public class SerializationConfiguration {
          .initializer(() -> new VersionAwareMarshaller()).immutable().build();
    public static final AttributeDefinition<Short> VERSION = AttributeDefinition.builder("version", Version.getMarshallVersion()).immutable().build();
    public static final AttributeDefinition<ClassResolver> CLASS_RESOLVER = AttributeDefinition.builder("classResolver", null, ClassResolver.class).immutable().build();
+   public static final AttributeDefinition<Boolean> COMPACT_COMMANDS = AttributeDefinition.builder("compactCommands", false).immutable().build();
 
    static AttributeSet attributeDefinitionSet() {
-      return new AttributeSet(SerializationConfiguration.class, MARSHALLER, VERSION, CLASS_RESOLVER);
+      return new AttributeSet(SerializationConfiguration.class, MARSHALLER, VERSION, CLASS_RESOLVER, COMPACT_COMMANDS);
    }
 
    private final Map<Integer, AdvancedExternalizer<?>> advancedExternalizers;
    private final ClassResolver classResolver;
    private final Marshaller marshaller;
    private final short version;
+   private final boolean compactCommands;
    private final AttributeSet attributes;
 
    SerializationConfiguration(AttributeSet attributes, Map<Integer, AdvancedExternalizer<?>> advancedExternalizers) {
@@ -31,6 +33,7 @@ static AttributeSet attributeDefinitionSet() {
       this.marshaller = attributes.attribute(MARSHALLER).get();
       this.version = attributes.attribute(VERSION).get();
       this.classResolver = attributes.attribute(CLASS_RESOLVER).get();
+      this.compactCommands = attributes.attribute(COMPACT_COMMANDS).get();
       this.advancedExternalizers = advancedExternalizers;
    }
 
@@ -50,6 +53,10 @@ public ClassResolver classResolver() {
       return classResolver;
    }
 
+   public boolean compactCommands() {
+      return compactCommands;
+   }
+
    public AttributeSet attributes() {
       return attributes;
    }
@@ -1,6 +1,7 @@
 package org.infinispan.configuration.global;
 
 import static org.infinispan.configuration.global.SerializationConfiguration.CLASS_RESOLVER;
+import static org.infinispan.configuration.global.SerializationConfiguration.COMPACT_COMMANDS;
 import static org.infinispan.configuration.global.SerializationConfiguration.MARSHALLER;
 import static org.infinispan.configuration.global.SerializationConfiguration.VERSION;
 
@@ -126,6 +127,19 @@ public SerializationConfigurationBuilder classResolver(ClassResolver classResolv
       return this;
    }
 
+   /**
+    * Whether the most frequent RPC commands and responses are marshalled with the compact encoding instead of JBoss
+    * Marshalling. Nodes running a version without the compact encoding can't read it, so it must only be enabled once
+    * all the nodes in the cluster have been upgraded. Compact encoded commands are always readable. Defaults to
+    * {@code false}.
+    *
+    * @param compactCommands
+    */
+   public SerializationConfigurationBuilder compactCommands(boolean compactCommands) {
+      attributes.attribute(COMPACT_COMMANDS).set(compactCommands);
+      return this;
+   }
+
    @Override
    public void validate() {
       // No-op, no validation required
@@ -26,12 +26,16 @@ public enum Attribute {
     AUTO_CONFIG("auto-config"),
     AWAIT_INITIAL_TRANSFER("await-initial-transfer"),
     BACKUP_FAILURE_POLICY("failure-policy"),
+    BATCH_SIZE("batch-size"),
+    BATCH_WINDOW("batch-window"),
     BEFORE("before"),
     CAPACITY_FACTOR("capacity"),
     CHUNK_SIZE("chunk-size"),
     CLASS("class"),
     CLUSTER("cluster"),
+    COMPACT_COMMANDS("compact-commands"),
     COMPLETED_TX_TIMEOUT("complete-timeout"),
+    COMPRESS("compress"),
     CONCURRENCY_LEVEL("concurrency-level"),
     CONFIGURATION("configuration"),
     CONSISTENT_HASH_FACTORY("consistent-hash-factory"),
@@ -39,6 +43,7 @@ public enum Attribute {
     DATA_CONTAINER("data-container"),
     DEFAULT_CACHE("default-cache"),
     ENABLED("enabled"),
+    ENTITY("entity"),
     EXECUTOR("executor"),
     @Deprecated
     EVICTION_EXECUTOR("eviction-executor"),
@@ -60,6 +65,7 @@ public enum Attribute {
     KEEP_ALIVE_TIME("keepalive-time"),
     KEY_EQUIVALENCE("key-equivalence"),
     KEY_PARTITIONER("key-partitioner"),
+    L1_HOT_KEYS("l1-hot-keys"),
     L1_LIFESPAN("l1-lifespan"),
     LIFESPAN("lifespan"),
     LISTENER_EXECUTOR("listener-executor"),
@@ -107,6 +113,7 @@ public enum Attribute {
     REMOTE_TIMEOUT("remote-timeout"),
     @Deprecated
     REPLICATION_QUEUE_EXECUTOR("replication-queue-executor"),
+    RESULT_CACHE_SIZE("result-cache-size"),
     ROLES("roles"),
     SEGMENTS("segments"),
     SHARED("shared"),
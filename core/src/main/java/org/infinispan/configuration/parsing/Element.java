@@ -48,6 +48,7 @@ public enum Element {
     INDEXED_ENTITIES("indexed-entities"),
     INDEXED_ENTITY("indexed-entity"),
     INDEXING("indexing"),
+    IN_MEMORY_INDEX("in-memory-index"),
     INTERCEPTOR("interceptor"),
     INVALIDATION_CACHE("invalidation-cache"),
     INVALIDATION_CACHE_CONFIGURATION("invalidation-cache-configuration"),
@@ -21,6 +21,7 @@
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
 import org.infinispan.configuration.cache.CustomStoreConfigurationBuilder;
+import org.infinispan.configuration.cache.InMemoryIndexType;
 import org.infinispan.configuration.cache.Index;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfigurationBuilder;
@@ -145,6 +146,10 @@ private void parseSerialization(final XMLExtendedStreamReader reader, final Conf
                builder.serialization().version(value);
                break;
             }
+            case COMPACT_COMMANDS: {
+               builder.serialization().compactCommands(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1281,6 +1286,18 @@ private void parseBackup(XMLExtendedStreamReader reader, ConfigurationBuilder bu
                backup.failurePolicyClass(value);
                break;
             }
+            case BATCH_WINDOW: {
+               backup.asyncBatchWindow(Long.parseLong(value));
+               break;
+            }
+            case BATCH_SIZE: {
+               backup.asyncBatchSize(Integer.parseInt(value));
+               break;
+            }
+            case COMPRESS: {
+               backup.asyncCompression(Boolean.parseBoolean(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1714,6 +1731,14 @@ protected void parseTransaction(XMLExtendedStreamReader reader, ConfigurationBui
                builder.transaction().notifications(Boolean.parseBoolean(value));
                break;
             }
+            case BATCH_WINDOW: {
+               builder.transaction().batchWindow(Long.parseLong(value));
+               break;
+            }
+            case BATCH_SIZE: {
+               builder.transaction().batchSize(Integer.parseInt(value));
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedAttribute(reader, i);
             }
@@ -1947,6 +1972,10 @@ private void parseDistributedCache(XMLExtendedStreamReader reader, Configuration
                builder.clustering().l1().cleanupTaskFrequency(Long.parseLong(value));
                break;
             }
+            case L1_HOT_KEYS: {
+               builder.clustering().l1().hotKeys(Integer.parseInt(value));
+               break;
+            }
             case CAPACITY_FACTOR: {
                builder.clustering().hash().capacityFactor(Float.parseFloat(value));
                break;
@@ -2329,6 +2358,9 @@ private void parseIndexing(final XMLExtendedStreamReader reader, final Configura
             case AUTO_CONFIG:
                builder.indexing().autoConfig(Boolean.valueOf(value));
                break;
+            case RESULT_CACHE_SIZE:
+               builder.indexing().resultCacheSize(Integer.parseInt(value));
+               break;
             default:
                throw ParseUtils.unexpectedAttribute(reader, i);
          }
@@ -2346,6 +2378,10 @@ private void parseIndexing(final XMLExtendedStreamReader reader, final Configura
                parseProperty(reader, indexingProperties);
                break;
             }
+            case IN_MEMORY_INDEX: {
+               parseInMemoryIndex(reader, builder);
+               break;
+            }
             default: {
                throw ParseUtils.unexpectedElement(reader);
             }
@@ -2354,6 +2390,32 @@ private void parseIndexing(final XMLExtendedStreamReader reader, final Configura
       builder.indexing().withProperties(indexingProperties);
    }
 
+   private void parseInMemoryIndex(XMLExtendedStreamReader reader, ConfigurationBuilder builder) throws XMLStreamException {
+      String[] attributes = ParseUtils.requireAttributes(reader, Attribute.ENTITY.getLocalName(), Attribute.PATH.getLocalName());
+      String entity = replaceProperties(attributes[0]);
+      String path = replaceProperties(attributes[1]);
+      InMemoryIndexType type = InMemoryIndexType.HASH;
+      for (int i = 0; i < reader.getAttributeCount(); i++) {
+         ParseUtils.requireNoNamespaceAttribute(reader, i);
+         String value = replaceProperties(reader.getAttributeValue(i));
+         Attribute attribute = Attribute.forName(reader.getAttributeLocalName(i));
+         switch (attribute) {
+            case ENTITY:
+            case PATH: {
+               // Already handled
+               break;
+            }
+            case TYPE:
+               type = InMemoryIndexType.valueOf(value);
+               break;
+            default:
+               throw ParseUtils.unexpectedAttribute(reader, i);
+         }
+      }
+      ParseUtils.requireNoContent(reader);
+      builder.indexing().addInMemoryIndex(entity, path, type);
+   }
+
    private void parseIndexedEntities(XMLExtendedStreamReader reader, ConfigurationBuilderHolder holder, ConfigurationBuilder builder) throws XMLStreamException {
       ParseUtils.requireNoAttributes(reader);
       while (reader.hasNext() && (reader.nextTag() != XMLStreamConstants.END_ELEMENT)) {
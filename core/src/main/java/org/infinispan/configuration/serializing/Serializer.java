@@ -20,6 +20,7 @@
 import org.infinispan.configuration.cache.CustomStoreConfiguration;
 import org.infinispan.configuration.cache.CustomStoreConfigurationBuilder;
 import org.infinispan.configuration.cache.DataContainerConfiguration;
+import org.infinispan.configuration.cache.InMemoryIndexType;
 import org.infinispan.configuration.cache.IndexingConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.JMXStatisticsConfiguration;
@@ -210,6 +211,7 @@ private void writeSerialization(XMLExtendedStreamWriter writer, GlobalConfigurat
          writer.writeStartElement(Element.SERIALIZATION);
          attributes.write(writer, SerializationConfiguration.MARSHALLER, Attribute.MARSHALLER_CLASS);
          attributes.write(writer, SerializationConfiguration.VERSION, Attribute.VERSION);
+         attributes.write(writer, SerializationConfiguration.COMPACT_COMMANDS, Attribute.COMPACT_COMMANDS);
          writeAdvancedSerializers(writer, globalConfiguration);
          writer.writeEndElement();
       }
@@ -251,6 +253,8 @@ private void writeTransaction(XMLExtendedStreamWriter writer, Configuration conf
          attributes.write(writer, TransactionConfiguration.LOCKING_MODE, Attribute.LOCKING);
          attributes.write(writer, TransactionConfiguration.REAPER_WAKE_UP_INTERVAL, Attribute.REAPER_WAKE_UP_INTERVAL);
          attributes.write(writer, TransactionConfiguration.TRANSACTION_PROTOCOL, Attribute.TRANSACTION_PROTOCOL);
+         attributes.write(writer, TransactionConfiguration.BATCH_WINDOW, Attribute.BATCH_WINDOW);
+         attributes.write(writer, TransactionConfiguration.BATCH_SIZE, Attribute.BATCH_SIZE);
          writer.writeEndElement();
       }
    }
@@ -338,7 +342,17 @@ private void writeIndexing(XMLExtendedStreamWriter writer, Configuration configu
          writer.writeStartElement(Element.INDEXING);
          attributes.write(writer, IndexingConfiguration.INDEX, Attribute.INDEX);
          attributes.write(writer, IndexingConfiguration.AUTO_CONFIG, Attribute.AUTO_CONFIG);
+         attributes.write(writer, IndexingConfiguration.RESULT_CACHE_SIZE, Attribute.RESULT_CACHE_SIZE);
          writeTypedProperties(writer, indexing.properties());
+         for (Map.Entry<String, Map<String, InMemoryIndexType>> entity : indexing.inMemoryIndexes().entrySet()) {
+            for (Map.Entry<String, InMemoryIndexType> property : entity.getValue().entrySet()) {
+               writer.writeStartElement(Element.IN_MEMORY_INDEX);
+               writer.writeAttribute(Attribute.ENTITY, entity.getKey());
+               writer.writeAttribute(Attribute.PATH, property.getKey());
+               writer.writeAttribute(Attribute.TYPE, property.getValue().name());
+               writer.writeEndElement();
+            }
+         }
          writer.writeEndElement();
       }
    }
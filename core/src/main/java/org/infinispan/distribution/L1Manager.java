@@ -26,6 +26,22 @@ public interface L1Manager {
 
    Future<?> flushCache(Collection<Object> key, Address origin, boolean assumeOriginKeptEntryInL1);
 
+   /**
+    * Records a read, originated on this node, of a key owned by other nodes, whether it is served from L1 or
+    * retrieved from its owners.
+    * @param key The key that is about to be read
+    * @return Whether the retrieved value may be stored in the L1 cache. Always {@code true} unless
+    *         {@link org.infinispan.configuration.cache.L1Configuration#hotKeys()} is configured.
+    */
+   boolean recordRemoteRead(Object key);
+
+   /**
+    * @param key A key owned by other nodes
+    * @return Whether a value for the given key may be stored in the L1 cache. Always {@code true} unless
+    *         {@link org.infinispan.configuration.cache.L1Configuration#hotKeys()} is configured.
+    */
+   boolean isL1Candidate(Object key);
+
    /**
     * Registers the given write synchronizer to be notified whenever a remote value is looked up for the given key.
     * If the synchronizer is no longer needed to be signaled, the user should unregister it using
@@ -123,6 +123,25 @@ default boolean isKeyLocalToNode(Address nodeAddress, Object key) {
     */
    int getSegment(Object key);
 
+   /**
+    * The keys of a group always map to the same segment, so they always have the same owners, in any topology.
+    *
+    * @return The hash space segment that all the keys map to, or {@code -1} if they map to different segments or
+    *         there are no keys.
+    */
+   default int getCommonSegment(Collection<?> keys) {
+      int commonSegment = -1;
+      for (Object key : keys) {
+         int segment = getSegment(key);
+         if (commonSegment == -1) {
+            commonSegment = segment;
+         } else if (segment != commonSegment) {
+            return -1;
+         }
+      }
+      return commonSegment;
+   }
+
    /**
     * @return All the nodes that own a given hash space segment, first address is the primary owner. The returned list is unmodifiable.
     */
@@ -0,0 +1,360 @@
+package org.infinispan.distribution.ch.impl;
+
+import org.infinispan.commons.hash.Hash;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.globalstate.ScopedPersistentState;
+import org.infinispan.marshall.core.Ids;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link ConsistentHashFactory} that balances the actual load of the members instead of the number of segments they
+ * own.
+ * <p>
+ * The members periodically report the size of the data and the number of operations of each segment to the
+ * coordinator, which aggregates them into a weight for each segment, see {@link #segmentWeights(long[], long[])}.
+ * A member's load is the sum of the weights of the segments it owns, divided by its capacity factor. When the most
+ * loaded member exceeds the average load by more than the rebalance threshold, the coordinator starts a rebalance,
+ * and {@link #rebalance(DefaultConsistentHash, double[])} moves segments from the most loaded members to the least
+ * loaded ones. It starts from the current consistent hash and stops as soon as the threshold is met, so the number of
+ * segments moved between rebalances is kept to a minimum.
+ * <p>
+ * Until the coordinator receives the segment statistics, the segments are balanced like with
+ * {@link DefaultConsistentHashFactory}.
+ *
+ * @since 9.0
+ */
+public class LoadAwareConsistentHashFactory implements ConsistentHashFactory<DefaultConsistentHash> {
+
+   private static final Log log = LogFactory.getLog(LoadAwareConsistentHashFactory.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   public static final float DEFAULT_REBALANCE_THRESHOLD = 1.2f;
+   public static final float DEFAULT_SIZE_WEIGHT = 0.5f;
+   public static final long DEFAULT_REPORT_INTERVAL = 60000;
+
+   // Even empty segments have a small weight, so they are still spread between the members
+   private static final double EMPTY_SEGMENT_WEIGHT = 0.01;
+
+   private final DefaultConsistentHashFactory delegate = new DefaultConsistentHashFactory();
+   private final float rebalanceThreshold;
+   private final float sizeWeight;
+   private final long reportInterval;
+
+   public LoadAwareConsistentHashFactory() {
+      this(DEFAULT_REBALANCE_THRESHOLD, DEFAULT_SIZE_WEIGHT, DEFAULT_REPORT_INTERVAL);
+   }
+
+   /**
+    * @param rebalanceThreshold the maximum ratio between the load of a member and the average load, must be greater
+    *                           than 1
+    * @param sizeWeight         how much the size of a segment counts compared to its operations, between 0 and 1
+    * @param reportInterval     the interval (millis) at which the members report the segment statistics
+    */
+   public LoadAwareConsistentHashFactory(float rebalanceThreshold, float sizeWeight, long reportInterval) {
+      if (rebalanceThreshold <= 1)
+         throw new IllegalArgumentException("The rebalance threshold must be greater than 1");
+      if (sizeWeight < 0 || sizeWeight > 1)
+         throw new IllegalArgumentException("The size weight must be between 0 and 1");
+      if (reportInterval <= 0)
+         throw new IllegalArgumentException("The report interval must be strictly positive");
+      this.rebalanceThreshold = rebalanceThreshold;
+      this.sizeWeight = sizeWeight;
+      this.reportInterval = reportInterval;
+   }
+
+   public float getRebalanceThreshold() {
+      return rebalanceThreshold;
+   }
+
+   public float getSizeWeight() {
+      return sizeWeight;
+   }
+
+   public long getReportInterval() {
+      return reportInterval;
+   }
+
+   @Override
+   public DefaultConsistentHash create(Hash hashFunction, int numOwners, int numSegments, List<Address> members,
+                                       Map<Address, Float> capacityFactors) {
+      return delegate.create(hashFunction, numOwners, numSegments, members, capacityFactors);
+   }
+
+   @Override
+   public DefaultConsistentHash fromPersistentState(ScopedPersistentState state) {
+      return delegate.fromPersistentState(state);
+   }
+
+   @Override
+   public DefaultConsistentHash updateMembers(DefaultConsistentHash baseCH, List<Address> newMembers,
+                                              Map<Address, Float> capacityFactors) {
+      return delegate.updateMembers(baseCH, newMembers, capacityFactors);
+   }
+
+   @Override
+   public DefaultConsistentHash rebalance(DefaultConsistentHash baseCH) {
+      return delegate.rebalance(baseCH);
+   }
+
+   @Override
+   public DefaultConsistentHash union(DefaultConsistentHash ch1, DefaultConsistentHash ch2) {
+      return delegate.union(ch1, ch2);
+   }
+
+   /**
+    * Combines the segment statistics into the weight of each segment. The weights of all the segments add up to 1.
+    *
+    * @param segmentSizes      the estimated size in bytes of each segment
+    * @param segmentOperations the number of operations on each segment since the previous report
+    */
+   public double[] segmentWeights(long[] segmentSizes, long[] segmentOperations) {
+      int numSegments = segmentSizes.length;
+      double totalSize = 0, totalOperations = 0;
+      for (int i = 0; i < numSegments; i++) {
+         totalSize += segmentSizes[i];
+         totalOperations += segmentOperations[i];
+      }
+      double sizeFactor = totalSize > 0 ? sizeWeight / totalSize : 0;
+      double operationsFactor = totalOperations > 0 ? (1 - sizeWeight) / totalOperations : 0;
+      double[] weights = new double[numSegments];
+      double totalWeight = 0;
+      for (int i = 0; i < numSegments; i++) {
+         weights[i] = segmentSizes[i] * sizeFactor + segmentOperations[i] * operationsFactor +
+               EMPTY_SEGMENT_WEIGHT / numSegments;
+         totalWeight += weights[i];
+      }
+      for (int i = 0; i < numSegments; i++) {
+         weights[i] /= totalWeight;
+      }
+      return weights;
+   }
+
+   /**
+    * Computes how well the load is balanced between the members of a consistent hash.
+    *
+    * @return the ratio between the load of the most loaded member and the average load, {@code 1} meaning a perfect
+    *         balance
+    */
+   public double getBalanceScore(DefaultConsistentHash ch, double[] segmentWeights) {
+      return new LoadBalancer(ch, segmentWeights).balanceScore();
+   }
+
+   /**
+    * Moves segments from the most loaded members to the least loaded ones, until the balance score is below the
+    * rebalance threshold. Segments that have fewer owners than required are assigned to the least loaded members first.
+    */
+   public DefaultConsistentHash rebalance(DefaultConsistentHash baseCH, double[] segmentWeights) {
+      if (segmentWeights == null || segmentWeights.length != baseCH.getNumSegments()) {
+         return rebalance(baseCH);
+      }
+      LoadBalancer balancer = new LoadBalancer(baseCH, segmentWeights);
+      balancer.addMissingOwners();
+      int moves = balancer.balance(rebalanceThreshold);
+      if (trace) log.tracef("Moved %d segment owners, balance score is %f", moves, balancer.balanceScore());
+      if (moves == 0 && !balancer.addedOwners) {
+         return baseCH;
+      }
+      return new DefaultConsistentHash(baseCH.getHashFunction(), baseCH.getNumOwners(), baseCH.getNumSegments(),
+                                       baseCH.getMembers(), baseCH.getCapacityFactors(), balancer.segmentOwners);
+   }
+
+   private static class LoadBalancer {
+      final int numOwners;
+      final List<Address> members;
+      final float[] capacities;
+      final double[] segmentWeights;
+      final List<Address>[] segmentOwners;
+      final double[] loads;
+      boolean addedOwners;
+
+      @SuppressWarnings("unchecked")
+      LoadBalancer(DefaultConsistentHash ch, double[] segmentWeights) {
+         this.numOwners = ch.getNumOwners();
+         this.members = ch.getMembers();
+         this.segmentWeights = segmentWeights;
+         Map<Address, Float> capacityFactors = ch.getCapacityFactors();
+         capacities = new float[members.size()];
+         for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = capacityFactors == null ? 1 : capacityFactors.get(members.get(i));
+         }
+         loads = new double[members.size()];
+         segmentOwners = new List[ch.getNumSegments()];
+         for (int segment = 0; segment < segmentOwners.length; segment++) {
+            segmentOwners[segment] = new ArrayList<>(ch.locateOwnersForSegment(segment));
+            for (Address owner : segmentOwners[segment]) {
+               loads[members.indexOf(owner)] += segmentWeights[segment];
+            }
+         }
+      }
+
+      double relativeLoad(int member) {
+         if (capacities[member] == 0) {
+            return loads[member] > 0 ? Double.POSITIVE_INFINITY : 0;
+         }
+         return loads[member] / capacities[member];
+      }
+
+      double averageLoad() {
+         double totalLoad = 0, totalCapacity = 0;
+         for (int i = 0; i < loads.length; i++) {
+            totalLoad += loads[i];
+            totalCapacity += capacities[i];
+         }
+         return totalCapacity > 0 ? totalLoad / totalCapacity : 0;
+      }
+
+      double balanceScore() {
+         double average = averageLoad();
+         if (average == 0) {
+            return 1;
+         }
+         double max = 0;
+         for (int i = 0; i < loads.length; i++) {
+            max = Math.max(max, relativeLoad(i));
+         }
+         return max / average;
+      }
+
+      int leastLoadedMember(List<Address> excluded) {
+         int best = -1;
+         for (int i = 0; i < loads.length; i++) {
+            if (capacities[i] > 0 && !excluded.contains(members.get(i)) &&
+                  (best < 0 || relativeLoad(i) < relativeLoad(best))) {
+               best = i;
+            }
+         }
+         return best;
+      }
+
+      void addMissingOwners() {
+         for (int segment = 0; segment < segmentOwners.length; segment++) {
+            List<Address> owners = segmentOwners[segment];
+            while (owners.size() < Math.min(numOwners, members.size())) {
+               int member = leastLoadedMember(owners);
+               if (member < 0)
+                  break;
+               owners.add(members.get(member));
+               loads[member] += segmentWeights[segment];
+               addedOwners = true;
+            }
+         }
+      }
+
+      /**
+       * @return the number of moved segment owners
+       */
+      int balance(float threshold) {
+         int moves = 0;
+         int maxMoves = segmentOwners.length * numOwners;
+         while (moves < maxMoves && balanceScore() > threshold) {
+            int mostLoaded = 0;
+            for (int i = 1; i < loads.length; i++) {
+               if (relativeLoad(i) > relativeLoad(mostLoaded)) {
+                  mostLoaded = i;
+               }
+            }
+            if (!moveSegment(mostLoaded)) {
+               break;
+            }
+            moves++;
+         }
+         return moves;
+      }
+
+      /**
+       * Moves the heaviest segment of {@code source} that doesn't make the target member more loaded than the source.
+       */
+      private boolean moveSegment(int source) {
+         Address sourceAddress = members.get(source);
+         double sourceLoad = relativeLoad(source);
+         int bestSegment = -1, bestTarget = -1;
+         for (int segment = 0; segment < segmentOwners.length; segment++) {
+            List<Address> owners = segmentOwners[segment];
+            if (!owners.contains(sourceAddress))
+               continue;
+            if (bestSegment >= 0 && segmentWeights[segment] <= segmentWeights[bestSegment])
+               continue;
+            int target = leastLoadedMember(owners);
+            if (target < 0)
+               continue;
+            double targetLoad = (loads[target] + segmentWeights[segment]) / capacities[target];
+            if (targetLoad < sourceLoad) {
+               bestSegment = segment;
+               bestTarget = target;
+            }
+         }
+         if (bestSegment < 0) {
+            return false;
+         }
+         List<Address> owners = segmentOwners[bestSegment];
+         // Keep the position, so a primary owner is replaced by a new primary owner
+         owners.set(owners.indexOf(sourceAddress), members.get(bestTarget));
+         loads[source] -= segmentWeights[bestSegment];
+         loads[bestTarget] += segmentWeights[bestSegment];
+         return true;
+      }
+   }
+
+   @Override
+   public boolean equals(Object other) {
+      if (other == null || other.getClass() != getClass())
+         return false;
+      LoadAwareConsistentHashFactory that = (LoadAwareConsistentHashFactory) other;
+      return rebalanceThreshold == that.rebalanceThreshold && sizeWeight == that.sizeWeight &&
+            reportInterval == that.reportInterval;
+   }
+
+   @Override
+   public int hashCode() {
+      int result = Float.floatToIntBits(rebalanceThreshold);
+      result = 31 * result + Float.floatToIntBits(sizeWeight);
+      result = 31 * result + (int) (reportInterval ^ (reportInterval >>> 32));
+      return result;
+   }
+
+   @Override
+   public String toString() {
+      return "LoadAwareConsistentHashFactory{" +
+            "rebalanceThreshold=" + rebalanceThreshold +
+            ", sizeWeight=" + sizeWeight +
+            ", reportInterval=" + reportInterval +
+            '}';
+   }
+
+   public static class Externalizer extends AbstractExternalizer<LoadAwareConsistentHashFactory> {
+
+      @Override
+      public void writeObject(ObjectOutput output, LoadAwareConsistentHashFactory chf) throws IOException {
+         output.writeFloat(chf.rebalanceThreshold);
+         output.writeFloat(chf.sizeWeight);
+         output.writeLong(chf.reportInterval);
+      }
+
+      @Override
+      public LoadAwareConsistentHashFactory readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         return new LoadAwareConsistentHashFactory(input.readFloat(), input.readFloat(), input.readLong());
+      }
+
+      @Override
+      public Integer getId() {
+         return Ids.LOAD_AWARE_CONSISTENT_HASH_FACTORY;
+      }
+
+      @Override
+      public Set<Class<? extends LoadAwareConsistentHashFactory>> getTypeClasses() {
+         return Collections.singleton(LoadAwareConsistentHashFactory.class);
+      }
+   }
+}
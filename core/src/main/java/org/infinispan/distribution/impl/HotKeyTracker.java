@@ -0,0 +1,151 @@
+package org.infinispan.distribution.impl;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.util.CollectionFactory;
+
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Tracks the most frequently read keys with the Space-Saving algorithm, using a fixed number of counters.
+ * <p>
+ * Every key with a read frequency higher than {@code 1/capacity} of all the reads is guaranteed to be tracked. A key
+ * that is not tracked replaces the tracked key with the lowest count and inherits its count as the estimation error,
+ * so a key is only considered hot once it was read at least {@code minReads} times since it started being tracked.
+ * <p>
+ * When a key stops being tracked, the eviction listener is invoked outside of the tracker's lock. Counts are halved on
+ * every {@link #decay()}, so keys that are no longer read are eventually replaced.
+ *
+ * @since 9.0
+ */
+final class HotKeyTracker {
+   private final int capacity;
+   private final int minReads;
+   private final Consumer<Object> evictionListener;
+   private final Map<Object, Counter> counters;
+   // min-heap on count, so the replacement candidate is always at index 0
+   private final Counter[] heap;
+   private int size;
+
+   HotKeyTracker(int capacity, int minReads, Equivalence<Object> keyEquivalence, Consumer<Object> evictionListener) {
+      if (capacity <= 0) {
+         throw new IllegalArgumentException("Capacity must be positive");
+      }
+      this.capacity = capacity;
+      this.minReads = minReads;
+      this.evictionListener = evictionListener;
+      this.counters = CollectionFactory.makeMap(capacity, keyEquivalence, AnyEquivalence.getInstance());
+      this.heap = new Counter[capacity];
+   }
+
+   /**
+    * Records a read of the given key.
+    *
+    * @return {@code true} if the key is hot after this read
+    */
+   boolean recordRead(Object key) {
+      Object evicted = null;
+      boolean hot;
+      synchronized (this) {
+         Counter counter = counters.get(key);
+         if (counter != null) {
+            counter.count++;
+            siftDown(counter.index);
+         } else if (size < capacity) {
+            counter = new Counter(key, 1, 0);
+            counters.put(key, counter);
+            counter.index = size;
+            heap[size++] = counter;
+            siftUp(counter.index);
+         } else {
+            Counter min = heap[0];
+            counters.remove(min.key);
+            evicted = min.key;
+            counter = new Counter(key, min.count + 1, min.count);
+            counters.put(key, counter);
+            counter.index = 0;
+            heap[0] = counter;
+            siftDown(0);
+         }
+         hot = counter.isHot(minReads);
+      }
+      if (evicted != null) {
+         evictionListener.accept(evicted);
+      }
+      return hot;
+   }
+
+   /**
+    * @return {@code true} if the key is tracked and was read at least {@code minReads} times
+    */
+   synchronized boolean isHot(Object key) {
+      Counter counter = counters.get(key);
+      return counter != null && counter.isHot(minReads);
+   }
+
+   /**
+    * Halves all the counts. Halving keeps the relative order, so the heap does not need to be rebuilt.
+    */
+   synchronized void decay() {
+      for (int i = 0; i < size; i++) {
+         heap[i].count >>>= 1;
+         heap[i].error >>>= 1;
+      }
+   }
+
+   synchronized int size() {
+      return size;
+   }
+
+   private void siftUp(int index) {
+      Counter counter = heap[index];
+      while (index > 0) {
+         int parent = (index - 1) >>> 1;
+         if (heap[parent].count <= counter.count)
+            break;
+         move(heap[parent], index);
+         index = parent;
+      }
+      move(counter, index);
+   }
+
+   private void siftDown(int index) {
+      Counter counter = heap[index];
+      int half = size >>> 1;
+      while (index < half) {
+         int child = 2 * index + 1;
+         int right = child + 1;
+         if (right < size && heap[right].count < heap[child].count) {
+            child = right;
+         }
+         if (counter.count <= heap[child].count)
+            break;
+         move(heap[child], index);
+         index = child;
+      }
+      move(counter, index);
+   }
+
+   private void move(Counter counter, int index) {
+      heap[index] = counter;
+      counter.index = index;
+   }
+
+   private static final class Counter {
+      final Object key;
+      long count;
+      long error;
+      int index;
+
+      Counter(Object key, long count, long error) {
+         this.key = key;
+         this.count = count;
+         this.error = error;
+      }
+
+      boolean isHot(int minReads) {
+         return count - error >= minReads;
+      }
+   }
+}
@@ -9,6 +9,8 @@
 import org.infinispan.factories.KnownComponentNames;
 import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.distribution.L1Manager;
 import org.infinispan.distribution.RemoteValueRetrievedListener;
 import org.infinispan.factories.annotations.Inject;
@@ -40,6 +42,10 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
 
    private static final Log log = LogFactory.getLog(L1ManagerImpl.class);
    private final boolean trace = log.isTraceEnabled();
+   /**
+    * Number of reads, since a key started being tracked, after which its value is admitted to the L1 cache
+    */
+   private static final int HOT_KEY_MIN_READS = 2;
 
    private Configuration configuration;
    private RpcManager rpcManager;
@@ -53,6 +59,10 @@ public class L1ManagerImpl implements L1Manager, RemoteValueRetrievedListener {
    private ScheduledExecutorService scheduledExecutor;
    private ScheduledFuture<?> scheduledRequestorsCleanupTask;
    private TimeService timeService;
+   private DataContainer<Object, Object> dataContainer;
+   private DistributionManager distributionManager;
+   // Only present if L1 is restricted to the most frequently read keys
+   private HotKeyTracker hotKeyTracker;
 
    private RpcOptions syncIgnoreLeaversRpcOptions;
 
@@ -64,18 +74,25 @@ public L1ManagerImpl() {
    @Inject
    public void init(Configuration configuration, RpcManager rpcManager, CommandsFactory commandsFactory,
                     @ComponentName(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR) ScheduledExecutorService scheduledExecutor,
-                    TimeService timeService) {
+                    TimeService timeService, DataContainer dataContainer, DistributionManager distributionManager) {
       this.rpcManager = rpcManager;
       this.commandsFactory = commandsFactory;
       this.configuration = configuration;
       this.scheduledExecutor = scheduledExecutor;
       this.timeService = timeService;
+      this.dataContainer = dataContainer;
+      this.distributionManager = distributionManager;
    }
 
    @Start (priority = 3)
    public void start() {
       this.threshold = configuration.clustering().l1().invalidationThreshold();
       this.l1Lifespan = configuration.clustering().l1().lifespan();
+      int hotKeys = configuration.clustering().l1().hotKeys();
+      if (configuration.clustering().l1().enabled() && hotKeys > 0) {
+         hotKeyTracker = new HotKeyTracker(hotKeys, HOT_KEY_MIN_READS,
+               configuration.dataContainer().keyEquivalence(), this::removeFromL1);
+      }
       if (configuration.clustering().l1().cleanupTaskFrequency() > 0) {
          scheduledRequestorsCleanupTask = scheduledExecutor.scheduleAtFixedRate(new Runnable() {
             @Override
@@ -99,6 +116,9 @@ public void stop() {
    }
 
    private void cleanUpRequestors() {
+      if (hotKeyTracker != null) {
+         hotKeyTracker.decay();
+      }
       long expiryTime = timeService.wallClockTime() - l1Lifespan;
       for (Map.Entry<Object, ConcurrentMap<Address, Long>> entry: requestors.entrySet()) {
          Object key = entry.getKey();
@@ -181,6 +201,29 @@ private Collection<Address> buildInvalidationAddressList(Collection<Object> keys
       return addresses;
    }
 
+   @Override
+   public boolean recordRemoteRead(Object key) {
+      return hotKeyTracker == null || hotKeyTracker.recordRead(key);
+   }
+
+   @Override
+   public boolean isL1Candidate(Object key) {
+      return hotKeyTracker == null || hotKeyTracker.isHot(key);
+   }
+
+   private void removeFromL1(Object key) {
+      // The node may have become an owner of the key in the meantime, so only entries it doesn't own are removed.
+      // Entries written by a non-owner with a lifespan shorter than the L1 lifespan are not L1Metadata entries, so
+      // the ownership is checked instead of isL1Entry().
+      dataContainer.compute(key, (k, oldEntry, factory) -> {
+         if (oldEntry != null && !distributionManager.getLocality(k).isLocal()) {
+            if (trace) log.tracef("Removing key %s from L1 as it is no longer frequently read", k);
+            return null;
+         }
+         return oldEntry;
+      });
+   }
+
    private boolean isUseMulticast(int nodes) {
       // User has requested unicast only
       if (threshold == -1) return false;
@@ -21,7 +21,6 @@
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
 import java.security.AccessController;
-import java.security.PrivilegedAction;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
 import java.util.Arrays;
@@ -36,8 +35,6 @@
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
 
-import static org.infinispan.commons.util.ReflectionUtil.invokeAccessibly;
-
 /**
  * A registry where components which have been created are stored.  Components are stored as singletons, registered
  * under a specific name.
@@ -246,11 +243,8 @@ private void invokeInjectionMethod(Object o, ComponentMetadata.InjectMetadata in
             boolean nameIsFQCN = !injectMetadata.isParameterNameSet(i);
             params[i] = getOrCreateComponent(dependencies[i], name, nameIsFQCN);
          }
-         if (System.getSecurityManager() == null) {
-            invokeAccessibly(o, injectMetadata.getMethod(), params);
-         } else {
-            AccessController.doPrivileged((PrivilegedAction<Object>) () -> invokeAccessibly(o, injectMetadata.getMethod(), params));
-         }
+         // the method was made accessible once when it was resolved, or is invoked through a generated accessor
+         injectMetadata.invoke(o, params);
       }
    }
 
@@ -861,7 +855,7 @@ public int hashCode() {
       }
 
       void invoke() {
-         invokeAccessibly(component.instance, metadata.getMethod(), null);
+         metadata.invoke(component.instance);
       }
 
       @Override
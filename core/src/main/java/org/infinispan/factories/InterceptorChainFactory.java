@@ -11,6 +11,7 @@
 import org.infinispan.configuration.cache.CustomInterceptorsConfiguration;
 import org.infinispan.configuration.cache.InterceptorConfiguration;
 import org.infinispan.configuration.cache.StoreConfiguration;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
 import org.infinispan.factories.annotations.DefaultFactoryFor;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.interceptors.SequentialInterceptor;
@@ -40,6 +41,7 @@
 import org.infinispan.interceptors.impl.IsMarshallableInterceptor;
 import org.infinispan.interceptors.impl.MarshalledValueInterceptor;
 import org.infinispan.interceptors.impl.NotificationInterceptor;
+import org.infinispan.interceptors.impl.SegmentLoadInterceptor;
 import org.infinispan.interceptors.impl.SequentialInterceptorChainImpl;
 import org.infinispan.interceptors.impl.TxInterceptor;
 import org.infinispan.interceptors.impl.VersionedEntryWrappingInterceptor;
@@ -152,6 +154,12 @@ public SequentialInterceptorChain buildInterceptorChain() {
          interceptorChain.appendInterceptor(createInterceptor(new CacheMgmtInterceptor(), CacheMgmtInterceptor.class), false);
       }
 
+      // collect the segment statistics used by the load-aware consistent hash
+      if (cacheMode.isDistributed() &&
+            configuration.clustering().hash().consistentHashFactory() instanceof LoadAwareConsistentHashFactory) {
+         interceptorChain.appendInterceptor(createInterceptor(new SegmentLoadInterceptor(), SegmentLoadInterceptor.class), false);
+      }
+
       // load the state transfer lock interceptor
       // the state transfer lock ensures that the cache member list is up-to-date
       // so it's necessary even if state transfer is disabled
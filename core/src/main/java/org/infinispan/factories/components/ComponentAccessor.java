@@ -0,0 +1,29 @@
+package org.infinispan.factories.components;
+
+/**
+ * Invokes the {@link org.infinispan.factories.annotations.Inject}, {@link org.infinispan.factories.annotations.Start}
+ * and {@link org.infinispan.factories.annotations.Stop} methods declared by a component class without reflection.
+ * <p>
+ * Implementations are generated at compile time by the {@code infinispan-component-processor} annotation processor
+ * and are named after the component class with a {@link ComponentAccessors#ACCESSOR_SUFFIX} suffix. Methods that the
+ * generated code cannot call (e.g. private methods) are not listed, and are still invoked reflectively.
+ *
+ * @since 9.0
+ * @see ComponentAccessors
+ */
+public interface ComponentAccessor {
+   /**
+    * @return the methods this accessor can invoke, in index order, each formatted as the method name followed by the
+    * comma separated {@link Class#getName()} of its parameter types in parentheses.
+    */
+   String[] getMethods();
+
+   /**
+    * Invokes a method on a component instance.
+    *
+    * @param index  the position of the method in {@link #getMethods()}
+    * @param target the component instance
+    * @param args   the method arguments
+    */
+   void invoke(int index, Object target, Object[] args) throws Throwable;
+}
@@ -0,0 +1,129 @@
+package org.infinispan.factories.components;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.security.AccessController;
+import java.security.PrivilegedAction;
+import java.util.Arrays;
+
+/**
+ * Locates the compile-time generated {@link ComponentAccessor}s and binds them to the methods described by the
+ * {@link ComponentMetadata}.
+ * <p>
+ * Lookups are cached per class, so the cost of loading an accessor (or of finding out that there is none) is paid once
+ * per component class rather than once per cache.
+ *
+ * @since 9.0
+ */
+public final class ComponentAccessors {
+   private static final Log log = LogFactory.getLog(ComponentAccessors.class);
+
+   public static final String ACCESSOR_SUFFIX = "$$Accessor";
+
+   private static final ClassValue<ComponentAccessor> ACCESSORS = new ClassValue<ComponentAccessor>() {
+      @Override
+      protected ComponentAccessor computeValue(Class<?> type) {
+         return loadAccessor(type);
+      }
+   };
+
+   private ComponentAccessors() {
+   }
+
+   /**
+    * @return the generated accessor for the methods declared by {@code clazz}, or {@code null} if there is none.
+    */
+   public static ComponentAccessor getAccessor(Class<?> clazz) {
+      return ACCESSORS.get(clazz);
+   }
+
+   /**
+    * Creates an invoker for a component method, using the generated accessor of the declaring class if it knows the
+    * method and reflection otherwise.
+    */
+   static MethodInvoker invokerFor(Method method) {
+      ComponentAccessor accessor = getAccessor(method.getDeclaringClass());
+      if (accessor != null) {
+         int index = Arrays.asList(accessor.getMethods()).indexOf(methodKey(method));
+         if (index >= 0) {
+            return new MethodInvoker(method, accessor, index);
+         }
+      }
+      if (System.getSecurityManager() == null) {
+         method.setAccessible(true);
+      } else {
+         AccessController.doPrivileged((PrivilegedAction<Void>) () -> {
+            method.setAccessible(true);
+            return null;
+         });
+      }
+      return new MethodInvoker(method, null, -1);
+   }
+
+   static String methodKey(Method method) {
+      StringBuilder sb = new StringBuilder().append(method.getName()).append('(');
+      Class<?>[] parameterTypes = method.getParameterTypes();
+      for (int i = 0; i < parameterTypes.length; i++) {
+         if (i > 0) sb.append(',');
+         sb.append(parameterTypes[i].getName());
+      }
+      return sb.append(')').toString();
+   }
+
+   private static ComponentAccessor loadAccessor(Class<?> type) {
+      ClassLoader classLoader = System.getSecurityManager() == null ? type.getClassLoader() :
+            AccessController.doPrivileged((PrivilegedAction<ClassLoader>) type::getClassLoader);
+      String accessorName = type.getName() + ACCESSOR_SUFFIX;
+      try {
+         Class<?> accessorClass = Class.forName(accessorName, true, classLoader);
+         return (ComponentAccessor) accessorClass.newInstance();
+      } catch (ClassNotFoundException | NoClassDefFoundError e) {
+         return null;
+      } catch (Exception e) {
+         log.debugf(e, "Unable to instantiate component accessor %s, falling back to reflection", accessorName);
+         return null;
+      }
+   }
+
+   /**
+    * Invokes a single component method, either through a generated {@link ComponentAccessor} or reflectively.
+    */
+   static final class MethodInvoker {
+      private final Method method;
+      private final ComponentAccessor accessor;
+      private final int index;
+
+      MethodInvoker(Method method, ComponentAccessor accessor, int index) {
+         this.method = method;
+         this.accessor = accessor;
+         this.index = index;
+      }
+
+      Method getMethod() {
+         return method;
+      }
+
+      boolean isGenerated() {
+         return accessor != null;
+      }
+
+      void invoke(Object target, Object[] params) {
+         try {
+            if (accessor != null) {
+               accessor.invoke(index, target, params);
+            } else {
+               method.invoke(target, params);
+            }
+         } catch (Throwable t) {
+            Throwable cause = t instanceof InvocationTargetException && t.getCause() != null ? t.getCause() : t;
+            throw new CacheException("Unable to invoke method " + method + " on object of type " +
+                  (target == null ? "null" : target.getClass().getSimpleName()) +
+                  (params != null ? " with parameters " + Arrays.asList(params) : ""), cause);
+         }
+      }
+   }
+}
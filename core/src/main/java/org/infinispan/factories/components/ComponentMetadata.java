@@ -188,7 +188,7 @@ public String toString() {
     */
    public static class PrioritizedMethodMetadata implements Serializable {
       String methodName;
-      transient Method method;
+      transient volatile ComponentAccessors.MethodInvoker invoker;
       int priority;
 
       public PrioritizedMethodMetadata(String methodName, int priority) {
@@ -201,11 +201,27 @@ public String getMethodName() {
       }
 
       public Method getMethod() {
-         return method;
+         ComponentAccessors.MethodInvoker invoker = this.invoker;
+         return invoker == null ? null : invoker.getMethod();
       }
 
       public void setMethod(Method method) {
-         this.method = method;
+         this.invoker = ComponentAccessors.invokerFor(method);
+      }
+
+      /**
+       * @return {@code true} if the method is invoked through a compile-time generated {@link ComponentAccessor}.
+       */
+      public boolean isAccessorGenerated() {
+         ComponentAccessors.MethodInvoker invoker = this.invoker;
+         return invoker != null && invoker.isGenerated();
+      }
+
+      /**
+       * Invokes the method on a component instance. {@link #setMethod(Method)} must have been called first.
+       */
+      public void invoke(Object target) {
+         invoker.invoke(target, null);
       }
 
       public int getPriority() {
@@ -222,7 +238,7 @@ public static class InjectMetadata implements Serializable {
       private static final long serialVersionUID = 4848856551345751894L;
 
       String methodName;
-      transient Method method;
+      transient ComponentAccessors.MethodInvoker invoker;
       String[] parameters;
       transient Class<?>[] parameterClasses;
       String[] parameterNames;
@@ -249,11 +265,29 @@ public boolean isParameterNameSet(int subscript) {
       }
       
       public synchronized Method getMethod() {
-         return method;
+         return invoker == null ? null : invoker.getMethod();
       }
 
       public synchronized void setMethod(Method method) {
-         this.method = method;
+         this.invoker = ComponentAccessors.invokerFor(method);
+      }
+
+      /**
+       * @return {@code true} if the method is invoked through a compile-time generated {@link ComponentAccessor}.
+       */
+      public synchronized boolean isAccessorGenerated() {
+         return invoker != null && invoker.isGenerated();
+      }
+
+      /**
+       * Invokes the method on a component instance. {@link #setMethod(Method)} must have been called first.
+       */
+      public void invoke(Object target, Object[] params) {
+         ComponentAccessors.MethodInvoker invoker;
+         synchronized (this) {
+            invoker = this.invoker;
+         }
+         invoker.invoke(target, params);
       }
 
       public synchronized Class<?>[] getParameterClasses() {
@@ -443,6 +443,12 @@ private static <K, V> MetaParams updateMetaParams(CacheEntry<K, V> entry, MetaPa
       // e.g. check if meta params exist and if so, merge, but also check for old metadata
       // information and merge it individually
 
+      if (metas.length == 1 && metas[0] instanceof MetaMetadata) {
+         // The caller provides the whole metadata
+         entry.setMetadata(((MetaMetadata) metas[0]).get());
+         return MetaParams.empty();
+      }
+
       if (metas.length != 0) {
          MetaParams metaParams = MetaParams.empty();
          metaParams.addMany(metas);
@@ -1,15 +1,19 @@
 package org.infinispan.functional.impl;
 
 import org.infinispan.AdvancedCache;
+import org.infinispan.cache.impl.DecoratedCache;
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commons.api.functional.FunctionalMap;
 import org.infinispan.commons.api.functional.Param;
 import org.infinispan.commons.api.functional.Status;
 import org.infinispan.commons.util.Experimental;
+import org.infinispan.context.Flag;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.lifecycle.ComponentStatus;
 
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.ExecutorService;
 
 import static org.infinispan.factories.KnownComponentNames.ASYNC_OPERATIONS_EXECUTOR;
@@ -24,6 +28,7 @@
 
    final Params params;
    final AdvancedCache<K, V> cache;
+   final Set<Flag> flags;
 
    public static <K, V> FunctionalMapImpl<K, V> create(Params params, AdvancedCache<K, V> cache) {
       return new FunctionalMapImpl<>(params, cache);
@@ -36,6 +41,9 @@ public static <K, V> FunctionalMapImpl<K, V> create(AdvancedCache<K, V> cache) {
    private FunctionalMapImpl(Params params, AdvancedCache<K, V> cache) {
       this.params = params;
       this.cache = cache;
+      // Commands built by the map honour the flags of the cache it was created from
+      this.flags = cache instanceof DecoratedCache
+            ? ((DecoratedCache<K, V>) cache).getFlags() : EnumSet.noneOf(Flag.class);
    }
 
    InvocationContextFactory invCtxFactory() {
@@ -0,0 +1,34 @@
+package org.infinispan.functional.impl;
+
+import org.infinispan.commons.api.functional.MetaParam;
+import org.infinispan.commons.util.Experimental;
+import org.infinispan.metadata.Metadata;
+
+/**
+ * Writable metadata parameter that replaces the metadata of the entry with the given {@link Metadata} instance.
+ *
+ * <p>Allows the modules that store their own {@link Metadata} implementation, e.g. the protocol servers, to update
+ * entries with the functional API without losing the information they keep in the metadata.
+ *
+ * @since 9.0
+ */
+@Experimental
+public final class MetaMetadata implements MetaParam.Writable<Metadata> {
+
+   private final Metadata metadata;
+
+   public MetaMetadata(Metadata metadata) {
+      this.metadata = metadata;
+   }
+
+   @Override
+   public Metadata get() {
+      return metadata;
+   }
+
+   @Override
+   public String toString() {
+      return "MetaMetadata=" + metadata;
+   }
+
+}
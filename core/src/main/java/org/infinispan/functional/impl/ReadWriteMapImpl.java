@@ -53,6 +53,7 @@ public <R> CompletableFuture<R> eval(K key, Function<ReadWriteEntryView<K, V>, R
       log.tracef("Invoked eval(k=%s, %s)", key, params);
       Param<FutureMode> futureMode = params.get(FutureMode.ID);
       ReadWriteKeyCommand cmd = fmap.cmdFactory().buildReadWriteKeyCommand(key, f, params);
+      cmd.addFlags(fmap.flags);
       InvocationContext ctx = fmap.invCtxFactory().createInvocationContext(true, 1);
       ctx.setLockOwner(cmd.getKeyLockOwner());
       return withFuture(futureMode, fmap.asyncExec(), () -> (R) fmap.chain().invoke(ctx, cmd));
@@ -63,6 +64,7 @@ public <R> CompletableFuture<R> eval(K key, V value, BiFunction<V, ReadWriteEntr
       log.tracef("Invoked eval(k=%s, v=%s, %s)", key, value, params);
       Param<FutureMode> futureMode = params.get(FutureMode.ID);
       ReadWriteKeyValueCommand cmd = fmap.cmdFactory().buildReadWriteKeyValueCommand(key, value, f, params);
+      cmd.addFlags(fmap.flags);
       InvocationContext ctx = fmap.invCtxFactory().createInvocationContext(true, 1);
       ctx.setLockOwner(cmd.getKeyLockOwner());
       return withFuture(futureMode, fmap.asyncExec(), () -> (R) fmap.chain().invoke(ctx, cmd));
@@ -72,6 +74,7 @@ public <R> CompletableFuture<R> eval(K key, V value, BiFunction<V, ReadWriteEntr
    public <R> Traversable<R> evalMany(Map<? extends K, ? extends V> entries, BiFunction<V, ReadWriteEntryView<K, V>, R> f) {
       log.tracef("Invoked evalMany(entries=%s, %s)", entries, params);
       ReadWriteManyEntriesCommand cmd = fmap.cmdFactory().buildReadWriteManyEntriesCommand(entries, f, params);
+      cmd.addFlags(fmap.flags);
       InvocationContext ctx = fmap.invCtxFactory().createInvocationContext(true, entries.size());
       return Traversables.of(((List<R>) fmap.chain().invoke(ctx, cmd)).stream());
    }
@@ -80,6 +83,7 @@ public <R> Traversable<R> evalMany(Map<? extends K, ? extends V> entries, BiFunc
    public <R> Traversable<R> evalMany(Set<? extends K> keys, Function<ReadWriteEntryView<K, V>, R> f) {
       log.tracef("Invoked evalMany(keys=%s, %s)", keys, params);
       ReadWriteManyCommand cmd = fmap.cmdFactory().buildReadWriteManyCommand(keys, f, params);
+      cmd.addFlags(fmap.flags);
       InvocationContext ctx = fmap.invCtxFactory().createInvocationContext(true, keys.size());
       return Traversables.of(((List<R>) fmap.chain().invoke(ctx, cmd)).stream());
    }
@@ -89,6 +93,7 @@ public <R> Traversable<R> evalAll(Function<ReadWriteEntryView<K, V>, R> f) {
       log.tracef("Invoked evalAll(%s)", params);
       CloseableIteratorSet<K> keys = fmap.cache.keySet();
       ReadWriteManyCommand cmd = fmap.cmdFactory().buildReadWriteManyCommand(keys, f, params);
+      cmd.addFlags(fmap.flags);
       InvocationContext ctx = fmap.invCtxFactory().createInvocationContext(true, keys.size());
       return Traversables.of(((List<R>) fmap.chain().invoke(ctx, cmd)).stream());
    }
@@ -1,7 +1,6 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.FlagAffectedCommand;
-import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.functional.ReadOnlyManyCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
 import org.infinispan.commands.read.GetAllCommand;
@@ -45,6 +44,7 @@
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.concurrent.CompletableFutures;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -56,6 +56,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.infinispan.commons.util.Util.toStr;
 
@@ -230,22 +231,47 @@ protected Map<Object, InternalCacheEntry> retrieveFromRemoteSources(Set<?> reque
          requestedKeysFromNode.add(key);
       }
 
-      Map<Address, ReplicableCommand> commands = new HashMap<>();
-      for (Map.Entry<Address, List<Object>> entry : ownerKeys.entrySet()) {
-         List<Object> keys = entry.getValue();
-         ClusteredGetAllCommand remoteGetAll = cf.buildClusteredGetAllCommand(keys, flagsBitSet, gtx);
-         commands.put(entry.getKey(), remoteGetAll);
-      }
-
       RpcOptionsBuilder rpcOptionsBuilder = rpcManager.getRpcOptionsBuilder(
             ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, DeliverOrder.NONE);
       RpcOptions options = rpcOptionsBuilder.build();
-      Map<Address, Response> responses = rpcManager.invokeRemotely(commands, options);
 
+      // Each owner's values are collected as soon as it responds, and an owner that failed because of a topology
+      // change only causes its own keys to be missing, so that only those keys are requested again on retry
       Map<Object, InternalCacheEntry> entries = new HashMap<>();
-      for (Map.Entry<Address, Response> entry : responses.entrySet()) {
-         updateWithValues(((ClusteredGetAllCommand) commands.get(entry.getKey())).getKeys(),
-               entry.getValue(), entries);
+      List<CompletableFuture<Throwable>> futures = new ArrayList<>(ownerKeys.size());
+      for (Map.Entry<Address, List<Object>> entry : ownerKeys.entrySet()) {
+         List<Object> keys = entry.getValue();
+         ClusteredGetAllCommand remoteGetAll = cf.buildClusteredGetAllCommand(keys, flagsBitSet, gtx);
+         futures.add(rpcManager.invokeRemotelyAsync(Collections.singleton(entry.getKey()), remoteGetAll, options)
+               .handle((responses, throwable) -> {
+                  if (throwable == null) {
+                     synchronized (entries) {
+                        for (Response response : responses.values()) {
+                           updateWithValues(keys, response, entries);
+                        }
+                     }
+                  }
+                  return throwable;
+               }));
+      }
+
+      for (CompletableFuture<Throwable> future : futures) {
+         Throwable throwable = CompletableFutures.await(future);
+         if (throwable instanceof CompletionException) {
+            throwable = throwable.getCause();
+         }
+         if (throwable != null) {
+            Throwable cause = throwable;
+            while (cause instanceof RemoteException) {
+               cause = cause.getCause();
+            }
+            if (!(cause instanceof OutdatedTopologyException) && !(cause instanceof SuspectException)) {
+               throw throwable;
+            }
+            if (trace) {
+               log.tracef(cause, "Failed to retrieve some of the keys %s, they will be retried", requestedKeys);
+            }
+         }
       }
 
       return entries;
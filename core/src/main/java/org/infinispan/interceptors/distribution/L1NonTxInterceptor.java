@@ -124,8 +124,11 @@ protected CompletableFuture<Void> performCommandWithL1WriteIfAble(InvocationCont
       Object returnValue;
       if (ctx.isOriginLocal()) {
          Object key = command.getKey();
+         // Reads served from L1 are recorded too, so that the keys read most frequently stay in L1
+         boolean l1Candidate = isLocalRead(command, key) || l1Manager.recordRemoteRead(key);
          // If the command isn't going to return a remote value - just pass it down the interceptor chain
-         if (skipL1Lookup(command, key)) {
+         // Keys that are not read frequently enough are not cached when L1 is restricted to hot keys
+         if (skipL1Lookup(command, key) || !l1Candidate) {
             returnValue = ctx.forkInvocationSync(command);
          } else {
             returnValue = performL1Lookup(ctx, shouldAlwaysRunNextInterceptor, key, command, isEntry);
@@ -201,6 +204,14 @@ protected Object performL1Lookup(InvocationContext ctx, boolean runInterceptorOn
       }
    }
 
+   /**
+    * @return {@code true} if the command reads the key from the local data container only, and not from L1 or
+    * from its owners
+    */
+   private boolean isLocalRead(LocalFlagAffectedCommand command, Object key) {
+      return command.hasFlag(Flag.CACHE_MODE_LOCAL) || cdl.localNodeIsOwner(key);
+   }
+
    protected boolean skipL1Lookup(LocalFlagAffectedCommand command, Object key) {
       return command.hasFlag(Flag.CACHE_MODE_LOCAL) || command.hasFlag(Flag.SKIP_REMOTE_LOOKUP)
             || command.hasFlag(Flag.IGNORE_RETURN_VALUES) || cdl.localNodeIsOwner(key)
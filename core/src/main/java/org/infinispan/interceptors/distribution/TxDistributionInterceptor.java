@@ -17,6 +17,7 @@
 import org.infinispan.commands.write.ValueMatcher;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.configuration.cache.Configurations;
+import org.infinispan.configuration.cache.TransactionConfiguration;
 import org.infinispan.container.EntryFactory;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.container.entries.InternalCacheEntry;
@@ -25,6 +26,9 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
@@ -37,16 +41,21 @@
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.OutdatedTopologyException;
 import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.TransactionProtocol;
 import org.infinispan.transaction.impl.LocalTransaction;
+import org.infinispan.transaction.impl.TxCommandBatcher;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static java.lang.String.format;
 import static org.infinispan.util.DeltaCompositeKeyUtil.filterDeltaCompositeKeys;
@@ -64,18 +73,32 @@ public class TxDistributionInterceptor extends BaseDistributionInterceptor {
 
    private PartitionHandlingManager partitionHandlingManager;
 
+   private ScheduledExecutorService timeoutExecutor;
+
    private boolean isPessimisticCache;
    private boolean useClusteredWriteSkewCheck;
+   private boolean useSingleOwnerCommit;
+   private TxCommandBatcher txCommandBatcher;
 
    @Inject
-   public void inject(PartitionHandlingManager partitionHandlingManager) {
+   public void inject(PartitionHandlingManager partitionHandlingManager,
+                      @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR) ScheduledExecutorService timeoutExecutor) {
       this.partitionHandlingManager = partitionHandlingManager;
+      this.timeoutExecutor = timeoutExecutor;
    }
 
    @Start
    public void start() {
-      isPessimisticCache = cacheConfiguration.transaction().lockingMode() == LockingMode.PESSIMISTIC;
+      TransactionConfiguration transaction = cacheConfiguration.transaction();
+      isPessimisticCache = transaction.lockingMode() == LockingMode.PESSIMISTIC;
       useClusteredWriteSkewCheck = Configurations.isVersioningEnabled(cacheConfiguration);
+      useSingleOwnerCommit = transaction.use1PcForSingleOwnerTransactions() && !isPessimisticCache
+            && !transaction.transactionProtocol().isTotalOrder() && cacheConfiguration.clustering().cacheMode().isDistributed();
+      if (transaction.batchWindow() > 0 && !isPessimisticCache
+            && transaction.transactionProtocol() != TransactionProtocol.TOTAL_ORDER) {
+         txCommandBatcher = new TxCommandBatcher(rpcManager, cf, timeoutExecutor, transaction.batchWindow(),
+                                                 transaction.batchSize());
+      }
    }
 
    @Override
@@ -170,8 +193,7 @@ public CompletableFuture<Void> visitLockControlCommand(TxInvocationContext ctx,
    public CompletableFuture<Void> visitCommitCommand(TxInvocationContext ctx, CommitCommand command) throws Throwable {
       if (shouldInvokeRemoteTxCommand(ctx)) {
          Collection<Address> recipients = getCommitNodes(ctx);
-         Map<Address, Response> responseMap =
-               rpcManager.invokeRemotely(recipients, command, createCommitRpcOptions());
+         Map<Address, Response> responseMap = invokeTxCommand(recipients, command, createCommitRpcOptions());
          checkTxCommandResponses(responseMap, command, (LocalTxInvocationContext) ctx, recipients);
       }
       return ctx.continueInvocation();
@@ -179,21 +201,97 @@ public CompletableFuture<Void> visitCommitCommand(TxInvocationContext ctx, Commi
 
    @Override
    public CompletableFuture<Void> visitPrepareCommand(TxInvocationContext ctx, PrepareCommand command) throws Throwable {
+      if (!ctx.isOriginLocal() && command.isForwardToBackups()) {
+         return handleSingleOwnerPrepare(ctx, command);
+      }
+
       Object retVal = ctx.forkInvocationSync(command);
 
       if (shouldInvokeRemoteTxCommand(ctx)) {
-         Collection<Address> recipients = cdl.getOwners(getAffectedKeysFromContext(ctx));
-         prepareOnAffectedNodes(ctx, command, recipients);
+         Collection<Object> affectedKeys = getAffectedKeysFromContext(ctx);
+         Collection<Address> recipients = cdl.getOwners(affectedKeys);
+         Address primaryOwner = getSingleOwnerCommitPrimary(command, affectedKeys);
+         // Reset on retry, the local node might have become the primary owner
+         command.setForwardToBackups(primaryOwner != null);
+         if (primaryOwner == null) {
+            prepareOnAffectedNodes(ctx, command, recipients);
+         } else if (primaryOwner.equals(rpcManager.getAddress())) {
+            // The transaction was already validated locally
+            try {
+               replicateToBackups(ctx, command, recipients, primaryOwner);
+            } finally {
+               transactionRemotelyPrepared(ctx);
+            }
+         } else {
+            prepareOnAffectedNodes(ctx, command, Collections.singleton(primaryOwner));
+         }
          ((LocalTxInvocationContext) ctx).remoteLocksAcquired(
                recipients == null ? dm.getWriteConsistentHash().getMembers() : recipients);
       }
       return ctx.shortCircuit(retVal);
    }
 
+   /**
+    * @return the primary owner that can commit the transaction in one phase, see {@link PrepareCommand#isForwardToBackups()},
+    *         or {@code null} if all the owners must receive the prepare.
+    */
+   private Address getSingleOwnerCommitPrimary(PrepareCommand command, Collection<Object> affectedKeys) {
+      if (!useSingleOwnerCommit || !command.isOnePhaseCommit() || affectedKeys == null) {
+         return null;
+      }
+      ConsistentHash ch = dm.getWriteConsistentHash();
+      int segment = ch.getCommonSegment(affectedKeys);
+      return segment < 0 ? null : ch.locatePrimaryOwnerForSegment(segment);
+   }
+
+   private CompletableFuture<Void> handleSingleOwnerPrepare(TxInvocationContext ctx, PrepareCommand command) throws Throwable {
+      Collection<Object> affectedKeys = filterDeltaCompositeKeys(command.getAffectedKeys());
+      ConsistentHash ch = dm.getWriteConsistentHash();
+      int segment = ch.getCommonSegment(affectedKeys);
+      if (segment < 0 || !rpcManager.getAddress().equals(ch.locatePrimaryOwnerForSegment(segment))) {
+         // The originator will retry with the primary owner in the new topology
+         throw new OutdatedTopologyException(format("Node %s is no longer the primary owner of the keys of %s",
+                                                    rpcManager.getAddress(), command.getGlobalTransaction()));
+      }
+
+      Object retVal = ctx.forkInvocationSync(command);
+
+      // The topology may have changed while the transaction was committed locally. The new owners that already
+      // received the segment missed the write, so the owners of the current topology receive it instead.
+      ch = dm.getWriteConsistentHash();
+      // The originator commits its own copy after it receives the response
+      List<Address> backups = new ArrayList<>(ch.locateOwnersForSegment(segment));
+      backups.remove(command.getGlobalTransaction().getAddress());
+      replicateToBackups(ctx, command, backups, rpcManager.getAddress());
+      return ctx.shortCircuit(retVal);
+   }
+
+   private void replicateToBackups(TxInvocationContext<?> ctx, PrepareCommand command, Collection<Address> owners,
+                                   Address primaryOwner) {
+      List<Address> backups = new ArrayList<>(owners);
+      backups.remove(primaryOwner);
+      if (backups.isEmpty()) {
+         return;
+      }
+      PrepareCommand backupCommand = buildBackupPrepareCommand(ctx, command);
+      // The backups are the owners in the current topology, an older topology id would only make them reply unsure
+      backupCommand.setTopologyId(Math.max(command.getTopologyId(),
+                                          stateTransferManager.getCacheTopology().getTopologyId()));
+      if (trace) log.tracef("Replicating one-phase prepare of %s to backup owners %s", command.getGlobalTransaction(), backups);
+      rpcManager.invokeRemotely(backups, backupCommand, createPrepareRpcOptions());
+   }
+
+   /**
+    * Creates the one-phase prepare the primary owner sends to the backup owners, once the transaction was validated.
+    */
+   protected PrepareCommand buildBackupPrepareCommand(TxInvocationContext<?> ctx, PrepareCommand command) {
+      return cf.buildPrepareCommand(command.getGlobalTransaction(), Arrays.asList(command.getModifications()), true);
+   }
+
    protected void prepareOnAffectedNodes(TxInvocationContext<?> ctx, PrepareCommand command, Collection<Address> recipients) {
       try {
          // this method will return immediately if we're the only member (because exclude_self=true)
-         Map<Address, Response> responseMap = rpcManager.invokeRemotely(recipients, command, createPrepareRpcOptions());
+         Map<Address, Response> responseMap = invokeTxCommand(recipients, command, createPrepareRpcOptions());
          checkTxCommandResponses(responseMap, command, (LocalTxInvocationContext) ctx, recipients);
       } finally {
          transactionRemotelyPrepared(ctx);
@@ -211,6 +309,17 @@ public CompletableFuture<Void> visitRollbackCommand(TxInvocationContext ctx, Rol
       return ctx.continueInvocation();
    }
 
+   /**
+    * Sends a prepare or commit command, batching it with the commands of other transactions if enabled.
+    */
+   protected Map<Address, Response> invokeTxCommand(Collection<Address> recipients, TransactionBoundaryCommand command,
+                                                    RpcOptions rpcOptions) {
+      if (txCommandBatcher != null) {
+         return txCommandBatcher.invokeRemotely(recipients, command, rpcOptions);
+      }
+      return rpcManager.invokeRemotely(recipients, command, rpcOptions);
+   }
+
    private Collection<Address> getCommitNodes(TxInvocationContext ctx) {
       LocalTransaction localTx = (LocalTransaction) ctx.getCacheTransaction();
       Collection<Address> affectedNodes = cdl.getOwners(getAffectedKeysFromContext(ctx));
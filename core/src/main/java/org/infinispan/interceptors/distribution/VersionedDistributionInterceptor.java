@@ -1,6 +1,7 @@
 package org.infinispan.interceptors.distribution;
 
 import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.VersionedPrepareCommand;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.remoting.responses.Response;
@@ -9,6 +10,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Map;
 
@@ -32,7 +34,7 @@ protected Log getLog() {
    protected void prepareOnAffectedNodes(TxInvocationContext<?> ctx, PrepareCommand command, Collection<Address> recipients) {
       // Perform the RPC
       try {
-         Map<Address, Response> resps = rpcManager.invokeRemotely(recipients, command, createPrepareRpcOptions());
+         Map<Address, Response> resps = invokeTxCommand(recipients, command, createPrepareRpcOptions());
          checkTxCommandResponses(resps, command, (LocalTxInvocationContext) ctx, recipients);
 
          // Now store newly generated versions from lock owners for use during the commit phase.
@@ -42,4 +44,13 @@ protected void prepareOnAffectedNodes(TxInvocationContext<?> ctx, PrepareCommand
          transactionRemotelyPrepared(ctx);
       }
    }
+
+   @Override
+   protected PrepareCommand buildBackupPrepareCommand(TxInvocationContext<?> ctx, PrepareCommand command) {
+      VersionedPrepareCommand backupCommand = cf.buildVersionedPrepareCommand(command.getGlobalTransaction(),
+                                                                              Arrays.asList(command.getModifications()), true);
+      // The backup owners don't perform the write skew check, they commit the versions generated by the primary owner
+      backupCommand.setVersionsSeen(ctx.getCacheTransaction().getUpdatedEntryVersions());
+      return backupCommand;
+   }
 }
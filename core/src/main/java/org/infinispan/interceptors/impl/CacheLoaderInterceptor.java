@@ -7,6 +7,8 @@
 import org.infinispan.commands.functional.ReadOnlyKeyCommand;
 import org.infinispan.commands.functional.ReadWriteKeyCommand;
 import org.infinispan.commands.functional.ReadWriteKeyValueCommand;
+import org.infinispan.commands.functional.ReadWriteManyCommand;
+import org.infinispan.commands.functional.ReadWriteManyEntriesCommand;
 import org.infinispan.commands.read.AbstractDataCommand;
 import org.infinispan.commands.read.EntrySetCommand;
 import org.infinispan.commands.read.GetAllCommand;
@@ -348,6 +350,28 @@ public CompletableFuture<Void> visitReadWriteKeyValueCommand(InvocationContext c
       return visitDataCommand(ctx, command);
    }
 
+   @Override
+   public CompletableFuture<Void> visitReadWriteManyCommand(InvocationContext ctx, ReadWriteManyCommand command)
+         throws Throwable {
+      return visitManyDataCommand(ctx, command, command.getKeys());
+   }
+
+   @Override
+   public CompletableFuture<Void> visitReadWriteManyEntriesCommand(InvocationContext ctx,
+         ReadWriteManyEntriesCommand command) throws Throwable {
+      return visitManyDataCommand(ctx, command, command.getKeys());
+   }
+
+   private CompletableFuture<Void> visitManyDataCommand(InvocationContext ctx, FlagAffectedCommand command,
+         Collection<?> keys) throws Throwable {
+      if (enabled) {
+         for (Object key : keys) {
+            loadIfNeeded(ctx, key, command);
+         }
+      }
+      return ctx.continueInvocation();
+   }
+
    protected final boolean isConditional(WriteCommand cmd) {
       return cmd.isConditional();
    }
@@ -0,0 +1,188 @@
+package org.infinispan.interceptors.impl;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.DataCommand;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.read.GetAllCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.PrimitiveEntrySizeCalculator;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.interceptors.DDSequentialInterceptor;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.topology.LocalTopologyManager;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Collects the number of operations on each segment owned by this node, and periodically reports them to the
+ * coordinator together with the estimated size of each segment.
+ * <p>
+ * Only used with the {@link LoadAwareConsistentHashFactory}, which uses the reports to balance the segments.
+ * <p>
+ * Estimating the segment sizes iterates over the whole data container, so the report is only triggered by the
+ * timeout executor and runs on the async operations executor.
+ *
+ * @since 9.0
+ */
+public class SegmentLoadInterceptor extends DDSequentialInterceptor {
+
+   private static final Log log = LogFactory.getLog(SegmentLoadInterceptor.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   // Used for the entries that PrimitiveEntrySizeCalculator can't handle
+   private static final long DEFAULT_ENTRY_SIZE = 128;
+
+   private final PrimitiveEntrySizeCalculator sizeCalculator = new PrimitiveEntrySizeCalculator();
+
+   private Cache<?, ?> cache;
+   private Configuration configuration;
+   private DistributionManager distributionManager;
+   private DataContainer<?, ?> dataContainer;
+   private RpcManager rpcManager;
+   private LocalTopologyManager localTopologyManager;
+   private ScheduledExecutorService timeoutExecutor;
+   private ExecutorService asyncExecutor;
+
+   private LongAdder[] segmentOperations;
+   private ScheduledFuture<?> reportTask;
+   // Set while a report is queued or running, so slow reports don't pile up in the async executor
+   private final AtomicBoolean reportInProgress = new AtomicBoolean();
+
+   @Inject
+   public void inject(Cache<?, ?> cache, Configuration configuration, DistributionManager distributionManager,
+                      DataContainer<?, ?> dataContainer, RpcManager rpcManager,
+                      LocalTopologyManager localTopologyManager,
+                      @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR) ScheduledExecutorService timeoutExecutor,
+                      @ComponentName(KnownComponentNames.ASYNC_OPERATIONS_EXECUTOR) ExecutorService asyncExecutor) {
+      this.cache = cache;
+      this.configuration = configuration;
+      this.distributionManager = distributionManager;
+      this.dataContainer = dataContainer;
+      this.rpcManager = rpcManager;
+      this.localTopologyManager = localTopologyManager;
+      this.timeoutExecutor = timeoutExecutor;
+      this.asyncExecutor = asyncExecutor;
+   }
+
+   @Start
+   public void start() {
+      segmentOperations = new LongAdder[configuration.clustering().hash().numSegments()];
+      for (int i = 0; i < segmentOperations.length; i++) {
+         segmentOperations[i] = new LongAdder();
+      }
+      long reportInterval = ((LoadAwareConsistentHashFactory) configuration.clustering().hash()
+            .consistentHashFactory()).getReportInterval();
+      reportTask = timeoutExecutor.scheduleWithFixedDelay(this::scheduleReport, reportInterval, reportInterval,
+                                                          TimeUnit.MILLISECONDS);
+   }
+
+   @Stop
+   public void stop() {
+      if (reportTask != null) {
+         reportTask.cancel(false);
+      }
+   }
+
+   @Override
+   protected CompletableFuture<Void> handleDefault(InvocationContext ctx, VisitableCommand command) throws Throwable {
+      ConsistentHash ch = distributionManager.getReadConsistentHash();
+      if (ch != null) {
+         if (command instanceof DataCommand) {
+            recordOperation(ch, ((DataCommand) command).getKey());
+         } else if (command instanceof GetAllCommand) {
+            recordOperations(ch, ((GetAllCommand) command).getKeys());
+         } else if (command instanceof WriteCommand) {
+            recordOperations(ch, ((WriteCommand) command).getAffectedKeys());
+         }
+      }
+      return ctx.continueInvocation();
+   }
+
+   private void recordOperations(ConsistentHash ch, Collection<?> keys) {
+      if (keys == null)
+         return;
+
+      for (Object key : keys) {
+         recordOperation(ch, key);
+      }
+   }
+
+   private void recordOperation(ConsistentHash ch, Object key) {
+      int segment = ch.getSegment(key);
+      // Only the owners do any work for the key
+      if (segment < segmentOperations.length && ch.isSegmentLocalToNode(rpcManager.getAddress(), segment)) {
+         segmentOperations[segment].increment();
+      }
+   }
+
+   private void scheduleReport() {
+      if (!reportInProgress.compareAndSet(false, true)) {
+         if (trace) log.tracef("Previous segment loads report for cache %s is still running, skipping", cache.getName());
+         return;
+      }
+      try {
+         asyncExecutor.execute(this::reportSegmentLoads);
+      } catch (RejectedExecutionException e) {
+         reportInProgress.set(false);
+         log.debugf(e, "Could not schedule the segment loads report for cache %s", cache.getName());
+      }
+   }
+
+   private void reportSegmentLoads() {
+      try {
+         ConsistentHash ch = distributionManager.getReadConsistentHash();
+         if (ch == null)
+            return;
+
+         Address localAddress = rpcManager.getAddress();
+         long[] sizes = new long[segmentOperations.length];
+         for (InternalCacheEntry<?, ?> entry : dataContainer) {
+            int segment = ch.getSegment(entry.getKey());
+            // Skip L1 entries and entries that were not removed yet after losing the segment
+            if (segment < sizes.length && ch.isSegmentLocalToNode(localAddress, segment)) {
+               sizes[segment] += estimateSize(entry);
+            }
+         }
+         long[] operations = new long[segmentOperations.length];
+         for (int i = 0; i < operations.length; i++) {
+            operations[i] = segmentOperations[i].sumThenReset();
+         }
+         if (trace) log.tracef("Reporting segment loads for cache %s", cache.getName());
+         localTopologyManager.updateSegmentLoads(cache.getName(), sizes, operations);
+      } catch (Throwable t) {
+         log.debugf(t, "Failed to report the segment loads for cache %s", cache.getName());
+      } finally {
+         reportInProgress.set(false);
+      }
+   }
+
+   private long estimateSize(InternalCacheEntry<?, ?> entry) {
+      try {
+         return sizeCalculator.calculateSize(entry.getKey(), entry.getValue());
+      } catch (IllegalArgumentException e) {
+         return DEFAULT_ENTRY_SIZE;
+      }
+   }
+}
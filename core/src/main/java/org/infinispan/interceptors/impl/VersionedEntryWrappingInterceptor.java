@@ -49,18 +49,20 @@ public CompletableFuture<Void> visitPrepareCommand(TxInvocationContext ctx, Prep
       }
       wrapEntriesForPrepare(ctx, command);
       EntryVersionsMap newVersionData= null;
-      if (ctx.isOriginLocal() && !ctx.getCacheTransaction().isFromStateTransfer()) {
+      // The primary owner of a one-phase transaction must validate it before replicating it to the backup owners
+      boolean checkBeforeInvocation = ctx.isOriginLocal() || command.isForwardToBackups();
+      if (checkBeforeInvocation && !ctx.getCacheTransaction().isFromStateTransfer()) {
          newVersionData =
                cdl.createNewVersionsAndCheckForWriteSkews(versionGenerator, ctx, versionedPrepareCommand);
       }
 
       Object retval = ctx.forkInvocationSync(command);
 
-      if (!ctx.isOriginLocal()) {
+      if (!checkBeforeInvocation) {
          newVersionData =
                cdl.createNewVersionsAndCheckForWriteSkews(versionGenerator, ctx, versionedPrepareCommand);
       }
-      if (command.isOnePhaseCommit()) {
+      if (command.isOnePhaseCommit() && !command.isForwardToBackups()) {
          ctx.getCacheTransaction().setUpdatedEntryVersions(versionedPrepareCommand.getVersionsSeen());
       }
 
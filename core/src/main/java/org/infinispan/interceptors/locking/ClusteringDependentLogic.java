@@ -18,6 +18,7 @@
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
 import org.infinispan.distribution.DistributionManager;
+import org.infinispan.distribution.L1Manager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.scopes.Scope;
 import org.infinispan.factories.scopes.Scopes;
@@ -455,14 +456,16 @@ class DistributionLogic extends AbstractClusteringDependentLogic {
       private Configuration configuration;
       private RpcManager rpcManager;
       private StateTransferLock stateTransferLock;
+      private L1Manager l1Manager;
 
       @Inject
       public void init(DistributionManager dm, Configuration configuration,
-                       RpcManager rpcManager, StateTransferLock stateTransferLock) {
+                       RpcManager rpcManager, StateTransferLock stateTransferLock, L1Manager l1Manager) {
          this.dm = dm;
          this.configuration = configuration;
          this.rpcManager = rpcManager;
          this.stateTransferLock = stateTransferLock;
+         this.l1Manager = l1Manager;
       }
 
       @Override
@@ -500,7 +503,7 @@ protected void commitSingleEntry(CacheEntry entry, Metadata metadata, FlagAffect
 
             boolean isForeignOwned = !skipOwnershipCheck && !localNodeIsOwner(entry.getKey());
             if (isForeignOwned && !entry.isRemoved()) {
-               if (configuration.clustering().l1().enabled()) {
+               if (configuration.clustering().l1().enabled() && l1Manager.isL1Candidate(entry.getKey())) {
                   // transform for L1
                   long lifespan;
                   if (metadata != null) {
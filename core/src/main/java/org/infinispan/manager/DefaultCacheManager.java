@@ -53,6 +53,7 @@
 import org.infinispan.util.ByteString;
 import org.infinispan.util.CyclicDependencyException;
 import org.infinispan.util.DependencyGraph;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
@@ -623,6 +624,8 @@ private <K, V> Cache<K, V> wireAndStartCache(String cacheName, String configurat
          }
 
          log.tracef("About to wire and start cache %s", cacheName);
+         TimeService timeService = globalComponentRegistry.getTimeService();
+         long startTime = timeService.time();
          Cache<K, V> cache = new InternalCacheFactory<K, V>().createCache(c, globalComponentRegistry, cacheName);
          ComponentRegistry cr = cache.getAdvancedCache().getComponentRegistry();
 
@@ -635,6 +638,7 @@ private <K, V> Cache<K, V> wireAndStartCache(String cacheName, String configurat
          // start the cache-level components
          cache.start();
          needToNotifyCacheStarted = notStartedYet && cr.getStatus() == ComponentStatus.RUNNING;
+         log.debugf("Cache %s wired and started in %d ms", cacheName, timeService.timeDuration(startTime, TimeUnit.MILLISECONDS));
          return cache;
       } finally {
          // allow other threads to access the cache
@@ -661,8 +665,11 @@ public void start() {
       if (globalConfiguration.security().authorization().enabled()) {
          globalConfiguration.security().authorization().principalRoleMapper().setContext(new PrincipalRoleMapperContextImpl(this));
       }
+      TimeService timeService = globalComponentRegistry.getTimeService();
+      long startTime = timeService.time();
       globalComponentRegistry.start();
-      log.debugf("Started cache manager %s on %s", clusterName, nodeName);
+      log.debugf("Started cache manager %s on %s in %d ms", clusterName, nodeName,
+            timeService.timeDuration(startTime, TimeUnit.MILLISECONDS));
    }
 
    private void terminate(String cacheName) {
@@ -0,0 +1,96 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commands.DataCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.MultipleRpcCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.container.entries.CacheEntry;
+import org.infinispan.container.entries.InternalCacheValue;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+
+import java.util.Map;
+
+/**
+ * Buffer sizing heuristic: computes how many bytes of raw {@code byte[]} keys and values an RPC command or response
+ * carries.
+ * <p>
+ * Remote (Hot Rod, REST, memcached) traffic stores keys and values as {@code byte[]}, whose serialized size is known
+ * before marshalling. Adding it to the per-type prediction of the command overhead makes the initial output buffer
+ * large enough in the common case, so a large value doesn't force the buffer to grow, copying the bytes written so far
+ * each time. It is only a lower bound of the marshalled size: the buffers are still allocated per call and are neither
+ * pooled nor sliced, and the payload is still copied into them.
+ * <p>
+ * This is the whole extent of the byte[] payload optimization. Writing the payloads by reference would need a
+ * gathering buffer, but a JGroups {@link org.jgroups.Message} only carries a single contiguous array, and the values
+ * read on the receiving side are stored as they are, so they can't be slices of the message buffer either.
+ *
+ * @since 9.0
+ */
+final class BytePayloadEstimator {
+
+   private BytePayloadEstimator() {
+   }
+
+   /**
+    * @return the sum of the lengths of the {@code byte[]} keys and values carried by {@code obj}, or {@code 0} if it
+    * does not carry any or its type is not known.
+    */
+   static int estimate(Object obj) {
+      if (obj instanceof SingleRpcCommand) {
+         return estimate(((SingleRpcCommand) obj).getCommand());
+      } else if (obj instanceof PutKeyValueCommand) {
+         PutKeyValueCommand cmd = (PutKeyValueCommand) obj;
+         return sizeOf(cmd.getKey()) + sizeOf(cmd.getValue());
+      } else if (obj instanceof ReplaceCommand) {
+         ReplaceCommand cmd = (ReplaceCommand) obj;
+         return sizeOf(cmd.getKey()) + sizeOf(cmd.getOldValue()) + sizeOf(cmd.getNewValue());
+      } else if (obj instanceof RemoveCommand) {
+         RemoveCommand cmd = (RemoveCommand) obj;
+         return sizeOf(cmd.getKey()) + sizeOf(cmd.getValue());
+      } else if (obj instanceof DataCommand) {
+         return sizeOf(((DataCommand) obj).getKey());
+      } else if (obj instanceof ClusteredGetCommand) {
+         return sizeOf(((ClusteredGetCommand) obj).getKey());
+      } else if (obj instanceof PutMapCommand) {
+         return sizeOf(((PutMapCommand) obj).getMap());
+      } else if (obj instanceof PrepareCommand) {
+         int size = 0;
+         for (Object modification : ((PrepareCommand) obj).getModifications()) {
+            size += estimate(modification);
+         }
+         return size;
+      } else if (obj instanceof MultipleRpcCommand) {
+         int size = 0;
+         for (Object command : ((MultipleRpcCommand) obj).getCommands()) {
+            size += estimate(command);
+         }
+         return size;
+      } else if (obj instanceof SuccessfulResponse) {
+         return sizeOf(((SuccessfulResponse) obj).getResponseValue());
+      }
+      return 0;
+   }
+
+   private static int sizeOf(Object o) {
+      if (o instanceof byte[]) {
+         return ((byte[]) o).length;
+      } else if (o instanceof InternalCacheValue) {
+         return sizeOf(((InternalCacheValue) o).getValue());
+      } else if (o instanceof CacheEntry) {
+         CacheEntry entry = (CacheEntry) o;
+         return sizeOf(entry.getKey()) + sizeOf(entry.getValue());
+      } else if (o instanceof Map) {
+         int size = 0;
+         for (Map.Entry<?, ?> e : ((Map<?, ?>) o).entrySet()) {
+            size += sizeOf(e.getKey()) + sizeOf(e.getValue());
+         }
+         return size;
+      }
+      return 0;
+   }
+}
@@ -0,0 +1,249 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.read.GetKeyValueCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.remote.recovery.TxCompletionNotificationCommand;
+import org.infinispan.commands.tx.CommitCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.tx.VersionedCommitCommand;
+import org.infinispan.commands.tx.VersionedPrepareCommand;
+import org.infinispan.commands.write.InvalidateCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.PutMapCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.ReplaceCommand;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.io.ByteBufferImpl;
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+import org.infinispan.commons.util.Util;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Compact, versioned binary encoding for the hot RPC commands and their responses, bypassing JBoss Marshalling.
+ * <p>
+ * A buffer in this format starts with {@link #MAGIC}, which can never be the first byte of a JBoss River stream, and a
+ * format {@link #VERSION} byte. Everything else is written straight into the output buffer by
+ * {@link CompactObjectOutput}, with varint encoded ints and longs and without River's stream header, class table and
+ * per-thread marshaller instances.
+ * <p>
+ * Commands are encoded with their own {@code writeTo}/{@code readFrom} methods, other objects with the internal
+ * {@link org.infinispan.commons.marshall.AdvancedExternalizer} registered in the {@link ExternalizerTable}. Only the
+ * types listed here are supported: as soon as a command references anything else (e.g. a user key or value that is
+ * not a {@code byte[]}, {@link String} or boxed primitive), encoding is abandoned and the caller falls back to the
+ * regular River based marshalling.
+ *
+ * @since 9.0
+ */
+final class CompactCommandMarshaller {
+   private static final Log log = LogFactory.getLog(CompactCommandMarshaller.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   static final byte MAGIC = (byte) 0xFE;
+   static final byte VERSION = 1;
+   static final int MAX_DEPTH = 32;
+
+   /**
+    * Thrown, without a stack trace, when an object cannot be written in the compact format.
+    */
+   static final IOException UNSUPPORTED = new UnsupportedTypeException();
+
+   private static final byte NULL = 0;
+   private static final byte BYTE_ARRAY = 1;
+   private static final byte STRING = 2;
+   private static final byte BOOLEAN = 3;
+   private static final byte INTEGER = 4;
+   private static final byte LONG = 5;
+   private static final byte COMMAND = 6;
+   private static final byte CACHE_RPC_COMMAND = 7;
+   private static final byte EXTERNALIZER = 8;
+
+   private static final Set<Class<? extends ReplicableCommand>> COMMANDS = Util.asSet(
+         SingleRpcCommand.class, PutKeyValueCommand.class, RemoveCommand.class, ReplaceCommand.class,
+         GetKeyValueCommand.class, PutMapCommand.class, InvalidateCommand.class, ClusteredGetCommand.class,
+         PrepareCommand.class, VersionedPrepareCommand.class, CommitCommand.class, VersionedCommitCommand.class,
+         RollbackCommand.class, TxCompletionNotificationCommand.class, StateResponseCommand.class);
+
+   private static final boolean[] EXTERNALIZERS = new boolean[Ids.MAX_ID];
+
+   static {
+      int[] ids = {
+            Ids.ARRAY_LIST, Ids.LINKED_LIST, Ids.MAPS, Ids.JDK_SETS, Ids.SINGLETON_LIST,
+            Ids.SUCCESSFUL_RESPONSE, Ids.UNSUCCESSFUL_RESPONSE, Ids.UNSURE_RESPONSE, Ids.REQUEST_IGNORED_RESPONSE,
+            Ids.CACHE_NOT_FOUND_RESPONSE,
+            Ids.IMMORTAL_ENTRY, Ids.MORTAL_ENTRY, Ids.TRANSIENT_ENTRY, Ids.TRANSIENT_MORTAL_ENTRY,
+            Ids.IMMORTAL_VALUE, Ids.MORTAL_VALUE, Ids.TRANSIENT_VALUE, Ids.TRANSIENT_MORTAL_VALUE,
+            Ids.METADATA_IMMORTAL_ENTRY, Ids.METADATA_MORTAL_ENTRY, Ids.METADATA_TRANSIENT_ENTRY,
+            Ids.METADATA_TRANSIENT_MORTAL_ENTRY, Ids.METADATA_IMMORTAL_VALUE, Ids.METADATA_MORTAL_VALUE,
+            Ids.METADATA_TRANSIENT_VALUE, Ids.METADATA_TRANSIENT_MORTAL_VALUE,
+            Ids.GLOBAL_TRANSACTION, Ids.JGROUPS_ADDRESS, Ids.JGROUPS_TOPOLOGY_AWARE_ADDRESS,
+            Ids.EMBEDDED_METADATA, Ids.NUMERIC_VERSION, Ids.SIMPLE_CLUSTERED_VERSION,
+            Ids.COMMAND_INVOCATION_ID, Ids.STATE_CHUNK, Ids.VALUE_MATCHER,
+      };
+      for (int id : ids) {
+         EXTERNALIZERS[id] = true;
+      }
+   }
+
+   private final ExternalizerTable externalizerTable;
+
+   CompactCommandMarshaller(ExternalizerTable externalizerTable) {
+      this.externalizerTable = externalizerTable;
+   }
+
+   /**
+    * @return {@code true} if {@code obj} is a top level RPC payload that may be encoded in the compact format.
+    */
+   static boolean isCandidate(Object obj) {
+      return obj instanceof Response || (obj != null && COMMANDS.contains(obj.getClass()));
+   }
+
+   /**
+    * @return {@code true} if the buffer was written by {@link #objectToBuffer(Object, int)}.
+    */
+   static boolean isCompact(byte[] buf, int offset, int length) {
+      return length > 1 && buf[offset] == MAGIC;
+   }
+
+   /**
+    * @return the encoded object, or {@code null} if it references a type not supported by the compact format.
+    */
+   ByteBuffer objectToBuffer(Object obj, int estimatedSize) {
+      ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
+      baos.write(MAGIC);
+      baos.write(VERSION);
+      try {
+         new CompactObjectOutput(this, baos).writeObject(obj);
+      } catch (IOException | RuntimeException e) {
+         if (trace) log.tracef("Falling back to stream marshalling for %s: %s", obj, e);
+         return null;
+      }
+      return new ByteBufferImpl(baos.getRawBuffer(), 0, baos.size());
+   }
+
+   Object objectFromByteBuffer(byte[] buf, int offset, int length) throws IOException, ClassNotFoundException {
+      byte version = buf[offset + 1];
+      if (version != VERSION) {
+         throw new IOException("Unsupported compact encoding version " + version);
+      }
+      return new CompactObjectInput(this, buf, offset + 2, length - 2).readObject();
+   }
+
+   void writeObject(CompactObjectOutput out, Object obj) throws IOException {
+      if (obj == null) {
+         out.writeByte(NULL);
+      } else if (obj instanceof byte[]) {
+         byte[] bytes = (byte[]) obj;
+         out.writeByte(BYTE_ARRAY);
+         out.writeVarInt(bytes.length);
+         out.write(bytes);
+      } else if (obj instanceof String) {
+         out.writeByte(STRING);
+         out.writeUTF((String) obj);
+      } else if (obj instanceof Boolean) {
+         out.writeByte(BOOLEAN);
+         out.writeBoolean((Boolean) obj);
+      } else if (obj instanceof Integer) {
+         out.writeByte(INTEGER);
+         out.writeInt((Integer) obj);
+      } else if (obj instanceof Long) {
+         out.writeByte(LONG);
+         out.writeLong((Long) obj);
+      } else if (COMMANDS.contains(obj.getClass())) {
+         ReplicableCommand command = (ReplicableCommand) obj;
+         if (command instanceof CacheRpcCommand) {
+            out.writeByte(CACHE_RPC_COMMAND);
+            out.writeByte(command.getCommandId());
+            ByteString.writeObject(out, ((CacheRpcCommand) command).getCacheName());
+         } else {
+            out.writeByte(COMMAND);
+            out.writeByte(command.getCommandId());
+         }
+         command.writeTo(out);
+         if (command instanceof TopologyAffectedCommand) {
+            out.writeInt(((TopologyAffectedCommand) command).getTopologyId());
+         }
+      } else {
+         ExternalizerTable.ExternalizerAdapter adapter = externalizerTable.getWriter(obj);
+         if (adapter == null || adapter.id < 0 || adapter.id >= EXTERNALIZERS.length || !EXTERNALIZERS[adapter.id]) {
+            throw UNSUPPORTED;
+         }
+         out.writeByte(EXTERNALIZER);
+         out.writeByte(adapter.id);
+         adapter.externalizer.writeObject(out, obj);
+      }
+   }
+
+   Object readObject(CompactObjectInput in) throws IOException, ClassNotFoundException {
+      byte tag = in.readByte();
+      switch (tag) {
+         case NULL:
+            return null;
+         case BYTE_ARRAY:
+            byte[] bytes = new byte[in.readVarInt()];
+            in.readFully(bytes);
+            return bytes;
+         case STRING:
+            return in.readUTF();
+         case BOOLEAN:
+            return in.readBoolean();
+         case INTEGER:
+            return in.readInt();
+         case LONG:
+            return in.readLong();
+         case COMMAND: {
+            ReplicableCommand command = externalizerTable.getCommandsFactory().fromStream(in.readByte(), (byte) 0);
+            readCommandParameters(in, command);
+            return command;
+         }
+         case CACHE_RPC_COMMAND: {
+            byte id = in.readByte();
+            ByteString cacheName = ByteString.readObject(in);
+            CacheRpcCommand command = externalizerTable.getCommandsFactory().fromStream(id, (byte) 0, cacheName);
+            readCommandParameters(in, command);
+            return command;
+         }
+         case EXTERNALIZER: {
+            int id = in.readUnsignedByte();
+            ExternalizerTable.ExternalizerAdapter adapter = id < EXTERNALIZERS.length && EXTERNALIZERS[id] ?
+                  externalizerTable.getReader(id) : null;
+            if (adapter == null) {
+               throw new IOException("Unknown externalizer id " + id + " in compact encoded buffer");
+            }
+            return adapter.externalizer.readObject(in);
+         }
+         default:
+            throw new IOException("Unknown type tag " + tag + " in compact encoded buffer");
+      }
+   }
+
+   private void readCommandParameters(CompactObjectInput in, ReplicableCommand command)
+         throws IOException, ClassNotFoundException {
+      command.readFrom(in);
+      if (command instanceof TopologyAffectedCommand) {
+         ((TopologyAffectedCommand) command).setTopologyId(in.readInt());
+      }
+   }
+
+   private static final class UnsupportedTypeException extends IOException {
+      UnsupportedTypeException() {
+         super("Type not supported by the compact encoding");
+      }
+
+      @Override
+      public synchronized Throwable fillInStackTrace() {
+         return this;
+      }
+   }
+}
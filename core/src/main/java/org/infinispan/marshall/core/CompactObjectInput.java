@@ -0,0 +1,189 @@
+package org.infinispan.marshall.core;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ObjectInput} reading the format written by {@link CompactObjectOutput} directly from a slice of a byte array,
+ * typically the buffer of the received JGroups message.
+ *
+ * @since 9.0
+ */
+final class CompactObjectInput implements ObjectInput {
+   private final CompactCommandMarshaller marshaller;
+   private final byte[] buf;
+   private final int limit;
+   private int pos;
+
+   CompactObjectInput(CompactCommandMarshaller marshaller, byte[] buf, int offset, int length) {
+      this.marshaller = marshaller;
+      this.buf = buf;
+      this.pos = offset;
+      this.limit = offset + length;
+   }
+
+   @Override
+   public Object readObject() throws ClassNotFoundException, IOException {
+      return marshaller.readObject(this);
+   }
+
+   @Override
+   public int read() {
+      return pos < limit ? buf[pos++] & 0xFF : -1;
+   }
+
+   @Override
+   public int read(byte[] b) {
+      return read(b, 0, b.length);
+   }
+
+   @Override
+   public int read(byte[] b, int off, int len) {
+      if (pos >= limit) return -1;
+      int n = Math.min(len, limit - pos);
+      System.arraycopy(buf, pos, b, off, n);
+      pos += n;
+      return n;
+   }
+
+   @Override
+   public void readFully(byte[] b) throws IOException {
+      readFully(b, 0, b.length);
+   }
+
+   @Override
+   public void readFully(byte[] b, int off, int len) throws IOException {
+      ensure(len);
+      System.arraycopy(buf, pos, b, off, len);
+      pos += len;
+   }
+
+   @Override
+   public int skipBytes(int n) {
+      int skipped = Math.max(0, Math.min(n, limit - pos));
+      pos += skipped;
+      return skipped;
+   }
+
+   @Override
+   public long skip(long n) {
+      return skipBytes((int) Math.min(n, Integer.MAX_VALUE));
+   }
+
+   @Override
+   public int available() {
+      return limit - pos;
+   }
+
+   @Override
+   public boolean readBoolean() throws IOException {
+      return readUnsignedByte() != 0;
+   }
+
+   @Override
+   public byte readByte() throws IOException {
+      ensure(1);
+      return buf[pos++];
+   }
+
+   @Override
+   public int readUnsignedByte() throws IOException {
+      return readByte() & 0xFF;
+   }
+
+   @Override
+   public short readShort() throws IOException {
+      return (short) readUnsignedShort();
+   }
+
+   @Override
+   public int readUnsignedShort() throws IOException {
+      ensure(2);
+      int v = ((buf[pos] & 0xFF) << 8) | (buf[pos + 1] & 0xFF);
+      pos += 2;
+      return v;
+   }
+
+   @Override
+   public char readChar() throws IOException {
+      return (char) readUnsignedShort();
+   }
+
+   @Override
+   public int readInt() throws IOException {
+      int v = readVarInt();
+      return (v >>> 1) ^ -(v & 1);
+   }
+
+   @Override
+   public long readLong() throws IOException {
+      long v = readVarLong();
+      return (v >>> 1) ^ -(v & 1);
+   }
+
+   @Override
+   public float readFloat() throws IOException {
+      return Float.intBitsToFloat(readFixedInt());
+   }
+
+   @Override
+   public double readDouble() throws IOException {
+      long high = readFixedInt() & 0xFFFFFFFFL;
+      long low = readFixedInt() & 0xFFFFFFFFL;
+      return Double.longBitsToDouble((high << 32) | low);
+   }
+
+   @Override
+   public String readLine() {
+      throw new UnsupportedOperationException();
+   }
+
+   @Override
+   public String readUTF() throws IOException {
+      int length = readVarInt();
+      ensure(length);
+      String s = new String(buf, pos, length, StandardCharsets.UTF_8);
+      pos += length;
+      return s;
+   }
+
+   int readVarInt() throws IOException {
+      int shift = 0;
+      int result = 0;
+      while (shift < 32) {
+         byte b = readByte();
+         result |= (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) return result;
+         shift += 7;
+      }
+      throw new IOException("Malformed varint");
+   }
+
+   long readVarLong() throws IOException {
+      int shift = 0;
+      long result = 0;
+      while (shift < 64) {
+         byte b = readByte();
+         result |= (long) (b & 0x7F) << shift;
+         if ((b & 0x80) == 0) return result;
+         shift += 7;
+      }
+      throw new IOException("Malformed varlong");
+   }
+
+   private int readFixedInt() throws IOException {
+      return (readUnsignedShort() << 16) | readUnsignedShort();
+   }
+
+   private void ensure(int length) throws EOFException {
+      if (length < 0 || limit - pos < length) {
+         throw new EOFException("Expected " + length + " bytes, only " + (limit - pos) + " available");
+      }
+   }
+
+   @Override
+   public void close() {
+   }
+}
@@ -0,0 +1,154 @@
+package org.infinispan.marshall.core;
+
+import org.infinispan.commons.io.ExposedByteArrayOutputStream;
+
+import java.io.IOException;
+import java.io.ObjectOutput;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * {@link ObjectOutput} used by {@link CompactCommandMarshaller}, writing directly into an
+ * {@link ExposedByteArrayOutputStream}.
+ * <p>
+ * Ints and longs are written as zig-zag encoded varints, so small values (flags, topology ids, sizes) take one or two
+ * bytes. There are no block headers, class descriptors or back-references: {@link #writeObject(Object)} is delegated to
+ * the marshaller, which rejects any type it does not know how to encode.
+ *
+ * @since 9.0
+ */
+final class CompactObjectOutput implements ObjectOutput {
+   private final CompactCommandMarshaller marshaller;
+   private final ExposedByteArrayOutputStream out;
+   private int depth;
+
+   CompactObjectOutput(CompactCommandMarshaller marshaller, ExposedByteArrayOutputStream out) {
+      this.marshaller = marshaller;
+      this.out = out;
+   }
+
+   ExposedByteArrayOutputStream getBuffer() {
+      return out;
+   }
+
+   @Override
+   public void writeObject(Object obj) throws IOException {
+      if (++depth > CompactCommandMarshaller.MAX_DEPTH) {
+         throw CompactCommandMarshaller.UNSUPPORTED;
+      }
+      try {
+         marshaller.writeObject(this, obj);
+      } finally {
+         depth--;
+      }
+   }
+
+   @Override
+   public void write(int b) {
+      out.write(b);
+   }
+
+   @Override
+   public void write(byte[] b) {
+      out.write(b, 0, b.length);
+   }
+
+   @Override
+   public void write(byte[] b, int off, int len) {
+      out.write(b, off, len);
+   }
+
+   @Override
+   public void writeBoolean(boolean v) {
+      out.write(v ? 1 : 0);
+   }
+
+   @Override
+   public void writeByte(int v) {
+      out.write(v);
+   }
+
+   @Override
+   public void writeShort(int v) {
+      out.write(v >>> 8);
+      out.write(v);
+   }
+
+   @Override
+   public void writeChar(int v) {
+      writeShort(v);
+   }
+
+   @Override
+   public void writeInt(int v) {
+      writeVarInt((v << 1) ^ (v >> 31));
+   }
+
+   @Override
+   public void writeLong(long v) {
+      writeVarLong((v << 1) ^ (v >> 63));
+   }
+
+   @Override
+   public void writeFloat(float v) {
+      writeFixedInt(Float.floatToIntBits(v));
+   }
+
+   @Override
+   public void writeDouble(double v) {
+      long bits = Double.doubleToLongBits(v);
+      writeFixedInt((int) (bits >>> 32));
+      writeFixedInt((int) bits);
+   }
+
+   @Override
+   public void writeBytes(String s) {
+      int len = s.length();
+      for (int i = 0; i < len; i++) {
+         out.write(s.charAt(i));
+      }
+   }
+
+   @Override
+   public void writeChars(String s) {
+      int len = s.length();
+      for (int i = 0; i < len; i++) {
+         writeChar(s.charAt(i));
+      }
+   }
+
+   @Override
+   public void writeUTF(String s) {
+      byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+      writeVarInt(bytes.length);
+      out.write(bytes, 0, bytes.length);
+   }
+
+   private void writeFixedInt(int v) {
+      writeShort(v >>> 16);
+      writeShort(v);
+   }
+
+   void writeVarInt(int v) {
+      while ((v & ~0x7F) != 0) {
+         out.write((v & 0x7F) | 0x80);
+         v >>>= 7;
+      }
+      out.write(v);
+   }
+
+   void writeVarLong(long v) {
+      while ((v & ~0x7FL) != 0) {
+         out.write((int) ((v & 0x7F) | 0x80));
+         v >>>= 7;
+      }
+      out.write((int) v);
+   }
+
+   @Override
+   public void flush() {
+   }
+
+   @Override
+   public void close() {
+   }
+}
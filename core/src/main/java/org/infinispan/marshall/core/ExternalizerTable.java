@@ -44,6 +44,7 @@
 import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
 import org.infinispan.distribution.ch.impl.DefaultConsistentHashFactory;
 import org.infinispan.distribution.ch.impl.HashFunctionPartitioner;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
 import org.infinispan.distribution.ch.impl.ReplicatedConsistentHash;
 import org.infinispan.distribution.ch.impl.ReplicatedConsistentHashFactory;
 import org.infinispan.distribution.ch.impl.SyncConsistentHashFactory;
@@ -94,6 +95,7 @@
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.TransactionInfo;
 import org.infinispan.stream.StreamMarshalling;
+import org.infinispan.stream.impl.IteratorResponse;
 import org.infinispan.stream.impl.intops.IntermediateOperationExternalizer;
 import org.infinispan.stream.impl.termop.TerminalOperationExternalizer;
 import org.infinispan.topology.CacheJoinInfo;
@@ -242,6 +244,18 @@ public Externalizer getExternalizer(Object o) {
       return null;
    }
 
+   ExternalizerAdapter getWriter(Object o) {
+      return writers.get(o.getClass());
+   }
+
+   ExternalizerAdapter getReader(int id) {
+      return readers.get(id);
+   }
+
+   RemoteCommandsFactory getCommandsFactory() {
+      return cmdFactory;
+   }
+
    boolean isMarshallableCandidate(Object o) {
       return writers.containsKey(o.getClass());
    }
@@ -325,6 +339,7 @@ private void loadInternalMarshallables() {
       addInternalExternalizer(new SyncReplicatedConsistentHashFactory.Externalizer());
       addInternalExternalizer(new TopologyAwareConsistentHashFactory.Externalizer());
       addInternalExternalizer(new TopologyAwareSyncConsistentHashFactory.Externalizer());
+      addInternalExternalizer(new LoadAwareConsistentHashFactory.Externalizer());
       addInternalExternalizer(new CacheTopology.Externalizer());
       addInternalExternalizer(new CacheJoinInfo.Externalizer());
       addInternalExternalizer(new TransactionInfo.Externalizer());
@@ -385,6 +400,7 @@ private void loadInternalMarshallables() {
       addInternalExternalizer(new MarshallableFunctionExternalizers.LambdaWithMetasExternalizer());
       addInternalExternalizer(new MarshallableFunctionExternalizers.SetValueIfEqualsReturnBooleanExternalizer());
       addInternalExternalizer(new PersistentUUID.Externalizer());
+      addInternalExternalizer(new IteratorResponse.Externalizer());
    }
 
    void addInternalExternalizer(AdvancedExternalizer<?> ext) {
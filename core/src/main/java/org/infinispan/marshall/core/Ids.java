@@ -174,4 +174,7 @@ public interface Ids extends org.infinispan.commons.marshall.Ids {
    int AFFINITY_FUNCTION_PARTITIONER = 165;
 
    int PERSISTENT_UUID = 166;
+
+   int ITERATOR_RESPONSE = 167;
+   int LOAD_AWARE_CONSISTENT_HASH_FACTORY = 168;
 }
@@ -8,6 +8,7 @@
 import org.infinispan.context.InvocationContextContainer;
 import org.infinispan.commons.io.ExposedByteArrayOutputStream;
 import org.infinispan.commons.marshall.AbstractMarshaller;
+import org.infinispan.commons.marshall.BufferSizePredictor;
 import org.infinispan.commons.marshall.NotSerializableException;
 import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.util.logging.Log;
@@ -43,6 +44,12 @@ public class VersionAwareMarshaller extends AbstractMarshaller implements Stream
    private GlobalConfiguration globalCfg;
    private Configuration cfg;
    private InvocationContextContainer icc;
+   private CompactCommandMarshaller compactMarshaller;
+   /**
+    * Compact encoded buffers are always readable, but they are only written when enabled with
+    * {@link org.infinispan.configuration.global.SerializationConfigurationBuilder#compactCommands(boolean)}.
+    */
+   private boolean writeCompactCommands;
 
    public void inject(Cache cache, Configuration cfg, InvocationContextContainer icc,
          ExternalizerTable extTable, GlobalConfiguration globalCfg) {
@@ -62,6 +69,8 @@ public void inject(Cache cache, Configuration cfg, InvocationContextContainer ic
    public void start() {
       defaultMarshaller = new JBossMarshaller(extTable, cfg, icc, globalCfg);
       defaultMarshaller.start();
+      compactMarshaller = extTable != null ? new CompactCommandMarshaller(extTable) : null;
+      writeCompactCommands = compactMarshaller != null && globalCfg != null && globalCfg.serialization().compactCommands();
    }
 
    @Override
@@ -69,6 +78,33 @@ public void stop() {
       defaultMarshaller.stop();
    }
 
+   /**
+    * Marshalls {@code obj} into a buffer sized from the prediction for its type plus its {@code byte[]} payload, see
+    * {@link BytePayloadEstimator}. The payload is copied into the buffer once, unless the rest of the command is larger
+    * than predicted; the transport then sends the returned buffer without copying it again.
+    */
+   @Override
+   public ByteBuffer objectToBuffer(Object obj) throws IOException, InterruptedException {
+      int payloadSize = obj == null ? 0 : BytePayloadEstimator.estimate(obj);
+      if (writeCompactCommands && CompactCommandMarshaller.isCandidate(obj)) {
+         BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj.getClass());
+         ByteBuffer byteBuffer = compactMarshaller.objectToBuffer(obj, sizePredictor.nextSize(obj) + payloadSize);
+         if (byteBuffer != null) {
+            sizePredictor.recordSize(Math.max(byteBuffer.getLength() - payloadSize, 0));
+            return byteBuffer;
+         }
+      }
+      if (payloadSize == 0) {
+         return super.objectToBuffer(obj);
+      }
+      // The byte[] payload size is known, so the predictor only needs to learn the size of everything else.
+      // This only sizes the initial buffer: it still grows if the rest of the command is larger than predicted.
+      BufferSizePredictor sizePredictor = marshallableTypeHints.getBufferSizePredictor(obj.getClass());
+      ByteBuffer byteBuffer = objectToBuffer(obj, sizePredictor.nextSize(obj) + payloadSize);
+      sizePredictor.recordSize(Math.max(byteBuffer.getLength() - payloadSize, 0));
+      return byteBuffer;
+   }
+
    @Override
    protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOException, InterruptedException {
       ExposedByteArrayOutputStream baos = new ExposedByteArrayOutputStream(estimatedSize);
@@ -94,6 +130,9 @@ protected ByteBuffer objectToBuffer(Object obj, int estimatedSize) throws IOExce
 
    @Override
    public Object objectFromByteBuffer(byte[] bytes, int offset, int len) throws IOException, ClassNotFoundException {
+      if (compactMarshaller != null && CompactCommandMarshaller.isCompact(bytes, offset, len)) {
+         return compactMarshaller.objectFromByteBuffer(bytes, offset, len);
+      }
       ByteArrayInputStream is = new ByteArrayInputStream(bytes, offset, len);
       ObjectInput in = startObjectInput(is, false);
       Object o = null;
@@ -14,6 +14,7 @@
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.transaction.xa.GlobalTransaction;
 
+import java.lang.annotation.Annotation;
 import java.util.Collection;
 
 /**
@@ -59,6 +60,12 @@ void notifyCacheEntriesEvicted(Collection<InternalCacheEntry<? extends K, ? exte
     */
    void notifyCacheEntryExpired(K key, V value, Metadata metadata, InvocationContext ctx);
 
+   /**
+    * @return whether a listener is registered for the events of the given listener annotation, e.g.
+    * {@link org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated}
+    */
+   boolean hasListener(Class<? extends Annotation> annotationClass);
+
    /**
     * Notifies all registered listeners of a {@link org.infinispan.notifications.cachelistener.event.CacheEntryInvalidatedEvent} event.
     */
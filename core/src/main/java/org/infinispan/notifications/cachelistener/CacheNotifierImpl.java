@@ -898,6 +898,11 @@ private FilterIndexingServiceProvider findIndexingServiceProvider(IndexedFilter
       return null;
    }
 
+   @Override
+   public boolean hasListener(Class<? extends Annotation> annotationClass) {
+      return !getListenerCollectionForAnnotation(annotationClass).isEmpty();
+   }
+
    @Override
    public List<CacheEntryListenerInvocation<K, V>> getListenerCollectionForAnnotation(Class<? extends Annotation> annotation) {
       return super.getListenerCollectionForAnnotation(annotation);
@@ -4,6 +4,7 @@
 import org.infinispan.commands.CommandsFactory;
 import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
 import org.infinispan.commons.CacheException;
 import org.infinispan.factories.ComponentRegistry;
 import org.infinispan.factories.GlobalComponentRegistry;
@@ -24,6 +25,7 @@
 import org.infinispan.xsite.XSiteReplicateCommand;
 
 import java.util.concurrent.ExecutorService;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.infinispan.factories.KnownComponentNames.REMOTE_COMMAND_EXECUTOR;
 
@@ -122,11 +124,44 @@ private void handleCacheRpcCommand(Address origin, CacheRpcCommand command, Repl
          reply.reply(CacheNotFoundResponse.INSTANCE);
          return;
       }
+      if (command instanceof TxBatchCommand) {
+         handleTxBatchCommand(origin, (TxBatchCommand) command, cr, reply, mode);
+         return;
+      }
       initializeCacheRpcCommand(command, cr);
       PerCacheInboundInvocationHandler handler = cr.getPerCacheInboundInvocationHandler();
       handler.handle(command, reply, mode);
    }
 
+   private void handleTxBatchCommand(Address origin, TxBatchCommand batch, ComponentRegistry cr, Reply reply,
+                                     DeliverOrder mode) {
+      CacheRpcCommand[] commands = batch.getCommands();
+      Response[] responses = new Response[commands.length];
+      AtomicInteger pending = new AtomicInteger(commands.length);
+      PerCacheInboundInvocationHandler handler = cr.getPerCacheInboundInvocationHandler();
+      for (int i = 0; i < commands.length; i++) {
+         int index = i;
+         Reply commandReply = returnValue -> {
+            responses[index] = returnValue == null || returnValue instanceof Response ?
+                  (Response) returnValue : SuccessfulResponse.create(returnValue);
+            if (pending.decrementAndGet() == 0) {
+               reply.reply(SuccessfulResponse.create(responses));
+            }
+         };
+         CacheRpcCommand command = commands[i];
+         try {
+            command.setOrigin(origin);
+            initializeCacheRpcCommand(command, cr);
+            // Each command is handled as if it was received on its own, so a prepare waiting for a lock
+            // doesn't delay the other commands of the batch
+            handler.handle(command, commandReply, mode);
+         } catch (Throwable throwable) {
+            log.debug(throwable);
+            commandReply.reply(new ExceptionResponse(new CacheException(throwable)));
+         }
+      }
+   }
+
    private void initializeCacheRpcCommand(CacheRpcCommand command, ComponentRegistry componentRegistry) {
       CommandsFactory commandsFactory = componentRegistry.getCommandsFactory();
       // initialize this command with components specific to the intended cache instance
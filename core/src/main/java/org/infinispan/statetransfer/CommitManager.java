@@ -83,9 +83,10 @@ public final void stopTrack(Flag track) {
     * @param metadata  the entry's metadata
     * @param operation if {@code null}, it identifies this commit as originated from a normal operation. Otherwise, it
     *                  is originated from a state transfer (local or remote site)
+    * @return {@code true} if the entry was committed, {@code false} if it was discarded
     */
-   public final void commit(final CacheEntry entry, final Metadata metadata, final Flag operation,
-                            boolean l1Invalidation) {
+   public final boolean commit(final CacheEntry entry, final Metadata metadata, final Flag operation,
+                               boolean l1Invalidation) {
       if (trace) {
          log.tracef("Trying to commit. Key=%s. Operation Flag=%s, L1 invalidation=%s", toStr(entry.getKey()),
                operation, l1Invalidation);
@@ -98,7 +99,7 @@ public final void commit(final CacheEntry entry, final Metadata metadata, final
                   toStr(entry.getKey()));
          }
          entry.commit(dataContainer, metadata);
-         return;
+         return true;
       }
       if (isTrackDisabled(operation)) {
          //this a put for state transfer but we are not tracking it. This means that the state transfer has ended
@@ -107,8 +108,9 @@ public final void commit(final CacheEntry entry, final Metadata metadata, final
             log.tracef("Not committing key=%s. It is a state transfer key but no track is enabled!",
                   toStr(entry.getKey()));
          }
-         return;
+         return false;
       }
+      boolean[] committed = new boolean[1];
       tracker.compute(entry.getKey(), (o, discardPolicy) -> {
          if (discardPolicy != null && discardPolicy.ignore(operation)) {
             if (trace) {
@@ -118,6 +120,7 @@ public final void commit(final CacheEntry entry, final Metadata metadata, final
             return discardPolicy;
          }
          entry.commit(dataContainer, metadata);
+         committed[0] = true;
          DiscardPolicy newDiscardPolicy = calculateDiscardPolicy();
          if (trace) {
             log.tracef("Committed key=%s. Old discard policy=%s. New discard policy=%s", toStr(entry.getKey()),
@@ -125,6 +128,7 @@ public final void commit(final CacheEntry entry, final Metadata metadata, final
          }
          return newDiscardPolicy;
       });
+      return committed[0];
    }
 
    /**
@@ -6,6 +6,7 @@
 import org.infinispan.topology.CacheTopology;
 
 import java.util.Collection;
+import java.util.Map;
 
 /**
  * Handles inbound state transfers.
@@ -49,4 +50,9 @@ public interface StateConsumer {
     * @return  true if this node has already received the first rebalance command
     */
    boolean ownsData();
+
+   /**
+    * @return the number of entries applied per second, for each segment received in the current or last rebalance
+    */
+   Map<Integer, Double> getSegmentApplyThroughput();
 }
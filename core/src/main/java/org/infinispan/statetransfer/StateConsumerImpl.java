@@ -6,11 +6,13 @@
 import org.infinispan.commands.write.InvalidateCommand;
 import org.infinispan.commands.write.PutKeyValueCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.configuration.cache.CacheMode;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.container.DataContainer;
 import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.container.entries.ReadCommittedEntry;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.TxInvocationContext;
@@ -25,7 +27,13 @@
 import org.infinispan.filter.KeyFilter;
 import org.infinispan.interceptors.InterceptorChain;
 import org.infinispan.marshall.core.MarshalledEntry;
+import org.infinispan.marshall.core.MarshalledEntryImpl;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryVisited;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.spi.AdvancedCacheLoader;
 import org.infinispan.remoting.responses.CacheNotFoundResponse;
@@ -43,6 +51,7 @@
 import org.infinispan.transaction.totalorder.TotalOrderManager;
 import org.infinispan.transaction.xa.CacheTransaction;
 import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.concurrent.BlockingTaskAwareExecutorService;
 import org.infinispan.commons.util.concurrent.ConcurrentHashSet;
 import org.infinispan.util.concurrent.TimeoutException;
@@ -61,6 +70,8 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
@@ -68,6 +79,7 @@
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 import static org.infinispan.context.Flag.CACHE_MODE_LOCAL;
 import static org.infinispan.context.Flag.IGNORE_RETURN_VALUES;
@@ -77,7 +89,9 @@
 import static org.infinispan.context.Flag.SKIP_REMOTE_LOOKUP;
 import static org.infinispan.context.Flag.SKIP_SHARED_CACHE_STORE;
 import static org.infinispan.context.Flag.SKIP_XSITE_BACKUP;
+import static org.infinispan.factories.KnownComponentNames.CACHE_MARSHALLER;
 import static org.infinispan.factories.KnownComponentNames.STATE_TRANSFER_EXECUTOR;
+import static org.infinispan.persistence.PersistenceUtil.internalMetadata;
 import static org.infinispan.persistence.manager.PersistenceManager.AccessMode.PRIVATE;
 
 /**
@@ -120,6 +134,22 @@ public class StateConsumerImpl implements StateConsumer {
    private volatile KeyInvalidationListener keyInvalidationListener; //for test purpose only!
    private CommitManager commitManager;
    private ExecutorService stateTransferExecutor;
+   private StreamingMarshaller marshaller;
+   private TimeService timeService;
+
+   /**
+    * Whether the received entries can be committed directly, without invoking a command through the interceptor chain.
+    * Only possible when none of the interceptors needs to see the entries, apart from the listeners (checked for each
+    * chunk, as they can be added at any time).
+    */
+   private boolean canBypassInterceptors;
+   private boolean hasPrivateStores;
+
+   /**
+    * The number of entries applied and the time spent applying them, for each segment received in the current or last
+    * rebalance.
+    */
+   private final ConcurrentMap<Integer, SegmentApplyStats> segmentApplyStats = new ConcurrentHashMap<>();
 
    private volatile CacheTopology cacheTopology;
 
@@ -224,6 +254,13 @@ public void init(Cache cache,
       stateRequestCompletionService = new SemaphoreCompletionService<>(stateTransferExecutor, 1);
    }
 
+   @Inject
+   public void injectStateApplyDependencies(@ComponentName(CACHE_MARSHALLER) StreamingMarshaller marshaller,
+                                            TimeService timeService) {
+      this.marshaller = marshaller;
+      this.timeService = timeService;
+   }
+
    public boolean hasActiveTransfers() {
       synchronized (transferMapsLock) {
          return !transfersBySource.isEmpty();
@@ -284,6 +321,7 @@ public void onTopologyUpdate(final CacheTopology cacheTopology, final boolean is
          // Only update the rebalance topology id when starting the rebalance, as we're going to ignore any state
          // response with a smaller topology id
          stateTransferTopologyId.compareAndSet(NO_REBALANCE_IN_PROGRESS, cacheTopology.getTopologyId());
+         segmentApplyStats.clear();
          cacheNotifier.notifyDataRehashed(cacheTopology.getCurrentCH(), cacheTopology.getPendingCH(),
                                           cacheTopology.getUnionCH(), cacheTopology.getTopologyId(), true);
       }
@@ -588,6 +626,58 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
       if (trace) log.tracef("Applying new state chunk for segment %d of cache %s from node %s: received %d cache entries",
             segmentId, cacheName, sender, cacheEntries.size());
 
+      long startTime = timeService.time();
+      if (canBypassInterceptors && !hasEntryListeners()) {
+         commitEntries(cacheEntries);
+      } else {
+         invokePutForStateTransfer(cacheEntries);
+      }
+      SegmentApplyStats stats = segmentApplyStats.computeIfAbsent(segmentId, k -> new SegmentApplyStats());
+      stats.entries.add(cacheEntries.size());
+      stats.nanos.add(timeService.timeDuration(startTime, TimeUnit.NANOSECONDS));
+      if (trace) log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
+   }
+
+   /**
+    * Internal listeners, like the ones of the stream manager, are only interested in the topology changes.
+    */
+   private boolean hasEntryListeners() {
+      return cacheNotifier.hasListener(CacheEntryCreated.class) || cacheNotifier.hasListener(CacheEntryModified.class)
+            || cacheNotifier.hasListener(CacheEntryRemoved.class) || cacheNotifier.hasListener(CacheEntryInvalidated.class)
+            || cacheNotifier.hasListener(CacheEntryVisited.class);
+   }
+
+   /**
+    * Commits the entries straight to the data container, and writes the committed ones to the private stores.
+    * The {@link CommitManager} still discards the entries that were already updated by a regular write.
+    */
+   private void commitEntries(Collection<InternalCacheEntry> cacheEntries) {
+      List<InternalCacheEntry> committedEntries = hasPrivateStores ? new ArrayList<>(cacheEntries.size()) : null;
+      for (InternalCacheEntry e : cacheEntries) {
+         try {
+            ReadCommittedEntry entry = new ReadCommittedEntry(e.getKey(), e.getValue(), e.getMetadata());
+            entry.setChanged(true);
+            if (commitManager.commit(entry, e.getMetadata(), PUT_FOR_STATE_TRANSFER, false) && hasPrivateStores) {
+               committedEntries.add(e);
+            }
+         } catch (Exception ex) {
+            if (!cache.getStatus().allowInvocations()) {
+               log.debugf("Cache %s is shutting down, stopping state transfer", cacheName);
+               return;
+            } else {
+               log.problemApplyingStateForKey(ex.getMessage(), e.getKey(), ex);
+            }
+         }
+      }
+      if (hasPrivateStores) {
+         for (InternalCacheEntry e : committedEntries) {
+            persistenceManager.writeToAllStores(new MarshalledEntryImpl<>(e.getKey(), e.getValue(), internalMetadata(e),
+                                                                          marshaller), PRIVATE);
+         }
+      }
+   }
+
+   private void invokePutForStateTransfer(Collection<InternalCacheEntry> cacheEntries) {
       // CACHE_MODE_LOCAL avoids handling by StateTransferInterceptor and any potential locks in StateTransferLock
       boolean transactional = transactionManager != null;
       for (InternalCacheEntry e : cacheEntries) {
@@ -627,7 +717,16 @@ private void doApplyState(Address sender, int segmentId, Collection<InternalCach
             }
          }
       }
-      if (trace) log.tracef("Finished applying chunk of segment %d of cache %s", segmentId, cacheName);
+   }
+
+   @Override
+   public Map<Integer, Double> getSegmentApplyThroughput() {
+      Map<Integer, Double> throughput = new HashMap<>(segmentApplyStats.size());
+      for (Map.Entry<Integer, SegmentApplyStats> e : segmentApplyStats.entrySet()) {
+         long nanos = e.getValue().nanos.sum();
+         throughput.put(e.getKey(), nanos > 0 ? e.getValue().entries.sum() * 1e9 / nanos : 0);
+      }
+      return throughput;
    }
 
    private void applyTransactions(Address sender, Collection<TransactionInfo> transactions, int topologyId) {
@@ -665,6 +764,12 @@ public void start() {
       //rpc options does not changes in runtime. we can use always the same instance.
       rpcOptions = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS)
             .timeout(timeout, TimeUnit.MILLISECONDS).build();
+      // Indexing, custom interceptors and compatibility mode need the put commands, and with passivation the entries
+      // must also be removed from the stores
+      canBypassInterceptors = !isTotalOrder && !configuration.indexing().index().isEnabled()
+            && configuration.customInterceptors().interceptors().isEmpty()
+            && !configuration.compatibility().enabled() && !configuration.persistence().passivation();
+      hasPrivateStores = configuration.persistence().stores().stream().anyMatch(store -> !store.shared());
    }
 
    @Stop(priority = 0)
@@ -1107,6 +1212,11 @@ private void retryOrNotifyCompletion(InboundTransferTask inboundTransfer) {
       }
    }
 
+   private static class SegmentApplyStats {
+      final LongAdder entries = new LongAdder();
+      final LongAdder nanos = new LongAdder();
+   }
+
    public interface KeyInvalidationListener {
       void beforeInvalidation(Set<Integer> removedSegments, Set<Integer> staleL1Segments);
    }
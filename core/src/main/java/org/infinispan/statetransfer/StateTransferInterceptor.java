@@ -263,7 +263,7 @@ private CompletableFuture<Void> handleTxCommand(TxInvocationContext ctx, Transac
             return handleTxCommand(ctx, command);
          }
       } else {
-         if (currentTopologyId() > command.getTopologyId()) {
+         if (currentTopologyId() > command.getTopologyId() && !isReplicatedByPrimaryOwner(command, retryTopologyId)) {
             // Signal the originator to retry
             localResult = UnsureResponse.INSTANCE;
          }
@@ -272,6 +272,14 @@ private CompletableFuture<Void> handleTxCommand(TxInvocationContext ctx, Transac
       return ctx.shortCircuit(localResult);
    }
 
+   /**
+    * A one-phase prepare that the primary owner committed was also replicated to the owners of its current topology,
+    * so the originator must not retry it: the write skew check would fail against the versions it already committed.
+    */
+   private boolean isReplicatedByPrimaryOwner(TransactionBoundaryCommand command, int retryTopologyId) {
+      return retryTopologyId < 0 && command instanceof PrepareCommand && ((PrepareCommand) command).isForwardToBackups();
+   }
+
    private boolean isTxCommandAsync(TransactionBoundaryCommand command) {
       boolean async = false;
       if (command instanceof CommitCommand || command instanceof RollbackCommand) {
@@ -70,4 +70,10 @@ public interface StateTransferManager {
 
    @ManagedAttribute(description = "Retrieves the rebalancing status for this cache. Possible values are PENDING, SUSPENDED, IN_PROGRESS, BALANCED", displayName = "Rebalancing progress", dataType = DataType.TRAIT)
    String getRebalancingStatus() throws Exception;
+
+   /**
+    * @return the number of entries applied per second, for each segment received in the current or last rebalance
+    */
+   @ManagedAttribute(description = "Retrieves the number of entries applied per second for each segment received in the current or last rebalance", displayName = "State apply throughput per segment", dataType = DataType.TRAIT)
+   String getSegmentApplyThroughput();
 }
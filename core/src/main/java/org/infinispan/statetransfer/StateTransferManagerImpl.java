@@ -251,6 +251,11 @@ public String getRebalancingStatus() throws Exception {
       return localTopologyManager.getRebalancingStatus(cacheName).toString();
    }
 
+   @Override
+   public String getSegmentApplyThroughput() {
+      return stateConsumer.getSegmentApplyThroughput().toString();
+   }
+
    @Override
    public boolean isStateTransferInProgress() {
       return stateConsumer.isStateTransferInProgress();
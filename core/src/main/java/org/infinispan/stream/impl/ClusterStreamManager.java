@@ -1,6 +1,7 @@
 package org.infinispan.stream.impl;
 
 import org.infinispan.CacheStream;
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.remoting.transport.Address;
 
@@ -9,6 +10,7 @@
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -126,6 +128,38 @@ <R2> Object remoteStreamOperationRehashAware(boolean parallelDistribution, boole
                                                  KeyTrackingTerminalOperation<K, ?, R2> operation,
                                                  ResultsCallback<Map<K, R2>> callback);
 
+   /**
+    * Starts a pull based, key and rehash aware iteration on the remote nodes.  The first batch of entries is requested
+    * from each node right away, the following ones are only requested when invoking {@link #pullIteration}, so that
+    * the remote nodes only process as many entries as can be consumed.
+    * @param ch the consistent hash to use when determining segment ownership
+    * @param segments the segments that this request should utilize
+    * @param keysToInclude which keys to include in the request
+    * @param keysToExclude which keys to exclude in the request
+    * @param includeLoader whether or not to use a loader
+    * @param operation the iterator operation to perform
+    * @param batchSize the maximum number of entries requested from a node at once
+    * @param credit supplies how many entries can currently be accepted without blocking, used to size the requests
+    * @param callback the callback to collect individual node results
+    * @param <R2> the type of response
+    * @return the operation id to be used for further calls
+    */
+   <R2> Object remoteIterationRehashAware(ConsistentHash ch, Set<Integer> segments, Set<K> keysToInclude,
+                                          Map<Integer, Set<K>> keysToExclude, boolean includeLoader,
+                                          KeyTrackingTerminalOperation<K, ?, R2> operation, int batchSize,
+                                          IntSupplier credit, ResultsCallback<Collection<CacheEntry<K, R2>>> callback);
+
+   /**
+    * Retrieves the remaining entries of an iteration started with {@link #remoteIterationRehashAware}, passing them
+    * to its callback on the invoking thread.  Returns true when all the nodes have completed the iteration or it
+    * was forgotten, otherwise returns false when no node responded before the time elapsed
+    * @param id the id of the operation that was returned from the invocation - must be non null
+    * @param time how long to wait for a response before returning false - must be greater than 0
+    * @param unit controls how long the time wait is
+    * @return whether or not the iteration is complete
+    */
+   boolean pullIteration(Object id, long time, TimeUnit unit) throws InterruptedException;
+
    /**
     * Tests whether this operation is still pending or not.
     * @param id the id of the operation that was returned from the invocation
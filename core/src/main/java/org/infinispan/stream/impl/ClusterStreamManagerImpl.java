@@ -1,12 +1,15 @@
 package org.infinispan.stream.impl;
 
 import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.ReplicableCommand;
 import org.infinispan.commons.CacheException;
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.distribution.ch.impl.ReplicatedConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.remoting.transport.jgroups.SuspectException;
@@ -15,17 +18,21 @@
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.locks.Condition;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 import java.util.stream.Collectors;
 
@@ -35,6 +42,7 @@
  */
 public class ClusterStreamManagerImpl<K> implements ClusterStreamManager<K> {
    protected final Map<String, RequestTracker> currentlyRunning = new ConcurrentHashMap<>();
+   protected final Map<Object, RemoteIteration> iterations = new ConcurrentHashMap<>();
    protected final AtomicInteger requestId = new AtomicInteger();
    protected RpcManager rpc;
    protected CommandsFactory factory;
@@ -165,6 +173,73 @@ public <R2> Object remoteStreamOperationRehashAware(boolean parallelDistribution
       return id;
    }
 
+   @Override
+   public <R2> Object remoteIterationRehashAware(ConsistentHash ch, Set<Integer> segments, Set<K> keysToInclude,
+           Map<Integer, Set<K>> keysToExclude, boolean includeLoader, KeyTrackingTerminalOperation<K, ?, R2> operation,
+           int batchSize, IntSupplier credit, ResultsCallback<Collection<CacheEntry<K, R2>>> callback) {
+      Map<Address, Set<Integer>> targets = determineTargets(ch, segments);
+      String id;
+      if (!targets.isEmpty()) {
+         id = localAddress.toString() + requestId.getAndIncrement();
+         log.tracef("Performing remote iteration %s for id %s", targets, id);
+         RemoteIteration iteration = new RemoteIteration(id, targets, batchSize, credit);
+         currentlyRunning.put(id, new RequestTracker<>(callback, targets, null));
+         iterations.put(id, iteration);
+         int firstBatchSize = iteration.nextBatchSize();
+         for (Map.Entry<Address, Set<Integer>> targetInfo : targets.entrySet()) {
+            Address dest = targetInfo.getKey();
+            Set<Integer> targetSegments = targetInfo.getValue();
+            Set<K> keysExcluded = determineExcludedKeys(keysToExclude, targetSegments);
+            log.tracef("Requesting first batch of %s entries from %s for %s excluding keys %s", firstBatchSize, dest,
+                    id, keysExcluded);
+            iteration.request(dest, factory.buildStreamIteratorRequestCommand(id, targetSegments, keysToInclude,
+                    keysExcluded, includeLoader, operation, firstBatchSize));
+         }
+      } else {
+         log.tracef("Not performing remote iteration for request as no valid targets found");
+         id = null;
+      }
+      return id;
+   }
+
+   @Override
+   public boolean pullIteration(Object id, long time, TimeUnit unit) throws InterruptedException {
+      if (time <= 0) {
+         throw new IllegalArgumentException("Time must be greater than 0");
+      }
+      Objects.requireNonNull(id, "Identifier must be non null");
+
+      RemoteIteration iteration = iterations.get(id);
+      if (iteration == null) {
+         return true;
+      }
+      long timeout = unit.toNanos(time);
+      long target = System.nanoTime() + timeout;
+      while (iteration.pending > 0 && !iteration.closed) {
+         RequestTracker<?> tracker = currentlyRunning.get(id);
+         Throwable throwable;
+         if (tracker != null && (throwable = tracker.throwable) != null) {
+            if (throwable instanceof RuntimeException) {
+               throw ((RuntimeException) throwable);
+            }
+            throw new CacheException(throwable);
+         }
+         // We wake up periodically to notice if the iteration was closed or failed in the meantime
+         IterationResponse response = iteration.responses.poll(100, TimeUnit.MILLISECONDS);
+         if (response == null) {
+            if (target - System.nanoTime() <= 0) {
+               log.tracef("No response received for %s in time", id);
+               return false;
+            }
+         } else {
+            iteration.process(response);
+            target = System.nanoTime() + timeout;
+         }
+      }
+      log.tracef("Finished pulling iteration %s", id);
+      return true;
+   }
+
    private void submitAsyncTasks(String id, Map<Address, Set<Integer>> targets, Map<Integer, Set<K>> keysToExclude,
                                  boolean parallelStream, Set<K> keysToInclude, boolean includeLoader,
                                  StreamRequestCommand.Type type, Object operation) {
@@ -334,6 +409,11 @@ public boolean awaitCompletion(Object id, long time, TimeUnit unit) throws Inter
    @Override
    public void forgetOperation(Object id) {
       if (id != null) {
+         RemoteIteration iteration = iterations.remove(id);
+         if (iteration != null) {
+            iteration.closed = true;
+            iteration.release();
+         }
          RequestTracker<?> tracker = currentlyRunning.remove(id);
          if (tracker != null) {
             tracker.completionLock.lock();
@@ -386,6 +466,141 @@ public <R1> boolean receiveResponse(Object id, Address origin, boolean complete,
       }
    }
 
+   /**
+    * The originating side of a pull based iteration.  The threads completing the remote invocations only queue the
+    * responses, which are passed to the callback by the thread invoking {@link #pullIteration}.  That thread requests
+    * the next batch from a node only after passing it the previous one, so at most 1 request per node is outstanding
+    * and the remote nodes do not process more entries than can be consumed.
+    */
+   class RemoteIteration {
+      final Object id;
+      final Map<Address, Set<Integer>> segments;
+      final int batchSize;
+      final int minBatchSize;
+      final IntSupplier credit;
+      final BlockingQueue<IterationResponse> responses = new LinkedBlockingQueue<>();
+
+      // How many nodes have not completed yet, only used by the pulling thread
+      int pending;
+
+      volatile boolean closed;
+
+      RemoteIteration(Object id, Map<Address, Set<Integer>> targets, int batchSize, IntSupplier credit) {
+         this.id = id;
+         // The tracker removes the lost segments from the targets, but we need all of them if a node is suspected
+         this.segments = new HashMap<>();
+         targets.forEach((address, targetSegments) -> segments.put(address, new HashSet<>(targetSegments)));
+         this.batchSize = batchSize;
+         // Requesting very small batches from a slow consumer would only add round trips
+         this.minBatchSize = Math.max(1, batchSize / 8);
+         this.credit = credit;
+         this.pending = targets.size();
+      }
+
+      /**
+       * The entries that can be accepted without blocking are split among the remaining nodes, so the batches grow
+       * when the entries are consumed faster than they arrive and shrink otherwise.
+       */
+      int nextBatchSize() {
+         int share = credit.getAsInt() / Math.max(1, pending);
+         return Math.min(batchSize, Math.max(minBatchSize, share));
+      }
+
+      void request(Address target, ReplicableCommand command) {
+         rpc.invokeRemotelyAsync(Collections.singleton(target), command, rpc.getDefaultRpcOptions(true))
+                 .whenComplete((v, t) -> {
+                    responses.add(new IterationResponse(target, v, t));
+                    if (closed) {
+                       release();
+                    }
+                 });
+      }
+
+      void process(IterationResponse response) {
+         Address target = response.target;
+         if (response.throwable != null) {
+            if (!containedSuspectException(response.throwable)) {
+               log.tracef(response.throwable, "Encountered exception for %s from %s", id, target);
+               close(target);
+               if (response.throwable instanceof RuntimeException) {
+                  throw (RuntimeException) response.throwable;
+               }
+               throw new CacheException(response.throwable);
+            }
+            log.tracef("Exception from %s contained a SuspectException, making all segments %s suspect", target,
+                    segments.get(target));
+            suspect(target);
+            return;
+         }
+         IteratorResponse iteratorResponse = response.getIteratorResponse();
+         if (iteratorResponse == null) {
+            log.tracef("Unsuccessful response for %s from %s - making segments %s suspect", id, target,
+                    segments.get(target));
+            suspect(target);
+         } else if (iteratorResponse.isComplete()) {
+            pending--;
+            receiveResponse(id, target, true, iteratorResponse.getLostSegments(), iteratorResponse.getBatch());
+         } else {
+            receiveResponse(id, target, false, Collections.emptySet(), iteratorResponse.getBatch());
+            if (closed) {
+               close(target);
+            } else {
+               request(target, factory.buildStreamIteratorNextCommand(id, nextBatchSize()));
+            }
+         }
+      }
+
+      private void suspect(Address target) {
+         pending--;
+         receiveResponse(id, target, true, segments.get(target), null);
+      }
+
+      /**
+       * Releases the iterations on the nodes that have responded but did not complete
+       */
+      void release() {
+         IterationResponse response;
+         while ((response = responses.poll()) != null) {
+            IteratorResponse iteratorResponse = response.getIteratorResponse();
+            if (iteratorResponse != null && !iteratorResponse.isComplete()) {
+               close(response.target);
+            }
+         }
+      }
+
+      private void close(Address target) {
+         log.tracef("Releasing iteration %s on %s", id, target);
+         rpc.invokeRemotely(Collections.singleton(target), factory.buildStreamIteratorCloseCommand(id),
+                 rpc.getDefaultRpcOptions(false));
+      }
+   }
+
+   static class IterationResponse {
+      final Address target;
+      final Map<Address, Response> responses;
+      final Throwable throwable;
+
+      IterationResponse(Address target, Map<Address, Response> responses, Throwable throwable) {
+         this.target = target;
+         this.responses = responses;
+         this.throwable = throwable;
+      }
+
+      /**
+       * @return the response of the node, or null if the invocation failed or the node no longer knew the iteration
+       */
+      IteratorResponse getIteratorResponse() {
+         if (responses == null) {
+            return null;
+         }
+         Response response = responses.get(target);
+         if (response instanceof SuccessfulResponse) {
+            return (IteratorResponse) ((SuccessfulResponse) response).getResponseValue();
+         }
+         return null;
+      }
+   }
+
    static class RequestTracker<R> {
       final ResultsCallback<R> callback;
       final Map<Address, Set<Integer>> awaitingResponse;
@@ -554,11 +554,10 @@ Iterator<R> remoteIterator() {
 
       IteratorSupplier<R> supplier = new IteratorSupplier<>(queue, complete, nextLock, nextCondition, csm);
 
-      boolean iteratorParallelDistribute = parallelDistribution == null ? false : parallelDistribution;
-
       if (rehashAware) {
-         rehashAwareIteration(complete, consumer, supplier, iteratorParallelDistribute);
+         rehashAwareIteration(complete, consumer, supplier, queue::remainingCapacity);
       } else {
+         boolean iteratorParallelDistribute = parallelDistribution == null ? false : parallelDistribution;
          ignoreRehashIteration(consumer, supplier, iteratorParallelDistribute);
       }
 
@@ -620,7 +619,8 @@ private void ignoreRehashIteration(Consumer<R> consumer, IteratorSupplier<R> sup
       });
    }
 
-   private void rehashAwareIteration(AtomicBoolean complete, Consumer<R> consumer, IteratorSupplier<R> supplier, boolean iteratorParallelDistribute) {
+   private void rehashAwareIteration(AtomicBoolean complete, Consumer<R> consumer, IteratorSupplier<R> supplier,
+                                     IntSupplier credit) {
       ConsistentHash segmentInfoCH = dm.getReadConsistentHash();
       SegmentListenerNotifier<R> listenerNotifier;
       if (segmentCompletionListener != null) {
@@ -666,9 +666,10 @@ private void rehashAwareIteration(AtomicBoolean complete, Consumer<R> consumer,
                        intermediateOperations, supplierForSegments(ch, segmentsToProcess, excludedKeys, !stayLocal),
                        distributedBatchSize);
                if (!stayLocal) {
-                  Object id = csm.remoteStreamOperationRehashAware(iteratorParallelDistribute, parallel, ch,
-                          segmentsToProcess, keysToFilter, new AtomicReferenceArrayToMap<>(results.referenceArray),
-                          includeLoader, op, results);
+                  // The remote nodes only produce the entries we request, as space frees up in the queue
+                  Object id = csm.remoteIterationRehashAware(ch, segmentsToProcess, keysToFilter,
+                          new AtomicReferenceArrayToMap<>(results.referenceArray), includeLoader, op,
+                          distributedBatchSize, credit, results);
                   if (id != null) {
                      supplier.pending = id;
                   }
@@ -679,7 +680,7 @@ intermediateOperations, supplierForSegments(ch, segmentsToProcess, excludedKeys,
                      }
                      if (id != null) {
                         try {
-                           if (!csm.awaitCompletion(id, timeout, timeoutUnit)) {
+                           if (!csm.pullIteration(id, timeout, timeoutUnit)) {
                               throw new TimeoutException();
                            }
                         } catch (InterruptedException e) {
@@ -0,0 +1,89 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.marshall.core.Ids;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * A batch of entries returned by a remote node for a pull based iteration, see
+ * {@link LocalStreamManager#startIterator} and {@link LocalStreamManager#continueIterator}.
+ *
+ * @since 9.0
+ */
+public class IteratorResponse {
+   private final Collection<?> batch;
+   private final boolean complete;
+   private final Set<Integer> lostSegments;
+
+   public IteratorResponse(Collection<?> batch, boolean complete, Set<Integer> lostSegments) {
+      this.batch = batch;
+      this.complete = complete;
+      this.lostSegments = lostSegments;
+   }
+
+   /**
+    * @return the entries of this batch, or {@code null} if all the segments were lost
+    */
+   public Collection<?> getBatch() {
+      return batch;
+   }
+
+   /**
+    * @return whether this is the last batch of the iteration for this node
+    */
+   public boolean isComplete() {
+      return complete;
+   }
+
+   /**
+    * @return the segments that were lost while iterating, only set on the last batch
+    */
+   public Set<Integer> getLostSegments() {
+      return lostSegments;
+   }
+
+   @Override
+   public String toString() {
+      return "IteratorResponse{" +
+            "batch=" + (batch == null ? null : batch.size()) +
+            ", complete=" + complete +
+            ", lostSegments=" + lostSegments +
+            '}';
+   }
+
+   public static class Externalizer extends AbstractExternalizer<IteratorResponse> {
+
+      @Override
+      public Integer getId() {
+         return Ids.ITERATOR_RESPONSE;
+      }
+
+      @Override
+      public Set<Class<? extends IteratorResponse>> getTypeClasses() {
+         return Collections.singleton(IteratorResponse.class);
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, IteratorResponse object) throws IOException {
+         output.writeObject(object.batch);
+         output.writeBoolean(object.complete);
+         MarshallUtil.marshallCollection(object.lostSegments, output);
+      }
+
+      @Override
+      public IteratorResponse readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         Collection<?> batch = (Collection<?>) input.readObject();
+         boolean complete = input.readBoolean();
+         Set<Integer> lostSegments = MarshallUtil.unmarshallCollectionUnbounded(input, HashSet::new);
+         return new IteratorResponse(batch, complete, lostSegments);
+      }
+   }
+}
@@ -4,6 +4,7 @@
 import org.infinispan.factories.ComponentRegistry;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.function.Supplier;
 import java.util.stream.Stream;
 
@@ -41,6 +42,15 @@
    Collection<CacheEntry<K, R2>> performOperationRehashAware(
            IntermediateCollector<Collection<CacheEntry<K, R2>>> response);
 
+   /**
+    * Invoked when a key and rehash aware operation is desired whose results are pulled by the invoker in batches.
+    * The returned iterator must be lazy, so that no more entries are processed than the ones that were requested.
+    * @return an iterator over the results of this operation
+    */
+   default Iterator<CacheEntry<K, R2>> iteratorRehashAware() {
+      throw new UnsupportedOperationException();
+   }
+
    /**
     * This method is to be invoked only locally after a key tracking operation has been serialized to a new node
     * @param supplier the supplier to use
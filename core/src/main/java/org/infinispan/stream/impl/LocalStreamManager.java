@@ -71,4 +71,35 @@ <R> void streamOperation(Object requestId, Address origin, boolean parallelStrea
    <R2> void streamOperationRehashAware(Object requestId, Address origin, boolean parallelStream, Set<Integer> segments,
            Set<K> keysToInclude, Set<K> keysToExclude, boolean includeLoader,
            KeyTrackingTerminalOperation<K, ?, R2> operation);
+
+   /**
+    * Starts a pull based iteration for a key and rehash aware operation.  The iteration state is kept until it is
+    * completed or {@link #closeIterator(Object)} is invoked, so that no thread is held between batches.
+    * @param requestId the originating request id
+    * @param origin the node this request came from
+    * @param segments the segments to include in this operation
+    * @param keysToInclude which keys to include
+    * @param keysToExclude which keys to exclude
+    * @param includeLoader whether or not a cache loader should be utilized
+    * @param operation the operation to perform
+    * @param batchSize the maximum number of entries to return
+    * @param <R2> the type of response
+    * @return the first batch of entries
+    */
+   <R2> IteratorResponse startIterator(Object requestId, Address origin, Set<Integer> segments, Set<K> keysToInclude,
+           Set<K> keysToExclude, boolean includeLoader, KeyTrackingTerminalOperation<K, ?, R2> operation, int batchSize);
+
+   /**
+    * Retrieves the next batch of entries of an iteration started with {@link #startIterator}.
+    * @param requestId the originating request id
+    * @param batchSize the maximum number of entries to return
+    * @return the next batch of entries
+    */
+   IteratorResponse continueIterator(Object requestId, int batchSize);
+
+   /**
+    * Releases an iteration started with {@link #startIterator} before it was completed.
+    * @param requestId the originating request id
+    */
+   void closeIterator(Object requestId);
 }
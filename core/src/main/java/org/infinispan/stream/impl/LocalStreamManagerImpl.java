@@ -14,28 +14,40 @@
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.ComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.notifications.Listener;
 import org.infinispan.notifications.cachelistener.annotation.DataRehashed;
+import org.infinispan.notifications.cachelistener.annotation.TopologyChanged;
 import org.infinispan.notifications.cachelistener.event.DataRehashedEvent;
+import org.infinispan.notifications.cachelistener.event.TopologyChangedEvent;
 import org.infinispan.remoting.rpc.RpcManager;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.statetransfer.StateTransferManager;
 import org.infinispan.topology.CacheTopology;
 import org.infinispan.util.ByteString;
+import org.infinispan.util.TimeService;
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.BaseStream;
 import java.util.stream.Stream;
 
 /**
@@ -49,6 +61,12 @@
    private final static Log log = LogFactory.getLog(LocalStreamManagerImpl.class);
    private static final boolean trace = log.isTraceEnabled();
 
+   /**
+    * A pull based iteration whose origin didn't request a batch for this long is released, as the origin may have
+    * abandoned it without closing it.  The origin then retries all the segments it requested from this node.
+    */
+   private static final long DEFAULT_ITERATOR_IDLE_TIMEOUT = TimeUnit.MINUTES.toMillis(10);
+
    private AdvancedCache<K, V> cache;
    private ComponentRegistry registry;
    private StateTransferManager stm;
@@ -56,10 +74,16 @@
    private CommandsFactory factory;
    private boolean hasLoader;
    private Equivalence<? super K> keyEquivalence;
+   private ScheduledExecutorService scheduledExecutor;
+   private TimeService timeService;
+   private long reaperInterval;
+   private long iteratorIdleTimeout = DEFAULT_ITERATOR_IDLE_TIMEOUT;
+   private ScheduledFuture<?> reaperTask;
 
    private Address localAddress;
 
    private final ConcurrentMap<Object, SegmentListener> changeListener = CollectionFactory.makeConcurrentMap();
+   private final ConcurrentMap<Object, IteratorState> iterators = CollectionFactory.makeConcurrentMap();
    private ByteString cacheName;
 
    class SegmentListener {
@@ -103,9 +127,36 @@ public void lostSegments(Set<Integer> lostSegments) {
       }
    }
 
+   /**
+    * The state of a pull based iteration between the batches requested by the origin
+    */
+   class IteratorState {
+      private final Address origin;
+      private final SegmentListener listener;
+      // The stream is created when the iterator is, and must be closed to release the store iteration
+      private BaseStream<?, ?> stream;
+      private Iterator<? extends CacheEntry<K, ?>> iterator;
+      private boolean closed;
+      private volatile long lastAccess;
+
+      IteratorState(Address origin, SegmentListener listener) {
+         this.origin = origin;
+         this.listener = listener;
+         this.lastAccess = timeService.time();
+      }
+
+      synchronized void close() {
+         closed = true;
+         if (stream != null) {
+            stream.close();
+         }
+      }
+   }
+
    @Inject
    public void inject(Cache<K, V> cache, ComponentRegistry registry, StateTransferManager stm, RpcManager rpc,
-           Configuration configuration, CommandsFactory factory) {
+           Configuration configuration, CommandsFactory factory, TimeService timeService,
+           @ComponentName(KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR) ScheduledExecutorService scheduledExecutor) {
       this.cache = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL);
       this.cacheName = ByteString.fromString(cache.getName());
       this.registry = registry;
@@ -114,12 +165,40 @@ public void inject(Cache<K, V> cache, ComponentRegistry registry, StateTransferM
       this.factory = factory;
       this.hasLoader = configuration.persistence().usingStores();
       this.keyEquivalence = configuration.dataContainer().keyEquivalence();
+      this.timeService = timeService;
+      this.scheduledExecutor = scheduledExecutor;
+      this.reaperInterval = configuration.expiration().wakeUpInterval();
    }
 
    @Start
    public void start() {
       localAddress = rpc.getAddress();
       cache.addListener(this);
+      if (reaperInterval > 0) {
+         reaperTask = scheduledExecutor.scheduleWithFixedDelay(this::releaseIdleIterators, reaperInterval,
+               reaperInterval, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   @Stop
+   public void stop() {
+      if (reaperTask != null) {
+         reaperTask.cancel(false);
+      }
+      iterators.keySet().forEach(this::closeIterator);
+   }
+
+   private void releaseIdleIterators() {
+      long now = timeService.time();
+      for (Map.Entry<Object, IteratorState> entry : iterators.entrySet()) {
+         if (timeService.timeDuration(entry.getValue().lastAccess, now, TimeUnit.MILLISECONDS) >= iteratorIdleTimeout) {
+            if (trace) {
+               log.tracef("Iterator %s from %s was idle for more than %s ms, releasing it", entry.getKey(),
+                       entry.getValue().origin, iteratorIdleTimeout);
+            }
+            closeIterator(entry.getKey());
+         }
+      }
    }
 
    /**
@@ -168,6 +247,27 @@ public void dataRehashed(DataRehashedEvent<K, V> event) {
       }
    }
 
+   /**
+    * Releases the pull based iterations of nodes that left the cluster, since these will never request more entries
+    * @param event The topology changed event
+    */
+   @TopologyChanged
+   public void topologyChanged(TopologyChangedEvent<K, V> event) {
+      ConsistentHash endHash = event.getConsistentHashAtEnd();
+      if (endHash != null && !iterators.isEmpty()) {
+         List<Address> members = endHash.getMembers();
+         for (Map.Entry<Object, IteratorState> entry : iterators.entrySet()) {
+            if (!members.contains(entry.getValue().origin)) {
+               if (trace) {
+                  log.tracef("Origin %s of iterator %s has left, releasing it", entry.getValue().origin,
+                          entry.getKey());
+               }
+               closeIterator(entry.getKey());
+            }
+         }
+      }
+   }
+
    private AdvancedCache<K, V> getCacheRespectingLoader(boolean includeLoader) {
       // We only need to "skip" the loader if there is one and we were told to skip it
       if (hasLoader && !includeLoader) {
@@ -366,6 +466,105 @@ public <R2> void streamOperationRehashAware(Object requestId, Address origin, bo
               listener.segmentsLost, results), rpc.getDefaultRpcOptions(true));
    }
 
+   @Override
+   public <R2> IteratorResponse startIterator(Object requestId, Address origin, Set<Integer> segments,
+           Set<K> keysToInclude, Set<K> keysToExclude, boolean includeLoader,
+           KeyTrackingTerminalOperation<K, ?, R2> operation, int batchSize) {
+      if (trace) {
+         log.tracef("Received iterator request for id %s from %s for segments %s", requestId, origin, segments);
+      }
+      CacheSet<CacheEntry<K, V>> cacheEntrySet = getCacheRespectingLoader(includeLoader).cacheEntrySet();
+      SegmentListener listener = new SegmentListener(segments, operation);
+
+      operation.handleInjection(registry);
+      // The listener stays registered between the batches, until the iteration is completed or closed
+      changeListener.put(requestId, listener);
+      IteratorState state = new IteratorState(origin, listener);
+      try {
+         operation.setSupplier(() -> {
+            Stream<CacheEntry<K, V>> stream = getRehashStream(cacheEntrySet, requestId, listener, false, segments,
+                    keysToInclude, keysToExclude);
+            state.stream = stream;
+            return stream;
+         });
+         state.iterator = operation.iteratorRehashAware();
+      } catch (RuntimeException | Error e) {
+         changeListener.remove(requestId);
+         state.close();
+         throw e;
+      }
+      iterators.put(requestId, state);
+      return nextBatch(requestId, state, batchSize);
+   }
+
+   @Override
+   public IteratorResponse continueIterator(Object requestId, int batchSize) {
+      IteratorState state = iterators.get(requestId);
+      if (state == null) {
+         // The origin will retry all the segments it requested from us
+         if (trace) {
+            log.tracef("Iterator %s is no longer present", requestId);
+         }
+         return null;
+      }
+      return nextBatch(requestId, state, batchSize);
+   }
+
+   private IteratorResponse nextBatch(Object requestId, IteratorState state, int batchSize) {
+      SegmentListener listener = state.listener;
+      List<CacheEntry<K, ?>> batch = new ArrayList<>(batchSize);
+      boolean complete;
+      synchronized (state) {
+         if (state.closed) {
+            // Released concurrently, the origin will retry all the segments it requested from us
+            return null;
+         }
+         state.lastAccess = timeService.time();
+         try {
+            Iterator<? extends CacheEntry<K, ?>> iterator = state.iterator;
+            while (batch.size() < batchSize && iterator.hasNext()) {
+               batch.add(iterator.next());
+            }
+            complete = !iterator.hasNext();
+         } catch (RuntimeException | Error e) {
+            closeIterator(requestId);
+            throw e;
+         }
+      }
+      if (!complete) {
+         if (trace) {
+            log.tracef("Sending batch of %s entries for %s", batch.size(), requestId);
+         }
+         return new IteratorResponse(batch, false, Collections.emptySet());
+      }
+
+      closeIterator(requestId);
+      if (cache.getStatus() != ComponentStatus.RUNNING) {
+         if (trace) {
+            log.tracef("Cache status is no longer running, all segments are now suspect for %s", requestId);
+         }
+         listener.segmentsLost.addAll(listener.segments);
+         return new IteratorResponse(null, true, listener.segmentsLost);
+      }
+      if (trace) {
+         log.tracef("Request %s completed segments %s with %s suspected segments", requestId, listener.segments,
+                 listener.segmentsLost);
+      }
+      return new IteratorResponse(batch, true, listener.segmentsLost);
+   }
+
+   @Override
+   public void closeIterator(Object requestId) {
+      IteratorState state = iterators.remove(requestId);
+      if (state != null) {
+         changeListener.remove(requestId);
+         state.close();
+         if (trace) {
+            log.tracef("Released iterator and change listener for %s", requestId);
+         }
+      }
+   }
+
    class NonRehashIntermediateCollector<R> implements KeyTrackingTerminalOperation.IntermediateCollector<R> {
       private final Address origin;
       private final Object requestId;
@@ -1,6 +1,7 @@
 package org.infinispan.stream.impl;
 
 import org.infinispan.Cache;
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
@@ -14,6 +15,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -100,6 +102,21 @@ public <R2> Object remoteStreamOperationRehashAware(boolean parallelDistribution
               keysToExclude, includeLoader, operation, callback);
    }
 
+   @Override
+   public <R2> Object remoteIterationRehashAware(ConsistentHash ch, Set<Integer> segments, Set<K> keysToInclude,
+           Map<Integer, Set<K>> keysToExclude, boolean includeLoader, KeyTrackingTerminalOperation<K, ?, R2> operation,
+           int batchSize, IntSupplier credit, ResultsCallback<Collection<CacheEntry<K, R2>>> callback) {
+      checkPartitionStatus();
+      return super.remoteIterationRehashAware(ch, segments, keysToInclude, keysToExclude, includeLoader, operation,
+              batchSize, credit, callback);
+   }
+
+   @Override
+   public boolean pullIteration(Object id, long time, TimeUnit unit) throws InterruptedException {
+      checkPartitionStatus();
+      return super.pullIteration(id, time, unit);
+   }
+
    private void checkPartitionStatus() {
       if (listener.currentMode != AvailabilityMode.AVAILABLE) {
          throw log.partitionDegraded();
@@ -0,0 +1,79 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.ByteString;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Stream request command that is sent to remote nodes to release an iteration started with
+ * {@link StreamIteratorRequestCommand} that was not iterated until the end.
+ * @since 9.0
+ */
+public class StreamIteratorCloseCommand extends BaseRpcCommand {
+   public static final byte COMMAND_ID = 64;
+
+   private LocalStreamManager lsm;
+
+   private Object id;
+
+   // Only here for CommandIdUniquenessTest
+   private StreamIteratorCloseCommand() { super(null); }
+
+   public StreamIteratorCloseCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public StreamIteratorCloseCommand(ByteString cacheName, Address origin, Object id) {
+      super(cacheName);
+      setOrigin(origin);
+      this.id = id;
+   }
+
+   @Inject
+   public void inject(LocalStreamManager lsm) {
+      this.lsm = lsm;
+   }
+
+   public Object getId() {
+      return id;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      lsm.closeIterator(id);
+      return null;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeObject(getOrigin());
+      output.writeObject(id);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      setOrigin((Address) input.readObject());
+      id = input.readObject();
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return false;
+   }
+}
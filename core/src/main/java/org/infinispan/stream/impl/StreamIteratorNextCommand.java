@@ -0,0 +1,86 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.ByteString;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+
+/**
+ * Stream request command that is sent to remote nodes to retrieve the next batch of entries of an iteration started
+ * with {@link StreamIteratorRequestCommand}.
+ * @since 9.0
+ */
+public class StreamIteratorNextCommand extends BaseRpcCommand {
+   public static final byte COMMAND_ID = 63;
+
+   private LocalStreamManager lsm;
+
+   private Object id;
+   private int batchSize;
+
+   // Only here for CommandIdUniquenessTest
+   private StreamIteratorNextCommand() { super(null); }
+
+   public StreamIteratorNextCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public StreamIteratorNextCommand(ByteString cacheName, Address origin, Object id, int batchSize) {
+      super(cacheName);
+      setOrigin(origin);
+      this.id = id;
+      this.batchSize = batchSize;
+   }
+
+   @Inject
+   public void inject(LocalStreamManager lsm) {
+      this.lsm = lsm;
+   }
+
+   public Object getId() {
+      return id;
+   }
+
+   public int getBatchSize() {
+      return batchSize;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      return lsm.continueIterator(id, batchSize);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeObject(getOrigin());
+      output.writeObject(id);
+      output.writeInt(batchSize);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      setOrigin((Address) input.readObject());
+      id = input.readObject();
+      batchSize = input.readInt();
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+}
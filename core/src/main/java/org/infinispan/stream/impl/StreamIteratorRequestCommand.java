@@ -0,0 +1,125 @@
+package org.infinispan.stream.impl;
+
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.BaseRpcCommand;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.util.ByteString;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Stream request command that is sent to remote nodes to start a pull based, rehash aware iteration.  The first batch
+ * of entries is returned as the response, the following ones are requested with {@link StreamIteratorNextCommand}.
+ * @param <K> the key type
+ * @since 9.0
+ */
+public class StreamIteratorRequestCommand<K> extends BaseRpcCommand implements TopologyAffectedCommand {
+   public static final byte COMMAND_ID = 62;
+
+   private LocalStreamManager lsm;
+
+   private Object id;
+   private Set<Integer> segments;
+   private Set<K> keys;
+   private Set<K> excludedKeys;
+   private boolean includeLoader;
+   private KeyTrackingTerminalOperation terminalOperation;
+   private int batchSize;
+   private int topologyId = -1;
+
+   @Override
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public void setTopologyId(int topologyId) {
+      this.topologyId = topologyId;
+   }
+
+   public Object getId() {
+      return id;
+   }
+
+   public int getBatchSize() {
+      return batchSize;
+   }
+
+   // Only here for CommandIdUniquenessTest
+   private StreamIteratorRequestCommand() { super(null); }
+
+   public StreamIteratorRequestCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public StreamIteratorRequestCommand(ByteString cacheName, Address origin, Object id, Set<Integer> segments,
+                                       Set<K> keys, Set<K> excludedKeys, boolean includeLoader,
+                                       KeyTrackingTerminalOperation terminalOperation, int batchSize) {
+      super(cacheName);
+      setOrigin(origin);
+      this.id = id;
+      this.segments = segments;
+      this.keys = keys;
+      this.excludedKeys = excludedKeys;
+      this.includeLoader = includeLoader;
+      this.terminalOperation = terminalOperation;
+      this.batchSize = batchSize;
+   }
+
+   @Inject
+   public void inject(LocalStreamManager lsm) {
+      this.lsm = lsm;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      return lsm.startIterator(id, getOrigin(), segments, keys, excludedKeys, includeLoader, terminalOperation,
+              batchSize);
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeObject(getOrigin());
+      output.writeObject(id);
+      MarshallUtil.marshallCollection(segments, output);
+      MarshallUtil.marshallCollection(keys, output);
+      MarshallUtil.marshallCollection(excludedKeys, output);
+      output.writeBoolean(includeLoader);
+      output.writeObject(terminalOperation);
+      output.writeInt(batchSize);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      setOrigin((Address) input.readObject());
+      id = input.readObject();
+      segments = MarshallUtil.unmarshallCollectionUnbounded(input, HashSet::new);
+      keys = MarshallUtil.unmarshallCollectionUnbounded(input, HashSet::new);
+      excludedKeys = MarshallUtil.unmarshallCollectionUnbounded(input, HashSet::new);
+      includeLoader = input.readBoolean();
+      terminalOperation = (KeyTrackingTerminalOperation) input.readObject();
+      batchSize = input.readInt();
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return true;
+   }
+
+   @Override
+   public boolean canBlock() {
+      return true;
+   }
+}
@@ -9,6 +9,7 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -90,6 +91,39 @@ public Collection<CacheEntry<K, Collection<V>>> performOperationRehashAware(
       return collectedValues;
    }
 
+   @Override
+   public Iterator<CacheEntry<K, Collection<V>>> iteratorRehashAware() {
+      BaseStream<?, ?> stream = supplier.get().sequential();
+
+      ByRef<K> currentKey = new ByRef<>(null);
+      stream = ((Stream<Map.Entry<K, ?>>) stream).peek(e -> currentKey.set(e.getKey()));
+      for (IntermediateOperation intermediateOperation : intermediateOperations) {
+         stream = intermediateOperation.perform(stream);
+      }
+
+      // The iterator buffers all the values produced by an entry before advancing to the next entry, so the values
+      // having the same key are always consecutive and the key is updated when checking for the next value
+      Iterator<V> iterator = ((Stream<V>) stream).iterator();
+      return new Iterator<CacheEntry<K, Collection<V>>>() {
+         @Override
+         public boolean hasNext() {
+            return iterator.hasNext();
+         }
+
+         @Override
+         public CacheEntry<K, Collection<V>> next() {
+            V value = iterator.next();
+            K key = currentKey.get();
+            List<V> values = new ArrayList<>();
+            values.add(value);
+            while (iterator.hasNext() && currentKey.get() == key) {
+               values.add(iterator.next());
+            }
+            return new ImmortalCacheEntry(key, values);
+         }
+      };
+   }
+
    public int getBatchSize() {
       return batchSize;
    }
@@ -9,6 +9,7 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.function.Supplier;
@@ -76,6 +77,34 @@ public Collection<CacheEntry<K, V2>> performOperationRehashAware(
       return collectedValues;
    }
 
+   @Override
+   public Iterator<CacheEntry<K, V2>> iteratorRehashAware() {
+      BaseStream<?, ?> stream = supplier.get().sequential();
+
+      ByRef<Object> ref = new ByRef<>(null);
+      stream = ((Stream<Map.Entry<K, ?>>) stream).peek(
+              e -> ref.set(e.getKey()));
+      for (IntermediateOperation intermediateOperation : intermediateOperations) {
+         stream = intermediateOperation.perform(stream);
+      }
+
+      // We rely on the fact that the iterator only advances the stream by 1 entry at a time, so the key is the one
+      // of the value that is returned
+      Iterator<V2> iterator = ((Stream<V2>) stream).iterator();
+      return new Iterator<CacheEntry<K, V2>>() {
+         @Override
+         public boolean hasNext() {
+            return iterator.hasNext();
+         }
+
+         @Override
+         public CacheEntry<K, V2> next() {
+            V2 value = iterator.next();
+            return new ImmortalCacheEntry(ref.get(), value);
+         }
+      };
+   }
+
    public int getBatchSize() {
       return batchSize;
    }
@@ -5,6 +5,7 @@
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Set;
 import java.util.function.BiConsumer;
@@ -71,4 +72,15 @@ public Collection<CacheEntry<K, V>> performOperationRehashAware(
 
       return actualPerformOperation(response, (Stream<CacheEntry<K, V>>) stream);
    }
+
+   @Override
+   public Iterator<CacheEntry<K, V>> iteratorRehashAware() {
+      BaseStream<?, ?> stream = supplier.get().sequential();
+
+      for (IntermediateOperation intermediateOperation : intermediateOperations) {
+         stream = intermediateOperation.perform(stream);
+      }
+
+      return ((Stream<CacheEntry<K, V>>) stream).iterator();
+   }
 }
@@ -1,5 +1,6 @@
 package org.infinispan.stream.impl.tx;
 
+import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.impl.LocalTxInvocationContext;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.remoting.transport.Address;
@@ -14,6 +15,7 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.TimeUnit;
+import java.util.function.IntSupplier;
 import java.util.function.Predicate;
 
 /**
@@ -70,6 +72,20 @@ public <R2> Object remoteStreamOperationRehashAware(boolean parallelDistribution
               txExcludedKeys, includeLoader, operation, callback);
    }
 
+   @Override
+   public <R2> Object remoteIterationRehashAware(ConsistentHash ch, Set<Integer> segments, Set<K> keysToInclude,
+           Map<Integer, Set<K>> keysToExclude, boolean includeLoader, KeyTrackingTerminalOperation<K, ?, R2> operation,
+           int batchSize, IntSupplier credit, ResultsCallback<Collection<CacheEntry<K, R2>>> callback) {
+      TxExcludedKeys<K> txExcludedKeys = new TxExcludedKeys<>(keysToExclude, ctx, hash);
+      return manager.remoteIterationRehashAware(ch, segments, keysToInclude, txExcludedKeys, includeLoader, operation,
+              batchSize, credit, callback);
+   }
+
+   @Override
+   public boolean pullIteration(Object id, long time, TimeUnit unit) throws InterruptedException {
+      return manager.pullIteration(id, time, unit);
+   }
+
    @Override
    public boolean isComplete(Object id) {
       return manager.isComplete(id);
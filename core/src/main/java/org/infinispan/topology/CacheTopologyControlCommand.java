@@ -62,7 +62,11 @@ public enum Type {
       // Change the availability
       AVAILABILITY_MODE_CHANGE,
       // Query the rebalancing progress
-      REBALANCING_GET_STATUS;
+      REBALANCING_GET_STATUS,
+      // Report the size and number of operations of each segment
+      SEGMENT_LOAD_UPDATE,
+      // Query the balance score of the cache
+      LOAD_BALANCE_GET_SCORE;
 
       private static final Type[] CACHED_VALUES = values();
    }
@@ -87,6 +91,8 @@ public enum Type {
    private AvailabilityMode availabilityMode;
    private List<Address> actualMembers;
    private List<PersistentUUID> persistentUUIDs;
+   private long[] segmentSizes;
+   private long[] segmentOperations;
 
    private Throwable throwable;
    private int viewId;
@@ -146,6 +152,16 @@ public CacheTopologyControlCommand(String cacheName, Type type, Address sender,
       this.viewId = viewId;
    }
 
+   public CacheTopologyControlCommand(String cacheName, Type type, Address sender, long[] segmentSizes,
+                                      long[] segmentOperations, int viewId) {
+      this.cacheName = cacheName;
+      this.type = type;
+      this.sender = sender;
+      this.segmentSizes = segmentSizes;
+      this.segmentOperations = segmentOperations;
+      this.viewId = viewId;
+   }
+
    @Inject
    public void init(LocalTopologyManager localTopologyManager, ClusterTopologyManager clusterTopologyManager, PersistentUUIDManager persistentUUIDManager) {
       this.localTopologyManager = localTopologyManager;
@@ -224,6 +240,13 @@ private Object doPerform() throws Exception {
          // rebalancing status
          case REBALANCING_GET_STATUS:
             return clusterTopologyManager.getRebalancingStatus(cacheName);
+
+         // segment load statistics
+         case SEGMENT_LOAD_UPDATE:
+            clusterTopologyManager.handleSegmentLoads(cacheName, sender, segmentSizes, segmentOperations, viewId);
+            return null;
+         case LOAD_BALANCE_GET_SCORE:
+            return clusterTopologyManager.getLoadBalanceScore(cacheName);
          default:
             throw new CacheException("Unknown cache topology control command type " + type);
       }
@@ -323,10 +346,17 @@ public void writeTo(ObjectOutput output) throws IOException {
          case AVAILABILITY_MODE_CHANGE:
             MarshallUtil.marshallEnum(availabilityMode, output);
             return;
+         case SEGMENT_LOAD_UPDATE:
+            output.writeObject(sender);
+            writeLongArray(segmentSizes, output);
+            writeLongArray(segmentOperations, output);
+            output.writeInt(viewId);
+            return;
          case POLICY_GET_STATUS:
          case POLICY_ENABLE:
          case POLICY_DISABLE:
          case REBALANCING_GET_STATUS:
+         case LOAD_BALANCE_GET_SCORE:
          default:
       }
    }
@@ -388,14 +418,37 @@ public void readFrom(ObjectInput input) throws IOException, ClassNotFoundExcepti
          case AVAILABILITY_MODE_CHANGE:
             availabilityMode = MarshallUtil.unmarshallEnum(input, AvailabilityMode::valueOf);
             return;
+         case SEGMENT_LOAD_UPDATE:
+            sender = (Address) input.readObject();
+            segmentSizes = readLongArray(input);
+            segmentOperations = readLongArray(input);
+            viewId = input.readInt();
+            return;
          case POLICY_GET_STATUS:
          case POLICY_ENABLE:
          case POLICY_DISABLE:
          case REBALANCING_GET_STATUS:
+         case LOAD_BALANCE_GET_SCORE:
          default:
       }
    }
 
+   private static void writeLongArray(long[] array, ObjectOutput output) throws IOException {
+      MarshallUtil.marshallInt(output, array.length);
+      for (long value : array) {
+         output.writeLong(value);
+      }
+   }
+
+   private static long[] readLongArray(ObjectInput input) throws IOException {
+      int size = MarshallUtil.unmarshallInt(input);
+      long[] array = new long[size];
+      for (int i = 0; i < size; i++) {
+         array[i] = input.readLong();
+      }
+      return array;
+   }
+
    @Override
    public String toString() {
       return "CacheTopologyControlCommand{" +
@@ -4,6 +4,8 @@
 import org.infinispan.commons.util.Immutables;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.distribution.ch.ConsistentHashFactory;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
 import org.infinispan.globalstate.ScopedPersistentState;
 import org.infinispan.lifecycle.ComponentStatus;
 import org.infinispan.partitionhandling.AvailabilityMode;
@@ -62,6 +64,10 @@ public class ClusterCacheStatus implements AvailabilityStrategyContext {
 
    private volatile RebalanceConfirmationCollector rebalanceConfirmationCollector;
    private ComponentStatus status;
+   // Segment sizes and operations reported by each member, only with the LoadAwareConsistentHashFactory
+   // Guarded by this
+   private final Map<Address, long[]> segmentSizes = new HashMap<>();
+   private final Map<Address, long[]> segmentOperations = new HashMap<>();
 
    public ClusterCacheStatus(String cacheName, AvailabilityStrategy availabilityStrategy,
                              ClusterTopologyManager clusterTopologyManager, Transport transport, Optional<ScopedPersistentState> state, PersistentUUIDManager persistentUUIDManager) {
@@ -745,7 +751,14 @@ public void startQueuedRebalance() {
          ConsistentHashFactory chFactory = getJoinInfo().getConsistentHashFactory();
          // This update will only add the joiners to the CH, we have already checked that we don't have leavers
          ConsistentHash updatedMembersCH = chFactory.updateMembers(currentCH, newMembers, getCapacityFactors());
-         ConsistentHash balancedCH = chFactory.rebalance(updatedMembersCH);
+         ConsistentHash balancedCH;
+         double[] segmentWeights = getSegmentWeights();
+         if (segmentWeights != null) {
+            balancedCH = ((LoadAwareConsistentHashFactory) chFactory).rebalance(
+                  (DefaultConsistentHash) updatedMembersCH, segmentWeights);
+         } else {
+            balancedCH = chFactory.rebalance(updatedMembersCH);
+         }
          if (balancedCH.equals(currentCH)) {
             log.tracef("The balanced CH is the same as the current CH, not rebalancing");
             return;
@@ -781,6 +794,73 @@ public void forceRebalance() {
       startQueuedRebalance();
    }
 
+   public void updateSegmentLoads(Address sender, long[] sizes, long[] operations) {
+      synchronized (this) {
+         CacheTopology cacheTopology = currentTopology;
+         if (cacheTopology == null || !(joinInfo.getConsistentHashFactory() instanceof LoadAwareConsistentHashFactory)
+               || sizes.length != joinInfo.getNumSegments()) {
+            log.tracef("Ignoring segment loads for cache %s from %s", cacheName, sender);
+            return;
+         }
+         segmentSizes.put(sender, sizes);
+         segmentOperations.put(sender, operations);
+         segmentSizes.keySet().retainAll(expectedMembers);
+         segmentOperations.keySet().retainAll(expectedMembers);
+
+         double[] segmentWeights = getSegmentWeights();
+         if (segmentWeights == null || isRebalanceInProgress())
+            return;
+
+         LoadAwareConsistentHashFactory chFactory = (LoadAwareConsistentHashFactory) joinInfo.getConsistentHashFactory();
+         double score = chFactory.getBalanceScore((DefaultConsistentHash) cacheTopology.getCurrentCH(), segmentWeights);
+         if (score > chFactory.getRebalanceThreshold()) {
+            log.debugf("Balance score of cache %s is %f, rebalancing", cacheName, score);
+            queueRebalance(cacheTopology.getMembers());
+         }
+      }
+   }
+
+   /**
+    * @return the balance score of the current consistent hash, or {@code -1} if the segment loads are not known
+    */
+   public double getLoadBalanceScore() {
+      synchronized (this) {
+         double[] segmentWeights = getSegmentWeights();
+         if (segmentWeights == null)
+            return -1;
+
+         LoadAwareConsistentHashFactory chFactory = (LoadAwareConsistentHashFactory) joinInfo.getConsistentHashFactory();
+         return chFactory.getBalanceScore((DefaultConsistentHash) currentTopology.getCurrentCH(), segmentWeights);
+      }
+   }
+
+   /**
+    * Aggregates the segment loads reported by the members. Every owner of a segment reports the same size, but only the
+    * operations that it handled.
+    *
+    * @return the weight of each segment, or {@code null} if not all the current members reported their segment loads
+    */
+   private double[] getSegmentWeights() {
+      if (joinInfo == null || !(joinInfo.getConsistentHashFactory() instanceof LoadAwareConsistentHashFactory)
+            || currentTopology == null)
+         return null;
+      if (!segmentSizes.keySet().containsAll(currentTopology.getMembers()))
+         return null;
+
+      int numSegments = joinInfo.getNumSegments();
+      long[] sizes = new long[numSegments];
+      long[] operations = new long[numSegments];
+      for (Address member : currentTopology.getMembers()) {
+         long[] memberSizes = segmentSizes.get(member);
+         long[] memberOperations = segmentOperations.get(member);
+         for (int i = 0; i < numSegments; i++) {
+            sizes[i] = Math.max(sizes[i], memberSizes[i]);
+            operations[i] += memberOperations[i];
+         }
+      }
+      return ((LoadAwareConsistentHashFactory) joinInfo.getConsistentHashFactory()).segmentWeights(sizes, operations);
+   }
+
    public void forceAvailabilityMode(AvailabilityMode newAvailabilityMode) {
       availabilityStrategy.onManualAvailabilityChange(this, newAvailabilityMode);
    }
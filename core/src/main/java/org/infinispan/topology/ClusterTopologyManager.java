@@ -67,6 +67,16 @@ public interface ClusterTopologyManager {
 
    void forceRebalance(String cacheName);
 
+   /**
+    * Updates the segment loads reported by a member, and starts a rebalance if the load is no longer balanced.
+    */
+   void handleSegmentLoads(String cacheName, Address sender, long[] segmentSizes, long[] segmentOperations, int viewId);
+
+   /**
+    * Retrieves the balance score of a cache, or {@code -1} if the segment loads are not known
+    */
+   double getLoadBalanceScore(String cacheName);
+
    void forceAvailabilityMode(String cacheName, AvailabilityMode availabilityMode);
 
    void handleShutdownRequest(String cacheName) throws Exception;
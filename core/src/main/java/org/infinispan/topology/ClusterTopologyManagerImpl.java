@@ -674,6 +674,24 @@ public void forceRebalance(String cacheName) {
       }
    }
 
+   @Override
+   public void handleSegmentLoads(String cacheName, Address sender, long[] segmentSizes, long[] segmentOperations,
+                                  int viewId) {
+      ClusterCacheStatus cacheStatus = cacheStatusMap.get(cacheName);
+      if (cacheStatus == null) {
+         log.debugf("Ignoring segment loads from %s for cache %s because it doesn't have a cache status entry",
+                    sender, cacheName);
+         return;
+      }
+      cacheStatus.updateSegmentLoads(sender, segmentSizes, segmentOperations);
+   }
+
+   @Override
+   public double getLoadBalanceScore(String cacheName) {
+      ClusterCacheStatus cacheStatus = cacheStatusMap.get(cacheName);
+      return cacheStatus != null ? cacheStatus.getLoadBalanceScore() : -1;
+   }
+
    @Override
    public void forceAvailabilityMode(String cacheName, AvailabilityMode availabilityMode) {
       ClusterCacheStatus cacheStatus = cacheStatusMap.get(cacheName);
@@ -109,6 +109,21 @@ void handleStableTopologyUpdate(String cacheName, CacheTopology cacheTopology, f
     */
    RebalancingStatus getRebalancingStatus(String cacheName) throws Exception;
 
+   /**
+    * Sends the size and the number of operations of each segment owned by this node to the coordinator.
+    * Only used with the {@link org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory}.
+    *
+    * @param segmentSizes      the estimated size in bytes of each segment, {@code 0} for segments not owned locally
+    * @param segmentOperations the number of operations on each segment since the previous update
+    */
+   void updateSegmentLoads(String cacheName, long[] segmentSizes, long[] segmentOperations);
+
+   /**
+    * Retrieve the balance score for the specified cache, the ratio between the load of the most loaded member and the
+    * average load, or {@code -1} if the segment loads are not known.
+    */
+   double getLoadBalanceScore(String cacheName) throws Exception;
+
    /**
     * Retrieves the availability state of a cache.
     */
@@ -22,6 +22,8 @@
 import org.infinispan.jmx.annotations.DataType;
 import org.infinispan.jmx.annotations.MBean;
 import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.Parameter;
 import org.infinispan.partitionhandling.AvailabilityMode;
 import org.infinispan.partitionhandling.impl.PartitionHandlingManager;
 import org.infinispan.remoting.inboundhandler.DeliverOrder;
@@ -596,6 +598,35 @@ public RebalancingStatus getRebalancingStatus(String cacheName) throws Exception
       }
    }
 
+   @Override
+   public void updateSegmentLoads(String cacheName, long[] segmentSizes, long[] segmentOperations) {
+      ReplicableCommand command = new CacheTopologyControlCommand(cacheName,
+            CacheTopologyControlCommand.Type.SEGMENT_LOAD_UPDATE, transport.getAddress(), segmentSizes,
+            segmentOperations, transport.getViewId());
+      try {
+         executeOnCoordinatorAsync(command);
+      } catch (Exception e) {
+         log.debugf(e, "Error sending the segment loads for cache %s to the coordinator", cacheName);
+      }
+   }
+
+   @ManagedOperation(description = "Retrieves the ratio between the load of the most loaded member and the average load of a cache",
+         displayName = "Load balance score")
+   @Override
+   public double getLoadBalanceScore(@Parameter(name = "cacheName", description = "Name of the cache") String cacheName) throws Exception {
+      ReplicableCommand command = new CacheTopologyControlCommand(cacheName,
+            CacheTopologyControlCommand.Type.LOAD_BALANCE_GET_SCORE, transport.getAddress(), transport.getViewId());
+      while (true) {
+         int nextViewId = transport.getViewId() + 1;
+         try {
+            return (Double) executeOnCoordinator(command, getGlobalTimeout());
+         } catch (SuspectException e) {
+            if (trace) log.tracef("Coordinator left the cluster while querying the load balance score, retrying");
+            transport.waitForView(nextViewId);
+         }
+      }
+   }
+
    @ManagedAttribute(description = "Cluster availability", displayName = "Cluster availability",
          dataType = DataType.TRAIT, writable = false)
    public String getClusterAvailability() {
@@ -0,0 +1,92 @@
+package org.infinispan.transaction.impl;
+
+import org.infinispan.transaction.xa.GlobalTransaction;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * An append-only log of the completed transactions, in completion order.
+ * <p>
+ * The transactions and their completion timestamps are stored in fixed size chunks, so marking a transaction as
+ * completed doesn't allocate anything but a new chunk once in a while, and appending never blocks. Because the
+ * transactions are appended in (roughly) increasing timestamp order, the expired transactions are always at the head
+ * of the log, and removing them doesn't need to visit the transactions that are still kept.
+ * <p>
+ * Appending is thread safe, but {@link #removeExpired(long, Consumer)} must only be invoked by one thread at a time.
+ *
+ * @since 9.0
+ */
+final class CompletedTransactionLog {
+
+   private static final int CHUNK_SIZE = 1024;
+
+   private final AtomicReference<Chunk> tail;
+
+   // only accessed by the thread removing the expired transactions
+   private Chunk head;
+   private int headIndex;
+
+   CompletedTransactionLog() {
+      head = new Chunk();
+      tail = new AtomicReference<>(head);
+   }
+
+   void append(GlobalTransaction globalTransaction, long timestamp) {
+      while (true) {
+         Chunk chunk = tail.get();
+         int index = chunk.size.getAndIncrement();
+         if (index < CHUNK_SIZE) {
+            chunk.timestamps[index] = timestamp;
+            // the volatile write publishes the timestamp as well
+            chunk.transactions.set(index, globalTransaction);
+            return;
+         }
+         Chunk next = chunk.next.get();
+         if (next == null) {
+            chunk.next.compareAndSet(null, new Chunk());
+            next = chunk.next.get();
+         }
+         tail.compareAndSet(chunk, next);
+      }
+   }
+
+   /**
+    * Removes the transactions at the head of the log that completed before {@code minTimestamp}.
+    *
+    * @param minTimestamp the timestamp of the oldest transaction to keep
+    * @param consumer     invoked with each removed transaction
+    * @return the number of removed transactions
+    */
+   int removeExpired(long minTimestamp, Consumer<GlobalTransaction> consumer) {
+      int removed = 0;
+      while (true) {
+         if (headIndex == CHUNK_SIZE) {
+            Chunk next = head.next.get();
+            if (next == null) {
+               return removed;
+            }
+            head = next;
+            headIndex = 0;
+         }
+         GlobalTransaction globalTransaction = head.transactions.get(headIndex);
+         // null if the slot was not written yet
+         if (globalTransaction == null || minTimestamp - head.timestamps[headIndex] <= 0) {
+            return removed;
+         }
+         head.transactions.set(headIndex, null);
+         headIndex++;
+         removed++;
+         consumer.accept(globalTransaction);
+      }
+   }
+
+   private static final class Chunk {
+      final AtomicReferenceArray<GlobalTransaction> transactions = new AtomicReferenceArray<>(CHUNK_SIZE);
+      final long[] timestamps = new long[CHUNK_SIZE];
+      final AtomicInteger size = new AtomicInteger();
+      final AtomicReference<Chunk> next = new AtomicReference<>();
+   }
+}
@@ -4,15 +4,18 @@
 import org.infinispan.commands.tx.CommitCommand;
 import org.infinispan.commands.tx.PrepareCommand;
 import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.commands.write.ClearCommand;
 import org.infinispan.commands.write.WriteCommand;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.Configurations;
 import org.infinispan.context.InvocationContextFactory;
 import org.infinispan.context.impl.LocalTxInvocationContext;
+import org.infinispan.distribution.DistributionManager;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
 import org.infinispan.factories.annotations.Stop;
 import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.transaction.LockingMode;
 import org.infinispan.transaction.xa.GlobalTransaction;
 import org.infinispan.transaction.xa.recovery.RecoveryManager;
 import org.infinispan.util.logging.Log;
@@ -20,7 +23,9 @@
 
 import javax.transaction.Transaction;
 import javax.transaction.xa.XAException;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static javax.transaction.xa.XAResource.XA_OK;
 import static javax.transaction.xa.XAResource.XA_RDONLY;
@@ -43,6 +48,7 @@ public class TransactionCoordinator {
    private TransactionTable txTable;
    private RecoveryManager recoveryManager;
    private Configuration configuration;
+   private DistributionManager distributionManager;
    private CommandCreator commandCreator;
    private volatile boolean shuttingDown = false;
 
@@ -60,6 +66,11 @@ public void init(CommandsFactory commandsFactory, InvocationContextFactory icf,
       trace = log.isTraceEnabled();
    }
 
+   @Inject
+   public void injectDistributionManager(DistributionManager distributionManager) {
+      this.distributionManager = distributionManager;
+   }
+
    @Start(priority = 1)
    private void setStartStatus() {
       shuttingDown = false;
@@ -249,8 +260,34 @@ private static interface CommandCreator {
       PrepareCommand createPrepareCommand(GlobalTransaction gtx, List<WriteCommand> modifications, boolean onePhaseCommit);
    }
 
+   /**
+    * A transaction whose keys all map to the same segment has a single primary owner in any topology, so it can be
+    * committed in one phase: the primary owner validates it and replicates it to the backup owners, see
+    * {@link PrepareCommand#isForwardToBackups()}.
+    */
+   public boolean is1PcForSingleOwnerTransaction(LocalTransaction localTransaction) {
+      if (!configuration.transaction().use1PcForSingleOwnerTransactions() || distributionManager == null ||
+            !configuration.clustering().cacheMode().isDistributed() ||
+            configuration.transaction().lockingMode() != LockingMode.OPTIMISTIC ||
+            configuration.transaction().transactionProtocol().isTotalOrder() || recoveryManager != null) {
+         return false;
+      }
+      List<WriteCommand> modifications = localTransaction.getModifications();
+      if (modifications == null || modifications.isEmpty()) {
+         return false;
+      }
+      Set<Object> keys = new HashSet<>();
+      for (WriteCommand modification : modifications) {
+         if (modification instanceof ClearCommand) {
+            return false;
+         }
+         keys.addAll(modification.getAffectedKeys());
+      }
+      return distributionManager.getWriteConsistentHash().getCommonSegment(keys) >= 0;
+   }
+
    private boolean isOnePhaseCommit(LocalTransaction localTransaction) {
       return Configurations.isOnePhaseCommit(configuration) || is1PcForAutoCommitTransaction(localTransaction) ||
-            Configurations.isOnePhaseTotalOrderCommit(configuration);
+            Configurations.isOnePhaseTotalOrderCommit(configuration) || is1PcForSingleOwnerTransaction(localTransaction);
    }
 }
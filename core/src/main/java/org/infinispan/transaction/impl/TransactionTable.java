@@ -46,7 +46,6 @@
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -661,7 +660,10 @@ public CompletedTransactionStatus getCompletedTransactionStatus(GlobalTransactio
    }
 
    private class CompletedTransactionsInfo {
-      final EquivalentConcurrentHashMapV8<GlobalTransaction, CompletedTransactionInfo> completedTransactions;
+      // The status of the completed transactions, true if committed
+      final EquivalentConcurrentHashMapV8<GlobalTransaction, Boolean> completedTransactions;
+      // The completed transactions in completion order, so the expired ones can be found without scanning the map
+      final CompletedTransactionLog completedTransactionLog;
       // The highest transaction id previously cleared, one per originator
       final EquivalentConcurrentHashMapV8<Address, Long> nodeMaxPrunedTxIds;
       // The highest transaction id previously cleared, with any originator
@@ -670,6 +672,7 @@ private class CompletedTransactionsInfo {
       public CompletedTransactionsInfo() {
          nodeMaxPrunedTxIds = new EquivalentConcurrentHashMapV8<>(AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
          completedTransactions = new EquivalentConcurrentHashMapV8<>(AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+         completedTransactionLog = new CompletedTransactionLog();
          globalMaxPrunedTxId = -1;
       }
 
@@ -678,10 +681,16 @@ public CompletedTransactionsInfo() {
        * With the current state transfer implementation it is possible for a transaction to be prepared several times
        * on a remote node. This might cause leaks, e.g. if the transaction is prepared, committed and prepared again.
        * Once marked as completed (because of commit or rollback) any further prepare received on that transaction are discarded.
+       * <p>
+       * A transaction is only appended to the log when it is added to the map, so that it has a single log entry and
+       * the expiration of an earlier entry can't remove a later completion. It expires
+       * {@code completedTxTimeout} after it was first marked as completed.
        */
       public void markTransactionCompleted(GlobalTransaction globalTx, boolean successful) {
          if (trace) log.tracef("Marking transaction %s as completed", globalTx);
-         completedTransactions.put(globalTx, new CompletedTransactionInfo(timeService.time(), successful));
+         if (completedTransactions.put(globalTx, successful) == null) {
+            completedTransactionLog.append(globalTx, timeService.time());
+         }
       }
 
       /**
@@ -703,9 +712,9 @@ public boolean isTransactionCompleted(GlobalTransaction gtx) {
       }
 
       public CompletedTransactionStatus getTransactionStatus(GlobalTransaction gtx) {
-         CompletedTransactionInfo completedTx = completedTransactions.get(gtx);
-         if (completedTx != null) {
-            return completedTx.successful ? CompletedTransactionStatus.COMMITTED : CompletedTransactionStatus.ABORTED;
+         Boolean successful = completedTransactions.get(gtx);
+         if (successful != null) {
+            return successful ? CompletedTransactionStatus.COMMITTED : CompletedTransactionStatus.ABORTED;
          }
 
          // Transaction ids are allocated in sequence, so any transaction with a smaller id must have been started
@@ -736,44 +745,34 @@ public void cleanupCompletedTransactions() {
             if (trace) log.tracef("About to cleanup completed transaction. Initial size is %d", completedTransactions.size());
             long beginning = timeService.time();
             long minCompleteTimestamp = timeService.time() - TimeUnit.MILLISECONDS.toNanos(configuration.transaction().completedTxTimeout());
-            int removedEntries = 0;
 
-            // Collect the leavers. They will be removed at the end.
+            // Remove stale completed transactions. Only the expired transactions at the head of the log are visited.
+            int removedEntries = completedTransactionLog.removeExpired(minCompleteTimestamp, gtx -> {
+               // Need to update lastPrunedTxId *before* removing the tx from the map
+               // Don't need atomic operations, there can't be more than one thread updating lastPrunedTxId.
+               updateLastPrunedTxId(gtx.getId(), gtx.getAddress());
+               completedTransactions.remove(gtx);
+            });
+
+            // Finally, remove nodes that are no longer members and don't have any "active" completed transactions.
             Set<Address> leavers = new HashSet<>();
-            for (Map.Entry<Address, Long> e : nodeMaxPrunedTxIds.entrySet()) {
-               if (!rpcManager.getMembers().contains(e.getKey())) {
-                  leavers.add(e.getKey());
+            for (Address address : nodeMaxPrunedTxIds.keySet()) {
+               if (!rpcManager.getMembers().contains(address)) {
+                  leavers.add(address);
                }
             }
-
-            // Remove stale completed transactions.
-            Iterator<Map.Entry<GlobalTransaction, CompletedTransactionInfo>> txIterator = completedTransactions.entrySet().iterator();
-            while (txIterator.hasNext()) {
-               Map.Entry<GlobalTransaction, CompletedTransactionInfo> e = txIterator.next();
-               CompletedTransactionInfo completedTx = e.getValue();
-               if (minCompleteTimestamp - completedTx.timestamp > 0) {
-                  // Need to update lastPrunedTxId *before* removing the tx from the map
-                  // Don't need atomic operations, there can't be more than one thread updating lastPrunedTxId.
-                  final long txId = e.getKey().getId();
-                  final Address address = e.getKey().getAddress();
-                  updateLastPrunedTxId(txId, address);
-
-                  txIterator.remove();
-                  removedEntries++;
-               } else {
-                  // Nodes with "active" completed transactions are not removed..
-                  leavers.remove(e.getKey().getAddress());
+            if (!leavers.isEmpty()) {
+               for (GlobalTransaction gtx : completedTransactions.keySet()) {
+                  leavers.remove(gtx.getAddress());
                }
+               leavers.forEach(nodeMaxPrunedTxIds::remove);
             }
 
-            // Finally, remove nodes that are no longer members and don't have any "active" completed transactions.
-            leavers.forEach(nodeMaxPrunedTxIds::remove);
-
             long duration = timeService.timeDuration(beginning, TimeUnit.MILLISECONDS);
 
             if (trace) log.tracef("Finished cleaning up completed transactions in %d millis, %d transactions were removed, " +
                   "current number of completed transactions is %d",
-                  removedEntries, duration, completedTransactions.size());
+                  duration, removedEntries, completedTransactions.size());
             if (trace) log.tracef("Last pruned transaction ids were updated: %d, %s", globalMaxPrunedTxId, nodeMaxPrunedTxIds);
          } catch (Exception e) {
             log.errorf(e, "Failed to cleanup completed transactions: %s", e.getMessage());
@@ -792,13 +791,4 @@ private void updateLastPrunedTxId(final long txId, Address address) {
          });
       }
    }
-   private static class CompletedTransactionInfo {
-      public final long timestamp;
-      public final boolean successful;
-
-      private CompletedTransactionInfo(long timestamp, boolean successful) {
-         this.timestamp = timestamp;
-         this.successful = successful;
-      }
-   }
 }
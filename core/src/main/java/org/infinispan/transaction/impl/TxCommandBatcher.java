@@ -0,0 +1,243 @@
+package org.infinispan.transaction.impl;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.TopologyAffectedCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
+import org.infinispan.commons.CacheException;
+import org.infinispan.partitionhandling.AvailabilityException;
+import org.infinispan.remoting.inboundhandler.DeliverOrder;
+import org.infinispan.remoting.responses.ExceptionResponse;
+import org.infinispan.remoting.responses.Response;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.remoting.rpc.ResponseMode;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.rpc.RpcOptions;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.statetransfer.OutdatedTopologyException;
+import org.infinispan.util.concurrent.CompletableFutures;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the prepare and commit commands of the transactions, grouping the commands sent to the same node within the
+ * batch window into a single {@link org.infinispan.commands.remote.TxBatchCommand}.
+ * <p>
+ * The first command sent to a node opens a batch, which is sent when the window elapses or when it reaches the
+ * maximum batch size, whichever happens first. Batches are independent of each other, so several batches can be in
+ * flight to the same node. Each command's {@link Response} is extracted from the batch response, so the caller sees
+ * the same responses and exceptions as if the command was sent on its own. Only the commands sent with the same
+ * timeout share a batch, and the batch is sent with that timeout.
+ *
+ * @see org.infinispan.configuration.cache.TransactionConfigurationBuilder#batchWindow(long)
+ * @since 9.0
+ */
+public class TxCommandBatcher {
+
+   private static final Log log = LogFactory.getLog(TxCommandBatcher.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final RpcManager rpcManager;
+   private final CommandsFactory commandsFactory;
+   private final ScheduledExecutorService timeoutExecutor;
+   private final long batchWindow;
+   private final int batchSize;
+   private final ConcurrentMap<BatchKey, Batch> openBatches = new ConcurrentHashMap<>();
+
+   public TxCommandBatcher(RpcManager rpcManager, CommandsFactory commandsFactory,
+                           ScheduledExecutorService timeoutExecutor, long batchWindow, int batchSize) {
+      this.rpcManager = rpcManager;
+      this.commandsFactory = commandsFactory;
+      this.timeoutExecutor = timeoutExecutor;
+      this.batchWindow = batchWindow;
+      this.batchSize = batchSize;
+   }
+
+   /**
+    * Invokes a command on the recipients, like {@link RpcManager#invokeRemotely(Collection, org.infinispan.commands.ReplicableCommand, RpcOptions)}.
+    * Only synchronous commands sent to an explicit list of recipients are batched, the others are sent immediately.
+    */
+   public Map<Address, Response> invokeRemotely(Collection<Address> recipients, CacheRpcCommand command, RpcOptions options) {
+      if (recipients == null || options.responseMode() != ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS
+            || options.deliverOrder() != DeliverOrder.NONE) {
+         return rpcManager.invokeRemotely(recipients, command, options);
+      }
+      if (command instanceof TopologyAffectedCommand && ((TopologyAffectedCommand) command).getTopologyId() == -1) {
+         ((TopologyAffectedCommand) command).setTopologyId(rpcManager.getTopologyId());
+      }
+
+      Address self = rpcManager.getAddress();
+      long timeout = options.timeUnit().toMillis(options.timeout());
+      Map<Address, CompletableFuture<Response>> futures = new HashMap<>();
+      for (Address recipient : recipients) {
+         if (!recipient.equals(self) && !futures.containsKey(recipient)) {
+            futures.put(recipient, add(new BatchKey(recipient, timeout), command));
+         }
+      }
+
+      Map<Address, Response> responses = new HashMap<>();
+      try {
+         for (Map.Entry<Address, CompletableFuture<Response>> e : futures.entrySet()) {
+            Response response = CompletableFutures.await(e.getValue());
+            if (response != null) {
+               responses.put(e.getKey(), response);
+            }
+         }
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheException("Thread interrupted while invoking RPC", e);
+      } catch (ExecutionException e) {
+         Throwable cause = e.getCause();
+         if (cause instanceof CacheException) {
+            throw ((CacheException) cause);
+         } else {
+            throw new CacheException("Unexpected exception replicating command", cause);
+         }
+      }
+      return responses;
+   }
+
+   private CompletableFuture<Response> add(BatchKey key, CacheRpcCommand command) {
+      CompletableFuture<Response> future = new CompletableFuture<>();
+      while (true) {
+         Batch batch = openBatches.get(key);
+         if (batch == null) {
+            Batch newBatch = new Batch(key);
+            batch = openBatches.putIfAbsent(key, newBatch);
+            if (batch == null) {
+               batch = newBatch;
+               timeoutExecutor.schedule(newBatch::send, batchWindow, TimeUnit.MILLISECONDS);
+            }
+         }
+         if (batch.add(command, future)) {
+            return future;
+         }
+         // the batch was sent concurrently, it is removed from the open batches
+      }
+   }
+
+   private Response extractResponse(Address sender, Response response) {
+      if (response == null) {
+         return SuccessfulResponse.SUCCESSFUL_EMPTY_RESPONSE;
+      } else if (response instanceof ExceptionResponse) {
+         // same conversion as when the command is sent on its own
+         Exception e = ((ExceptionResponse) response).getException();
+         if (e instanceof SuspectException) throw log.thirdPartySuspected(sender, (SuspectException) e);
+         if (e instanceof AvailabilityException || e instanceof OutdatedTopologyException) throw (CacheException) e;
+         throw log.remoteException(sender, e);
+      }
+      return response;
+   }
+
+   private static final class BatchKey {
+      private final Address target;
+      private final long timeout;
+
+      BatchKey(Address target, long timeout) {
+         this.target = target;
+         this.timeout = timeout;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         BatchKey batchKey = (BatchKey) o;
+         return timeout == batchKey.timeout && target.equals(batchKey.target);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * target.hashCode() + (int) (timeout ^ (timeout >>> 32));
+      }
+   }
+
+   private class Batch {
+      private final BatchKey key;
+      private final Address target;
+      private final List<CacheRpcCommand> commands = new ArrayList<>();
+      private final List<CompletableFuture<Response>> futures = new ArrayList<>();
+      private boolean sent;
+
+      Batch(BatchKey key) {
+         this.key = key;
+         this.target = key.target;
+      }
+
+      /**
+       * @return {@code false} if the batch was already sent
+       */
+      boolean add(CacheRpcCommand command, CompletableFuture<Response> future) {
+         boolean full;
+         synchronized (this) {
+            if (sent) {
+               return false;
+            }
+            commands.add(command);
+            futures.add(future);
+            full = commands.size() >= batchSize;
+         }
+         if (full) {
+            send();
+         }
+         return true;
+      }
+
+      void send() {
+         synchronized (this) {
+            if (sent) {
+               return;
+            }
+            sent = true;
+         }
+         openBatches.remove(key, this);
+         if (trace) log.tracef("Sending batch of %d commands to %s", commands.size(), target);
+
+         CacheRpcCommand command = commands.size() == 1 ? commands.get(0) : commandsFactory.buildTxBatchCommand(commands);
+         RpcOptions options = rpcManager.getRpcOptionsBuilder(ResponseMode.SYNCHRONOUS_IGNORE_LEAVERS, DeliverOrder.NONE)
+               .timeout(key.timeout, TimeUnit.MILLISECONDS).build();
+         CompletableFuture<Map<Address, Response>> invocation;
+         try {
+            invocation = rpcManager.invokeRemotelyAsync(Collections.singleton(target), command, options);
+         } catch (Throwable t) {
+            futures.forEach(f -> f.completeExceptionally(t));
+            return;
+         }
+         invocation.whenComplete((responseMap, throwable) -> {
+            if (throwable != null) {
+               futures.forEach(f -> f.completeExceptionally(throwable));
+               return;
+            }
+            Response response = responseMap.get(target);
+            if (commands.size() == 1) {
+               futures.get(0).complete(response);
+            } else if (response instanceof SuccessfulResponse) {
+               Response[] responses = (Response[]) ((SuccessfulResponse) response).getResponseValue();
+               for (int i = 0; i < futures.size(); i++) {
+                  try {
+                     futures.get(i).complete(extractResponse(target, responses[i]));
+                  } catch (Throwable t) {
+                     futures.get(i).completeExceptionally(t);
+                  }
+               }
+            } else {
+               // the node left or the cache is not running there, each command gets the same response
+               futures.forEach(f -> f.complete(response));
+            }
+         });
+      }
+   }
+}
@@ -106,6 +106,16 @@ public RebalancingStatus getRebalancingStatus(String cacheName) throws Exception
       return delegate.getRebalancingStatus(cacheName);
    }
 
+   @Override
+   public void updateSegmentLoads(String cacheName, long[] segmentSizes, long[] segmentOperations) {
+      delegate.updateSegmentLoads(cacheName, segmentSizes, segmentOperations);
+   }
+
+   @Override
+   public double getLoadBalanceScore(String cacheName) throws Exception {
+      return delegate.getLoadBalanceScore(cacheName);
+   }
+
    @Override
    public AvailabilityMode getCacheAvailability(String cacheName) {
       return delegate.getCacheAvailability(cacheName);
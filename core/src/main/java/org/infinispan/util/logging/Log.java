@@ -1419,4 +1419,25 @@ TimeoutException timeoutWaitingForView(int expectedViewId, int currentViewId,
 
    @Message(value = "Unable to instantiate serializer for StoreConfiguration %s", id = 413)
    CacheConfigurationException unableToInstantiateSerializer(Class<?> storeConfigurationClass);
+
+   @Message(value = "The number of L1 hot keys must be 0 or positive, was %d", id = 414)
+   CacheConfigurationException l1InvalidHotKeys(int hotKeys);
+
+   @Message(value = "The batch window of the backup to site '%s' must be 0 or positive, was %d", id = 415)
+   CacheConfigurationException invalidBackupBatchWindow(String site, long batchWindow);
+
+   @Message(value = "The backup to site '%s' cannot use a batch window with the SYNC backup strategy", id = 416)
+   CacheConfigurationException batchWindowSyncBackup(String site);
+
+   @Message(value = "The batch size of the backup to site '%s' must be positive, was %d", id = 417)
+   CacheConfigurationException invalidBackupBatchSize(String site, int batchSize);
+
+   @Message(value = "The query result cache size must be 0 or positive, was %d", id = 418)
+   CacheConfigurationException invalidQueryResultCacheSize(int resultCacheSize);
+
+   @Message(value = "The transaction batch window must be 0 or positive, was %d", id = 419)
+   CacheConfigurationException invalidTxBatchWindow(long batchWindow);
+
+   @Message(value = "The transaction batch size must be positive, was %d", id = 420)
+   CacheConfigurationException invalidTxBatchSize(int batchSize);
 }
@@ -0,0 +1,295 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.CommandsFactory;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.DataWriteCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commands.write.RemoveCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.CollectionFactory;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.remoting.transport.BackupResponse;
+import org.infinispan.remoting.transport.Transport;
+import org.infinispan.util.TimeService;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Replication log for an asynchronous backup site with a {@link BackupConfiguration#asyncBatchWindow() batch window}.
+ * <p>
+ * Writes are appended to the log instead of being sent one by one. Blind writes (puts and unconditional removes) to a
+ * key replace the pending write to the same key, a clear discards everything pending, and any other write is kept as a
+ * barrier that later writes are never coalesced across. All the modifications of one {@link #append(List)} call end up
+ * in the same batch, so a transaction is applied atomically on the backup site.
+ * <p>
+ * At most one batch is in flight: it is sent with the replication timeout and the next batch is only drained once the
+ * site acknowledged it, so batches are applied in order. A batch that failed because of a communication error is
+ * retried after the batch window, until it is acknowledged or the site is taken offline; a batch rejected by the site
+ * is dropped with a warning.
+ *
+ * @since 9.0
+ */
+final class AsyncBackupLog {
+   private static final Log log = LogFactory.getLog(AsyncBackupLog.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private final String cacheName;
+   private final String site;
+   private final XSiteBackup backup;
+   private final long batchWindow;
+   private final int batchSize;
+   private final boolean compression;
+   private final Transport transport;
+   private final CommandsFactory commandsFactory;
+   private final StreamingMarshaller marshaller;
+   private final TimeService timeService;
+   private final OfflineStatus offlineStatus;
+   private final ScheduledExecutorService timeoutExecutor;
+   private final Executor sendExecutor;
+
+   // all the following fields are guarded by this
+   private List<WriteCommand> pending = new ArrayList<>();
+   // position in pending of the last blind write to each key since the last barrier
+   private final Map<Object, Integer> positions;
+   private int pendingSize;
+   private long pendingSince;
+   private Batch inFlight;
+   private Future<?> task;
+   private boolean sending;
+   private long nextSequence;
+   private boolean stopped;
+
+   AsyncBackupLog(String cacheName, BackupConfiguration configuration, Transport transport,
+                  CommandsFactory commandsFactory, StreamingMarshaller marshaller, TimeService timeService,
+                  OfflineStatus offlineStatus, ScheduledExecutorService timeoutExecutor, Executor sendExecutor,
+                  Equivalence<Object> keyEquivalence) {
+      this.cacheName = cacheName;
+      this.site = configuration.site();
+      this.backup = new XSiteBackup(site, true, configuration.replicationTimeout());
+      this.batchWindow = configuration.asyncBatchWindow();
+      this.batchSize = configuration.asyncBatchSize();
+      this.compression = configuration.asyncCompression();
+      this.transport = transport;
+      this.commandsFactory = commandsFactory;
+      this.marshaller = marshaller;
+      this.timeService = timeService;
+      this.offlineStatus = offlineStatus;
+      this.timeoutExecutor = timeoutExecutor;
+      this.sendExecutor = sendExecutor;
+      this.positions = CollectionFactory.makeMap(keyEquivalence, AnyEquivalence.getInstance());
+   }
+
+   /**
+    * Appends the modifications to the log. They must already be in the form sent to the backup site, i.e. no
+    * conditional writes and no {@link org.infinispan.commands.write.PutMapCommand}.
+    */
+   void append(List<WriteCommand> modifications) {
+      if (modifications.isEmpty()) {
+         return;
+      }
+      synchronized (this) {
+         if (stopped) {
+            return;
+         }
+         if (pendingSize == 0) {
+            pendingSince = timeService.time();
+         }
+         for (WriteCommand modification : modifications) {
+            add(modification);
+         }
+         if (task == null) {
+            task = scheduleSend(pendingSize >= batchSize ? 0 : batchWindow);
+         } else if (!sending && pendingSize >= batchSize && task.cancel(false)) {
+            task = scheduleSend(0);
+         }
+      }
+   }
+
+   /**
+    * @return the number of writes waiting to be acknowledged by the site, including the batch in flight.
+    */
+   synchronized int getBacklogSize() {
+      return pendingSize + (inFlight == null ? 0 : inFlight.modifications.size());
+   }
+
+   /**
+    * @return the age, in milliseconds, of the oldest write not yet acknowledged by the site, or 0 if there is none.
+    */
+   synchronized long getReplicationLag() {
+      if (inFlight != null) {
+         return timeService.timeDuration(inFlight.since, MILLISECONDS);
+      }
+      return pendingSize == 0 ? 0 : timeService.timeDuration(pendingSince, MILLISECONDS);
+   }
+
+   synchronized void stop() {
+      stopped = true;
+      if (task != null) {
+         task.cancel(false);
+         task = null;
+      }
+      if (pendingSize > 0 || inFlight != null) {
+         log.debugf("Discarding %d writes pending for site %s on stop", getBacklogSize(), site);
+      }
+   }
+
+   private void add(WriteCommand modification) {
+      if (modification instanceof ClearCommand) {
+         pending = new ArrayList<>();
+         positions.clear();
+         pending.add(modification);
+         pendingSize = 1;
+         return;
+      }
+      if (isBlindWrite(modification)) {
+         Integer previous = positions.put(((DataWriteCommand) modification).getKey(), pending.size());
+         if (previous != null) {
+            pending.set(previous, null);
+            pendingSize--;
+         }
+      } else {
+         positions.clear();
+      }
+      pending.add(modification);
+      pendingSize++;
+   }
+
+   private static boolean isBlindWrite(WriteCommand modification) {
+      return (modification instanceof PutKeyValueCommand || modification instanceof RemoveCommand) &&
+            !modification.isConditional();
+   }
+
+   private void send() {
+      Batch batch;
+      synchronized (this) {
+         if (stopped) {
+            return;
+         }
+         sending = true;
+         if (inFlight == null) {
+            inFlight = drain();
+         }
+         batch = inFlight;
+      }
+      boolean completed = batch == null || sendBatch(batch);
+      synchronized (this) {
+         sending = false;
+         task = null;
+         if (stopped) {
+            return;
+         }
+         if (!completed) {
+            task = scheduleSend(batchWindow);
+            return;
+         }
+         inFlight = null;
+         if (pendingSize > 0) {
+            long delay = pendingSize >= batchSize ? 0 :
+                  Math.max(0, batchWindow - timeService.timeDuration(pendingSince, MILLISECONDS));
+            task = scheduleSend(delay);
+         }
+      }
+   }
+
+   /**
+    * The timeout executor only hands the send over to the send executor, as sending blocks until the site
+    * acknowledges the batch.
+    */
+   private Future<?> scheduleSend(long delay) {
+      return timeoutExecutor.schedule(() -> sendExecutor.execute(this::send), delay, MILLISECONDS);
+   }
+
+   private Batch drain() {
+      if (pendingSize == 0) {
+         return null;
+      }
+      List<WriteCommand> modifications = new ArrayList<>(pendingSize);
+      for (WriteCommand modification : pending) {
+         if (modification != null) {
+            modifications.add(modification);
+         }
+      }
+      Batch batch = new Batch(nextSequence++, modifications, pendingSince);
+      pending = new ArrayList<>();
+      positions.clear();
+      pendingSize = 0;
+      return batch;
+   }
+
+   /**
+    * @return {@code false} if the batch must be sent again.
+    */
+   private boolean sendBatch(Batch batch) {
+      if (offlineStatus.isOffline()) {
+         if (trace) log.tracef("Site %s is offline, discarding batch %d", site, batch.sequence);
+         return true;
+      }
+      try {
+         if (batch.command == null) {
+            batch.command = encode(batch);
+         }
+         if (trace) log.tracef("Sending batch %d with %d modifications to site %s: %s", batch.sequence,
+                               batch.modifications.size(), site, batch.command);
+         BackupResponse response = transport.backupRemotely(Collections.singleton(backup), batch.command);
+         response.waitForBackupToFinish();
+         Throwable failure = response.getFailedBackups().get(site);
+         if (failure == null) {
+            if (offlineStatus.isEnabled() && !offlineStatus.isOffline()) {
+               offlineStatus.reset();
+            }
+            return true;
+         }
+         if (response.getCommunicationErrors().contains(site)) {
+            if (offlineStatus.isEnabled()) {
+               offlineStatus.updateOnCommunicationFailure(response.getSendTimeMillis());
+            }
+            if (trace) log.tracef(failure, "Batch %d not acknowledged by site %s, retrying", batch.sequence, site);
+            return offlineStatus.isOffline();
+         }
+         log.warnXsiteBackupFailed(cacheName, site, failure);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      } catch (Throwable t) {
+         log.warnXsiteBackupFailed(cacheName, site, t);
+      }
+      return true;
+   }
+
+   private XSiteBatchCommand encode(Batch batch) throws Exception {
+      ByteBuffer buffer = marshaller.objectToBuffer(batch.modifications);
+      byte[] compressed = compression ? XSiteBatchCommand.deflate(buffer) : null;
+      if (compressed != null) {
+         return commandsFactory.buildXSiteBatchCommand(batch.sequence, compressed, buffer.getLength());
+      }
+      byte[] payload = new byte[buffer.getLength()];
+      System.arraycopy(buffer.getBuf(), buffer.getOffset(), payload, 0, buffer.getLength());
+      return commandsFactory.buildXSiteBatchCommand(batch.sequence, payload, XSiteBatchCommand.UNCOMPRESSED);
+   }
+
+   private static final class Batch {
+      final long sequence;
+      final List<WriteCommand> modifications;
+      final long since;
+      XSiteBatchCommand command;
+
+      Batch(long sequence, List<WriteCommand> modifications, long since) {
+         this.sequence = sequence;
+         this.modifications = modifications;
+         this.since = since;
+      }
+   }
+}
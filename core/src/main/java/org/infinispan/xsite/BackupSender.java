@@ -47,6 +47,22 @@ public interface BackupSender {
     */
    Map<String, Boolean> status();
 
+   /**
+    * Returns the number of writes not yet acknowledged by the given site, or -1 if the site is not backed up through an
+    * asynchronous replication log.
+    *
+    * @see org.infinispan.configuration.cache.BackupConfigurationBuilder#asyncBatchWindow(long)
+    */
+   int getAsyncBacklogSize(String siteName);
+
+   /**
+    * Returns the age, in milliseconds, of the oldest write not yet acknowledged by the given site, or -1 if the site is
+    * not backed up through an asynchronous replication log.
+    *
+    * @see org.infinispan.configuration.cache.BackupConfigurationBuilder#asyncBatchWindow(long)
+    */
+   long getAsyncReplicationLag(String siteName);
+
    public enum BringSiteOnlineResponse {
       NO_SUCH_SITE,
       ALREADY_ONLINE,
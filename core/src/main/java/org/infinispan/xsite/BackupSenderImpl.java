@@ -13,6 +13,7 @@
 import org.infinispan.commands.write.RemoveCommand;
 import org.infinispan.commands.write.ReplaceCommand;
 import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.marshall.StreamingMarshaller;
 import org.infinispan.commons.util.CollectionFactory;
 import org.infinispan.commons.util.Util;
 import org.infinispan.configuration.cache.BackupConfiguration;
@@ -22,8 +23,11 @@
 import org.infinispan.configuration.global.GlobalConfiguration;
 import org.infinispan.context.InvocationContext;
 import org.infinispan.context.impl.TxInvocationContext;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.factories.annotations.ComponentName;
 import org.infinispan.factories.annotations.Inject;
 import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
 import org.infinispan.remoting.transport.AggregateBackupResponse;
 import org.infinispan.remoting.transport.BackupResponse;
 import org.infinispan.remoting.transport.Transport;
@@ -47,6 +51,8 @@
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ScheduledExecutorService;
 
 import static org.infinispan.util.logging.events.Messages.MESSAGES;
 
@@ -68,6 +74,10 @@ public class BackupSenderImpl implements BackupSender {
    private final Map<String, CustomFailurePolicy> siteFailurePolicy = new HashMap<>();
    private final ConcurrentMap<String, OfflineStatus> offlineStatus = CollectionFactory.makeConcurrentMap();
    private EventLogManager eventLogManager;
+   private StreamingMarshaller marshaller;
+   private final Map<String, AsyncBackupLog> asyncBackupLogs = new HashMap<>();
+   private ScheduledExecutorService timeoutExecutor;
+   private ExecutorService asyncTransportExecutor;
 
    private final String localSiteName;
    private String cacheName;
@@ -81,7 +91,10 @@ public BackupSenderImpl(String localSiteName) {
 
    @Inject
    public void init(Cache cache, Transport transport, TransactionTable txTable, GlobalConfiguration gc,
-                    TimeService timeService, CommandsFactory commandsFactory, EventLogManager eventLogManager) {
+                    TimeService timeService, CommandsFactory commandsFactory, EventLogManager eventLogManager,
+                    @ComponentName(KnownComponentNames.CACHE_MARSHALLER) StreamingMarshaller marshaller,
+                    @ComponentName(KnownComponentNames.TIMEOUT_SCHEDULE_EXECUTOR) ScheduledExecutorService timeoutExecutor,
+                    @ComponentName(KnownComponentNames.ASYNC_TRANSPORT_EXECUTOR) ExecutorService asyncTransportExecutor) {
       this.cache = cache;
       this.transport = transport;
       this.txTable = txTable;
@@ -89,6 +102,9 @@ public void init(Cache cache, Transport transport, TransactionTable txTable, Glo
       this.timeService = timeService;
       this.commandsFactory = commandsFactory;
       this.eventLogManager = eventLogManager;
+      this.marshaller = marshaller;
+      this.timeoutExecutor = timeoutExecutor;
+      this.asyncTransportExecutor = asyncTransportExecutor;
    }
 
    @Start
@@ -119,15 +135,29 @@ public void siteOffline() {
                                                       }
                                                    });
          offlineStatus.put(siteName, offline);
+         if (bc.isAsyncBatching() && !siteName.equals(localSiteName)) {
+            asyncBackupLogs.put(siteName, new AsyncBackupLog(cacheName, bc, transport, commandsFactory, marshaller,
+                                                             timeService, offline, timeoutExecutor,
+                                                             asyncTransportExecutor,
+                                                             config.dataContainer().keyEquivalence()));
+         }
       }
    }
 
+   @Stop
+   public void stop() {
+      asyncBackupLogs.values().forEach(AsyncBackupLog::stop);
+   }
+
    @Override
    public BackupResponse backupPrepare(PrepareCommand command) throws Exception {
       List<WriteCommand> modifications = filterModifications(command.getModifications());
       if (modifications.isEmpty()) {
          return EMPTY_RESPONSE;
       }
+      if (command.isOnePhaseCommit()) {
+         appendToAsyncBackupLogs(modifications);
+      }
       PrepareCommand prepare = commandsFactory.buildPrepareCommand(command.getGlobalTransaction(), modifications,
                                                                    command.isOnePhaseCommit());
       //if we run a 2PC then filter out 1PC prepare backup calls as they will happen during the local commit phase.
@@ -168,6 +198,7 @@ private void updateOfflineSites(BackupResponse backupResponse) {
 
    @Override
    public BackupResponse backupWrite(WriteCommand command) throws Exception {
+      appendToAsyncBackupLogs(Collections.singletonList(command));
       List<XSiteBackup> xSiteBackups = calculateBackupInfo(BackupFilter.KEEP_ALL);
       return backupCommand(command, xSiteBackups);
    }
@@ -211,6 +242,50 @@ public TakeSiteOfflineResponse takeSiteOffline(String siteName) {
       }
    }
 
+   private void appendToAsyncBackupLogs(List<WriteCommand> modifications) {
+      if (asyncBackupLogs.isEmpty()) {
+         return;
+      }
+      List<WriteCommand> expanded = modifications;
+      for (WriteCommand modification : modifications) {
+         if (modification instanceof PutMapCommand) {
+            expanded = new ArrayList<>(modifications.size());
+            for (WriteCommand writeCommand : modifications) {
+               if (writeCommand instanceof PutMapCommand) {
+                  PutMapCommand putMap = (PutMapCommand) writeCommand;
+                  for (Map.Entry<Object, Object> entry : putMap.getMap().entrySet()) {
+                     expanded.add(commandsFactory.buildPutKeyValueCommand(entry.getKey(), entry.getValue(),
+                                                                          putMap.getMetadata(),
+                                                                          putMap.getFlagsBitSet()));
+                  }
+               } else {
+                  expanded.add(writeCommand);
+               }
+            }
+            break;
+         }
+      }
+      for (Map.Entry<String, AsyncBackupLog> entry : asyncBackupLogs.entrySet()) {
+         if (isOffline(entry.getKey())) {
+            log.tracef("The site '%s' is offline, not backing up information to it", entry.getKey());
+            continue;
+         }
+         entry.getValue().append(expanded);
+      }
+   }
+
+   @Override
+   public int getAsyncBacklogSize(String siteName) {
+      AsyncBackupLog backupLog = asyncBackupLogs.get(siteName);
+      return backupLog == null ? -1 : backupLog.getBacklogSize();
+   }
+
+   @Override
+   public long getAsyncReplicationLag(String siteName) {
+      AsyncBackupLog backupLog = asyncBackupLogs.get(siteName);
+      return backupLog == null ? -1 : backupLog.getReplicationLag();
+   }
+
    private BackupResponse backupCommand(VisitableCommand command, List<XSiteBackup> xSiteBackups) throws Exception {
       return transport.backupRemotely(xSiteBackups, commandsFactory.buildSingleXSiteRpcCommand(command));
    }
@@ -221,6 +296,7 @@ private BackupResponse sendTo1PCBackups(CommitCommand command) throws Exception
       if (modifications.isEmpty()) {
          return EMPTY_RESPONSE;
       }
+      appendToAsyncBackupLogs(modifications);
       List<XSiteBackup> backups = calculateBackupInfo(BackupFilter.KEEP_1PC_ONLY);
       PrepareCommand prepare = commandsFactory.buildPrepareCommand(command.getGlobalTransaction(),
                                                                    modifications, true);
@@ -257,6 +333,10 @@ private List<XSiteBackup> calculateBackupInfo(BackupFilter backupFilter) {
             log.cacheBackupsDataToSameSite(localSiteName);
             continue;
          }
+         if (asyncBackupLogs.containsKey(bc.site())) {
+            // sent in batches by its replication log
+            continue;
+         }
          boolean isSync = bc.strategy() == BackupConfiguration.BackupStrategy.SYNC;
          if (backupFilter == BackupFilter.KEEP_1PC_ONLY) {
             if (isSync && bc.isTwoPhaseCommit())
@@ -253,6 +253,18 @@ public String getTakeOfflineAfterFailures(@Parameter(name = "site", description
       return String.valueOf(offlineStatus.getTakeOffline().afterFailures());
    }
 
+   @ManagedOperation(description = "Returns the number of writes this node did not yet replicate to the given site, when backing up through a batched replication log (-1 otherwise).", displayName = "Returns the replication backlog of the given site.")
+   public String getAsyncBacklogSize(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      return String.valueOf(backupSender.getAsyncBacklogSize(site));
+   }
+
+   @ManagedOperation(description = "Returns the age in milliseconds of the oldest write this node did not yet replicate to the given site, when backing up through a batched replication log (-1 otherwise).", displayName = "Returns the replication lag of the given site.")
+   public String getAsyncReplicationLag(@Parameter(name = "site", description = "The name of the backup site") String site) {
+      if (backupSender.getOfflineStatus(site) == null) return incorrectSiteName(site);
+      return String.valueOf(backupSender.getAsyncReplicationLag(site));
+   }
+
    @ManagedOperation(description = "Brings the given site back online on all the cluster.", displayName = "Brings the given site back online on all the cluster.")
    public String bringSiteOnline(@Parameter(name = "site", description = "The name of the backup site") String site) {
       OfflineStatus offlineStatus = backupSender.getOfflineStatus(site);
@@ -0,0 +1,179 @@
+package org.infinispan.xsite;
+
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.write.ClearCommand;
+import org.infinispan.commands.write.WriteCommand;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.util.ByteString;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * RPC command carrying a batch of coalesced modifications from an asynchronous replication log to the backup site.
+ * <p>
+ * The modifications are marshalled with the cache marshaller and, optionally, compressed by the sender, so the
+ * command itself only transports an opaque payload. A batch may start with a {@link ClearCommand}, which is applied
+ * first; the remaining modifications are applied as a single one-phase {@link PrepareCommand}.
+ *
+ * @see AsyncBackupLog
+ * @since 9.0
+ */
+public class XSiteBatchCommand extends XSiteReplicateCommand {
+
+   private static final Log log = LogFactory.getLog(XSiteBatchCommand.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   public static final byte COMMAND_ID = 61;
+   static final int UNCOMPRESSED = -1;
+
+   private long sequence;
+   private int uncompressedLength;
+   private byte[] payload;
+
+   /**
+    * @param payload            the marshalled list of modifications, compressed if {@code uncompressedLength} is not
+    *                           {@code -1}.
+    * @param uncompressedLength the length of the marshalled modifications, or {@code -1} if the payload is not
+    *                           compressed.
+    */
+   public XSiteBatchCommand(ByteString cacheName, long sequence, byte[] payload, int uncompressedLength) {
+      super(cacheName);
+      this.sequence = sequence;
+      this.payload = payload;
+      this.uncompressedLength = uncompressedLength;
+   }
+
+   public XSiteBatchCommand(ByteString cacheName) {
+      super(cacheName);
+   }
+
+   public XSiteBatchCommand() {
+      super(null);
+   }
+
+   /**
+    * Compresses a marshalled batch.
+    *
+    * @return the compressed bytes, or {@code null} if compressing does not make the payload smaller.
+    */
+   static byte[] deflate(ByteBuffer buffer) {
+      Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+      try {
+         deflater.setInput(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+         deflater.finish();
+         byte[] compressed = new byte[buffer.getLength()];
+         int length = deflater.deflate(compressed);
+         if (!deflater.finished() || length >= buffer.getLength()) {
+            return null;
+         }
+         byte[] payload = new byte[length];
+         System.arraycopy(compressed, 0, payload, 0, length);
+         return payload;
+      } finally {
+         deflater.end();
+      }
+   }
+
+   /**
+    * Inflates, if needed, and unmarshalls the modifications.
+    */
+   List<WriteCommand> decode(StreamingMarshaller marshaller) throws Exception {
+      byte[] bytes = payload;
+      if (uncompressedLength != UNCOMPRESSED) {
+         bytes = new byte[uncompressedLength];
+         Inflater inflater = new Inflater();
+         try {
+            inflater.setInput(payload);
+            int length = inflater.inflate(bytes);
+            if (length != uncompressedLength || !inflater.finished()) {
+               throw new DataFormatException("Expected " + uncompressedLength + " bytes, inflated " + length);
+            }
+         } finally {
+            inflater.end();
+         }
+      }
+      //noinspection unchecked
+      return (List<WriteCommand>) marshaller.objectFromByteBuffer(bytes);
+   }
+
+   @Override
+   public Object performInLocalSite(BackupReceiver receiver) throws Throwable {
+      List<WriteCommand> modifications = decode(
+            receiver.getCache().getAdvancedCache().getComponentRegistry().getCacheMarshaller());
+      if (trace) {
+         log.tracef("Applying batch %d from site %s with %d modifications", sequence, getOriginSite(),
+                    modifications.size());
+      }
+      int first = 0;
+      if (!modifications.isEmpty() && modifications.get(0) instanceof ClearCommand) {
+         receiver.handleRemoteCommand(modifications.get(0));
+         first = 1;
+      }
+      if (first < modifications.size()) {
+         receiver.handleRemoteCommand(new PrepareCommand(getCacheName(), null,
+                                                         modifications.subList(first, modifications.size()), true));
+      }
+      return null;
+   }
+
+   @Override
+   public Object perform(InvocationContext ctx) throws Throwable {
+      throw new UnsupportedOperationException("XSiteBatchCommand can only be executed on the backup site");
+   }
+
+   public long getSequence() {
+      return sequence;
+   }
+
+   public boolean isCompressed() {
+      return uncompressedLength != UNCOMPRESSED;
+   }
+
+   public int getPayloadLength() {
+      return payload.length;
+   }
+
+   @Override
+   public byte getCommandId() {
+      return COMMAND_ID;
+   }
+
+   @Override
+   public void writeTo(ObjectOutput output) throws IOException {
+      output.writeLong(sequence);
+      output.writeInt(uncompressedLength);
+      MarshallUtil.marshallByteArray(payload, output);
+   }
+
+   @Override
+   public void readFrom(ObjectInput input) throws IOException, ClassNotFoundException {
+      sequence = input.readLong();
+      uncompressedLength = input.readInt();
+      payload = MarshallUtil.unmarshallByteArray(input);
+   }
+
+   @Override
+   public boolean isReturnValueExpected() {
+      return false;
+   }
+
+   @Override
+   public String toString() {
+      return "XSiteBatchCommand{" +
+            "sequence=" + sequence +
+            ", payloadLength=" + (payload == null ? 0 : payload.length) +
+            ", uncompressedLength=" + uncompressedLength +
+            '}';
+   }
+}
@@ -83,4 +83,24 @@ public void testGetAll() {
          }
       }
    }
+
+   public void testGetAllManyKeys() {
+      // enough keys for the owners to split them and process them in parallel
+      int numKeys = 4096 * numNodes;
+      Map<Object, Object> expected = new HashMap<>();
+      for (int i = 0; i < numKeys; ++i) {
+         expected.put("key" + i, "value" + i);
+      }
+      cache(0).putAll(expected);
+      expected.put("not-present", null);
+
+      for (Cache<Object, Object> cache : caches()) {
+         Map<Object, Object> result = cache.getAdvancedCache().getAll(expected.keySet());
+         assertEquals(result.size(), numKeys);
+         for (int i = 0; i < numKeys; ++i) {
+            assertEquals(result.get("key" + i), "value" + i);
+         }
+         assertFalse(result.containsKey("not-present"));
+      }
+   }
 }
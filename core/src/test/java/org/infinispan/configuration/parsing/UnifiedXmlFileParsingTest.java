@@ -99,6 +99,7 @@ private static void configurationCheck90(EmbeddedCacheManager cm) {
       GlobalConfiguration globalConfiguration = cm.getCacheManagerConfiguration();
       assertEquals(4, globalConfiguration.transport().initialClusterSize());
       assertEquals(30000, globalConfiguration.transport().initialClusterTimeout());
+      assertTrue(globalConfiguration.serialization().compactCommands());
    }
 
    private static void configurationCheck82(EmbeddedCacheManager cm) {
@@ -0,0 +1,133 @@
+package org.infinispan.distribution;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests that only frequently read keys are stored in L1 when {@code hotKeys} is configured.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "distribution.DistSyncL1HotKeysTest")
+public class DistSyncL1HotKeysTest extends BaseDistFunctionalTest<Object, String> {
+   private static final int HOT_KEYS = 2;
+
+   public DistSyncL1HotKeysTest() {
+      sync = true;
+      tx = false;
+      testRetVals = true;
+      numOwners = 1;
+   }
+
+   @Override
+   protected ConfigurationBuilder buildConfiguration() {
+      ConfigurationBuilder builder = super.buildConfiguration();
+      builder.clustering().l1().hotKeys(HOT_KEYS);
+      return builder;
+   }
+
+   public void testOnlyRepeatedReadsAreCached() {
+      getFirstOwner("k1").put("k1", "v1");
+      Cache<Object, String> nonOwner = getFirstNonOwner("k1");
+
+      assertEquals("v1", nonOwner.get("k1"));
+      assertIsNotInL1(nonOwner, "k1");
+
+      assertEquals("v1", nonOwner.get("k1"));
+      assertIsInL1(nonOwner, "k1");
+
+      // Writes from the owner still invalidate the L1 copy
+      getFirstOwner("k1").put("k1", "v2");
+      assertIsNotInL1(nonOwner, "k1");
+      assertEquals("v2", nonOwner.get("k1"));
+   }
+
+   public void testReadsFromL1KeepTheKeyCached() {
+      Cache<Object, String> reader = c1;
+      String hotKey = remoteKey(reader, "hot");
+      getFirstOwner(hotKey).put(hotKey, "hot");
+      assertEquals("hot", reader.get(hotKey));
+      assertEquals("hot", reader.get(hotKey));
+      assertIsInL1(reader, hotKey);
+      // served from L1
+      for (int i = 0; i < 10; i++) {
+         assertEquals("hot", reader.get(hotKey));
+      }
+
+      // each cold key is cached after its second read, replacing the previous one
+      String firstColdKey = null;
+      int coldKeys = 0;
+      for (int i = 0; coldKeys < 3; i++) {
+         String key = "cold-" + i;
+         if (isOwner(reader, key))
+            continue;
+         coldKeys++;
+         if (firstColdKey == null) firstColdKey = key;
+         getFirstOwner(key).put(key, "cold");
+         assertEquals("cold", reader.get(key));
+         assertEquals("cold", reader.get(key));
+      }
+
+      assertIsInL1(reader, hotKey);
+      assertIsNotInL1(reader, firstColdKey);
+      assertL1SizeIsBounded(reader);
+   }
+
+   public void testL1SizeIsBounded() {
+      Cache<Object, String> reader = c1;
+      int remoteKeys = 0;
+      for (int i = 0; remoteKeys < 10; i++) {
+         String key = "bounded-" + i;
+         if (isOwner(reader, key))
+            continue;
+         remoteKeys++;
+         getFirstOwner(key).put(key, "v" + i);
+         for (int j = 0; j < 3; j++) {
+            assertEquals("v" + i, reader.get(key));
+         }
+      }
+
+      assertL1SizeIsBounded(reader);
+   }
+
+   public void testShortLifespanWritesAreBounded() {
+      Cache<Object, String> writer = c1;
+      int remoteKeys = 0;
+      for (int i = 0; remoteKeys < 10; i++) {
+         String key = "short-" + i;
+         if (isOwner(writer, key))
+            continue;
+         remoteKeys++;
+         getFirstOwner(key).put(key, "v" + i);
+         for (int j = 0; j < 3; j++) {
+            assertEquals("v" + i, writer.get(key));
+         }
+         // Shorter than the L1 lifespan, so the value written in L1 doesn't have L1Metadata
+         writer.put(key, "w" + i, 1, TimeUnit.MINUTES);
+      }
+
+      assertL1SizeIsBounded(writer);
+   }
+
+   private String remoteKey(Cache<Object, String> cache, String prefix) {
+      for (int i = 0; ; i++) {
+         String key = prefix + "-" + i;
+         if (!isOwner(cache, key))
+            return key;
+      }
+   }
+
+   private void assertL1SizeIsBounded(Cache<Object, String> cache) {
+      int l1Entries = 0;
+      for (InternalCacheEntry<Object, String> entry : cache.getAdvancedCache().getDataContainer()) {
+         if (!isOwner(cache, entry.getKey())) l1Entries++;
+      }
+      assert l1Entries <= HOT_KEYS : "Expected at most " + HOT_KEYS + " L1 entries, found " + l1Entries;
+   }
+}
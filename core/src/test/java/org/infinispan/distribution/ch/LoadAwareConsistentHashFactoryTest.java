@@ -0,0 +1,92 @@
+package org.infinispan.distribution.ch;
+
+import org.infinispan.commons.hash.MurmurHash3;
+import org.infinispan.distribution.TestAddress;
+import org.infinispan.distribution.ch.impl.DefaultConsistentHash;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertSame;
+import static org.testng.Assert.assertTrue;
+
+/**
+ * Test the balance score and the number of moved segments after a load-aware rebalance for
+ * {@link LoadAwareConsistentHashFactory}
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "distribution.ch.LoadAwareConsistentHashFactoryTest")
+public class LoadAwareConsistentHashFactoryTest extends AbstractInfinispanTest {
+
+   private static final int NUM_SEGMENTS = 60;
+   private static final int NUM_OWNERS = 2;
+
+   private final LoadAwareConsistentHashFactory chf = new LoadAwareConsistentHashFactory();
+
+   public void testBalancedLoadDoesNotMoveSegments() {
+      DefaultConsistentHash ch = createConsistentHash(4);
+      long[] sizes = new long[NUM_SEGMENTS];
+      long[] operations = new long[NUM_SEGMENTS];
+      Arrays.fill(sizes, 1000);
+      Arrays.fill(operations, 10);
+      double[] weights = chf.segmentWeights(sizes, operations);
+
+      assertTrue(chf.getBalanceScore(ch, weights) <= chf.getRebalanceThreshold());
+      assertSame(chf.rebalance(ch, weights), ch);
+   }
+
+   public void testHotSegmentsAreSpread() {
+      DefaultConsistentHash ch = createConsistentHash(4);
+      Address hotMember = ch.getMembers().get(0);
+      long[] sizes = new long[NUM_SEGMENTS];
+      long[] operations = new long[NUM_SEGMENTS];
+      Arrays.fill(sizes, 1000);
+      Arrays.fill(operations, 10);
+      for (int segment : ch.getPrimarySegmentsForOwner(hotMember)) {
+         operations[segment] = 1000;
+      }
+      double[] weights = chf.segmentWeights(sizes, operations);
+      double initialScore = chf.getBalanceScore(ch, weights);
+      assertTrue(initialScore > chf.getRebalanceThreshold());
+
+      DefaultConsistentHash balancedCH = chf.rebalance(ch, weights);
+      double balancedScore = chf.getBalanceScore(balancedCH, weights);
+      assertTrue(balancedScore < initialScore, "Score " + balancedScore + " should be lower than " + initialScore);
+
+      int moves = 0;
+      for (int segment = 0; segment < NUM_SEGMENTS; segment++) {
+         List<Address> owners = balancedCH.locateOwnersForSegment(segment);
+         assertEquals(owners.size(), NUM_OWNERS);
+         assertEquals(owners.stream().distinct().count(), NUM_OWNERS);
+         for (Address owner : owners) {
+            if (!ch.locateOwnersForSegment(segment).contains(owner)) {
+               moves++;
+            }
+         }
+      }
+      // The rebalance stops as soon as the threshold is met, so only a few segments should move
+      assertTrue(moves <= ch.getSegmentsForOwner(hotMember).size(), "Too many moves: " + moves);
+   }
+
+   public void testEmptyStatisticsBalanceSegmentCount() {
+      DefaultConsistentHash ch = createConsistentHash(3);
+      double[] weights = chf.segmentWeights(new long[NUM_SEGMENTS], new long[NUM_SEGMENTS]);
+      assertEquals(chf.getBalanceScore(ch, weights), 1.0, 0.2);
+   }
+
+   private DefaultConsistentHash createConsistentHash(int numNodes) {
+      List<Address> members = new ArrayList<>(numNodes);
+      for (int i = 0; i < numNodes; i++) {
+         members.add(new TestAddress(i, "TA"));
+      }
+      DefaultConsistentHash ch = chf.create(MurmurHash3.getInstance(), NUM_OWNERS, NUM_SEGMENTS, members, null);
+      return chf.rebalance(ch);
+   }
+}
@@ -0,0 +1,79 @@
+package org.infinispan.distribution.ch;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.distribution.ch.impl.LoadAwareConsistentHashFactory;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.topology.LocalTopologyManager;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the segment loads reported by the members reach the coordinator, and that the coordinator moves segments
+ * away from the most loaded member.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "distribution.ch.LoadAwareRebalanceTest")
+public class LoadAwareRebalanceTest extends MultipleCacheManagersTest {
+   private static final int NUM_SEGMENTS = 30;
+   private static final long REPORT_INTERVAL = 100;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1).numSegments(NUM_SEGMENTS)
+            .consistentHashFactory(new LoadAwareConsistentHashFactory(
+                  LoadAwareConsistentHashFactory.DEFAULT_REBALANCE_THRESHOLD,
+                  LoadAwareConsistentHashFactory.DEFAULT_SIZE_WEIGHT, REPORT_INTERVAL));
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testLoadedMemberLosesSegments() throws Exception {
+      Cache<Object, Object> hotCache = cache(1);
+      Address hotMember = address(1);
+      CacheTopology initialTopology = topology(hotCache);
+      int initialSegments = initialTopology.getCurrentCH().getSegmentsForOwner(hotMember).size();
+
+      // all the entries and all the operations are on the segments of a single member
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < 200; i++) {
+         Object key = new MagicKey("hot-" + i, hotCache);
+         keys.add(key);
+         cache(0).put(key, "v" + i);
+      }
+
+      LocalTopologyManager topologyManager = TestingUtil.extractGlobalComponent(manager(0), LocalTopologyManager.class);
+      eventually(() -> {
+         for (Object key : keys) {
+            cache(0).get(key);
+         }
+         return topology(hotCache).getTopologyId() > initialTopology.getTopologyId() &&
+               topology(hotCache).getCurrentCH().getSegmentsForOwner(hotMember).size() < initialSegments;
+      });
+      waitForClusterToForm();
+
+      // the coordinator received the reports of all the members
+      assertTrue(topologyManager.getLoadBalanceScore(hotCache.getName()) >= 0);
+      // the moved entries are still readable
+      for (int i = 0; i < keys.size(); i++) {
+         assertEquals("v" + i, cache(2).get(keys.get(i)));
+      }
+   }
+
+   private CacheTopology topology(Cache<?, ?> cache) {
+      return TestingUtil.extractComponent(cache, StateTransferManager.class).getCacheTopology();
+   }
+}
@@ -0,0 +1,297 @@
+package org.infinispan.distribution.groups;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.tx.CommitCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.container.entries.InternalCacheEntry;
+import org.infinispan.context.Flag;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CheckPoint;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.infinispan.util.CountingRpcManager;
+import org.testng.annotations.Test;
+
+import javax.transaction.TransactionManager;
+import java.util.List;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests that the transactions whose keys all belong to the same group are committed with a single RPC, no matter if
+ * the originator is the primary owner, a backup owner or a non-owner.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "distribution.groups.SingleOwnerOnePhaseCommitTest")
+public class SingleOwnerOnePhaseCommitTest extends MultipleCacheManagersTest {
+
+   private static final String GROUP = "aggregate";
+
+   private TxCountingRpcManager[] rpcManagers;
+
+   public SingleOwnerOnePhaseCommitTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createCluster(buildConfiguration(), 3);
+      waitForClusterToForm();
+      rpcManagers = new TxCountingRpcManager[3];
+      for (int i = 0; i < 3; i++) {
+         rpcManagers[i] = new TxCountingRpcManager(cache(i).getAdvancedCache().getRpcManager());
+         TestingUtil.replaceComponent(cache(i), RpcManager.class, rpcManagers[i], true);
+      }
+   }
+
+   private ConfigurationBuilder buildConfiguration() {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      builder.clustering().hash().numOwners(2).groups().enabled(true);
+      builder.transaction().lockingMode(LockingMode.OPTIMISTIC).use1PcForSingleOwnerTransactions(true);
+      amendConfiguration(builder);
+      return builder;
+   }
+
+   protected void amendConfiguration(ConfigurationBuilder builder) {
+   }
+
+   public void testGroupTransactionFromEveryNode() throws Exception {
+      for (int i = 0; i < 3; i++) {
+         BaseUtilGroupTest.GroupKey k1 = new BaseUtilGroupTest.GroupKey(GROUP, 2 * i);
+         BaseUtilGroupTest.GroupKey k2 = new BaseUtilGroupTest.GroupKey(GROUP, 2 * i + 1);
+         Cache<Object, Object> originator = cache(i).getAdvancedCache().withFlags(Flag.IGNORE_RETURN_VALUES);
+         TransactionManager tm = tm(i);
+
+         rpcManagers[i].resetStats();
+         tm.begin();
+         originator.put(k1, "v1");
+         originator.put(k2, "v2");
+         tm.commit();
+
+         assertEquals("Only the one-phase prepare should be sent", 1, rpcManagers[i].otherCount);
+         assertEquals(1, rpcManagers[i].onePhasePrepares);
+         assertEquals(0, rpcManagers[i].prepares);
+         assertEquals(0, rpcManagers[i].commits);
+         assertReplicated(k1, "v1");
+         assertReplicated(k2, "v2");
+      }
+   }
+
+   public void testDifferentGroupsUseTwoPhaseCommit() throws Exception {
+      BaseUtilGroupTest.GroupKey k1 = new BaseUtilGroupTest.GroupKey(GROUP, 100);
+      BaseUtilGroupTest.GroupKey k2 = new BaseUtilGroupTest.GroupKey("other-" + GROUP, 100);
+
+      rpcManagers[0].resetStats();
+      tm(0).begin();
+      cache(0).put(k1, "v1");
+      cache(0).put(k2, "v2");
+      tm(0).commit();
+
+      assertEquals(0, rpcManagers[0].onePhasePrepares);
+      assertEquals(1, rpcManagers[0].prepares);
+      assertEquals(1, rpcManagers[0].commits);
+      assertReplicated(k1, "v1");
+      assertReplicated(k2, "v2");
+   }
+
+   public void testRollback() throws Exception {
+      BaseUtilGroupTest.GroupKey k1 = new BaseUtilGroupTest.GroupKey(GROUP, 200);
+
+      tm(1).begin();
+      cache(1).put(k1, "v1");
+      tm(1).rollback();
+
+      for (Cache<Object, Object> cache : caches()) {
+         assertNull(cache.get(k1));
+      }
+   }
+
+   public void testPrimaryOwnerLeavesBeforePrepare() throws Exception {
+      BaseUtilGroupTest.GroupKey key = new BaseUtilGroupTest.GroupKey(GROUP, 300);
+      int primaryOwner = primaryOwnerIndex(key);
+      Cache<Object, Object> originator = cache(nonOwnerIndex(key));
+      CheckPoint checkPoint = new CheckPoint();
+      BlockingPrepareRpcManager blockingRpcManager =
+            new BlockingPrepareRpcManager(originator.getAdvancedCache().getRpcManager(), checkPoint);
+      TestingUtil.replaceComponent(originator, RpcManager.class, blockingRpcManager, true);
+
+      Future<Void> commit = fork(() -> {
+         TransactionManager tm = originator.getAdvancedCache().getTransactionManager();
+         tm.begin();
+         originator.put(key, "v1");
+         tm.commit();
+         return null;
+      });
+      checkPoint.awaitStrict("blocked", 10, TimeUnit.SECONDS);
+      // The prepare reaches a node that left, so the originator gets an OutdatedTopologyException and retries it
+      // with the new primary owner
+      killMember(primaryOwner);
+      checkPoint.triggerForever("resume");
+      commit.get(10, TimeUnit.SECONDS);
+
+      assertEquals(2, blockingRpcManager.onePhasePrepares);
+      assertReplicated(key, "v1");
+      assertNotLocked(key);
+      assertNoTransactions();
+   }
+
+   public void testTopologyChangeBeforeForwardingToBackups() throws Exception {
+      BaseUtilGroupTest.GroupKey key = new BaseUtilGroupTest.GroupKey(GROUP, 400);
+      Cache<Object, Object> primaryOwner = cache(primaryOwnerIndex(key));
+      Cache<Object, Object> originator = cache(nonOwnerIndex(key));
+      int initialTopologyId = topologyId(primaryOwner);
+      CheckPoint checkPoint = new CheckPoint();
+      BlockingPrepareRpcManager blockingRpcManager =
+            new BlockingPrepareRpcManager(primaryOwner.getAdvancedCache().getRpcManager(), checkPoint);
+      TestingUtil.replaceComponent(primaryOwner, RpcManager.class, blockingRpcManager, true);
+
+      Future<Void> commit = fork(() -> {
+         TransactionManager tm = originator.getAdvancedCache().getTransactionManager();
+         tm.begin();
+         originator.put(key, "v1");
+         tm.commit();
+         return null;
+      });
+      // The primary owner committed the transaction and is about to replicate it to the backup owner
+      checkPoint.awaitStrict("blocked", 10, TimeUnit.SECONDS);
+      addClusterEnabledCacheManager(buildConfiguration());
+      Future<Cache<Object, Object>> joiner = fork(() -> cache(3));
+      eventually(() -> topologyId(primaryOwner) > initialTopologyId);
+      checkPoint.triggerForever("resume");
+      commit.get(10, TimeUnit.SECONDS);
+      joiner.get(10, TimeUnit.SECONDS);
+      waitForClusterToForm();
+
+      assertReplicated(key, "v1");
+      assertNotLocked(key);
+      assertNoTransactions();
+   }
+
+   protected int primaryOwnerIndex(Object key) {
+      Address primaryOwner = TestingUtil.extractComponent(cache(0), DistributionManager.class).getWriteConsistentHash()
+            .locatePrimaryOwner(key);
+      for (int i = 0; i < caches().size(); i++) {
+         if (primaryOwner.equals(address(i))) {
+            return i;
+         }
+      }
+      throw new IllegalStateException("No primary owner for " + key);
+   }
+
+   protected int nonOwnerIndex(Object key) {
+      List<Address> owners = TestingUtil.extractComponent(cache(0), DistributionManager.class).getWriteConsistentHash()
+            .locateOwners(key);
+      for (int i = 0; i < caches().size(); i++) {
+         if (!owners.contains(address(i))) {
+            return i;
+         }
+      }
+      throw new IllegalStateException("All the nodes own " + key);
+   }
+
+   private int topologyId(Cache<?, ?> cache) {
+      return TestingUtil.extractComponent(cache, StateTransferManager.class).getCacheTopology().getTopologyId();
+   }
+
+   protected void assertReplicated(Object key, Object value) {
+      Object version = null;
+      int owners = 0;
+      for (Cache<Object, Object> cache : caches()) {
+         DistributionManager dm = TestingUtil.extractComponent(cache, DistributionManager.class);
+         if (dm.getConsistentHash().isKeyLocalToNode(address(cache), key)) {
+            owners++;
+            InternalCacheEntry entry = TestingUtil.extractComponent(cache, DataContainer.class).get(key);
+            assertNotNull("Missing " + key + " on " + address(cache), entry);
+            assertEquals(value, entry.getValue());
+            // all the owners must have the same version
+            Object entryVersion = entry.getMetadata().version();
+            if (owners > 1) {
+               assertEquals(version, entryVersion);
+            }
+            version = entryVersion;
+         }
+         assertEquals(value, cache.get(key));
+      }
+      assertEquals(2, owners);
+   }
+
+   /**
+    * Blocks the first one-phase prepare sent until the {@code resume} event, and counts the one-phase prepares sent.
+    */
+   private static class BlockingPrepareRpcManager extends AbstractControlledRpcManager {
+      private final CheckPoint checkPoint;
+      private volatile boolean blocked;
+      volatile int onePhasePrepares;
+
+      BlockingPrepareRpcManager(RpcManager realOne, CheckPoint checkPoint) {
+         super(realOne);
+         this.checkPoint = checkPoint;
+      }
+
+      @Override
+      protected void beforeInvokeRemotely(ReplicableCommand command) {
+         if (!(command instanceof PrepareCommand) || !((PrepareCommand) command).isOnePhaseCommit())
+            return;
+
+         onePhasePrepares++;
+         if (!blocked) {
+            blocked = true;
+            checkPoint.trigger("blocked");
+            try {
+               checkPoint.awaitStrict("resume", 10, TimeUnit.SECONDS);
+            } catch (Exception e) {
+               throw new RuntimeException(e);
+            }
+         }
+      }
+   }
+
+   /**
+    * Also counts the one-phase prepares, the two-phase prepares and the commits sent.
+    */
+   private static class TxCountingRpcManager extends CountingRpcManager {
+      volatile int onePhasePrepares;
+      volatile int prepares;
+      volatile int commits;
+
+      TxCountingRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      public void resetStats() {
+         super.resetStats();
+         onePhasePrepares = 0;
+         prepares = 0;
+         commits = 0;
+      }
+
+      @Override
+      protected void beforeInvokeRemotely(ReplicableCommand rpcCommand) {
+         super.beforeInvokeRemotely(rpcCommand);
+         if (rpcCommand instanceof PrepareCommand) {
+            if (((PrepareCommand) rpcCommand).isOnePhaseCommit()) {
+               onePhasePrepares++;
+            } else {
+               prepares++;
+            }
+         } else if (rpcCommand instanceof CommitCommand) {
+            commits++;
+         }
+      }
+   }
+}
@@ -0,0 +1,62 @@
+package org.infinispan.distribution.groups;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.VersioningScheme;
+import org.infinispan.util.concurrent.IsolationLevel;
+import org.testng.annotations.Test;
+
+import javax.transaction.RollbackException;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests the one-phase commit of the single owner transactions with write skew check enabled.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "distribution.groups.SingleOwnerOnePhaseCommitWriteSkewTest")
+public class SingleOwnerOnePhaseCommitWriteSkewTest extends SingleOwnerOnePhaseCommitTest {
+
+   @Override
+   protected void amendConfiguration(ConfigurationBuilder builder) {
+      builder.locking().isolationLevel(IsolationLevel.REPEATABLE_READ).writeSkewCheck(true)
+            .versioning().enable().scheme(VersioningScheme.SIMPLE);
+   }
+
+   public void testWriteSkewDetectedByPrimaryOwner() throws Exception {
+      for (int i = 0; i < 3; i++) {
+         BaseUtilGroupTest.GroupKey key = new BaseUtilGroupTest.GroupKey("write-skew", i);
+         cache(0).put(key, "initial");
+         Cache<Object, Object> originator = cache(i);
+         TransactionManager tm = tm(i);
+
+         tm.begin();
+         assertEquals("initial", originator.get(key));
+         Transaction tx = tm.suspend();
+         // The key is modified after the transaction read it
+         cache(primaryOwnerIndex(key)).put(key, "concurrent");
+         tm.resume(tx);
+         originator.put(key, "tx");
+         try {
+            tm.commit();
+            fail("The write skew check should have failed");
+         } catch (RollbackException e) {
+            // expected
+         }
+         assertReplicated(key, "concurrent");
+         assertNotLocked(key);
+         assertNoTransactions();
+
+         // The retry reads the current version, so it commits on all the owners
+         tm.begin();
+         assertEquals("concurrent", originator.get(key));
+         originator.put(key, "retried");
+         tm.commit();
+         assertReplicated(key, "retried");
+      }
+   }
+}
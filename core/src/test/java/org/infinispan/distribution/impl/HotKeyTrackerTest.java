@@ -0,0 +1,85 @@
+package org.infinispan.distribution.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.equivalence.ByteArrayEquivalence;
+import org.infinispan.commons.equivalence.Equivalence;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tests the Space-Saving based tracking of frequently read keys used by the hot-key L1.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "distribution.impl.HotKeyTrackerTest")
+public class HotKeyTrackerTest extends AbstractInfinispanTest {
+
+   public void testKeyBecomesHotAfterMinReads() {
+      HotKeyTracker tracker = new HotKeyTracker(4, 2, AnyEquivalence.getInstance(), k -> {});
+      assertFalse(tracker.recordRead("k"));
+      assertFalse(tracker.isHot("k"));
+      assertTrue(tracker.recordRead("k"));
+      assertTrue(tracker.isHot("k"));
+      assertFalse(tracker.isHot("other"));
+   }
+
+   public void testLeastFrequentKeyIsEvicted() {
+      List<Object> evicted = new ArrayList<>();
+      HotKeyTracker tracker = new HotKeyTracker(2, 2, AnyEquivalence.getInstance(), evicted::add);
+      for (int i = 0; i < 10; i++) {
+         tracker.recordRead("hot");
+      }
+      tracker.recordRead("cold");
+      tracker.recordRead("new");
+      assertEquals(2, tracker.size());
+      assertEquals(1, evicted.size());
+      assertEquals("cold", evicted.get(0));
+      assertTrue(tracker.isHot("hot"));
+      // "new" inherited the count of "cold" as its error, so a single read is not enough
+      assertFalse(tracker.isHot("new"));
+   }
+
+   public void testSkewedReadsAreTracked() {
+      HotKeyTracker tracker = new HotKeyTracker(10, 2, AnyEquivalence.getInstance(), k -> {});
+      for (int i = 0; i < 10000; i++) {
+         // every other read is for one of the hot keys, the others are all distinct
+         tracker.recordRead(i % 2 == 0 ? "hot-" + (i % 3) : "cold-" + i);
+      }
+      for (int i = 0; i < 3; i++) {
+         assertTrue(tracker.isHot("hot-" + i));
+      }
+      assertEquals(10, tracker.size());
+   }
+
+   public void testDecay() {
+      List<Object> evicted = new ArrayList<>();
+      HotKeyTracker tracker = new HotKeyTracker(1, 2, AnyEquivalence.getInstance(), evicted::add);
+      for (int i = 0; i < 8; i++) {
+         tracker.recordRead("old");
+      }
+      tracker.decay();
+      tracker.decay();
+      assertTrue(tracker.isHot("old"));
+      tracker.decay();
+      assertFalse(tracker.isHot("old"));
+      // "old" now has a count of 1 and is replaced by the first read of another key
+      tracker.recordRead("new");
+      assertEquals("old", evicted.get(0));
+   }
+
+   public void testKeyEquivalence() {
+      @SuppressWarnings("unchecked")
+      Equivalence<Object> equivalence = (Equivalence) ByteArrayEquivalence.INSTANCE;
+      HotKeyTracker tracker = new HotKeyTracker(4, 2, equivalence, k -> {});
+      tracker.recordRead(new byte[]{1, 2, 3});
+      tracker.recordRead(new byte[]{1, 2, 3});
+      assertTrue(tracker.isHot(new byte[]{1, 2, 3}));
+   }
+}
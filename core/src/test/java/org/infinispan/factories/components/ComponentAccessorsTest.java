@@ -0,0 +1,89 @@
+package org.infinispan.factories.components;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotNull;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.lang.reflect.Method;
+import java.util.Arrays;
+
+import org.infinispan.commons.CacheException;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.factories.annotations.Inject;
+import org.infinispan.factories.annotations.Start;
+import org.infinispan.factories.annotations.Stop;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.Test;
+
+/**
+ * Tests that the accessors generated by the component annotation processor are found and used, and that methods they
+ * cannot call are still invoked reflectively.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "factories.components.ComponentAccessorsTest")
+public class ComponentAccessorsTest extends AbstractInfinispanTest {
+
+   public void testGeneratedAccessor() throws Exception {
+      ComponentAccessor accessor = ComponentAccessors.getAccessor(SampleComponent.class);
+      assertNotNull(accessor);
+      assertTrue(Arrays.asList(accessor.getMethods()).contains(
+            "inject(" + Configuration.class.getName() + ",java.lang.String)"));
+      assertTrue(Arrays.asList(accessor.getMethods()).contains("start()"));
+      // private methods cannot be called by the accessor
+      assertFalse(Arrays.asList(accessor.getMethods()).contains("stop()"));
+   }
+
+   public void testNoAccessor() {
+      assertNull(ComponentAccessors.getAccessor(Object.class));
+   }
+
+   public void testInvokeThroughAccessor() throws Exception {
+      SampleComponent component = new SampleComponent();
+      Method inject = SampleComponent.class.getDeclaredMethod("inject", Configuration.class, String.class);
+      ComponentAccessors.MethodInvoker invoker = ComponentAccessors.invokerFor(inject);
+      assertTrue(invoker.isGenerated());
+      invoker.invoke(component, new Object[]{null, "value"});
+      assertEquals("value", component.injected);
+   }
+
+   public void testReflectiveFallback() throws Exception {
+      SampleComponent component = new SampleComponent();
+      Method stop = SampleComponent.class.getDeclaredMethod("stop");
+      ComponentAccessors.MethodInvoker invoker = ComponentAccessors.invokerFor(stop);
+      assertFalse(invoker.isGenerated());
+      invoker.invoke(component, null);
+      assertTrue(component.stopped);
+   }
+
+   @Test(expectedExceptions = CacheException.class)
+   public void testExceptionsAreWrapped() throws Exception {
+      SampleComponent component = new SampleComponent();
+      Method start = SampleComponent.class.getDeclaredMethod("start");
+      component.failStart = true;
+      ComponentAccessors.invokerFor(start).invoke(component, null);
+   }
+
+   static class SampleComponent {
+      String injected;
+      boolean stopped;
+      boolean failStart;
+
+      @Inject
+      void inject(Configuration configuration, String injected) {
+         this.injected = injected;
+      }
+
+      @Start
+      void start() {
+         if (failStart) throw new IllegalStateException();
+      }
+
+      @Stop
+      private void stop() {
+         stopped = true;
+      }
+   }
+}
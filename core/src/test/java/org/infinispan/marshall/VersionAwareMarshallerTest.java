@@ -2,6 +2,7 @@
 
 import org.infinispan.Cache;
 import org.infinispan.commands.CommandInvocationId;
+import org.infinispan.commons.io.ByteBuffer;
 import org.infinispan.commons.util.EnumUtil;
 import org.infinispan.commons.util.Util;
 import org.infinispan.container.versioning.EntryVersionsMap;
@@ -368,6 +369,22 @@ public void testLongPutKeyValueCommand() throws Exception {
       marshallAndAssertEquality(c);
    }
 
+   public void testLargeByteArrayPutKeyValueCommand() throws Exception {
+      byte[] key = new byte[]{1, 2, 3};
+      byte[] value = new byte[100 * 1024];
+      new Random().nextBytes(value);
+      PutKeyValueCommand c = new PutKeyValueCommand(key, value, false, null, new EmbeddedMetadata.Builder().build(),
+            EnumUtil.EMPTY_BIT_SET, AnyEquivalence.getInstance(), CommandInvocationId.generateId(null));
+      for (int i = 0; i < 3; i++) {
+         ByteBuffer buffer = marshaller.objectToBuffer(c);
+         // the buffer is sized from the payload upfront, so it never has to grow
+         assertTrue(buffer.getBuf().length < value.length + 4096);
+         PutKeyValueCommand read = (PutKeyValueCommand) marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+         assertArrayEquals(key, (byte[]) read.getKey());
+         assertArrayEquals(value, (byte[]) read.getValue());
+      }
+   }
+
    public void testExceptionResponse() throws Exception {
       ExceptionResponse er = new ExceptionResponse(new TimeoutException());
       byte[] bytes = marshaller.objectToByteBuffer(er);
@@ -0,0 +1,124 @@
+package org.infinispan.marshall.core;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNotSame;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.internal.junit.ArrayAsserts.assertArrayEquals;
+
+import org.infinispan.commands.CommandInvocationId;
+import org.infinispan.commands.remote.ClusteredGetCommand;
+import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.commons.io.ByteBuffer;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.EnumUtil;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.global.GlobalConfigurationBuilder;
+import org.infinispan.container.entries.ImmortalCacheValue;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.metadata.EmbeddedMetadata;
+import org.infinispan.remoting.responses.SuccessfulResponse;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.infinispan.util.ByteString;
+import org.testng.annotations.AfterClass;
+import org.testng.annotations.BeforeClass;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tests the compact encoding of RPC commands and responses, and the fallback to JBoss Marshalling.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "marshall.core.CompactCommandMarshallerTest")
+public class CompactCommandMarshallerTest extends AbstractInfinispanTest {
+   private static final ByteString CACHE_NAME = ByteString.fromString("compact");
+
+   private EmbeddedCacheManager cm;
+   private EmbeddedCacheManager defaultCm;
+   private StreamingMarshaller marshaller;
+
+   @BeforeClass
+   public void setUp() {
+      GlobalConfigurationBuilder global = GlobalConfigurationBuilder.defaultClusteredBuilder();
+      global.serialization().compactCommands(true);
+      cm = TestCacheManagerFactory.createClusteredCacheManager(global, new ConfigurationBuilder());
+      marshaller = TestingUtil.extractGlobalMarshaller(cm);
+      defaultCm = TestCacheManagerFactory.createClusteredCacheManager();
+   }
+
+   @AfterClass
+   public void tearDown() {
+      TestingUtil.killCacheManagers(cm, defaultCm);
+   }
+
+   public void testSingleRpcPut() throws Exception {
+      byte[] key = {1, 2, 3};
+      byte[] value = new byte[1024];
+      PutKeyValueCommand put = new PutKeyValueCommand(key, value, true, null,
+            new EmbeddedMetadata.Builder().lifespan(10, TimeUnit.SECONDS).build(), EnumUtil.EMPTY_BIT_SET,
+            AnyEquivalence.getInstance(), CommandInvocationId.generateId(null));
+      put.setTopologyId(7);
+
+      SingleRpcCommand read = (SingleRpcCommand) roundTrip(new SingleRpcCommand(CACHE_NAME, put), true);
+      assertEquals(CACHE_NAME, read.getCacheName());
+      PutKeyValueCommand readPut = (PutKeyValueCommand) read.getCommand();
+      assertArrayEquals(key, (byte[]) readPut.getKey());
+      assertArrayEquals(value, (byte[]) readPut.getValue());
+      assertEquals(10000, readPut.getMetadata().lifespan());
+      assertTrue(readPut.isPutIfAbsent());
+      assertEquals(7, readPut.getTopologyId());
+      assertEquals(put.getKeyLockOwner(), readPut.getKeyLockOwner());
+   }
+
+   public void testClusteredGet() throws Exception {
+      ClusteredGetCommand get = new ClusteredGetCommand("key", CACHE_NAME, EnumUtil.EMPTY_BIT_SET, false, null,
+            AnyEquivalence.getInstance());
+      ClusteredGetCommand read = (ClusteredGetCommand) roundTrip(get, true);
+      assertEquals("key", read.getKey());
+      assertEquals(CACHE_NAME, read.getCacheName());
+   }
+
+   public void testResponse() throws Exception {
+      byte[] value = {4, 5, 6};
+      SuccessfulResponse read = (SuccessfulResponse) roundTrip(SuccessfulResponse.create(new ImmortalCacheValue(value)), true);
+      assertArrayEquals(value, (byte[]) ((ImmortalCacheValue) read.getResponseValue()).getValue());
+   }
+
+   public void testFallbackForUnsupportedTypes() throws Exception {
+      CustomValue value = new CustomValue();
+      value.field = "v";
+      SuccessfulResponse read = (SuccessfulResponse) roundTrip(SuccessfulResponse.create(value), false);
+      CustomValue readValue = (CustomValue) read.getResponseValue();
+      assertNotSame(value, readValue);
+      assertEquals("v", readValue.field);
+   }
+
+   public void testDisabledByDefault() throws Exception {
+      StreamingMarshaller defaultMarshaller = TestingUtil.extractGlobalMarshaller(defaultCm);
+      SuccessfulResponse response = SuccessfulResponse.create(new ImmortalCacheValue(new byte[]{4, 5, 6}));
+      ByteBuffer buffer = defaultMarshaller.objectToBuffer(response);
+      assertFalse(CompactCommandMarshaller.isCompact(buffer.getBuf(), buffer.getOffset(), buffer.getLength()));
+
+      // a node with the compact encoding disabled still reads it
+      ByteBuffer compactBuffer = marshaller.objectToBuffer(response);
+      SuccessfulResponse read = (SuccessfulResponse) defaultMarshaller.objectFromByteBuffer(compactBuffer.getBuf(),
+            compactBuffer.getOffset(), compactBuffer.getLength());
+      assertArrayEquals(new byte[]{4, 5, 6}, (byte[]) ((ImmortalCacheValue) read.getResponseValue()).getValue());
+   }
+
+   private Object roundTrip(Object o, boolean expectCompact) throws Exception {
+      ByteBuffer buffer = marshaller.objectToBuffer(o);
+      assertEquals(expectCompact, CompactCommandMarshaller.isCompact(buffer.getBuf(), buffer.getOffset(), buffer.getLength()));
+      return marshaller.objectFromByteBuffer(buffer.getBuf(), buffer.getOffset(), buffer.getLength());
+   }
+
+   public static class CustomValue implements java.io.Serializable {
+      String field;
+   }
+}
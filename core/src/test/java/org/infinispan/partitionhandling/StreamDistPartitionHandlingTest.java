@@ -6,7 +6,6 @@
 import org.infinispan.context.Flag;
 import org.infinispan.distribution.MagicKey;
 import org.infinispan.notifications.cachelistener.CacheNotifier;
-import org.infinispan.remoting.transport.Address;
 import org.infinispan.stream.impl.ClusterStreamManager;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.CheckPoint;
@@ -16,7 +15,6 @@
 
 import java.lang.reflect.InvocationTargetException;
 import java.util.Map;
-import java.util.UUID;
 import java.util.concurrent.TimeUnit;
 
 import static org.mockito.Mockito.*;
@@ -121,8 +119,9 @@ public void testUsingIteratorButPartitionOccursAfterRetrievingRemoteValues() thr
          cp.triggerForever("pre_receive_response_released");
          cp.triggerForever("post_receive_response_released");
 
-         // Wait for all the responses to come back - we have to do this before splitting
-         assertTrue(cp.await("post_receive_response_invoked", numMembersInCluster - 1, 10, TimeUnit.SECONDS));
+         // Wait for all the responses to come back, which are all pulled by a single invocation - we have to do this
+         // before splitting
+         assertTrue(cp.await("post_receive_response_invoked", 10, TimeUnit.SECONDS));
 
          // Now we replace the notifier so we know when the notifier was told of the partition change so we know
          // our iterator should have been notified
@@ -165,7 +164,7 @@ private static <K, V> CacheNotifier<K, V> blockNotifierPartitionStatusChanged(fi
    private static <K> ClusterStreamManager<K> blockStreamResponse(final CheckPoint checkPoint, Cache<K, ?> cache) {
       ClusterStreamManager<K> manager = TestingUtil.extractComponent(cache, ClusterStreamManager.class);
       final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(manager);
-      ClusterStreamManager mockManager = mock(ClusterStreamManager.class, withSettings().defaultAnswer(i -> {
+      final Answer<Object> unwrappingAnswer = i -> {
          try {
             return forwardedAnswer.answer(i);
          } catch (InvocationTargetException e) {
@@ -175,18 +174,19 @@ private static <K> ClusterStreamManager<K> blockStreamResponse(final CheckPoint
             }
             throw e;
          }
-      }));
+      };
+      ClusterStreamManager mockManager = mock(ClusterStreamManager.class, withSettings().defaultAnswer(unwrappingAnswer));
+      // The iterator pulls the remote responses when invoking this method
       doAnswer(invocation -> {
          checkPoint.trigger("pre_receive_response_invoked");
          assertTrue(checkPoint.await("pre_receive_response_released", 20, TimeUnit.SECONDS));
          try {
-         return forwardedAnswer.answer(invocation);
+            return unwrappingAnswer.answer(invocation);
          } finally {
             checkPoint.trigger("post_receive_response_invoked");
             assertTrue(checkPoint.await("post_receive_response_released", 20, TimeUnit.SECONDS));
          }
-      }).when(mockManager).receiveResponse(any(UUID.class), any(Address.class), anyBoolean(), anySetOf(Integer.class),
-              any());
+      }).when(mockManager).pullIteration(any(), anyLong(), any(TimeUnit.class));
       TestingUtil.replaceComponent(cache, ClusterStreamManager.class, mockManager, true);
       return manager;
    }
@@ -204,6 +204,7 @@ public RpcOptionsBuilder answer(InvocationOnMock invocation) {
       stateConsumer.init(cache, pooledExecutorService, stateTransferManager, interceptorChain, icf, configuration, rpcManager, null,
             commandsFactory, persistenceManager, dataContainer, transactionTable, stateTransferLock, cacheNotifier,
             totalOrderManager, remoteCommandsExecutor, new CommitManager(AnyEquivalence.getInstance()));
+      stateConsumer.injectStateApplyDependencies(null, TIME_SERVICE);
       stateConsumer.start();
 
       final List<InternalCacheEntry> cacheEntries = new ArrayList<InternalCacheEntry>();
@@ -0,0 +1,163 @@
+package org.infinispan.statetransfer;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.VisitableCommand;
+import org.infinispan.commands.write.PutKeyValueCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.container.DataContainer;
+import org.infinispan.context.Flag;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.interceptors.InterceptorChain;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.event.CacheEntryCreatedEvent;
+import org.infinispan.persistence.dummy.DummyInMemoryStore;
+import org.infinispan.persistence.dummy.DummyInMemoryStoreConfigurationBuilder;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CheckPoint;
+import org.mockito.AdditionalAnswers;
+import org.mockito.stubbing.Answer;
+import org.testng.annotations.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anySetOf;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests that the state received by a joiner is committed without the interceptor chain when no listener is interested
+ * in the entries, and that it is written to its data container and to its private store.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "statetransfer.StateTransferDirectApplyTest")
+public class StateTransferDirectApplyTest extends MultipleCacheManagersTest {
+
+   private static final String CACHE_NAME = "directApply";
+   private static final int NUM_KEYS = 100;
+
+   public StateTransferDirectApplyTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      for (int i = 0; i < 2; i++) {
+         addNode(i);
+      }
+      waitForClusterToForm(CACHE_NAME);
+   }
+
+   private void addNode(int id) {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cfg.clustering().hash().numOwners(1);
+      // the joiner's cache is started before it receives the state
+      cfg.clustering().stateTransfer().awaitInitialTransfer(false);
+      DummyInMemoryStoreConfigurationBuilder store = new DummyInMemoryStoreConfigurationBuilder(cfg.persistence());
+      store.storeName(getClass().getSimpleName() + id).shared(false);
+      cfg.persistence().addStore(store);
+      EmbeddedCacheManager cm = addClusterEnabledCacheManager();
+      cm.defineConfiguration(CACHE_NAME, cfg.build());
+   }
+
+   public void testJoinerCommitsStateDirectly() throws Exception {
+      AtomicInteger stateTransferPuts = joinAndCountStateTransferPuts(false);
+
+      assertEquals(0, stateTransferPuts.get());
+      assertJoinerReceivedState();
+   }
+
+   public void testEntryListenerNeedsTheInterceptorChain() throws Exception {
+      AtomicInteger stateTransferPuts = joinAndCountStateTransferPuts(true);
+
+      assertTrue(stateTransferPuts.get() > 0);
+      assertJoinerReceivedState();
+   }
+
+   private AtomicInteger joinAndCountStateTransferPuts(boolean addListener) throws Exception {
+      for (int i = 0; i < NUM_KEYS; i++) {
+         cache(0, CACHE_NAME).put("k" + i, "v" + i);
+      }
+      CheckPoint checkPoint = new CheckPoint();
+      blockStateProvider(cache(0, CACHE_NAME), checkPoint);
+      blockStateProvider(cache(1, CACHE_NAME), checkPoint);
+
+      addNode(2);
+      Cache<Object, Object> joiner = cache(2, CACHE_NAME);
+      if (addListener) {
+         joiner.addListener(new EntryCreatedListener());
+      }
+      StateConsumer stateConsumer = TestingUtil.extractComponent(joiner, StateConsumer.class);
+      InterceptorChain chain = TestingUtil.extractField(stateConsumer, "interceptorChain");
+      AtomicInteger stateTransferPuts = new AtomicInteger();
+      Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(chain);
+      InterceptorChain countingChain = mock(InterceptorChain.class, withSettings().defaultAnswer(forwardedAnswer));
+      doAnswer(invocation -> {
+         Object command = invocation.getArguments()[1];
+         if (command instanceof PutKeyValueCommand && ((PutKeyValueCommand) command).hasFlag(Flag.PUT_FOR_STATE_TRANSFER)) {
+            stateTransferPuts.incrementAndGet();
+         }
+         return forwardedAnswer.answer(invocation);
+      }).when(countingChain).invoke(any(InvocationContext.class), any(VisitableCommand.class));
+      TestingUtil.replaceField(countingChain, "interceptorChain", stateConsumer, StateConsumerImpl.class);
+
+      checkPoint.triggerForever("state_released");
+      waitForClusterToForm(CACHE_NAME);
+      return stateTransferPuts;
+   }
+
+   private void blockStateProvider(Cache<?, ?> cache, CheckPoint checkPoint) throws InterruptedException {
+      StateProvider stateProvider = TestingUtil.extractComponent(cache, StateProvider.class);
+      Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(stateProvider);
+      StateProvider blockingProvider = mock(StateProvider.class, withSettings().defaultAnswer(forwardedAnswer));
+      doAnswer(invocation -> {
+         checkPoint.awaitStrict("state_released", 10, TimeUnit.SECONDS);
+         return forwardedAnswer.answer(invocation);
+      }).when(blockingProvider).startOutboundTransfer(any(Address.class), anyInt(), anySetOf(Integer.class));
+      TestingUtil.replaceComponent(cache, StateProvider.class, blockingProvider, true);
+   }
+
+   private void assertJoinerReceivedState() {
+      Cache<Object, Object> joiner = cache(2, CACHE_NAME);
+      ConsistentHash ch = TestingUtil.extractComponent(joiner, StateTransferManager.class).getCacheTopology()
+            .getReadConsistentHash();
+      Address joinerAddress = address(2);
+      DataContainer dataContainer = TestingUtil.extractComponent(joiner, DataContainer.class);
+      DummyInMemoryStore store = TestingUtil.getFirstWriter(joiner);
+      int received = 0;
+      for (int i = 0; i < NUM_KEYS; i++) {
+         String key = "k" + i;
+         if (ch.isKeyLocalToNode(joinerAddress, key)) {
+            received++;
+            assertEquals("v" + i, dataContainer.get(key).getValue());
+            assertTrue(store.contains(key));
+         }
+      }
+      assertTrue(received > 0);
+
+      Map<Integer, Double> throughput = TestingUtil.extractComponent(joiner, StateConsumer.class)
+            .getSegmentApplyThroughput();
+      assertFalse(throughput.isEmpty());
+   }
+
+   @Listener
+   public static class EntryCreatedListener {
+      @CacheEntryCreated
+      public void entryCreated(CacheEntryCreatedEvent<?, ?> event) {
+      }
+   }
+}
@@ -0,0 +1,166 @@
+package org.infinispan.stream;
+
+import org.infinispan.Cache;
+import org.infinispan.CacheStream;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.stream.impl.LocalStreamManager;
+import org.infinispan.stream.impl.LocalStreamManagerImpl;
+import org.infinispan.stream.impl.StreamIteratorNextCommand;
+import org.infinispan.stream.impl.StreamIteratorRequestCommand;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.testng.annotations.Test;
+
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the pull based rehash aware iteration: the remote nodes only produce the entries the originator has room for,
+ * and release their iteration state when the iteration is closed, abandoned, or when the originator leaves.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "stream.DistributedStreamIteratorPullTest")
+public class DistributedStreamIteratorPullTest extends MultipleCacheManagersTest {
+   private static final int BATCH_SIZE = 10;
+   private static final int ENTRIES_PER_NODE = 50;
+
+   public DistributedStreamIteratorPullTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      builder.clustering().hash().numOwners(1);
+      // the idle iterations are looked for on every wake up
+      builder.expiration().wakeUpInterval(100);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testBatchesAreLimitedByTheFreeSpace() {
+      populate();
+      IteratorCommandCounter counter = new IteratorCommandCounter(cache(0).getAdvancedCache().getRpcManager());
+      TestingUtil.replaceComponent(cache(0), RpcManager.class, counter, true);
+
+      Set<Object> keys = new HashSet<>();
+      try (CacheStream<Map.Entry<Object, Object>> stream = cache(0).entrySet().stream().distributedBatchSize(BATCH_SIZE)) {
+         Iterator<Map.Entry<Object, Object>> iterator = stream.iterator();
+         for (int i = 0; i < 5; i++) {
+            keys.add(iterator.next().getKey());
+         }
+         // the consumer stopped, so the remote nodes are only asked for the entries that fit in the queue
+         TestingUtil.sleepThread(500);
+         int requested = counter.requested.get();
+         assertTrue("Requested " + requested + " entries", requested <= keys.size() + 3 * BATCH_SIZE);
+
+         iterator.forEachRemaining(e -> keys.add(e.getKey()));
+      }
+
+      assertEquals(2 * ENTRIES_PER_NODE, keys.size());
+      assertTrue(counter.maxBatchSize.get() <= BATCH_SIZE);
+      assertNoIterations(cache(1));
+      assertNoIterations(cache(2));
+   }
+
+   public void testCloseReleasesTheRemoteIterations() {
+      populate();
+      CacheStream<Map.Entry<Object, Object>> stream = cache(0).entrySet().stream().distributedBatchSize(BATCH_SIZE);
+      stream.iterator().next();
+      assertTrue(iterations(cache(1)) + iterations(cache(2)) > 0);
+
+      stream.close();
+      assertNoIterations(cache(1));
+      assertNoIterations(cache(2));
+   }
+
+   public void testIterationsOfALeaverAreReleased() {
+      populate();
+      Cache<Object, Object> remote1 = cache(1);
+      Cache<Object, Object> remote2 = cache(2);
+      CacheStream<Map.Entry<Object, Object>> stream = cache(0).entrySet().stream().distributedBatchSize(BATCH_SIZE);
+      stream.iterator().next();
+      assertTrue(iterations(remote1) + iterations(remote2) > 0);
+
+      // the originator leaves without closing its iteration
+      killMember(0);
+      assertNoIterations(remote1);
+      assertNoIterations(remote2);
+   }
+
+   public void testIdleIterationsAreReleased() {
+      populate();
+      for (Cache<Object, Object> cache : caches()) {
+         TestingUtil.replaceField(100L, "iteratorIdleTimeout", TestingUtil.extractComponent(cache, LocalStreamManager.class),
+               LocalStreamManagerImpl.class);
+      }
+
+      Set<Object> keys = new HashSet<>();
+      try (CacheStream<Map.Entry<Object, Object>> stream = cache(0).entrySet().stream().distributedBatchSize(BATCH_SIZE)) {
+         Iterator<Map.Entry<Object, Object>> iterator = stream.iterator();
+         keys.add(iterator.next().getKey());
+         // the queue is full, so the originator stops requesting batches and the remote nodes release them
+         assertNoIterations(cache(1));
+         assertNoIterations(cache(2));
+
+         // the originator retries the segments of the released iterations, excluding the keys already returned
+         iterator.forEachRemaining(e -> assertTrue(keys.add(e.getKey())));
+      }
+      assertEquals(2 * ENTRIES_PER_NODE, keys.size());
+   }
+
+   private void populate() {
+      for (int i = 0; i < ENTRIES_PER_NODE; i++) {
+         cache(0).put(new MagicKey("k1-" + i, cache(1)), "v" + i);
+         cache(0).put(new MagicKey("k2-" + i, cache(2)), "v" + i);
+      }
+   }
+
+   private int iterations(Cache<?, ?> cache) {
+      LocalStreamManager lsm = TestingUtil.extractComponent(cache, LocalStreamManager.class);
+      Map<?, ?> iterators = TestingUtil.extractField(lsm, "iterators");
+      return iterators.size();
+   }
+
+   private void assertNoIterations(Cache<?, ?> cache) {
+      eventuallyEquals(0, () -> iterations(cache));
+   }
+
+   /**
+    * Counts the entries requested by the pull based iterations.
+    */
+   private static class IteratorCommandCounter extends AbstractControlledRpcManager {
+      final AtomicInteger requested = new AtomicInteger();
+      final AtomicInteger maxBatchSize = new AtomicInteger();
+
+      IteratorCommandCounter(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      protected void beforeInvokeRemotely(ReplicableCommand command) {
+         int batchSize;
+         if (command instanceof StreamIteratorRequestCommand) {
+            batchSize = ((StreamIteratorRequestCommand) command).getBatchSize();
+         } else if (command instanceof StreamIteratorNextCommand) {
+            batchSize = ((StreamIteratorNextCommand) command).getBatchSize();
+         } else {
+            return;
+         }
+         requested.addAndGet(batchSize);
+         maxBatchSize.accumulateAndGet(batchSize, Math::max);
+      }
+   }
+}
@@ -11,11 +11,10 @@
 import org.infinispan.distribution.MagicKey;
 import org.infinispan.distribution.ch.ConsistentHash;
 import org.infinispan.filter.CacheFilters;
-import org.infinispan.remoting.rpc.RpcManager;
-import org.infinispan.remoting.rpc.RpcOptions;
 import org.infinispan.remoting.transport.Address;
 import org.infinispan.stream.impl.ClusterStreamManager;
-import org.infinispan.stream.impl.StreamResponseCommand;
+import org.infinispan.stream.impl.KeyTrackingTerminalOperation;
+import org.infinispan.stream.impl.LocalStreamManager;
 import org.infinispan.test.TestingUtil;
 import org.infinispan.test.fwk.CheckPoint;
 import org.mockito.AdditionalAnswers;
@@ -39,7 +38,6 @@
 import java.util.stream.IntStream;
 
 import static org.mockito.Matchers.any;
-import static org.mockito.Matchers.anyCollectionOf;
 import static org.mockito.Matchers.anySetOf;
 import static org.mockito.Mockito.anyBoolean;
 import static org.mockito.Mockito.anyLong;
@@ -122,8 +120,9 @@ public void verifyNodeLeavesAfterSendingBackSomeData() throws TimeoutException,
       }
 
       CheckPoint checkPoint = new CheckPoint();
-      // Let the first request come through fine
+      // Let the first request come through fine, the following ones will wait
       checkPoint.trigger("pre_send_response_released");
+      checkPoint.triggerForever("post_send_response_released");
       waitUntilSendingResponse(cache1, checkPoint);
 
       final BlockingQueue<Map.Entry<Object, String>> returnQueue = new LinkedBlockingQueue<>();
@@ -326,6 +325,7 @@ private void testStayLocalIfAllSegmentsPresentLocally(boolean rehashAware) throw
       // We should not see keys from other segments, but there may be segments without any keys
       assertTrue(segmentsCache0.containsAll(entriesPerSegment.keySet()));
       verify(clusterStreamManager, never()).awaitCompletion(any(UUID.class), anyLong(), any(TimeUnit.class));
+      verify(clusterStreamManager, never()).pullIteration(any(UUID.class), anyLong(), any(TimeUnit.class));
    }
 
    private ClusterStreamManager replaceWithSpy(Cache<?,?> cache) {
@@ -350,11 +350,12 @@ private Map<Integer, Set<Map.Entry<Object, String>>> generateEntriesPerSegment(C
       return returnMap;
    }
 
-   protected RpcManager waitUntilSendingResponse(final Cache<?, ?> cache, final CheckPoint checkPoint) {
-      RpcManager rpc = TestingUtil.extractComponent(cache, RpcManager.class);
-      final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(rpc);
-      RpcManager mockManager = mock(RpcManager.class, withSettings().defaultAnswer(forwardedAnswer));
-      doAnswer(invocation -> {
+   protected LocalStreamManager waitUntilSendingResponse(final Cache<?, ?> cache, final CheckPoint checkPoint) {
+      LocalStreamManager manager = TestingUtil.extractComponent(cache, LocalStreamManager.class);
+      final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(manager);
+      LocalStreamManager mockManager = mock(LocalStreamManager.class, withSettings().defaultAnswer(forwardedAnswer));
+      // The batches of an iterator are returned as the responses of these methods
+      Answer<Object> blockingAnswer = invocation -> {
          // Wait for main thread to sync up
          checkPoint.trigger("pre_send_response_invoked");
          // Now wait until main thread lets us through
@@ -368,16 +369,19 @@ protected RpcManager waitUntilSendingResponse(final Cache<?, ?> cache, final Che
             // Now wait until main thread lets us through
             checkPoint.awaitStrict("post_send_response_released", 10, TimeUnit.SECONDS);
          }
-      }).when(mockManager).invokeRemotely(anyCollectionOf(Address.class), any(StreamResponseCommand.class),
-                                          any(RpcOptions.class));
-      TestingUtil.replaceComponent(cache, RpcManager.class, mockManager, true);
-      return rpc;
+      };
+      doAnswer(blockingAnswer).when(mockManager).startIterator(any(), any(Address.class), anySetOf(Integer.class),
+              anySet(), anySet(), anyBoolean(), any(KeyTrackingTerminalOperation.class), anyInt());
+      doAnswer(blockingAnswer).when(mockManager).continueIterator(any(), anyInt());
+      TestingUtil.replaceComponent(cache, LocalStreamManager.class, mockManager, true);
+      return manager;
    }
 
    protected ClusterStreamManager waitUntilStartOfProcessingResult(final Cache<?, ?> cache, final CheckPoint checkPoint) {
       ClusterStreamManager rpc = TestingUtil.extractComponent(cache, ClusterStreamManager.class);
       final Answer<Object> forwardedAnswer = AdditionalAnswers.delegatesTo(rpc);
       ClusterStreamManager mockRetriever = mock(ClusterStreamManager.class, withSettings().defaultAnswer(forwardedAnswer));
+      // The iterator processes the remote responses when invoking pullIteration
       doAnswer(invocation -> {
          // Wait for main thread to sync up
          checkPoint.trigger("pre_receive_response_invoked");
@@ -392,8 +396,7 @@ protected ClusterStreamManager waitUntilStartOfProcessingResult(final Cache<?, ?
             // Now wait until main thread lets us through
             checkPoint.awaitStrict("post_receive_response_released", 10, TimeUnit.SECONDS);
          }
-      }).when(mockRetriever).receiveResponse(any(UUID.class), any(Address.class), anyBoolean(), anySetOf(Integer.class),
-              any());
+      }).when(mockRetriever).pullIteration(any(), anyLong(), any(TimeUnit.class));
       TestingUtil.replaceComponent(cache, ClusterStreamManager.class, mockRetriever, true);
       return rpc;
    }
@@ -0,0 +1,61 @@
+package org.infinispan.tx;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.transaction.impl.TransactionTable;
+import org.infinispan.transaction.impl.TransactionTable.CompletedTransactionStatus;
+import org.infinispan.transaction.xa.GlobalTransaction;
+import org.infinispan.transaction.xa.TransactionFactory;
+import org.infinispan.util.ControlledTimeService;
+import org.infinispan.util.TimeService;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+
+/**
+ * Tests the completed transactions expire {@code completedTxTimeout} after they were first marked as completed, even
+ * when they are marked as completed several times.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "tx.CompletedTransactionsExpirationTest")
+public class CompletedTransactionsExpirationTest extends MultipleCacheManagersTest {
+   private static final long COMPLETED_TX_TIMEOUT = 10000;
+
+   private final ControlledTimeService timeService = new ControlledTimeService(0);
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, true);
+      builder.transaction().completedTxTimeout(COMPLETED_TX_TIMEOUT).reaperWakeUpInterval(10);
+      createCluster(builder, 2);
+      waitForClusterToForm();
+      TestingUtil.replaceComponent(manager(0), TimeService.class, timeService, true);
+   }
+
+   public void testRepeatedCompletion() {
+      TransactionTable txTable = TestingUtil.extractComponent(cache(0), TransactionTable.class);
+      TransactionFactory txFactory = TestingUtil.extractComponent(cache(0), TransactionFactory.class);
+      GlobalTransaction gtx = txFactory.newGlobalTransaction(address(1), true);
+
+      txTable.markTransactionCompleted(gtx, true);
+      timeService.advance(COMPLETED_TX_TIMEOUT / 2);
+      // e.g. a commit retried after a topology change
+      txTable.markTransactionCompleted(gtx, true);
+      GlobalTransaction sentinel = txFactory.newGlobalTransaction(address(1), true);
+      txTable.markTransactionCompleted(sentinel, true);
+
+      // the first completion expired
+      timeService.advance(COMPLETED_TX_TIMEOUT / 2 + 1);
+      eventuallyEquals(CompletedTransactionStatus.EXPIRED, () -> txTable.getCompletedTransactionStatus(gtx));
+
+      // completed again after it expired, e.g. by a stale commit
+      txTable.markTransactionCompleted(gtx, true);
+      timeService.advance(COMPLETED_TX_TIMEOUT / 2);
+      // the expiration of the sentinel means the reaper went past the second completion
+      eventuallyEquals(CompletedTransactionStatus.EXPIRED, () -> txTable.getCompletedTransactionStatus(sentinel));
+      assertEquals(CompletedTransactionStatus.COMMITTED, txTable.getCompletedTransactionStatus(gtx));
+   }
+}
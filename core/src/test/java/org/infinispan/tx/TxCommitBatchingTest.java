@@ -0,0 +1,166 @@
+package org.infinispan.tx;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.ReplicableCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
+import org.infinispan.commands.tx.CommitCommand;
+import org.infinispan.commands.tx.PrepareCommand;
+import org.infinispan.commands.tx.RollbackCommand;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.distribution.MagicKey;
+import org.infinispan.distribution.rehash.XAResourceAdapter;
+import org.infinispan.interceptors.distribution.TxDistributionInterceptor;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.transaction.LockingMode;
+import org.infinispan.transaction.impl.TxCommandBatcher;
+import org.infinispan.util.AbstractControlledRpcManager;
+import org.testng.annotations.Test;
+
+import javax.transaction.RollbackException;
+import javax.transaction.TransactionManager;
+import javax.transaction.xa.XAException;
+import javax.transaction.xa.Xid;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests that the prepare and commit commands of concurrent transactions are batched per node and still applied
+ * correctly, and that rollbacks are sent on their own.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "tx.TxCommitBatchingTest")
+public class TxCommitBatchingTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_TX = 20;
+
+   public TxCommitBatchingTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, true);
+      builder.transaction().lockingMode(LockingMode.OPTIMISTIC).batchWindow(50).batchSize(8);
+      createCluster(builder, 3);
+      waitForClusterToForm();
+   }
+
+   public void testConcurrentCommits() throws Exception {
+      CommandCountingRpcManager rpcManager = replaceRpcManager(cache(0));
+      CyclicBarrier barrier = new CyclicBarrier(NUM_TX);
+      List<Future<Void>> futures = new ArrayList<>();
+      List<Object> keys = new ArrayList<>();
+      for (int i = 0; i < NUM_TX; i++) {
+         Object key = new MagicKey("k" + i, cache(1), cache(2));
+         keys.add(key);
+         String value = "v" + i;
+         futures.add(fork(() -> {
+            TransactionManager tm = tm(0);
+            tm.begin();
+            cache(0).put(key, value);
+            // all the transactions commit at the same time
+            barrier.await(10, TimeUnit.SECONDS);
+            tm.commit();
+            return null;
+         }));
+      }
+      for (Future<Void> future : futures) {
+         future.get(10, TimeUnit.SECONDS);
+      }
+
+      for (int i = 0; i < NUM_TX; i++) {
+         for (int j = 0; j < 3; j++) {
+            assertEquals("v" + i, cache(j).get(keys.get(i)));
+         }
+      }
+      // a prepare and a commit sent to each of the 2 owners of every key
+      int sentOnTheirOwn = rpcManager.prepares.get() + rpcManager.commits.get();
+      assertEquals(NUM_TX * 4, sentOnTheirOwn + rpcManager.batchedCommands.get());
+      assertTrue(rpcManager.batches.get() > 0);
+      assertTrue(sentOnTheirOwn + rpcManager.batches.get() < NUM_TX * 4);
+   }
+
+   public void testRollbackIsNotBatched() throws Exception {
+      CommandCountingRpcManager rpcManager = replaceRpcManager(cache(0));
+      Object key = new MagicKey("rollback", cache(1), cache(2));
+      TransactionManager tm = tm(0);
+      tm.begin();
+      cache(0).put(key, "v");
+      // the transaction is rolled back after it was prepared on the owners
+      tm.getTransaction().enlistResource(new XAResourceAdapter() {
+         @Override
+         public int prepare(Xid xid) throws XAException {
+            throw new XAException(XAException.XA_RBROLLBACK);
+         }
+      });
+      try {
+         tm.commit();
+         fail("The transaction should have been rolled back");
+      } catch (RollbackException e) {
+         // expected
+      }
+
+      for (int j = 0; j < 3; j++) {
+         assertNull(cache(j).get(key));
+      }
+      assertEquals(1, rpcManager.rollbacks.get());
+      assertEquals(0, rpcManager.batchedRollbacks.get());
+   }
+
+   /**
+    * Counts the commands sent by the cache, and by its {@link TxCommandBatcher}.
+    */
+   private CommandCountingRpcManager replaceRpcManager(Cache<?, ?> cache) {
+      CommandCountingRpcManager rpcManager = new CommandCountingRpcManager(cache.getAdvancedCache().getRpcManager());
+      TestingUtil.replaceComponent(cache, RpcManager.class, rpcManager, true);
+      TxDistributionInterceptor interceptor = TestingUtil.findInterceptor(cache, TxDistributionInterceptor.class);
+      TxCommandBatcher batcher = TestingUtil.extractField(interceptor, "txCommandBatcher");
+      TestingUtil.replaceField(rpcManager, "rpcManager", batcher, TxCommandBatcher.class);
+      return rpcManager;
+   }
+
+   private static class CommandCountingRpcManager extends AbstractControlledRpcManager {
+      final AtomicInteger prepares = new AtomicInteger();
+      final AtomicInteger commits = new AtomicInteger();
+      final AtomicInteger rollbacks = new AtomicInteger();
+      final AtomicInteger batches = new AtomicInteger();
+      final AtomicInteger batchedCommands = new AtomicInteger();
+      final AtomicInteger batchedRollbacks = new AtomicInteger();
+
+      CommandCountingRpcManager(RpcManager realOne) {
+         super(realOne);
+      }
+
+      @Override
+      protected void beforeInvokeRemotely(ReplicableCommand command) {
+         if (command instanceof PrepareCommand) {
+            prepares.incrementAndGet();
+         } else if (command instanceof CommitCommand) {
+            commits.incrementAndGet();
+         } else if (command instanceof RollbackCommand) {
+            rollbacks.incrementAndGet();
+         } else if (command instanceof TxBatchCommand) {
+            batches.incrementAndGet();
+            for (ReplicableCommand batched : ((TxBatchCommand) command).getCommands()) {
+               batchedCommands.incrementAndGet();
+               if (batched instanceof RollbackCommand) {
+                  batchedRollbacks.incrementAndGet();
+               }
+            }
+         }
+      }
+   }
+}
@@ -25,11 +25,13 @@
 import org.infinispan.commands.read.GetKeyValueCommand;
 import org.infinispan.commands.read.KeySetCommand;
 import org.infinispan.commands.read.SizeCommand;
+import org.infinispan.commands.remote.CacheRpcCommand;
 import org.infinispan.commands.remote.ClusteredGetAllCommand;
 import org.infinispan.commands.remote.ClusteredGetCommand;
 import org.infinispan.commands.remote.GetKeysInGroupCommand;
 import org.infinispan.commands.remote.MultipleRpcCommand;
 import org.infinispan.commands.remote.SingleRpcCommand;
+import org.infinispan.commands.remote.TxBatchCommand;
 import org.infinispan.commands.remote.recovery.CompleteTransactionCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTransactionsCommand;
 import org.infinispan.commands.remote.recovery.GetInDoubtTxInfoCommand;
@@ -59,6 +61,10 @@
 import org.infinispan.statetransfer.StateChunk;
 import org.infinispan.statetransfer.StateRequestCommand;
 import org.infinispan.statetransfer.StateResponseCommand;
+import org.infinispan.stream.impl.KeyTrackingTerminalOperation;
+import org.infinispan.stream.impl.StreamIteratorCloseCommand;
+import org.infinispan.stream.impl.StreamIteratorNextCommand;
+import org.infinispan.stream.impl.StreamIteratorRequestCommand;
 import org.infinispan.stream.impl.StreamRequestCommand;
 import org.infinispan.stream.impl.StreamResponseCommand;
 import org.infinispan.test.TestingUtil;
@@ -67,6 +73,7 @@
 import org.infinispan.util.logging.Log;
 import org.infinispan.util.logging.LogFactory;
 import org.infinispan.xsite.SingleXSiteRpcCommand;
+import org.infinispan.xsite.XSiteBatchCommand;
 import org.infinispan.xsite.XSiteAdminCommand;
 import org.infinispan.xsite.statetransfer.XSiteState;
 import org.infinispan.xsite.statetransfer.XSiteStatePushCommand;
@@ -261,6 +268,11 @@ public SingleRpcCommand buildSingleRpcCommand(ReplicableCommand call) {
       return actual.buildSingleRpcCommand(call);
    }
 
+   @Override
+   public TxBatchCommand buildTxBatchCommand(List<CacheRpcCommand> commands) {
+      return actual.buildTxBatchCommand(commands);
+   }
+
    @Override
    public ClusteredGetCommand buildClusteredGetCommand(Object key, long flagsBitSet, boolean acquireRemoteLock, GlobalTransaction gtx) {
       return actual.buildClusteredGetCommand(key, flagsBitSet, acquireRemoteLock, gtx);
@@ -373,6 +385,11 @@ public SingleXSiteRpcCommand buildSingleXSiteRpcCommand(VisitableCommand command
       return actual.buildSingleXSiteRpcCommand(command);
    }
 
+   @Override
+   public XSiteBatchCommand buildXSiteBatchCommand(long sequence, byte[] payload, int uncompressedLength) {
+      return actual.buildXSiteBatchCommand(sequence, payload, uncompressedLength);
+   }
+
    @Override
    public GetKeysInGroupCommand buildGetKeysInGroupCommand(long flagsBitSet, String groupName) {
       return actual.buildGetKeysInGroupCommand(flagsBitSet, groupName);
@@ -392,6 +409,24 @@ public <R> StreamResponseCommand<R> buildStreamResponseCommand(Object identifier
       return actual.buildStreamResponseCommand(identifier, complete, lostSegments, response);
    }
 
+   @Override
+   public <K> StreamIteratorRequestCommand<K> buildStreamIteratorRequestCommand(Object id, Set<Integer> segments,
+           Set<K> keys, Set<K> excludedKeys, boolean includeLoader, KeyTrackingTerminalOperation terminalOperation,
+           int batchSize) {
+      return actual.buildStreamIteratorRequestCommand(id, segments, keys, excludedKeys, includeLoader,
+              terminalOperation, batchSize);
+   }
+
+   @Override
+   public StreamIteratorNextCommand buildStreamIteratorNextCommand(Object id, int batchSize) {
+      return actual.buildStreamIteratorNextCommand(id, batchSize);
+   }
+
+   @Override
+   public StreamIteratorCloseCommand buildStreamIteratorCloseCommand(Object id) {
+      return actual.buildStreamIteratorCloseCommand(id);
+   }
+
    @Override
    public GetCacheEntryCommand buildGetCacheEntryCommand(Object key, long flagsBitSet) {
       return actual.buildGetCacheEntryCommand(key, flagsBitSet);
@@ -0,0 +1,137 @@
+package org.infinispan.xsite;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.BackupConfiguration;
+import org.infinispan.configuration.cache.BackupConfigurationBuilder;
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the asynchronous backup with a replication log, i.e. with a batch window.
+ *
+ * @since 9.0
+ */
+@Test(groups = "xsite", testName = "xsite.NonTxAsyncBatchBackupTest")
+public class NonTxAsyncBatchBackupTest extends AbstractTwoSitesTest {
+
+   private NonTxAsyncBackupTest.BlockingInterceptor blockingInterceptor;
+
+   public NonTxAsyncBatchBackupTest() {
+      super.lonBackupStrategy = BackupConfiguration.BackupStrategy.ASYNC;
+   }
+
+   @Override
+   protected void adaptLONConfiguration(BackupConfigurationBuilder builder) {
+      builder.asyncBatchWindow(50).asyncBatchSize(100);
+   }
+
+   @Override
+   protected void createSites() {
+      super.createSites();
+      blockingInterceptor = new NonTxAsyncBackupTest.BlockingInterceptor();
+      blockingInterceptor.isActive = false;
+      backup(LON).getAdvancedCache().addInterceptor(blockingInterceptor, 1);
+   }
+
+   @Override
+   protected ConfigurationBuilder getNycActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @Override
+   protected ConfigurationBuilder getLonActiveConfig() {
+      return getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+   }
+
+   @BeforeMethod
+   void resetBlockingInterceptor() {
+      blockingInterceptor.reset();
+      blockingInterceptor.isActive = false;
+   }
+
+   public void testWritesCoalescedWhileBatchInFlight() throws Exception {
+      // the clear issued between tests must be applied before blocking the backup site
+      eventually(() -> totalBacklog() == 0);
+      blockingInterceptor.isActive = true;
+      cache(LON, 0).put("k", "v0");
+      assertTrue(blockingInterceptor.invocationReceivedLatch.await(20, TimeUnit.SECONDS));
+
+      for (int i = 1; i < 10; i++) {
+         cache(LON, i % 2).put("k", "v" + i);
+      }
+      cache(LON, 0).put("k2", "v");
+      // the batch in flight and a single pending write for each key
+      assertEquals(3, totalBacklog());
+      assertTrue(maxLag() >= 0);
+
+      blockingInterceptor.isActive = false;
+      blockingInterceptor.waitingLatch.countDown();
+      eventually(() -> "v9".equals(backup(LON).get("k")));
+      eventually(() -> totalBacklog() == 0);
+      assertEquals(0, maxLag());
+   }
+
+   public void testPutAllAndRemove() {
+      Map<String, String> entries = new HashMap<>();
+      for (int i = 0; i < 20; i++) {
+         entries.put("k" + i, "v" + i);
+      }
+      cache(LON, 0).putAll(entries);
+      cache(LON, 1).remove("k0");
+      eventually(() -> "v19".equals(backup(LON).get("k19")));
+      eventually(() -> backup(LON).get("k0") == null);
+      for (int i = 1; i < 20; i++) {
+         assertEquals("v" + i, backup(LON).get("k" + i));
+      }
+   }
+
+   public void testClear() {
+      cache(LON, 0).put("k", "v");
+      eventually(() -> "v".equals(backup(LON).get("k")));
+      cache(LON, 1).clear();
+      eventually(() -> backup(LON).get("k") == null);
+      cache(LON, 0).put("k1", "v1");
+      eventually(() -> "v1".equals(backup(LON).get("k1")));
+   }
+
+   public void testLargeCompressibleValue() {
+      StringBuilder value = new StringBuilder();
+      for (int i = 0; i < 10000; i++) {
+         value.append('a');
+      }
+      cache(LON, 0).put("k", value.toString());
+      eventually(() -> value.toString().equals(backup(LON).get("k")));
+   }
+
+   public void testNonBatchedSiteMetrics() {
+      XSiteAdminOperations operations = extractComponent(cache(NYC, 0), XSiteAdminOperations.class);
+      assertEquals("-1", operations.getAsyncBacklogSize(LON));
+      assertEquals("-1", operations.getAsyncReplicationLag(LON));
+   }
+
+   private int totalBacklog() {
+      int backlog = 0;
+      for (Cache<?, ?> cache : caches(LON)) {
+         backlog += Integer.parseInt(extractComponent(cache, XSiteAdminOperations.class).getAsyncBacklogSize(NYC));
+      }
+      return backlog;
+   }
+
+   private long maxLag() {
+      long lag = 0;
+      for (Cache<?, ?> cache : caches(LON)) {
+         lag = Math.max(lag, Long.parseLong(extractComponent(cache, XSiteAdminOperations.class).getAsyncReplicationLag(NYC)));
+      }
+      return lag;
+   }
+}
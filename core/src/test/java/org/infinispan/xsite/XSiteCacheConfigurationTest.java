@@ -112,4 +112,36 @@ public void testMultipleCachesWithNoCacheName() {
             .site("NYC");
       cb.build();
    }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testBatchWindowSyncBackup() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.
+            sites().addBackup()
+               .site("LON")
+               .strategy(BackupConfiguration.BackupStrategy.SYNC)
+               .asyncBatchWindow(100);
+      cb.build();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testNegativeBatchWindow() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.
+            sites().addBackup()
+               .site("LON")
+               .asyncBatchWindow(-1);
+      cb.build();
+   }
+
+   @Test(expectedExceptions = CacheConfigurationException.class)
+   public void testInvalidBatchSize() {
+      ConfigurationBuilder cb = new ConfigurationBuilder();
+      cb.
+            sites().addBackup()
+               .site("LON")
+               .asyncBatchWindow(100)
+               .asyncBatchSize(0);
+      cb.build();
+   }
 }
@@ -409,12 +409,12 @@ public void reset() {
       }
    }
 
-   private static class CustomEntryProcessor implements EntryProcessor {
+   private static class CustomEntryProcessor implements EntryProcessor, Serializable {
 
       @Override
       public Object process(MutableEntry entry, Object... arguments) throws EntryProcessorException {
          entry.setValue(entry.getValue() + "_processed");
-         return entry;
+         return entry.getValue();
       }
    }
 
@@ -0,0 +1,343 @@
+package org.infinispan.jcache.embedded;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+
+import javax.cache.CacheException;
+import javax.cache.expiry.Duration;
+import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.MutableEntry;
+
+import org.infinispan.commons.api.functional.EntryView.ReadWriteEntryView;
+import org.infinispan.commons.api.functional.MetaParam.MetaLifespan;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.commons.marshall.MarshallUtil;
+import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.util.ReflectionUtil;
+import org.infinispan.commons.util.Util;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.jcache.Exceptions;
+import org.infinispan.jcache.MutableJCacheEntry.Operation;
+
+/**
+ * Runs an {@link EntryProcessor} against the read-write view of an entry, so that it is executed atomically, under
+ * the key lock, on the primary owner of the key.
+ *
+ * <p>The expiry durations are resolved by the caller and shipped along with the processor, since the expiry policy
+ * lives in the {@link JCache} instance. The function does not throw the exceptions of the processor: they are
+ * returned in the {@link Outcome}, so that a failing key does not abort the rest of an {@code invokeAll}.
+ *
+ * @since 9.0
+ */
+public final class EntryProcessorFunction<K, V, T> implements Function<ReadWriteEntryView<K, V>, EntryProcessorFunction.Outcome<K, V, T>> {
+
+   /**
+    * Lifespan that keeps the expiration of the entry as it is.
+    */
+   static final long UNCHANGED = -2;
+
+   private final EntryProcessor<K, V, T> processor;
+   private final Object[] arguments;
+   private final long creationLifespan;
+   private final long updateLifespan;
+   private final long accessLifespan;
+   // Only set in store-by-value caches, to hand a copy of the stored value to the processor
+   private final StreamingMarshaller marshaller;
+
+   EntryProcessorFunction(EntryProcessor<K, V, T> processor, Object[] arguments, long creationLifespan,
+         long updateLifespan, long accessLifespan, StreamingMarshaller marshaller) {
+      this.processor = processor;
+      this.arguments = arguments;
+      this.creationLifespan = creationLifespan;
+      this.updateLifespan = updateLifespan;
+      this.accessLifespan = accessLifespan;
+      this.marshaller = marshaller;
+   }
+
+   /**
+    * Converts an expiry duration to the lifespan stored with the entry: -1 for eternal entries, 0 for entries that
+    * expire immediately, and {@link #UNCHANGED} when the duration cannot be determined.
+    */
+   static long toLifespan(Duration duration) {
+      if (duration == null)
+         return UNCHANGED;
+      if (duration.isEternal())
+         return -1;
+      return duration.getTimeUnit().toMillis(duration.getDurationAmount());
+   }
+
+   @Override
+   public Outcome<K, V, T> apply(ReadWriteEntryView<K, V> view) {
+      K key = view.key();
+      V stored = view.find().orElse(null);
+      // The processor may change the value in place, which must not be visible if it then fails
+      Entry<K, V> entry = new Entry<>(key, stored != null && marshaller != null ? copy(stored) : stored);
+      T result;
+      try {
+         result = processor.process(entry, arguments);
+      } catch (Exception e) {
+         return new Outcome<>(key, null, Exceptions.launderEntryProcessorException(e), Operation.NONE,
+               stored != null, false, null);
+      }
+
+      switch (entry.operation) {
+         case ACCESS:
+            if (accessLifespan == 0) {
+               view.remove();
+               return new Outcome<>(key, result, null, Operation.ACCESS, true, true, stored);
+            } else if (accessLifespan != UNCHANGED) {
+               view.set(stored, new MetaLifespan(accessLifespan));
+            }
+            return new Outcome<>(key, result, null, Operation.ACCESS, true, false, null);
+         case UPDATE:
+            long lifespan = stored == null ? creationLifespan : updateLifespan;
+            if (lifespan == 0) {
+               // Created entries are not stored at all, and updated ones expire right away
+               if (stored == null)
+                  return new Outcome<>(key, result, null, Operation.NONE, false, false, null);
+               view.remove();
+               return new Outcome<>(key, result, null, Operation.UPDATE, true, true, stored);
+            }
+            write(view, entry.value, lifespan);
+            return new Outcome<>(key, result, null, Operation.UPDATE, stored != null, false, entry.value);
+         case REMOVE:
+            view.remove();
+            return new Outcome<>(key, result, null, Operation.REMOVE, true, false, stored);
+         default:
+            return new Outcome<>(key, result, null, Operation.NONE, stored != null, false, null);
+      }
+   }
+
+   private void write(ReadWriteEntryView<K, V> view, V value, long lifespan) {
+      if (lifespan != UNCHANGED) {
+         view.set(value, new MetaLifespan(lifespan));
+      } else {
+         Optional<MetaLifespan> current = view.findMetaParam(MetaLifespan.class);
+         if (current.isPresent())
+            view.set(value, current.get());
+         else
+            view.set(value);
+      }
+   }
+
+   @SuppressWarnings("unchecked")
+   private V copy(V original) {
+      try {
+         return (V) marshaller.objectFromByteBuffer(marshaller.objectToByteBuffer(original));
+      } catch (Exception e) {
+         throw new CacheException("Unexpected error making a copy of entry " + original, e);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "EntryProcessorFunction{processor=" + processor + '}';
+   }
+
+   /**
+    * The {@link MutableEntry} handed to the processor, which records the operation to apply to the entry once the
+    * processor returns.
+    */
+   private static final class Entry<K, V> implements MutableEntry<K, V> {
+      private final K key;
+      private final V oldValue;
+      private V value;
+      private Operation operation = Operation.NONE;
+
+      Entry(K key, V oldValue) {
+         this.key = key;
+         this.oldValue = oldValue;
+      }
+
+      @Override
+      public boolean exists() {
+         if (value != null)
+            return true;
+
+         return operation != Operation.REMOVE && oldValue != null;
+      }
+
+      @Override
+      public void remove() {
+         value = null;
+         operation = oldValue != null ? Operation.REMOVE : Operation.NONE;
+      }
+
+      @Override
+      public void setValue(V value) {
+         this.value = value;
+         operation = Operation.UPDATE;
+      }
+
+      @Override
+      public K getKey() {
+         return key;
+      }
+
+      @Override
+      public V getValue() {
+         if (value != null)
+            return value;
+
+         if (operation == Operation.REMOVE || oldValue == null)
+            return null;
+
+         if (operation == Operation.NONE)
+            operation = Operation.ACCESS;
+         return oldValue;
+      }
+
+      @Override
+      public <U> U unwrap(Class<U> clazz) {
+         return ReflectionUtil.unwrap(this, clazz);
+      }
+   }
+
+   /**
+    * What a processor did to an entry. The caller needs it to notify the JCache listeners and to update the
+    * statistics, since functional commands do neither.
+    */
+   public static final class Outcome<K, V, T> {
+      private final K key;
+      private final T result;
+      private final RuntimeException failure;
+      private final Operation operation;
+      private final boolean existed;
+      private final boolean expired;
+      private final V value;
+
+      Outcome(K key, T result, RuntimeException failure, Operation operation, boolean existed, boolean expired,
+            V value) {
+         this.key = key;
+         this.result = result;
+         this.failure = failure;
+         this.operation = operation;
+         this.existed = existed;
+         this.expired = expired;
+         this.value = value;
+      }
+
+      public K getKey() {
+         return key;
+      }
+
+      /**
+       * @return the value returned by the processor
+       */
+      public T getResult() {
+         return result;
+      }
+
+      /**
+       * @return the exception thrown by the processor, or {@code null} if it completed normally
+       */
+      public RuntimeException getFailure() {
+         return failure;
+      }
+
+      public Operation getOperation() {
+         return operation;
+      }
+
+      /**
+       * @return whether the entry existed before the processor ran
+       */
+      public boolean existed() {
+         return existed;
+      }
+
+      /**
+       * @return whether the entry was removed because its expiry duration was zero
+       */
+      public boolean isExpired() {
+         return expired;
+      }
+
+      /**
+       * @return the new value of an updated entry, or the previous value of a removed or expired one
+       */
+      public V getValue() {
+         return value;
+      }
+
+      @Override
+      public String toString() {
+         return "Outcome{key=" + key + ", operation=" + operation + ", existed=" + existed + ", expired=" + expired
+               + ", failure=" + failure + '}';
+      }
+   }
+
+   public static final class Externalizer extends AbstractExternalizer<Object> {
+      private static final int FUNCTION = 0;
+      private static final int OUTCOME = 1;
+      private static final Operation[] OPERATIONS = Operation.values();
+
+      private final GlobalComponentRegistry gcr;
+
+      public Externalizer(GlobalComponentRegistry gcr) {
+         this.gcr = gcr;
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, Object object) throws IOException {
+         if (object instanceof EntryProcessorFunction) {
+            EntryProcessorFunction<?, ?, ?> function = (EntryProcessorFunction<?, ?, ?>) object;
+            output.writeByte(FUNCTION);
+            output.writeObject(function.processor);
+            MarshallUtil.marshallArray(function.arguments, output);
+            output.writeLong(function.creationLifespan);
+            output.writeLong(function.updateLifespan);
+            output.writeLong(function.accessLifespan);
+            output.writeBoolean(function.marshaller != null);
+         } else {
+            Outcome<?, ?, ?> outcome = (Outcome<?, ?, ?>) object;
+            output.writeByte(OUTCOME);
+            output.writeObject(outcome.key);
+            output.writeObject(outcome.result);
+            output.writeObject(outcome.failure);
+            MarshallUtil.marshallEnum(outcome.operation, output);
+            output.writeBoolean(outcome.existed);
+            output.writeBoolean(outcome.expired);
+            output.writeObject(outcome.value);
+         }
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Object readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         switch (input.readUnsignedByte()) {
+            case FUNCTION:
+               EntryProcessor<Object, Object, Object> processor = (EntryProcessor<Object, Object, Object>) input.readObject();
+               Object[] arguments = MarshallUtil.unmarshallArray(input, Object[]::new);
+               long creationLifespan = input.readLong();
+               long updateLifespan = input.readLong();
+               long accessLifespan = input.readLong();
+               StreamingMarshaller marshaller = input.readBoolean()
+                     ? gcr.getComponent(StreamingMarshaller.class, KnownComponentNames.GLOBAL_MARSHALLER) : null;
+               return new EntryProcessorFunction<>(processor, arguments, creationLifespan, updateLifespan,
+                     accessLifespan, marshaller);
+            default:
+               return new Outcome<>(input.readObject(), input.readObject(), (RuntimeException) input.readObject(),
+                     MarshallUtil.unmarshallEnum(input, ordinal -> OPERATIONS[ordinal]), input.readBoolean(), input.readBoolean(),
+                     input.readObject());
+         }
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.ENTRY_PROCESSOR_FUNCTION;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public Set<Class<? extends Object>> getTypeClasses() {
+         return Util.asSet(EntryProcessorFunction.class, Outcome.class);
+      }
+   }
+
+}
@@ -0,0 +1,15 @@
+package org.infinispan.jcache.embedded;
+
+/**
+ * Identifiers used by the Marshaller to delegate to specialized Externalizers.
+ * For details, read http://infinispan.org/docs/9.0.x/user_guide/user_guide.html#_preassigned_externalizer_id_ranges
+ *
+ * The range reserved for the Infinispan JCache module is from 2000 to 2049.
+ *
+ * @since 9.0
+ */
+public interface ExternalizerIds {
+
+   Integer ENTRY_PROCESSOR_FUNCTION = 2000;
+
+}
@@ -1,17 +1,17 @@
 package org.infinispan.jcache.embedded;
 
+import static org.infinispan.jcache.embedded.EntryProcessorFunction.toLifespan;
 
-import java.util.ArrayList;
+import java.io.Serializable;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.NoSuchElementException;
 import java.util.Set;
 import java.util.concurrent.BrokenBarrierException;
-import java.util.concurrent.Callable;
 import java.util.concurrent.CyclicBarrier;
-import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.TimeoutException;
 
@@ -19,32 +19,40 @@
 import javax.cache.CacheException;
 import javax.cache.CacheManager;
 import javax.cache.configuration.CacheEntryListenerConfiguration;
+import javax.cache.expiry.Duration;
 import javax.cache.integration.CacheLoader;
 import javax.cache.integration.CacheWriter;
 import javax.cache.integration.CompletionListener;
 import javax.cache.management.CacheStatisticsMXBean;
 import javax.cache.processor.EntryProcessor;
 import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
 import javax.management.MBeanServer;
 
 import org.infinispan.AdvancedCache;
 import org.infinispan.commons.CacheListenerException;
 import org.infinispan.commons.api.AsyncCache;
-import org.infinispan.commons.marshall.StreamingMarshaller;
+import org.infinispan.commons.api.functional.FunctionalMap.ReadWriteMap;
+import org.infinispan.commons.api.functional.Param.FutureMode;
+import org.infinispan.commons.api.functional.Traversable;
 import org.infinispan.commons.util.InfinispanCollections;
 import org.infinispan.commons.util.ReflectionUtil;
 import org.infinispan.context.Flag;
+import org.infinispan.functional.impl.FunctionalMapImpl;
+import org.infinispan.functional.impl.ReadWriteMapImpl;
 import org.infinispan.jcache.AbstractJCache;
 import org.infinispan.jcache.AbstractJCacheListenerAdapter;
 import org.infinispan.jcache.Exceptions;
+import org.infinispan.jcache.Expiration;
+import org.infinispan.jcache.FailureEntryProcessorResult;
 import org.infinispan.jcache.JCacheEntry;
-import org.infinispan.jcache.MutableJCacheEntry;
+import org.infinispan.jcache.SuccessEntryProcessorResult;
+import org.infinispan.jcache.embedded.EntryProcessorFunction.Outcome;
 import org.infinispan.jcache.embedded.logging.Log;
 import org.infinispan.jmx.JmxUtil;
 import org.infinispan.persistence.manager.PersistenceManager;
 import org.infinispan.persistence.manager.PersistenceManagerImpl;
-import org.infinispan.util.concurrent.locks.impl.LockContainer;
-import org.infinispan.util.concurrent.locks.impl.PerKeyLockContainer;
 import org.infinispan.util.logging.LogFactory;
 
 /**
@@ -65,17 +73,13 @@
    private final AdvancedCache<K, V> skipCacheLoadCache;
    private final AdvancedCache<K, V> skipCacheLoadAndStatsCache;
    private final AdvancedCache<K, V> skipListenerCache;
-   private final AdvancedCache<K, V> skipStatisticsCache;
+   private final ReadWriteMap<K, V> readWriteMap;
+   private final ReadWriteMap<K, V> skipCacheLoadReadWriteMap;
    private final RICacheStatistics stats;
 
-   private final LockContainer processorLocks;
-   private final long lockTimeout; // milliseconds
-
    public JCache(AdvancedCache<K, V> cache, CacheManager cacheManager, ConfigurationAdapter<K, V> c) {
       super(c.getConfiguration(), cacheManager, new JCacheNotifier<K, V>());
       this.cache = cache;
-      this.processorLocks = new PerKeyLockContainer(32, cache.getCacheConfiguration().dataContainer().keyEquivalence());
-      ((PerKeyLockContainer) processorLocks).inject(cache.getComponentRegistry().getTimeService());
       this.ignoreReturnValuesCache = cache.withFlags(Flag.IGNORE_RETURN_VALUES);
       this.skipCacheLoadCache = cache.withFlags(Flag.SKIP_CACHE_LOAD);
       this.skipCacheLoadAndStatsCache = cache.withFlags(Flag.SKIP_CACHE_LOAD, Flag.SKIP_STATISTICS);
@@ -83,11 +87,12 @@ public JCache(AdvancedCache<K, V> cache, CacheManager cacheManager, Configuratio
       // to comply with specifications such as JSR-107, which mandate that
       // {@link Cache#clear()}} calls do not fire entry removed notifications
       this.skipListenerCache = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION);
-      this.skipStatisticsCache = cache.withFlags(Flag.SKIP_STATISTICS);
+      this.readWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(cache))
+            .withParams(FutureMode.COMPLETED);
+      this.skipCacheLoadReadWriteMap = ReadWriteMapImpl.create(FunctionalMapImpl.create(skipCacheLoadCache))
+            .withParams(FutureMode.COMPLETED);
 
       this.stats = new RICacheStatistics(this.cache);
-      this.lockTimeout =  cache.getCacheConfiguration()
-            .locking().lockAcquisitionTimeout();
 
       addConfigurationListeners();
 
@@ -143,30 +148,12 @@ public boolean containsKey(final K key) {
       if (key == null)
          throw log.parameterMustNotBeNull("key");
 
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return skipCacheLoadCache.containsKey(key);
-            }
-         });
-      }
-
       return skipCacheLoadAndStatsCache.containsKey(key);
    }
 
    @Override
    public V get(final K key) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<V>().call(key, new Callable<V>() {
-            @Override
-            public V call() {
-               return doGet(key);
-            }
-         });
-      }
-
       return doGet(key);
    }
 
@@ -194,14 +181,6 @@ public Map<K, V> getAll(Set<? extends K> keys) {
    @Override
    public V getAndPut(final K key, final V value) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<V>().call(key, new Callable<V>() {
-            @Override
-            public V call() {
-               return put(skipCacheLoadCache, skipCacheLoadCache, key, value, false);
-            }
-         });
-      }
       return put(skipCacheLoadCache, skipCacheLoadCache, key, value, false);
    }
 
@@ -209,30 +188,12 @@ public V call() {
    public V getAndRemove(final K key) {
       checkNotClosed();
       skipCacheLoadCache.get(key); // bring in key and update stats
-      if (lockRequired(key)) {
-         return new WithProcessorLock<V>().call(key, new Callable<V>() {
-            @Override
-            public V call() {
-               return skipCacheLoadCache.remove(key);
-            }
-         });
-      }
-
       return skipCacheLoadCache.remove(key);
    }
 
    @Override
    public V getAndReplace(final K key, final V value) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<V>().call(key, new Callable<V>() {
-            @Override
-            public V call() {
-               return replace(skipCacheLoadCache, key, value);
-            }
-         });
-      }
-
       return replace(skipCacheLoadCache, key, value);
    }
 
@@ -255,100 +216,107 @@ public String getName() {
    public <T> T invoke(final K key, final EntryProcessor<K, V, T> entryProcessor, final Object... arguments) {
       checkNotClosed().checkNotNull(key, "key").checkNotNull(entryProcessor, "entryProcessor");
 
-      // Using references for backup copies to provide perceived exclusive
-      // read access, and only apply changes if original value was not
-      // changed by another thread, the JSR requirements for this method could
-      // have been full filled. However, the TCK has some timing checks which
-      // verify that under contended access, one of the threads should "wait"
-      // for the other, hence the use locks.
-
       if (trace)
          log.tracef("Invoke entry processor %s for key=%s", entryProcessor, key);
 
-      return new WithProcessorLock<T>().call(key, new Callable<T>() {
-         @Override
-         public T call() throws Exception {
-            // Get old value skipping any listeners to impacting
-            // listener invocation expectations set by the TCK.
-            V oldValue = skipCacheLoadCache.get(key);
-            V safeOldValue = oldValue;
-            if (configuration.isStoreByValue()) {
-               // Make a copy because the entry processor could make changes
-               // directly in the value, and we wanna keep a safe old value
-               // around for when calling the atomic replace() call.
-               safeOldValue = safeCopy(oldValue);
-            }
+      // The processor runs in a read-write command on the primary owner, under
+      // the key lock, so it is atomic with respect to any other write on the key.
+      Outcome<K, V, T> outcome;
+      try {
+         outcome = processorMap().eval(key, processorFunction(entryProcessor, arguments)).join();
+      } catch (CacheException e) {
+         throw e;
+      } catch (RuntimeException e) {
+         throw new EntryProcessorException(e);
+      }
 
-            MutableJCacheEntry<K, V> mutable = createMutableCacheEntry(safeOldValue, key);
-            T ret = processEntryProcessor(mutable, entryProcessor, arguments);
-
-            switch (mutable.getOperation()) {
-               case NONE:
-                  break;
-               case ACCESS:
-                  updateTTLForAccessed(cache, key, oldValue);
-                  break;
-               case UPDATE:
-                  V newValue = mutable.getNewValue();
-                  if (oldValue != null) {
-                     // Only allow change to be applied if value has not
-                     // changed since the start of the processing.
-                     replace(cache, skipCacheLoadAndStatsCache, key, oldValue, newValue, true);
-                  } else {
-                     put(cache, skipCacheLoadCache, key, newValue, true);
-                  }
-                  break;
-               case REMOVE:
-                  cache.remove(key);
-                  break;
-               default:
-                  break;
-            }
+      processed(outcome, true);
+      if (outcome.getFailure() != null)
+         throw outcome.getFailure();
 
-            return ret;
-         }
-      });
+      return outcome.getResult();
    }
 
-   private MutableJCacheEntry<K, V> createMutableCacheEntry(V safeOldValue, K key) {
-      return new MutableJCacheEntry<K, V>(
-            configuration.isReadThrough() ? cache : skipCacheLoadCache, skipStatisticsCache, key, safeOldValue);
-   }
+   @Override
+   public <T> Map<K, EntryProcessorResult<T>> invokeAll(
+         Set<? extends K> keys, EntryProcessor<K, V, T> entryProcessor, Object... arguments) {
+      checkNotClosed().checkNotNull(entryProcessor, "entryProcessor");
+      verifyKeys(keys);
+      if (keys.isEmpty())
+         return Collections.emptyMap();
 
+      if (trace)
+         log.tracef("Invoke entry processor %s for keys=%s", entryProcessor, keys);
 
-   @SuppressWarnings("unchecked")
-   private V safeCopy(V original) {
+      // A single read-write command processes the keys of each owner in one go
+      Traversable<Outcome<K, V, T>> outcomes;
       try {
-         StreamingMarshaller marshaller = skipCacheLoadCache.getComponentRegistry().getCacheMarshaller();
-         byte[] bytes = marshaller.objectToByteBuffer(original);
-         Object o = marshaller.objectFromByteBuffer(bytes);
-         return (V) o;
-      } catch (Exception e) {
-         throw new CacheException(
-               "Unexpected error making a copy of entry " + original, e);
+         outcomes = processorMap().evalMany(keys, processorFunction(entryProcessor, arguments));
+      } catch (CacheException e) {
+         throw e;
+      } catch (RuntimeException e) {
+         throw new EntryProcessorException(e);
       }
-   }
 
-   private boolean lockRequired(K key) {
-      // Check if processor is locking a key, so that exclusive locking can
-      // be avoided for majority of use cases. This way, only when
-      // invokeProcessor is locking a key there's a need for CRUD cache
-      // methods to acquire the exclusive lock. This latter requirement is
-      // specifically tested by the TCK comparing duration of paralell
-      // executions.
-      boolean locked = processorLocks.isLocked(key);
-      if (trace)
-         log.tracef("Lock required for key=%s? %s", key, locked);
+      Map<K, EntryProcessorResult<T>> results = new HashMap<K, EntryProcessorResult<T>>(keys.size());
+      outcomes.forEach(outcome -> {
+         processed(outcome, true);
+         if (outcome.getFailure() != null)
+            results.put(outcome.getKey(), new FailureEntryProcessorResult<T>(outcome.getFailure()));
+         else if (outcome.getResult() != null)
+            results.put(outcome.getKey(), new SuccessEntryProcessorResult<T>(outcome.getResult()));
+      });
 
-      return locked;
+      return results;
    }
 
-   private void acquiredProcessorLock(K key) throws InterruptedException {
-      processorLocks.acquire(key, Thread.currentThread(), lockTimeout, TimeUnit.MILLISECONDS);
+   private ReadWriteMap<K, V> processorMap() {
+      return configuration.isReadThrough() ? readWriteMap : skipCacheLoadReadWriteMap;
    }
 
-   private void releaseProcessorLock(K key) {
-      processorLocks.release(key, Thread.currentThread());
+   private <T> EntryProcessorFunction<K, V, T> processorFunction(EntryProcessor<K, V, T> entryProcessor, Object[] arguments) {
+      // The expiry policy is not shipped with the processor, only the durations it yields
+      return new EntryProcessorFunction<K, V, T>(entryProcessor, arguments,
+            toLifespan(Expiration.getExpiry(expiryPolicy, Expiration.Operation.CREATION)),
+            toLifespan(Expiration.getExpiry(expiryPolicy, Expiration.Operation.UPDATE)),
+            toLifespan(Expiration.getExpiry(expiryPolicy, Expiration.Operation.ACCESS)),
+            configuration.isStoreByValue() ? cache.getComponentRegistry().getCacheMarshaller() : null);
+   }
+
+   /**
+    * Notifies the listeners and updates the statistics for a processed entry, which functional commands do not do.
+    */
+   private void processed(Outcome<K, V, ?> outcome, boolean read) {
+      K key = outcome.getKey();
+      if (read && statisticsEnabled()) {
+         if (outcome.existed())
+            stats.increaseCacheHits(1);
+         else
+            stats.increaseCacheMisses(1);
+      }
+
+      if (outcome.isExpired()) {
+         notifier.notifyEntryExpired(this, key, outcome.getValue());
+         return;
+      }
+
+      switch (outcome.getOperation()) {
+         case UPDATE:
+            if (statisticsEnabled())
+               stats.increaseCachePuts(1);
+            if (outcome.existed())
+               notifier.notifyEntryUpdated(this, key, outcome.getValue());
+            else
+               notifier.notifyEntryCreated(this, key, outcome.getValue());
+            break;
+         case REMOVE:
+            if (statisticsEnabled())
+               stats.increaseCacheRemovals(1);
+            notifier.notifyEntryRemoved(this, key, outcome.getValue());
+            break;
+         default:
+            break;
+      }
    }
 
    @Override
@@ -387,41 +355,52 @@ else if (jcacheLoader != null) {
    @Override
    public void put(final K key, final V value) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         new WithProcessorLock<Void>().call(key, new Callable<Void>() {
-            @Override
-            public Void call() {
-               doPut(key, value);
-               return null;
-            }
-         });
-      } else {
-         doPut(key, value);
-      }
+      doPut(key, value);
    }
 
    @Override
    public void putAll(Map<? extends K, ? extends V> inputMap) {
       checkNotClosed();
       InfinispanCollections.assertNotNullEntries(inputMap, "inputMap");  // spec required check
-      /**
-       * TODO Similar to mentioned before, it'd be interesting to see if multiple putAsync() calls
-       * could be executed in parallel to speed up.
-       *
-       */
-      for (final Map.Entry<? extends K, ? extends V> e : inputMap.entrySet()) {
-         final K key = e.getKey();
-         if (lockRequired(key)) {
-            new WithProcessorLock<Void>().call(key, new Callable<Void>() {
-               @Override
-               public Void call() {
-                  doPut(key, e.getValue());
-                  return null;
-               }
-            });
+      if (inputMap.isEmpty())
+         return;
+
+      // The expiry depends on whether each entry is created or updated, which
+      // a single bulk read tells, so that each group is written in one command.
+      Map<K, V> existing = skipCacheLoadAndStatsCache.getAll(inputMap.keySet());
+      Map<K, V> created = new HashMap<K, V>();
+      Map<K, V> updated = new HashMap<K, V>();
+      for (Map.Entry<? extends K, ? extends V> e : inputMap.entrySet()) {
+         if (existing.get(e.getKey()) != null)
+            updated.put(e.getKey(), e.getValue());
+         else
+            created.put(e.getKey(), e.getValue());
+      }
+
+      putAll(created, true);
+      putAll(updated, false);
+   }
+
+   private void putAll(Map<K, V> entries, boolean isCreated) {
+      if (entries.isEmpty())
+         return;
+
+      Duration ttl = isCreated
+            ? Expiration.getExpiry(expiryPolicy, Expiration.Operation.CREATION)
+            : Expiration.getExpiry(expiryPolicy, Expiration.Operation.UPDATE);
+
+      try {
+         if (ttl == null || ttl.isEternal()) {
+            ignoreReturnValuesCache.putAll(entries);
+         } else if (ttl.equals(Duration.ZERO)) {
+            // As in put(), created entries are not stored and updated ones are removed
+            if (!isCreated)
+               removeEntries(readWriteMap.evalMany(entries.keySet(), removeFunction()));
          } else {
-            doPut(key, e.getValue());
+            ignoreReturnValuesCache.putAll(entries, ttl.getDurationAmount(), ttl.getTimeUnit());
          }
+      } catch (CacheListenerException e) {
+         throw Exceptions.launderCacheListenerException(e);
       }
    }
 
@@ -433,16 +412,6 @@ private void doPut(K key, V value) {
    @Override
    public boolean putIfAbsent(final K key, final V value) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return put(skipCacheLoadCache,
-                     skipCacheLoadAndStatsCache, key, value, true) == null;
-            }
-         });
-      }
-
       return put(skipCacheLoadCache,
             skipCacheLoadAndStatsCache, key, value, true) == null;
    }
@@ -450,15 +419,6 @@ public Boolean call() {
    @Override
    public boolean remove(final K key) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return cache.remove(key) != null;
-            }
-         });
-      }
-
       try {
          return cache.remove(key) != null;
       } catch (CacheListenerException e) {
@@ -469,15 +429,6 @@ public Boolean call() {
    @Override
    public boolean remove(final K key, final V oldValue) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return remove(cache, key, oldValue);
-            }
-         });
-      }
-
       return remove(cache, key, oldValue);
    }
 
@@ -488,60 +439,39 @@ public void removeAll() {
       }
       // Calling cache.clear() won't work since there's currently no way to
       // for an Infinispan cache store to figure out all keys store and pass
-      // them to CacheWriter.deleteAll(), hence, delete individually.
-      // TODO: What happens with entries only in store but not in memory?
-
-      // Delete asynchronously and then wait for removals to complete
-      List<Future<V>> futures = new ArrayList<Future<V>>();
-      for (final K key : cache.keySet()) {
-         if (lockRequired(key)) {
-            new WithProcessorLock<Void>().call(key, new Callable<Void>() {
-               @Override
-               public Void call() {
-                  cache.remove(key);
-                  return null;
-               }
-            });
-         } else {
-            futures.add(cache.removeAsync(key));
-         }
-      }
-
-      for (Future<V> future : futures) {
-         try {
-            future.get(10, TimeUnit.SECONDS);
-         } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            throw new CacheException(
-                  "Interrupted while waiting for remove to complete");
-         } catch (Exception e) {
-            throw Exceptions.launderCacheWriterException(e);
-         }
+      // them to CacheWriter.deleteAll(), hence, delete every key, with a
+      // single read-write command that includes the keys in the store.
+      Traversable<Outcome<K, V, Void>> outcomes;
+      try {
+         outcomes = readWriteMap.evalAll(removeFunction());
+      } catch (org.infinispan.commons.CacheException e) {
+         throw Exceptions.launderCacheWriterException(e);
       }
+      removeEntries(outcomes);
    }
 
    @Override
    public void removeAll(Set<? extends K> keys) {
       checkNotClosed();
       verifyKeys(keys);
-      for (K k : keys) {
-         remove(k);
-      }
+      if (keys.isEmpty())
+         return;
+
+      removeEntries(readWriteMap.evalMany(keys, removeFunction()));
+   }
+
+   private EntryProcessorFunction<K, V, Void> removeFunction() {
+      return new EntryProcessorFunction<K, V, Void>(new RemoveProcessor<K, V>(), new Object[0],
+            EntryProcessorFunction.UNCHANGED, EntryProcessorFunction.UNCHANGED, EntryProcessorFunction.UNCHANGED, null);
+   }
+
+   private void removeEntries(Traversable<Outcome<K, V, Void>> outcomes) {
+      outcomes.forEach(outcome -> processed(outcome, false));
    }
 
    @Override
    public boolean replace(final K key, final V value) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return replace(skipCacheLoadCache, skipCacheLoadCache,
-                     key, null, value, false);
-            }
-         });
-      }
-
       return replace(skipCacheLoadCache, skipCacheLoadCache,
             key, null, value, false);
    }
@@ -549,16 +479,6 @@ public Boolean call() {
    @Override
    public boolean replace(final K key, final V oldValue, final V newValue) {
       checkNotClosed();
-      if (lockRequired(key)) {
-         return new WithProcessorLock<Boolean>().call(key, new Callable<Boolean>() {
-            @Override
-            public Boolean call() {
-               return replace(skipCacheLoadCache, skipCacheLoadCache,
-                     key, oldValue, newValue, true);
-            }
-         });
-      }
-
       return replace(skipCacheLoadCache, skipCacheLoadCache,
             key, oldValue, newValue, true);
    }
@@ -648,26 +568,11 @@ public void run() {
       }
    }
 
-   private class WithProcessorLock<V> {
-      public V call(K key, Callable<V> callable) {
-         try {
-            acquiredProcessorLock(key);
-            return callable.call();
-         } catch (InterruptedException e) {
-            // restore interrupted status
-            Thread.currentThread().interrupt();
-            return null;
-         } catch (CacheListenerException e) {
-            throw Exceptions.launderCacheListenerException(e);
-         } catch (EntryProcessorException e) {
-            throw e;
-         } catch (CacheException e) {
-            throw e;
-         } catch (Exception e) {
-            throw new EntryProcessorException(e);
-         } finally {
-            releaseProcessorLock(key);
-         }
+   private static final class RemoveProcessor<K, V> implements EntryProcessor<K, V, Void>, Serializable {
+      @Override
+      public Void process(MutableEntry<K, V> entry, Object... arguments) {
+         entry.remove();
+         return null;
       }
    }
 
@@ -0,0 +1,26 @@
+package org.infinispan.jcache.embedded;
+
+import java.util.Map;
+
+import org.infinispan.commons.marshall.AdvancedExternalizer;
+import org.infinispan.configuration.global.GlobalConfiguration;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.lifecycle.AbstractModuleLifecycle;
+import org.infinispan.lifecycle.ModuleLifecycle;
+import org.kohsuke.MetaInfServices;
+
+/**
+ * Registers the externalizers of the functions that {@link JCache} ships to the owners of the keys.
+ *
+ * @since 9.0
+ */
+@MetaInfServices(ModuleLifecycle.class)
+public class LifecycleCallbacks extends AbstractModuleLifecycle {
+
+   @Override
+   public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguration globalCfg) {
+      Map<Integer, AdvancedExternalizer<?>> externalizerMap = globalCfg.serialization().advancedExternalizers();
+      externalizerMap.put(ExternalizerIds.ENTRY_PROCESSOR_FUNCTION, new EntryProcessorFunction.Externalizer(gcr));
+   }
+
+}
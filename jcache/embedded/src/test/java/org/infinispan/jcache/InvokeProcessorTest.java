@@ -8,15 +8,20 @@
 import javax.cache.CacheManager;
 import javax.cache.configuration.MutableConfiguration;
 import javax.cache.processor.EntryProcessor;
+import javax.cache.processor.EntryProcessorException;
+import javax.cache.processor.EntryProcessorResult;
 import javax.cache.processor.MutableEntry;
 import javax.cache.spi.CachingProvider;
 import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 
 import static org.infinispan.jcache.util.JCacheTestingUtil.withCachingProvider;
 import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
 import static org.testng.AssertJUnit.fail;
 import static org.testng.AssertJUnit.assertTrue;
 
@@ -47,6 +52,45 @@ public void testInvokeProcesorStoreByValue(Method m) {
       invokeProcessor(m, new MutableConfiguration<String, List<Integer>>());
    }
 
+   public void testInvokeAll(Method m) {
+      final String name = getName(m);
+      withCachingProvider(new JCacheRunnable() {
+         @Override
+         public void run(CachingProvider provider) {
+            CacheManager cm = provider.getCacheManager();
+            Cache<String, Integer> cache = cm.createCache(name, new MutableConfiguration<String, Integer>());
+            cache.put("a", 1);
+            cache.put("b", 2);
+            Map<String, EntryProcessorResult<Integer>> results = cache.invokeAll(
+                  new HashSet<String>(Arrays.asList("a", "b", "c")),
+                  new EntryProcessor<String, Integer, Integer>() {
+                     @Override
+                     public Integer process(MutableEntry<String, Integer> entry, Object... arguments) {
+                        if (!entry.exists())
+                           throw new UnexpectedException();
+                        entry.setValue(entry.getValue() + 10);
+                        return entry.getValue();
+                     }
+                  });
+
+            assertEquals(3, results.size());
+            assertEquals(Integer.valueOf(11), results.get("a").get());
+            assertEquals(Integer.valueOf(12), results.get("b").get());
+            try {
+               results.get("c").get();
+               fail("Expected an exception to be thrown");
+            } catch (EntryProcessorException e) {
+               // Expected
+            }
+
+            // A failing key does not prevent the others from being updated
+            assertEquals(Integer.valueOf(11), cache.get("a"));
+            assertEquals(Integer.valueOf(12), cache.get("b"));
+            assertFalse(cache.containsKey("c"));
+         }
+      });
+   }
+
    private void invokeProcessorThrowsException(
          Method m, final MutableConfiguration<String, List<Integer>> jcacheCfg,
          final List<Integer> expectedValue) {
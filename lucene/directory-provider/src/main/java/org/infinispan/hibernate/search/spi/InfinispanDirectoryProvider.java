@@ -20,6 +20,7 @@
 import java.io.File;
 import java.io.IOException;
 import java.util.Properties;
+import java.util.concurrent.TimeUnit;
 
 /**
  * A DirectoryProvider using Infinispan to store the Index. This depends on the CacheManagerServiceProvider to get a
@@ -38,6 +39,9 @@ public class InfinispanDirectoryProvider implements org.hibernate.search.store.D
    private String dataCacheName;
    private String lockingCacheName;
    private Integer chunkSize;
+   private Integer readAheadChunks;
+   private Integer localChunkCacheSize;
+   private Integer readLockLeaseTime;
 
    private Directory directory;
 
@@ -69,6 +73,9 @@ public void initialize(String directoryProviderName, Properties properties, Buil
       lockingCacheName = InfinispanIntegration.getLockingCacheName(properties);
       //Let it return null if it's not set, so that we can avoid applying any override.
       chunkSize = ConfigurationParseHelper.getIntValue(properties, "chunk_size");
+      readAheadChunks = ConfigurationParseHelper.getIntValue(properties, "read_ahead_chunks");
+      localChunkCacheSize = ConfigurationParseHelper.getIntValue(properties, "local_chunk_cache_size");
+      readLockLeaseTime = ConfigurationParseHelper.getIntValue(properties, "read_lock_lease_time");
       writeFileListAsync = getWriteFileListAsync(properties);
 
       //Only override the default Infinispan LockDirectory if an explicit option is set:
@@ -128,6 +135,15 @@ public void start(DirectoryBasedIndexManager indexManager) {
       if (chunkSize != null) {
          directoryBuildContext.chunkSize(chunkSize.intValue());
       }
+      if (readAheadChunks != null) {
+         directoryBuildContext.readAheadChunks(readAheadChunks.intValue());
+      }
+      if (localChunkCacheSize != null) {
+         directoryBuildContext.localChunkCacheSize(localChunkCacheSize.intValue());
+      }
+      if (readLockLeaseTime != null) {
+         directoryBuildContext.readLockLeaseTime(readLockLeaseTime.intValue(), TimeUnit.MILLISECONDS);
+      }
       if (indexWriterLockFactory != null) {
          directoryBuildContext.overrideWriteLocker(indexWriterLockFactory);
       }
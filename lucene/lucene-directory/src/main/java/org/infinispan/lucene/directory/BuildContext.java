@@ -5,6 +5,7 @@
 import org.infinispan.lucene.readlocks.SegmentReadLocker;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Building context to set construction parameters of Infinispan Directory instances
@@ -85,4 +86,41 @@ public interface BuildContext {
     */
    BuildContext affinityLocationIntoSegment(int segmentId);
 
+   /**
+    * When the chunks cache is distributed, sets how many of the chunks following the one being read are fetched
+    * asynchronously from their owners, so that sequential reads like merges and large term scans don't wait for
+    * every chunk in turn. Chunks owned by the local node are never fetched ahead.
+    * Defaults to 0, which disables read-ahead. Must not be larger than {@link #localChunkCacheSize(int)}.
+    *
+    * @param chunks the number of chunks to fetch ahead
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext readAheadChunks(int chunks);
+
+   /**
+    * When the chunks cache is distributed, sets how many chunks owned by other nodes are kept on the local node
+    * after being read, the least recently used ones being evicted first.
+    * Defaults to 16; 0 disables the local copies and read-ahead.
+    *
+    * @param chunks the maximum number of remote chunks kept locally
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext localChunkCacheSize(int chunks);
+
+   /**
+    * When set to a positive value, the default SegmentReadLocker is replaced by a
+    * {@link org.infinispan.lucene.readlocks.LeasingSegmentReadLocker}: the read lock a node takes on a file is kept
+    * for this long after its last IndexInput on the file is closed, so that reopened IndexReaders don't need any remote
+    * operation, at the cost of deleted files being removed later.
+    * Defaults to 0, which releases the read locks as soon as the files are closed.
+    * The expired read locks are released on the executor set with {@link #deleteOperationsExecutor(java.util.concurrent.Executor)},
+    * or on the async operations executor of the cache manager if none was set.
+    * Ignored when the SegmentReadLocker is overridden.
+    *
+    * @param leaseTime how long an unused read lock is kept
+    * @param unit the unit of the lease time
+    * @return the same building context to eventually create the Directory instance
+    */
+   BuildContext readLockLeaseTime(long leaseTime, TimeUnit unit);
+
 }
@@ -0,0 +1,163 @@
+package org.infinispan.lucene.impl;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.distribution.DistributionManager;
+import org.infinispan.lucene.ChunkCacheKey;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Reads the chunks of the index files for all the IndexInputs of a Directory.
+ * When the chunks are distributed, the chunks owned by other nodes are kept in a bounded node-local cache, and
+ * the IndexInputs can ask for the next chunks of a file to be fetched asynchronously before they need them.
+ * Caching chunks locally is safe because Lucene never writes to an existing file and never reuses the name of a
+ * deleted one.
+ *
+ * @since 9.0
+ */
+final class ChunkFetcher {
+
+   private static final Log log = LogFactory.getLog(ChunkFetcher.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   private static final int CONCURRENCY_LEVEL = 4;
+
+   private final AdvancedCache<ChunkCacheKey, Object> chunksCache;
+   // null unless the chunks are distributed, in which case some of them are remote
+   private final DistributionManager distributionManager;
+   private final int readAheadChunks;
+   private final Map<ChunkCacheKey, byte[]> localChunks;
+   private final ConcurrentMap<ChunkCacheKey, CompletableFuture<Object>> readingAhead = new ConcurrentHashMap<>();
+   private final ChunkReadStatistics statistics = new ChunkReadStatistics();
+
+   ChunkFetcher(AdvancedCache<ChunkCacheKey, Object> chunksCache, int readAheadChunks, int localChunkCacheSize) {
+      this.chunksCache = chunksCache;
+      this.distributionManager = chunksCache.getCacheConfiguration().clustering().cacheMode().isDistributed()
+            ? chunksCache.getDistributionManager() : null;
+      this.readAheadChunks = distributionManager == null ? 0 : readAheadChunks;
+      this.localChunks = distributionManager == null || localChunkCacheSize == 0 ? null
+            : new BoundedConcurrentHashMap<>(localChunkCacheSize, Math.min(CONCURRENCY_LEVEL, localChunkCacheSize),
+                  BoundedConcurrentHashMap.Eviction.LRU, new EvictionListener(),
+                  AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+   }
+
+   /**
+    * @return the number of chunks the IndexInputs should request ahead of the one they are reading
+    */
+   int getReadAheadChunks() {
+      return readAheadChunks;
+   }
+
+   ChunkReadStatistics getStatistics() {
+      return statistics;
+   }
+
+   /**
+    * Returns a chunk, waiting for it to be fetched if it is remote. The chunk is not copied, so it must not be
+    * modified.
+    *
+    * @return the chunk or {@code null} if it doesn't exist
+    */
+   byte[] get(ChunkCacheKey key) {
+      if (!isRemote(key)) {
+         statistics.hit();
+         return (byte[]) chunksCache.get(key);
+      }
+      byte[] chunk = localChunks != null ? localChunks.get(key) : null;
+      if (chunk != null) {
+         statistics.hit();
+         return chunk;
+      }
+      long start = System.nanoTime();
+      CompletableFuture<Object> pending = readingAhead.get(key);
+      if (pending != null) {
+         try {
+            chunk = (byte[]) pending.join();
+            statistics.hit();
+         } catch (CompletionException | CancellationException e) {
+            // Fetch it again, so that the reader gets the failure
+            pending = null;
+         }
+      }
+      if (pending == null) {
+         statistics.miss();
+         chunk = (byte[]) chunksCache.get(key);
+         if (chunk != null && localChunks != null) {
+            localChunks.put(key, chunk);
+         }
+      }
+      statistics.fetched(System.nanoTime() - start);
+      return chunk;
+   }
+
+   /**
+    * Starts fetching a chunk unless it is local, already cached or already being fetched.
+    */
+   void readAhead(ChunkCacheKey key) {
+      if (!isRemote(key) || localChunks == null || localChunks.containsKey(key) || readingAhead.containsKey(key)) {
+         return;
+      }
+      CompletableFuture<Object> future = new CompletableFuture<>();
+      if (readingAhead.putIfAbsent(key, future) != null) {
+         return;
+      }
+      statistics.readAhead();
+      if (trace) {
+         log.tracef("Reading ahead chunk %s", key);
+      }
+      chunksCache.getAsync(key).whenComplete((value, throwable) -> {
+         if (throwable != null) {
+            future.completeExceptionally(throwable);
+         } else {
+            if (value != null) {
+               localChunks.put(key, (byte[]) value);
+            }
+            future.complete(value);
+         }
+         readingAhead.remove(key, future);
+      });
+   }
+
+   /**
+    * Drops the locally cached chunks of a deleted or renamed file.
+    */
+   void invalidate(String fileName) {
+      if (localChunks != null) {
+         localChunks.keySet().removeIf(key -> key.getFileName().equals(fileName));
+      }
+   }
+
+   private boolean isRemote(ChunkCacheKey key) {
+      return distributionManager != null && !distributionManager.getLocality(key).isLocal();
+   }
+
+   private final class EvictionListener implements BoundedConcurrentHashMap.EvictionListener<ChunkCacheKey, byte[]> {
+
+      @Override
+      public void onEntryEviction(Map<ChunkCacheKey, byte[]> evicted) {
+         statistics.evicted(evicted.size());
+      }
+
+      @Override
+      public void onEntryChosenForEviction(byte[] chunk) {
+      }
+
+      @Override
+      public void onEntryActivated(Object key) {
+      }
+
+      @Override
+      public void onEntryRemoved(Object key) {
+      }
+   }
+
+}
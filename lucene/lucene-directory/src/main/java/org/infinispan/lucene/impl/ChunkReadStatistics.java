@@ -0,0 +1,89 @@
+package org.infinispan.lucene.impl;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters of the chunk reads of the IndexInputs opened by a Directory.
+ * A hit is a chunk that was found locally: owned by this node, kept in the node-local chunk cache or already
+ * fetched by read-ahead. A miss is a chunk that had to be fetched from a remote owner while the reader waited.
+ *
+ * @since 9.0
+ */
+public final class ChunkReadStatistics {
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder readAheads = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private final LongAdder fetches = new LongAdder();
+   private final LongAdder fetchNanos = new LongAdder();
+
+   void hit() {
+      hits.increment();
+   }
+
+   void miss() {
+      misses.increment();
+   }
+
+   void readAhead() {
+      readAheads.increment();
+   }
+
+   void evicted(int chunks) {
+      evictions.add(chunks);
+   }
+
+   void fetched(long nanos) {
+      fetches.increment();
+      fetchNanos.add(nanos);
+   }
+
+   public long getHits() {
+      return hits.sum();
+   }
+
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   /**
+    * @return the number of chunks requested ahead of the readers
+    */
+   public long getReadAheads() {
+      return readAheads.sum();
+   }
+
+   /**
+    * @return the number of remote chunks dropped from the node-local chunk cache
+    */
+   public long getEvictions() {
+      return evictions.sum();
+   }
+
+   /**
+    * @return the average time, in the given unit, readers waited for a remote chunk, either fetching it or for its
+    * read-ahead to complete
+    */
+   public long getAverageFetchTime(TimeUnit unit) {
+      long count = fetches.sum();
+      return count == 0 ? 0 : unit.convert(fetchNanos.sum() / count, TimeUnit.NANOSECONDS);
+   }
+
+   public void reset() {
+      hits.reset();
+      misses.reset();
+      readAheads.reset();
+      evictions.reset();
+      fetches.reset();
+      fetchNanos.reset();
+   }
+
+   @Override
+   public String toString() {
+      return "ChunkReadStatistics{hits=" + getHits() + ", misses=" + getMisses() + ", readAheads=" + getReadAheads()
+            + ", evictions=" + getEvictions() + ", averageFetchMicros=" + getAverageFetchTime(TimeUnit.MICROSECONDS) + '}';
+   }
+
+}
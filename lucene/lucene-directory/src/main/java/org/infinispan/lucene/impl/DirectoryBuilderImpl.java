@@ -8,11 +8,13 @@
 import org.infinispan.lucene.directory.BuildContext;
 import org.infinispan.lucene.logging.Log;
 import org.infinispan.lucene.readlocks.DistributedSegmentReadLocker;
+import org.infinispan.lucene.readlocks.LeasingSegmentReadLocker;
 import org.infinispan.lucene.readlocks.SegmentReadLocker;
 import org.infinispan.util.concurrent.WithinThreadExecutor;
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
 
 public class DirectoryBuilderImpl implements BuildContext {
 
@@ -22,6 +24,11 @@ public class DirectoryBuilderImpl implements BuildContext {
     */
    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
 
+   /**
+    * Used as default size of the node-local cache of remote chunks, in number of chunks
+    */
+   public static final int DEFAULT_LOCAL_CHUNK_CACHE_SIZE = 16;
+
    private static final Log log = LogFactory.getLog(DirectoryBuilderImpl.class, Log.class);
 
    /**
@@ -43,6 +50,9 @@ public class DirectoryBuilderImpl implements BuildContext {
    private boolean writeFileListAsync = false;
    private Executor deleteExecutor = null;
    private int affinitySegmentId = -1;
+   private int readAheadChunks = 0;
+   private int localChunkCacheSize = DEFAULT_LOCAL_CHUNK_CACHE_SIZE;
+   private long readLockLeaseTime = 0;
 
    public DirectoryBuilderImpl(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName) {
       this.metadataCache = checkValidConfiguration(checkNotNull(metadataCache, "metadataCache"), indexName);
@@ -57,13 +67,20 @@ public Directory create() {
       if (lockFactory == null) {
          lockFactory = makeDefaultLockFactory();
       }
+      if (srl == null && readLockLeaseTime > 0) {
+         // The expired leases are released on the delete executor, if one was configured
+         srl = new LeasingSegmentReadLocker(distLocksCache, chunksCache, metadataCache, indexName, affinitySegmentId, readLockLeaseTime, TimeUnit.MILLISECONDS, deleteExecutor);
+      }
       if (srl == null) {
          srl = makeDefaultSegmentReadLocker(metadataCache, chunksCache, distLocksCache, indexName, affinitySegmentId);
       }
       if (deleteExecutor == null) {
          deleteExecutor = new WithinThreadExecutor();
       }
-      return new DirectoryLucene(metadataCache, chunksCache, distLocksCache, indexName, lockFactory, chunkSize, srl, writeFileListAsync, deleteExecutor, affinitySegmentId);
+      if (readAheadChunks > localChunkCacheSize) {
+         throw log.readAheadLargerThanLocalChunkCache(indexName, readAheadChunks, localChunkCacheSize);
+      }
+      return new DirectoryLucene(metadataCache, chunksCache, distLocksCache, indexName, lockFactory, chunkSize, srl, writeFileListAsync, deleteExecutor, affinitySegmentId, readAheadChunks, localChunkCacheSize);
    }
 
    @Override
@@ -103,6 +120,31 @@ public BuildContext deleteOperationsExecutor(Executor executor) {
       return this;
    }
 
+   @Override
+   public BuildContext readAheadChunks(int chunks) {
+      if (chunks < 0)
+         throw new IllegalArgumentException("readAheadChunks must not be negative");
+      this.readAheadChunks = chunks;
+      return this;
+   }
+
+   @Override
+   public BuildContext localChunkCacheSize(int chunks) {
+      if (chunks < 0)
+         throw new IllegalArgumentException("localChunkCacheSize must not be negative");
+      this.localChunkCacheSize = chunks;
+      return this;
+   }
+
+   @Override
+   public BuildContext readLockLeaseTime(long leaseTime, TimeUnit unit) {
+      if (leaseTime < 0)
+         throw new IllegalArgumentException("readLockLeaseTime must not be negative");
+      checkNotNull(unit, "unit");
+      this.readLockLeaseTime = unit.toMillis(leaseTime);
+      return this;
+   }
+
    @Override
    public BuildContext overrideWriteLocker(LockFactory lockFactory) {
       checkNotNull(lockFactory, "lockFactory");
@@ -21,6 +21,8 @@ public interface DirectoryExtensions {
 
    Cache getDataCache();
 
+   ChunkReadStatistics getChunkReadStatistics();
+
    void forceUnlock(String lockName);
 
 }
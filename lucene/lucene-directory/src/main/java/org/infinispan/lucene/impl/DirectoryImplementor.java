@@ -41,8 +41,9 @@ class DirectoryImplementor {
     private final SegmentReadLocker readLocks;
     private final FileCacheKey segmentsGenFileKey;
     private final int affinitySegmentId;
+    private final ChunkFetcher chunkFetcher;
 
-    public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName, int chunkSize, SegmentReadLocker readLocker, boolean fileListUpdatedAsync, int affinitySegmentId) {
+    public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName, int chunkSize, SegmentReadLocker readLocker, boolean fileListUpdatedAsync, int affinitySegmentId, int readAheadChunks, int localChunkCacheSize) {
        this.affinitySegmentId = affinitySegmentId;
        if (chunkSize <= 0)
            throw new IllegalArgumentException("chunkSize must be a positive integer");
@@ -54,6 +55,7 @@ public DirectoryImplementor(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache,
         this.fileOps = new FileListOperations(this.metadataCache, indexName, fileListUpdatedAsync, this.affinitySegmentId);
         this.segmentsGenFileKey = new FileCacheKey(indexName, IndexFileNames.SEGMENTS, this.affinitySegmentId);
         this.readLocks = readLocker;
+        this.chunkFetcher = new ChunkFetcher(this.chunksCache, readAheadChunks, localChunkCacheSize);
      }
 
     String[] list() {
@@ -67,6 +69,7 @@ boolean fileExists(final String name) {
     void deleteFile(final String name) {
        fileOps.deleteFileName(name);
        readLocks.deleteOrReleaseReadLock(name);
+       chunkFetcher.invalidate(name);
        if (log.isDebugEnabled()) {
           log.debugf("Removed file: %s from index: %s", name, indexName);
        }
@@ -96,6 +99,7 @@ void renameFile(final String from, final String to) {
 
        // now trigger deletion of old file chunks:
        readLocks.deleteOrReleaseReadLock(from);
+       chunkFetcher.invalidate(from);
        if (trace) {
           log.tracef("Renamed file from: %s to: %s in index %s", from, to, indexName);
        }
@@ -139,7 +143,7 @@ IndexInputContext openInput(final String name) throws IOException {
        }
        else if (!fileMetadata.isMultiChunked()) {
           //files smaller than chunkSize don't need a readLock
-          return new IndexInputContext(chunksCache, fileKey, fileMetadata, null, affinitySegmentId);
+          return new IndexInputContext(chunksCache, fileKey, fileMetadata, null, affinitySegmentId, chunkFetcher);
        }
        else {
           boolean locked = readLocks.acquireReadLock(name);
@@ -147,7 +151,7 @@ else if (!fileMetadata.isMultiChunked()) {
              // safest reaction is to tell this file doesn't exist anymore.
              throw new FileNotFoundException("Error loading metadata for index file: " + fileKey);
           }
-          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks, affinitySegmentId);
+          return new IndexInputContext(chunksCache, fileKey, fileMetadata, readLocks, affinitySegmentId, chunkFetcher);
        }
     }
 
@@ -179,4 +183,15 @@ public Cache<Object, Integer> getDistLocksCache() {
       return distLocksCache;
     }
 
+    public ChunkReadStatistics getChunkReadStatistics() {
+       return chunkFetcher.getStatistics();
+    }
+
+    /**
+     * Releases the read locks the SegmentReadLocker still holds on behalf of this node.
+     */
+    public void close() {
+       readLocks.close();
+    }
+
 }
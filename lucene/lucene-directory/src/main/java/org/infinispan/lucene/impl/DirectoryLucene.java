@@ -51,11 +51,13 @@ class DirectoryLucene extends Directory implements DirectoryExtensions {
     * @param fileListUpdatedAsync When true, the writes to the list of currently existing files in the Directory will use the putAsync method rather than put.
     * @param deleteExecutor The Executor to run file deletes in the background
     * @param affinitySegmentId A hint interpreted by the consistent hashing function to force locality with a specific segment identifier
+    * @param readAheadChunks the number of remote chunks fetched asynchronously ahead of the chunk being read
+    * @param localChunkCacheSize the maximum number of remote chunks kept on this node
     */
-   public DirectoryLucene(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker, boolean fileListUpdatedAsync, Executor deleteExecutor, int affinitySegmentId) {
+   public DirectoryLucene(Cache<?, ?> metadataCache, Cache<?, ?> chunksCache, Cache<?, ?> distLocksCache, String indexName, LockFactory lf, int chunkSize, SegmentReadLocker readLocker, boolean fileListUpdatedAsync, Executor deleteExecutor, int affinitySegmentId, int readAheadChunks, int localChunkCacheSize) {
       this.deleteExecutor = deleteExecutor;
       this.affinitySegmentId = affinitySegmentId;
-      this.impl = new DirectoryImplementor(metadataCache, chunksCache, distLocksCache, indexName, chunkSize, readLocker, fileListUpdatedAsync, affinitySegmentId);
+      this.impl = new DirectoryImplementor(metadataCache, chunksCache, distLocksCache, indexName, chunkSize, readLocker, fileListUpdatedAsync, affinitySegmentId, readAheadChunks, localChunkCacheSize);
       this.indexName = indexName;
       this.lockFactory = lf;
    }
@@ -112,7 +114,8 @@ public IndexInput openInput(final String name, final IOContext context) throws I
     */
    @Override
    public void close() {
-      // Note the we don't really keep track of this anymore
+      // Note the we don't really keep track of the open IndexInputs anymore, but the read locker might hold leases
+      impl.close();
    }
 
    @Override
@@ -167,6 +170,11 @@ public Cache getDataCache() {
       return impl.getDataCache();
    }
 
+   @Override
+   public ChunkReadStatistics getChunkReadStatistics() {
+      return impl.getChunkReadStatistics();
+   }
+
    /**
     * Force release of the lock in this directory. Make sure to understand the
     * consequences
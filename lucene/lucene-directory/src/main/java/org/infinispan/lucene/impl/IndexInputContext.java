@@ -13,14 +13,16 @@ public final class IndexInputContext {
    final FileMetadata fileMetadata;
    final SegmentReadLocker readLocks;
    final int affinitySegmentId;
+   final ChunkFetcher chunkFetcher;
 
    public IndexInputContext(AdvancedCache<ChunkCacheKey, Object> chunksCache, FileCacheKey fileKey, FileMetadata fileMetadata,
-         SegmentReadLocker readLocks, int affinitySegmentId) {
+         SegmentReadLocker readLocks, int affinitySegmentId, ChunkFetcher chunkFetcher) {
             this.chunksCache = chunksCache;
             this.fileKey = fileKey;
             this.fileMetadata = fileMetadata;
             this.readLocks = readLocks;
             this.affinitySegmentId = affinitySegmentId;
+            this.chunkFetcher = chunkFetcher;
    }
 
 }
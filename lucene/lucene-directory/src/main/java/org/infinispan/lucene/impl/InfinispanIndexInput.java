@@ -3,7 +3,6 @@
 import java.io.IOException;
 
 import org.apache.lucene.store.IndexInput;
-import org.infinispan.Cache;
 import org.infinispan.lucene.ChunkCacheKey;
 import org.infinispan.lucene.FileCacheKey;
 import org.infinispan.lucene.readlocks.SegmentReadLocker;
@@ -27,43 +26,48 @@ public class InfinispanIndexInput extends IndexInput {
 
    protected boolean isClone;
 
-   private final Cache<ChunkCacheKey, Object> chunksCache;
+   private final ChunkFetcher chunkFetcher;
    private final FileCacheKey fileKey;
    private final int chunkSize;
    private final SegmentReadLocker readLocks;
    private final String filename;
    private final long fileLength;
    private final int affinitySegmentId;
+   private final int lastChunk;
 
    private int currentBufferSize;
    private byte[] buffer;
    private int bufferPosition;
    private int currentLoadedChunk = -1;
+   // the highest chunk requested ahead of the reads
+   private int readAheadUntil = -1;
 
    public InfinispanIndexInput(final IndexInputContext ctx) {
       super(ctx.fileKey.getFileName());
-      this.chunksCache = ctx.chunksCache;
+      this.chunkFetcher = ctx.chunkFetcher;
       this.fileKey = ctx.fileKey;
       this.chunkSize = ctx.fileMetadata.getBufferSize();
       this.fileLength = ctx.fileMetadata.getSize();
       this.readLocks = ctx.readLocks;
       this.affinitySegmentId = ctx.affinitySegmentId;
+      this.lastChunk = ctx.fileMetadata.getNumberOfChunks() - 1;
       this.filename = fileKey.getFileName();
       if (trace) {
          log.tracef("Opened new IndexInput for file:%s in index: %s", filename, fileKey.getIndexName());
       }
    }
 
-   private InfinispanIndexInput(final String resourceDescription, final Cache<ChunkCacheKey, Object> chunksCache,
-         FileCacheKey fileKey, int chunkSize, String filename, long fileLength, int affinitySegmentId) {
+   private InfinispanIndexInput(final String resourceDescription, final ChunkFetcher chunkFetcher,
+         FileCacheKey fileKey, int chunkSize, String filename, long fileLength, int affinitySegmentId, int lastChunk) {
       super(resourceDescription);
-      this.chunksCache = chunksCache;
+      this.chunkFetcher = chunkFetcher;
       this.fileKey = fileKey;
       this.chunkSize = chunkSize;
       this.filename = filename;
       this.fileLength = fileLength;
       this.readLocks = null;//Lifecycle of this IndexInput is dependent on a parent IndexInput
       this.affinitySegmentId = affinitySegmentId;
+      this.lastChunk = lastChunk;
       this.isClone = true;
    }
 
@@ -81,6 +85,7 @@ public final void readBytes(final byte[] b, int offset, int bytesToRead) throws
       if (buffer == null) {
          nextChunk();
       }
+      // The chunks are not copied out of the cache, so this is the only copy of the bytes
       while (bytesToRead > 0) {
          int bytesToCopy = Math.min(currentBufferSize - bufferPosition, bytesToRead);
          System.arraycopy(buffer, bufferPosition, b, offset, bytesToCopy);
@@ -99,6 +104,7 @@ public void close() {
       currentBufferSize = 0;
       bufferPosition = 0;
       currentLoadedChunk = -1;
+      readAheadUntil = -1;
       buffer = null;
       if (isClone) return;
       readLocks.deleteOrReleaseReadLock(filename);
@@ -128,28 +134,53 @@ private void nextChunk() throws IOException {
    }
 
    private void setBufferToCurrentChunk() throws IOException {
-      ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize, affinitySegmentId);
-      buffer = (byte[]) chunksCache.get(key);
+      ChunkCacheKey key = chunkKey(currentLoadedChunk);
+      buffer = chunkFetcher.get(key);
       if (buffer == null) {
          throw new IOException("Read past EOF: Chunk value could not be found for key " + key);
       }
       currentBufferSize = buffer.length;
+      readAhead();
    }
 
    // Lucene might try seek(pos) using an illegal pos value
    // RAMDirectory teaches to position the cursor to the end of previous chunk in this case
    private void setBufferToCurrentChunkIfPossible() {
-      ChunkCacheKey key = new ChunkCacheKey(fileKey.getIndexName(), filename, currentLoadedChunk, chunkSize, affinitySegmentId);
-      buffer = (byte[]) chunksCache.get(key);
+      buffer = chunkFetcher.get(chunkKey(currentLoadedChunk));
       if (buffer == null) {
          currentLoadedChunk--;
          bufferPosition = chunkSize;
       }
       else {
          currentBufferSize = buffer.length;
+         readAhead();
       }
    }
 
+   /**
+    * Requests the chunks following the current one which haven't been requested yet, unless the reader moved
+    * back or jumped past them.
+    */
+   private void readAhead() {
+      final int readAheadChunks = chunkFetcher.getReadAheadChunks();
+      if (readAheadChunks == 0) {
+         return;
+      }
+      int first = currentLoadedChunk + 1;
+      final int last = Math.min(currentLoadedChunk + readAheadChunks, lastChunk);
+      if (readAheadUntil >= first && readAheadUntil - readAheadChunks < currentLoadedChunk) {
+         first = readAheadUntil + 1;
+      }
+      for (int chunk = first; chunk <= last; chunk++) {
+         chunkFetcher.readAhead(chunkKey(chunk));
+      }
+      readAheadUntil = Math.max(last, currentLoadedChunk);
+   }
+
+   private ChunkCacheKey chunkKey(int chunkId) {
+      return new ChunkCacheKey(fileKey.getIndexName(), filename, chunkId, chunkSize, affinitySegmentId);
+   }
+
    @Override
    public long length() {
       return this.fileLength;
@@ -166,11 +197,21 @@ public InfinispanIndexInput clone() {
    }
 
    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
-      return new SlicingInfinispanIndexInput(sliceDescription, offset, length, copyAndReset());
+      return new SlicingInfinispanIndexInput(sliceDescription, offset, length, copyAt(offset));
    }
 
-   InfinispanIndexInput copyAndReset() {
-      return new InfinispanIndexInput(filename, chunksCache, fileKey, chunkSize, filename, fileLength, affinitySegmentId);
+   /**
+    * Creates an IndexInput on the same file, positioned at the given offset and independent from this one. The
+    * chunk loaded by this IndexInput is shared rather than fetched again if it contains the offset.
+    */
+   InfinispanIndexInput copyAt(long pos) {
+      InfinispanIndexInput copy = new InfinispanIndexInput(filename, chunkFetcher, fileKey, chunkSize, filename, fileLength, affinitySegmentId, lastChunk);
+      copy.buffer = buffer;
+      copy.currentBufferSize = currentBufferSize;
+      copy.currentLoadedChunk = currentLoadedChunk;
+      copy.readAheadUntil = readAheadUntil;
+      copy.seek(pos);
+      return copy;
    }
 
 }
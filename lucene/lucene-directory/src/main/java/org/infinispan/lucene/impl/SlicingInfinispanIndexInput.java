@@ -46,7 +46,7 @@ public long length() {
    }
 
    public IndexInput slice(String sliceDescription, long offset, long length) throws IOException {
-      return new SlicingInfinispanIndexInput(sliceDescription, offset + this.offset, length, delegate.copyAndReset());
+      return new SlicingInfinispanIndexInput(sliceDescription, offset + this.offset, length, delegate.copyAt(offset + this.offset));
    }
 
    @Override
@@ -87,4 +87,7 @@ public interface Log extends org.infinispan.util.logging.Log {
 
    @Message(value = "Lucene Directory for index '%s' can not set affinity location to segment id '%d': must be a positive integer!", id = 15021)
    IllegalArgumentException affinityLocationIntoSegmentValueShallNotBeNegative(String indexName, int segmentId);
+
+   @Message(value = "Lucene Directory for index '%s' can not read ahead %d chunks: only %d remote chunks are kept locally!", id = 15022)
+   IllegalArgumentException readAheadLargerThanLocalChunkCache(String indexName, int readAheadChunks, int localChunkCacheSize);
 }
@@ -0,0 +1,253 @@
+package org.infinispan.lucene.readlocks;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.infinispan.Cache;
+import org.infinispan.factories.GlobalComponentRegistry;
+import org.infinispan.factories.KnownComponentNames;
+import org.infinispan.util.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * LeasingSegmentReadLocker decorates the {@link DistributedSegmentReadLocker} so that each node takes a lease on the
+ * files its IndexReaders open, and only publishes lease changes to the cluster.
+ * <p>The first IndexInput opened on a file acquires a single distributed read lock on behalf of the whole node, like
+ * {@link LocalLockMergingSegmentReadLocker} does, but the lease is kept after the last IndexInput on the file is closed:
+ * it's only released once it has been idle for the lease time. Opening a file again within the lease time, as
+ * near-real-time readers do every time they are reopened, costs no remote operation.</p>
+ * <p>Deleting a file decrements the distributed read lock as usual, so the chunks are removed once all the nodes
+ * have released their leases: at most the lease time after the last read on each node. A delete on a node which holds
+ * an idle lease releases that lease right away.</p>
+ * <p>The distributed read locks are always released outside of the monitor of this locker, so a slow remote operation
+ * doesn't block the IndexInputs of other files. Expired leases are released on the release executor, so the expiration
+ * scheduler only decides which leases expired.</p>
+ *
+ * @since 9.0
+ */
+@SuppressWarnings("unchecked")
+public class LeasingSegmentReadLocker implements SegmentReadLocker {
+
+   private static final Log log = LogFactory.getLog(LeasingSegmentReadLocker.class);
+   private static final boolean trace = log.isTraceEnabled();
+
+   /**
+    * Used as default lease time: an idle lease is kept for this many milliseconds
+    */
+   public static final long DEFAULT_LEASE_TIME = 10_000;
+
+   //Concurrent access is guarded by synchronization on this, as in LocalLockMergingSegmentReadLocker
+   private final HashMap<String, Lease> leases = new HashMap<>();
+   private final Cache<?, ?> locksCache;
+   private final DistributedSegmentReadLocker delegate;
+   private final ScheduledExecutorService scheduler;
+   private final Executor releaseExecutor;
+   private final long leaseTime;
+   private boolean closed;
+
+   /**
+    * Create a new LeasingSegmentReadLocker for specified cache and index name, using the default lease time.
+    *
+    * @param cache
+    * @param indexName
+    */
+   public LeasingSegmentReadLocker(Cache<?, ?> cache, String indexName, int affinitySegmentId) {
+      this(cache, cache, cache, indexName, affinitySegmentId, DEFAULT_LEASE_TIME, TimeUnit.MILLISECONDS);
+   }
+
+   /**
+    * Create a new LeasingSegmentReadLocker with special purpose caches
+    * @param locksCache the cache to be used to store distributed locks
+    * @param chunksCache the cache containing the chunks, this is where the bulk of data is stored
+    * @param metadataCache smaller cache for the metadata of stored elements
+    * @param indexName
+    * @param leaseTime how long a node keeps the lease on a file which none of its IndexReaders are using
+    * @param unit the unit of the lease time
+    */
+   public LeasingSegmentReadLocker(Cache<?, ?> locksCache, Cache<?, ?> chunksCache, Cache<?, ?> metadataCache, String indexName, int affinitySegmentId, long leaseTime, TimeUnit unit) {
+      this(locksCache, chunksCache, metadataCache, indexName, affinitySegmentId, leaseTime, unit, null);
+   }
+
+   /**
+    * Create a new LeasingSegmentReadLocker with special purpose caches
+    * @param locksCache the cache to be used to store distributed locks
+    * @param chunksCache the cache containing the chunks, this is where the bulk of data is stored
+    * @param metadataCache smaller cache for the metadata of stored elements
+    * @param indexName
+    * @param leaseTime how long a node keeps the lease on a file which none of its IndexReaders are using
+    * @param unit the unit of the lease time
+    * @param releaseExecutor the executor releasing the expired leases, the async operations executor if {@code null}
+    */
+   public LeasingSegmentReadLocker(Cache<?, ?> locksCache, Cache<?, ?> chunksCache, Cache<?, ?> metadataCache, String indexName, int affinitySegmentId, long leaseTime, TimeUnit unit, Executor releaseExecutor) {
+      if (leaseTime < 0)
+         throw new IllegalArgumentException("leaseTime must not be negative");
+      this.locksCache = locksCache;
+      this.delegate = new DistributedSegmentReadLocker((Cache<Object, Integer>) locksCache, chunksCache, metadataCache, indexName, affinitySegmentId);
+      GlobalComponentRegistry gcr = locksCache.getCacheManager().getGlobalComponentRegistry();
+      this.scheduler = gcr.getComponent(ScheduledExecutorService.class, KnownComponentNames.EXPIRATION_SCHEDULED_EXECUTOR);
+      this.releaseExecutor = releaseExecutor != null ? releaseExecutor :
+            gcr.getComponent(ExecutorService.class, KnownComponentNames.ASYNC_OPERATIONS_EXECUTOR);
+      this.leaseTime = unit.toMillis(leaseTime);
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public synchronized boolean acquireReadLock(String name) {
+      if (closed) {
+         return delegate.acquireReadLock(name);
+      }
+      Lease lease = leases.get(name);
+      if (lease != null) {
+         lease.acquire();
+         return true;
+      }
+      if (!delegate.acquireReadLock(name)) {
+         return false;
+      }
+      if (trace) {
+         log.tracef("Acquired lease on file %s", name);
+      }
+      lease = new Lease(name);
+      lease.acquire();
+      leases.put(name, lease);
+      return true;
+   }
+
+   /**
+    * {@inheritDoc}
+    */
+   @Override
+   public void deleteOrReleaseReadLock(String name) {
+      int releases;
+      synchronized (this) {
+         Lease lease = leases.get(name);
+         if (lease == null) {
+            releases = 1;
+         } else if (lease.users > 0) {
+            releases = lease.release() ? 1 : 0;
+         } else {
+            // Nobody on this node is reading the file, so this is a delete: give up the lease as well
+            lease.cancelExpiration();
+            leases.remove(name);
+            releases = 2;
+         }
+      }
+      for (int i = 0; i < releases; i++) {
+         delegate.deleteOrReleaseReadLock(name);
+      }
+   }
+
+   /**
+    * Releases the idle leases right away and cancels their expiration. The leases still in use are released as soon
+    * as their IndexInputs are closed.
+    */
+   @Override
+   public void close() {
+      List<String> released = new ArrayList<>();
+      synchronized (this) {
+         closed = true;
+         Iterator<Lease> iterator = leases.values().iterator();
+         while (iterator.hasNext()) {
+            Lease lease = iterator.next();
+            if (lease.users == 0) {
+               lease.cancelExpiration();
+               iterator.remove();
+               released.add(lease.name);
+            }
+         }
+      }
+      released.forEach(this::releaseLease);
+   }
+
+   private void releaseLease(String name) {
+      if (trace) {
+         log.tracef("Releasing lease on file %s", name);
+      }
+      if (locksCache.getStatus().allowInvocations()) {
+         delegate.deleteOrReleaseReadLock(name);
+      }
+   }
+
+   /**
+    * @return {@code true} if the lease expired and its distributed read lock must be released
+    */
+   private synchronized boolean expire(Lease lease) {
+      lease.expiration = null;
+      if (leases.get(lease.name) != lease || lease.users > 0) {
+         return false;
+      }
+      long remaining = lease.idleSince + leaseTime - System.currentTimeMillis();
+      if (remaining > 0) {
+         lease.scheduleExpiration(remaining);
+         return false;
+      }
+      leases.remove(lease.name);
+      return true;
+   }
+
+   private class Lease implements Runnable {
+      private final String name;
+      // the IndexInputs opened on this node, less the deletes requested on this node while they were open
+      private int users;
+      private long idleSince;
+      private ScheduledFuture<?> expiration;
+
+      Lease(String name) {
+         this.name = name;
+      }
+
+      void acquire() {
+         users++;
+      }
+
+      /**
+       * @return {@code true} if the locker was closed, so the distributed read lock must be released now
+       */
+      boolean release() {
+         users--;
+         if (users == 0 && closed) {
+            leases.remove(name);
+            return true;
+         } else if (users == 0) {
+            idleSince = System.currentTimeMillis();
+            if (expiration == null) {
+               scheduleExpiration(leaseTime);
+            }
+         }
+         return false;
+      }
+
+      void scheduleExpiration(long delay) {
+         expiration = scheduler.schedule(this, delay, TimeUnit.MILLISECONDS);
+      }
+
+      void cancelExpiration() {
+         if (expiration != null) {
+            expiration.cancel(false);
+         }
+      }
+
+      @Override
+      public void run() {
+         if (expire(this)) {
+            try {
+               releaseExecutor.execute(() -> releaseLease(name));
+            } catch (RejectedExecutionException e) {
+               // The cache manager is stopping
+               log.debugf(e, "Could not release the lease on file %s", name);
+            }
+         }
+      }
+   }
+
+}
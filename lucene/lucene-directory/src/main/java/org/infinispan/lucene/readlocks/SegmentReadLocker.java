@@ -40,4 +40,11 @@ public interface SegmentReadLocker {
     */
    boolean acquireReadLock(String filename);
 
+   /**
+    * Invoked when the Directory is closed, to release the read locks the implementation might still hold on behalf
+    * of this node after the IndexInputs were closed.
+    */
+   default void close() {
+   }
+
 }
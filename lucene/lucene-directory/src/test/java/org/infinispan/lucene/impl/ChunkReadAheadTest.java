@@ -0,0 +1,96 @@
+package org.infinispan.lucene.impl;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.IOException;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.lucene.CacheTestSupport;
+import org.infinispan.lucene.directory.DirectoryBuilder;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.transaction.TransactionMode;
+import org.testng.annotations.Test;
+
+/**
+ * Verifies reading the remote chunks of a distributed index through the node-local chunk cache and read-ahead.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "lucene.ChunkReadAheadTest")
+public class ChunkReadAheadTest extends MultipleCacheManagersTest {
+
+   private static final String INDEX_NAME = "index";
+   private static final int CHUNK_SIZE = 16;
+   private static final int FILE_SIZE = CHUNK_SIZE * 100 + 5;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder builder = CacheTestSupport.createTestConfiguration(TransactionMode.NON_TRANSACTIONAL);
+      builder.clustering().hash().numOwners(1).l1().disable();
+      createClusteredCaches(2, builder);
+   }
+
+   public void testSequentialReadAhead() throws IOException {
+      writeFile(directory(cache(0), 0, 0), "sequential");
+      Directory directory = directory(cache(1), 4, 8);
+      ChunkReadStatistics statistics = ((DirectoryExtensions) directory).getChunkReadStatistics();
+
+      try (IndexInput input = directory.openInput("sequential", IOContext.READ)) {
+         for (int i = 0; i < FILE_SIZE; i++) {
+            assertEquals((byte) i, input.readByte());
+         }
+      }
+      assertTrue(statistics.getReadAheads() > 0);
+      assertTrue(statistics.getHits() > statistics.getMisses());
+      assertTrue(statistics.getEvictions() > 0);
+   }
+
+   public void testSlicesAndSeeks() throws IOException {
+      writeFile(directory(cache(0), 0, 0), "slices");
+      Directory directory = directory(cache(1), 2, 4);
+
+      try (IndexInput input = directory.openInput("slices", IOContext.READ)) {
+         IndexInput slice = input.slice("slice", CHUNK_SIZE * 10 - 3, CHUNK_SIZE * 20);
+         byte[] bytes = new byte[CHUNK_SIZE * 20];
+         slice.readBytes(bytes, 0, bytes.length);
+         for (int i = 0; i < bytes.length; i++) {
+            assertEquals((byte) (CHUNK_SIZE * 10 - 3 + i), bytes[i]);
+         }
+         slice.seek(7);
+         assertEquals((byte) (CHUNK_SIZE * 10 + 4), slice.readByte());
+
+         input.seek(FILE_SIZE - 1);
+         assertEquals((byte) (FILE_SIZE - 1), input.readByte());
+         input.seek(3);
+         assertEquals((byte) 3, input.readByte());
+      }
+   }
+
+   @Test(expectedExceptions = IllegalArgumentException.class)
+   public void testReadAheadLargerThanLocalChunkCache() {
+      directory(cache(0), 8, 4);
+   }
+
+   private void writeFile(Directory directory, String fileName) throws IOException {
+      try (IndexOutput output = directory.createOutput(fileName, IOContext.DEFAULT)) {
+         for (int i = 0; i < FILE_SIZE; i++) {
+            output.writeByte((byte) i);
+         }
+      }
+   }
+
+   private Directory directory(Cache<?, ?> cache, int readAheadChunks, int localChunkCacheSize) {
+      return DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME)
+            .chunkSize(CHUNK_SIZE)
+            .readAheadChunks(readAheadChunks)
+            .localChunkCacheSize(localChunkCacheSize)
+            .create();
+   }
+
+}
@@ -0,0 +1,119 @@
+package org.infinispan.lucene.readlocks;
+
+import static org.testng.AssertJUnit.assertNull;
+import static org.testng.AssertJUnit.assertTrue;
+
+import java.io.IOException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.IOContext;
+import org.apache.lucene.store.IndexInput;
+import org.apache.lucene.store.IndexOutput;
+import org.infinispan.Cache;
+import org.infinispan.lucene.FileCacheKey;
+import org.infinispan.lucene.DirectoryIntegrityCheck;
+import org.infinispan.lucene.directory.DirectoryBuilder;
+import org.testng.annotations.Test;
+
+/**
+ * Verifies the leases of {@link org.infinispan.lucene.readlocks.LeasingSegmentReadLocker} are kept after the files
+ * are closed, and still prevent deletion until they expire or the Directory is closed.
+ *
+ * @since 9.0
+ */
+@SuppressWarnings("unchecked")
+@Test(groups = "functional", testName = "lucene.readlocks.LeasingSegmentReadLockerTest")
+public class LeasingSegmentReadLockerTest extends DistributedSegmentReadLockerTest {
+
+   private static final long LEASE_TIME = 2000;
+
+   // Runs the deletes and the expired lease releases in the calling thread, counting them
+   private final AtomicInteger deleteExecutions = new AtomicInteger();
+   private final Executor deleteExecutor = command -> {
+      deleteExecutions.incrementAndGet();
+      command.run();
+   };
+
+   @Test @Override
+   public void testIndexWritingAndFinding() throws IOException, InterruptedException {
+      verifyBoth(cache0, cache1);
+      IndexOutput indexOutput = dirA.createOutput(filename, IOContext.DEFAULT);
+      indexOutput.writeString("no need to write, nobody ever will read this");
+      indexOutput.close();
+      assertFileExistsHavingRLCount(filename, 1, true);
+      IndexInput firstOpenOnB = dirB.openInput(filename, IOContext.DEFAULT);
+      assertFileExistsHavingRLCount(filename, 2, true);
+      firstOpenOnB.close();
+      // The lease is kept, so opening the file again doesn't change the read lock
+      assertFileExistsHavingRLCount(filename, 2, true);
+      IndexInput secondOpenOnB = dirB.openInput(filename, IOContext.DEFAULT);
+      assertFileExistsHavingRLCount(filename, 2, true);
+      dirA.deleteFile(filename);
+      assertFileExistsHavingRLCount(filename, 1, false);
+      secondOpenOnB.close();
+      // Still leased by B until the lease expires
+      assertFileExistsHavingRLCount(filename, 1, false);
+      assertFileNotExists(filename);
+      dirA.close();
+      dirB.close();
+      verifyBoth(cache0, cache1);
+   }
+
+   @Test
+   public void testDeleteReleasesIdleLease() throws IOException {
+      IndexOutput indexOutput = dirA.createOutput(filename, IOContext.DEFAULT);
+      indexOutput.writeString("no need to write, nobody ever will read this");
+      indexOutput.close();
+      IndexInput openInput = dirA.openInput(filename, IOContext.DEFAULT);
+      openInput.close();
+      assertFileExistsHavingRLCount(filename, 2, true);
+      dirA.deleteFile(filename);
+      // The metadata is removed synchronously, the chunks might be removed later
+      assertNull(cache0.get(new FileCacheKey(INDEX_NAME, filename, -1)));
+   }
+
+   @Test
+   public void testCloseReleasesIdleLeases() throws IOException, InterruptedException {
+      IndexOutput indexOutput = dirA.createOutput(filename, IOContext.DEFAULT);
+      indexOutput.writeString("no need to write, nobody ever will read this");
+      indexOutput.close();
+      IndexInput openInput = dirB.openInput(filename, IOContext.DEFAULT);
+      openInput.close();
+      dirA.deleteFile(filename);
+      assertFileExistsHavingRLCount(filename, 1, false);
+      dirB.close();
+      // Well before the lease would expire
+      DirectoryIntegrityCheck.assertFileNotExists(cache0, INDEX_NAME, filename, LEASE_TIME / 4, -1);
+      DirectoryIntegrityCheck.assertFileNotExists(cache1, INDEX_NAME, filename, LEASE_TIME / 4, -1);
+      dirA.close();
+      verifyBoth(cache0, cache1);
+   }
+
+   @Test
+   public void testExpiredLeaseIsReleasedOnTheDeleteExecutor() throws IOException {
+      IndexOutput indexOutput = dirA.createOutput(filename, IOContext.DEFAULT);
+      indexOutput.writeString("no need to write, nobody ever will read this");
+      indexOutput.close();
+      IndexInput openInput = dirB.openInput(filename, IOContext.DEFAULT);
+      openInput.close();
+      dirA.deleteFile(filename);
+      assertFileExistsHavingRLCount(filename, 1, false);
+      int executionsBeforeExpiration = deleteExecutions.get();
+
+      DirectoryIntegrityCheck.assertFileNotExists(cache0, INDEX_NAME, filename, LEASE_TIME * 5, -1);
+      assertTrue(deleteExecutions.get() > executionsBeforeExpiration);
+   }
+
+   @Override
+   Directory createDirectory(Cache cache) {
+      return DirectoryBuilder.newDirectoryInstance(cache, cache, cache, INDEX_NAME)
+            .chunkSize(CHUNK_SIZE)
+            .readLockLeaseTime(LEASE_TIME, TimeUnit.MILLISECONDS)
+            .deleteOperationsExecutor(deleteExecutor)
+            .create();
+   }
+
+}
@@ -2,13 +2,16 @@
 
 import org.infinispan.objectfilter.PropertyPath;
 
+import java.io.Serializable;
+
 /**
- * An accumulator is a stateless object that operates on row data.
+ * An accumulator is a stateless object that operates on row data. Accumulators are serializable so they can be sent
+ * to other nodes along with the rows they need to aggregate.
  *
  * @author anistor@redhat.com
  * @since 8.0
  */
-public abstract class FieldAccumulator {
+public abstract class FieldAccumulator implements Serializable {
 
    /**
     * Input column.
@@ -1,6 +1,7 @@
 package org.infinispan.objectfilter.impl.aggregation;
 
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
@@ -113,36 +114,56 @@ public void addRow(Object[] row) {
       if (row.length != inRowLength) {
          throw new IllegalArgumentException("Row length mismatch");
       }
-      if (noOfGroupingColumns > 0) {
-         // compute grouping and aggregations
-         GroupRowKey groupRowKey = new GroupRowKey(row);
-         Object[] existingGroup = groups.get(groupRowKey);
-         if (existingGroup == null) {
-            existingGroup = new Object[outRowLength];
-            System.arraycopy(row, 0, existingGroup, 0, noOfGroupingColumns);
-            if (accumulators != null) {
-               FieldAccumulator.init(existingGroup, accumulators);
-               for (FieldAccumulator acc : accumulators) {
-                  acc.init(existingGroup);
-               }
-            }
-            groups.put(groupRowKey, existingGroup);
+      Object[] accRow = getGroup(row);
+      if (accumulators != null) {
+         if (twoPhaseAcc) {
+            FieldAccumulator.merge(row, accRow, accumulators);
+         } else {
+            FieldAccumulator.update(row, accRow, accumulators);
          }
-         if (accumulators != null) {
-            if (twoPhaseAcc) {
-               FieldAccumulator.merge(row, existingGroup, accumulators);
-            } else {
-               FieldAccumulator.update(row, existingGroup, accumulators);
-            }
+      }
+   }
+
+   /**
+    * Merges a row obtained from {@link #getPartialRows()} of another grouper having the same grouping columns and
+    * accumulators. This allows grouping to be performed in parallel on disjoint subsets of the rows.
+    */
+   public void mergePartialRow(Object[] partialRow) {
+      if (partialRow.length != outRowLength) {
+         throw new IllegalArgumentException("Row length mismatch");
+      }
+      Object[] accRow = getGroup(partialRow);
+      if (accumulators != null) {
+         for (FieldAccumulator acc : accumulators) {
+            acc.merge(accRow, partialRow[acc.outPos]);
          }
-      } else {
+      }
+   }
+
+   /**
+    * Returns the rows of all groups, with the aggregated values not yet finished. These can be merged into another
+    * grouper using {@link #mergePartialRow(Object[])}. The grouper must not be used after this call.
+    */
+   public Collection<Object[]> getPartialRows() {
+      return groups != null ? groups.values() : Collections.singletonList(globalGroup);
+   }
+
+   private Object[] getGroup(Object[] row) {
+      if (groups == null) {
          // we have global aggregations only
-         if (twoPhaseAcc) {
-            FieldAccumulator.merge(row, globalGroup, accumulators);
-         } else {
-            FieldAccumulator.update(row, globalGroup, accumulators);
+         return globalGroup;
+      }
+      GroupRowKey groupRowKey = new GroupRowKey(row);
+      Object[] existingGroup = groups.get(groupRowKey);
+      if (existingGroup == null) {
+         existingGroup = new Object[outRowLength];
+         System.arraycopy(row, 0, existingGroup, 0, noOfGroupingColumns);
+         if (accumulators != null) {
+            FieldAccumulator.init(existingGroup, accumulators);
          }
+         groups.put(new GroupRowKey(existingGroup), existingGroup);
       }
+      return existingGroup;
    }
 
    public Iterator<Object[]> finish() {
@@ -49,8 +49,8 @@ public void update(Object[] accRow, Object val) {
                } else if (fieldType == BigDecimal.class) {
                   value = ((BigDecimal) sum).add((BigDecimal) value);
                } else {
-                  // byte, short, int
-                  value = sum.intValue() + value.intValue();
+                  // byte, short, int are summed as long too, same as the declared output type
+                  value = sum.longValue() + value.longValue();
                }
             }
             accRow[outPos] = value;
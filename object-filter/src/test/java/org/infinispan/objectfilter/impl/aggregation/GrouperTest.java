@@ -0,0 +1,115 @@
+package org.infinispan.objectfilter.impl.aggregation;
+
+import org.infinispan.objectfilter.PropertyPath;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+/**
+ * @since 9.0
+ */
+public class GrouperTest {
+
+   private static final Object[][] ROWS = {
+         {"a", 1, 10.0d},
+         {"b", 2, 20.0d},
+         {"a", 3, null},
+         {"b", null, 40.0d},
+         {"a", 5, 50.0d},
+         {"c", null, null},
+   };
+
+   private static FieldAccumulator[] makeAccumulators() {
+      return new FieldAccumulator[]{
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.COUNT, 1, 1, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.SUM, 1, 2, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.MIN, 1, 3, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.MAX, 2, 4, Double.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.AVG, 2, 5, Double.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.SUM, 2, 6, Double.class),
+      };
+   }
+
+   @Test
+   public void testMergePartialRowsWithGrouping() throws Exception {
+      assertMergedEqualsSinglePass(1);
+   }
+
+   @Test
+   public void testMergePartialRowsWithoutGrouping() throws Exception {
+      assertMergedEqualsSinglePass(0);
+   }
+
+   @Test
+   public void testMergeEmptyPartialRowsWithoutGrouping() throws Exception {
+      Grouper empty = new Grouper(0, shiftedAccumulators(), false);
+      Grouper merged = new Grouper(0, shiftedAccumulators(), false);
+      for (Object[] row : empty.getPartialRows()) {
+         merged.mergePartialRow(row);
+      }
+      Iterator<Object[]> it = merged.finish();
+      assertArrayEquals(new Object[]{0L, null, null, null, null, null}, it.next());
+      assertFalse(it.hasNext());
+   }
+
+   private void assertMergedEqualsSinglePass(int noOfGroupingColumns) {
+      Object[][] rows = noOfGroupingColumns > 0 ? ROWS : stripGroupingColumn();
+      FieldAccumulator[] accumulators = noOfGroupingColumns > 0 ? makeAccumulators() : shiftedAccumulators();
+
+      Grouper singlePass = new Grouper(noOfGroupingColumns, accumulators, false);
+      Grouper firstHalf = new Grouper(noOfGroupingColumns, accumulators, false);
+      Grouper secondHalf = new Grouper(noOfGroupingColumns, accumulators, false);
+      for (int i = 0; i < rows.length; i++) {
+         singlePass.addRow(rows[i]);
+         (i % 2 == 0 ? firstHalf : secondHalf).addRow(rows[i]);
+      }
+
+      Grouper merged = new Grouper(noOfGroupingColumns, accumulators, false);
+      for (Object[] row : firstHalf.getPartialRows()) {
+         merged.mergePartialRow(row);
+      }
+      for (Object[] row : secondHalf.getPartialRows()) {
+         merged.mergePartialRow(row);
+      }
+
+      List<Object[]> expected = toList(singlePass.finish());
+      List<Object[]> actual = toList(merged.finish());
+      assertEquals(expected.size(), actual.size());
+      for (int i = 0; i < expected.size(); i++) {
+         assertArrayEquals(expected.get(i), actual.get(i));
+      }
+   }
+
+   private static Object[][] stripGroupingColumn() {
+      Object[][] rows = new Object[ROWS.length][];
+      for (int i = 0; i < ROWS.length; i++) {
+         rows[i] = new Object[]{ROWS[i][1], ROWS[i][2]};
+      }
+      return rows;
+   }
+
+   private static FieldAccumulator[] shiftedAccumulators() {
+      return new FieldAccumulator[]{
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.COUNT, 0, 0, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.SUM, 0, 1, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.MIN, 0, 2, Integer.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.MAX, 1, 3, Double.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.AVG, 1, 4, Double.class),
+            FieldAccumulator.makeAccumulator(PropertyPath.AggregationType.SUM, 1, 5, Double.class),
+      };
+   }
+
+   private static List<Object[]> toList(Iterator<Object[]> it) {
+      List<Object[]> list = new ArrayList<>();
+      while (it.hasNext()) {
+         list.add(it.next());
+      }
+      return list;
+   }
+}
@@ -1,6 +1,8 @@
 package org.infinispan.query;
 
+import org.infinispan.jmx.annotations.DisplayType;
 import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
 import org.infinispan.jmx.annotations.ManagedOperation;
 
 import java.util.concurrent.CompletableFuture;
@@ -20,12 +22,40 @@
       description = "Component that rebuilds the index from the cached data")
 public interface MassIndexer {
 
+   /**
+    * Rebuilds the indexes, waiting for the run to complete.
+    *
+    * @throws IllegalStateException if another run is in progress
+    */
    @ManagedOperation(description = "Starts rebuilding the index", displayName = "Rebuild index")
    void start();
 
    /**
-    * @return {@link CompletableFuture}
+    * @return {@link CompletableFuture}, completed exceptionally with an {@link IllegalStateException} if another run
+    * is in progress
     */
    CompletableFuture<Void> startAsync();
 
+   /**
+    * @return the number of segments of the shared indexes to rebuild in the current or last run, 0 when no index
+    * is shared
+    */
+   @ManagedAttribute(description = "Number of segments to reindex in the current or last run", displayName = "Total segments",
+                     displayType = DisplayType.SUMMARY)
+   int getTotalSegments();
+
+   /**
+    * @return the number of segments of the shared indexes rebuilt so far in the current or last run
+    */
+   @ManagedAttribute(description = "Number of segments reindexed so far in the current or last run", displayName = "Indexed segments",
+                     displayType = DisplayType.SUMMARY)
+   int getIndexedSegments();
+
+   /**
+    * @return the number of entries reindexed by the completed tasks of the current or last run
+    */
+   @ManagedAttribute(description = "Number of entries reindexed so far in the current or last run", displayName = "Indexed entries",
+                     displayType = DisplayType.SUMMARY)
+   long getIndexedEntries();
+
 }
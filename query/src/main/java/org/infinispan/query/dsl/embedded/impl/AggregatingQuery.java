@@ -46,6 +46,10 @@ final class AggregatingQuery extends HybridQuery {
 
    @Override
    protected Iterator<?> getBaseIterator() {
+      if (!twoPhaseAcc && baseQuery instanceof EmbeddedQuery) {
+         // the rows come straight from the cache so they can be grouped on each node and only the groups merged here
+         return ((EmbeddedQuery) baseQuery).group(noOfGroupingColumns, accumulators);
+      }
       Grouper grouper = new Grouper(noOfGroupingColumns, accumulators, twoPhaseAcc);
       List<Object[]> list = baseQuery.list();
       for (Object[] row : list) {
@@ -16,7 +16,8 @@
 
 /**
  * Base class for embedded-mode query implementations. Subclasses need to implement {@link #getIterator()} and {@link
- * #getComparator()} methods and this class will take care of sorting (fully in-memory).
+ * #getComparator()} methods and this class will take care of sorting (fully in-memory), unless the subclass is able to
+ * select the requested page of sorted results itself via {@link #getTopResults(int)}.
  *
  * @author anistor@redhat.com
  * @since 8.0
@@ -62,12 +63,29 @@ public <T> List<T> list() {
    private List<Object> listInternal() {
       List<Object> results;
 
+      Comparator<Comparable[]> comparator = getComparator();
+      if (comparator != null && maxResults != -1) {
+         TopResults topResults = getTopResults((int) Math.min(startOffset + maxResults, Integer.MAX_VALUE));
+         if (topResults != null) {
+            resultSize = topResults.getCount();
+            List<ObjectFilter.FilterResult> sorted = topResults.drainSorted();
+            if (sorted.size() <= startOffset) {
+               return Collections.emptyList();
+            }
+            Object[] res = new Object[sorted.size() - (int) startOffset];
+            for (int i = 0; i < res.length; i++) {
+               ObjectFilter.FilterResult r = sorted.get((int) startOffset + i);
+               res[i] = projection != null ? r.getProjection() : r.getInstance();
+            }
+            return Arrays.asList(res);
+         }
+      }
+
       CloseableIterator<ObjectFilter.FilterResult> iterator = getIterator();
       if (!iterator.hasNext()) {
          return Collections.emptyList();
       }
 
-      Comparator<Comparable[]> comparator = getComparator();
       if (comparator == null) {
          // collect unsorted results and get the requested page if any was specified
          try {
@@ -135,6 +153,18 @@ private List<Object> listInternal() {
     */
    protected abstract Comparator<Comparable[]> getComparator();
 
+   /**
+    * Collect the first {@code limit} results of the query, in the order given by {@link #getComparator()}, and the
+    * total number of matches. Implementations able to perform this selection close to the data (on each node) should
+    * override this so that only the retained results need to be transferred and sorted here.
+    *
+    * @return the results or {@code null} if the selection must be performed here over all results returned by {@link
+    * #getIterator()}
+    */
+   protected TopResults getTopResults(int limit) {
+      return null;
+   }
+
    /**
     * Create an iterator over the results of the query, in no particular order. Ordering will be provided if {@link
     * #getComparator()} returns a non-null {@link Comparator}.
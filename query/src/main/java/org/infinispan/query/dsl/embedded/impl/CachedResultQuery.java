@@ -0,0 +1,93 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.impl.BaseQuery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A query that first looks up its results in the {@link QueryResultCache} and only executes the actual query on a
+ * miss, caching its results afterwards.
+ *
+ * @since 9.0
+ */
+final class CachedResultQuery extends BaseQuery {
+
+   private final QueryResultCache queryResultCache;
+
+   /**
+    * The query that is executed on a cache miss.
+    */
+   private final BaseQuery query;
+
+   /**
+    * A query that matches the entities that can affect the results, see {@link QueryResultCache#startCaching}.
+    */
+   private final String invalidationQuery;
+
+   private List<?> results;
+
+   private int resultSize;
+
+   CachedResultQuery(QueryFactory queryFactory, String jpaQuery, Map<String, Object> namedParameters, String[] projection,
+                     long startOffset, int maxResults, QueryResultCache queryResultCache, BaseQuery query, String invalidationQuery) {
+      super(queryFactory, jpaQuery, namedParameters, projection, startOffset, maxResults);
+      this.queryResultCache = queryResultCache;
+      this.query = query;
+      this.invalidationQuery = invalidationQuery;
+   }
+
+   @Override
+   public void resetQuery() {
+      results = null;
+      query.resetQuery();
+   }
+
+   @Override
+   public <T> List<T> list() {
+      fetch();
+      // the cached list is shared so the caller gets a copy
+      return new ArrayList<>((List<T>) results);
+   }
+
+   @Override
+   public int getResultSize() {
+      fetch();
+      return resultSize;
+   }
+
+   private void fetch() {
+      if (results == null) {
+         QueryResultCache.ResultKey key = new QueryResultCache.ResultKey(jpaQuery, namedParameters, startOffset, maxResults);
+         QueryResultCache.CachedResult cachedResult = queryResultCache.get(key);
+         if (cachedResult == null) {
+            cachedResult = queryResultCache.startCaching(key, invalidationQuery);
+            List<?> list;
+            try {
+               list = query.list();
+            } catch (RuntimeException e) {
+               queryResultCache.cancelCaching(cachedResult);
+               throw e;
+            }
+            queryResultCache.finishCaching(cachedResult, list, query.getResultSize());
+         }
+         results = cachedResult.getList();
+         resultSize = cachedResult.getResultSize();
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "CachedResultQuery{" +
+            "jpaQuery=" + jpaQuery +
+            ", namedParameters=" + namedParameters +
+            ", projection=" + Arrays.toString(projection) +
+            ", startOffset=" + startOffset +
+            ", maxResults=" + maxResults +
+            ", query=" + query +
+            '}';
+   }
+}
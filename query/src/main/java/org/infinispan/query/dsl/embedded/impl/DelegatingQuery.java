@@ -62,6 +62,7 @@ public String toString() {
             ", projection=" + Arrays.toString(projection) +
             ", startOffset=" + startOffset +
             ", maxResults=" + maxResults +
+            ", query=" + query +
             '}';
    }
 }
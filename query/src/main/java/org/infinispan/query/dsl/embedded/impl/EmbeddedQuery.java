@@ -1,17 +1,21 @@
 package org.infinispan.query.dsl.embedded.impl;
 
 import org.infinispan.AdvancedCache;
+import org.infinispan.CacheStream;
 import org.infinispan.commons.util.CloseableIterator;
 import org.infinispan.commons.util.Closeables;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.filter.CacheFilters;
 import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.SortField;
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
 import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.stream.StreamMarshalling;
 
 import java.util.Arrays;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.Map;
-import java.util.stream.Stream;
 
 
 /**
@@ -57,8 +61,34 @@ protected Comparator<Comparable[]> getComparator() {
 
    @Override
    protected CloseableIterator<ObjectFilter.FilterResult> getIterator() {
-      Stream<CacheEntry<?, ObjectFilter.FilterResult>> stream = CacheFilters.filterAndConvert(cache.cacheEntrySet().stream(), createFilter());
-      return Closeables.iterator(stream.map(e -> e.getValue()));
+      return Closeables.iterator(filterResults());
+   }
+
+   @Override
+   protected TopResults getTopResults(int limit) {
+      SortField[] sortFields = createFilter().getObjectFilter().getSortFields();
+      boolean[] direction = new boolean[sortFields.length];
+      for (int i = 0; i < sortFields.length; i++) {
+         direction[i] = sortFields[i].isAscending();
+      }
+      // each node retains only its first 'limit' matches, so at most limit * numNodes results are transferred
+      return filterResults().collect(() -> new TopResults(direction, limit), TopResults::add, TopResults::merge);
+   }
+
+   /**
+    * Groups the matching rows and computes the aggregations on each node, then merges the partial groups here. The
+    * query must use projections and the projected row is the input row of the grouping.
+    */
+   Iterator<Object[]> group(int noOfGroupingColumns, FieldAccumulator[] accumulators) {
+      PartialGroups groups = filterResults().collect(() -> new PartialGroups(noOfGroupingColumns, accumulators),
+                                                     PartialGroups::addRow, PartialGroups::merge);
+      return groups.finish();
+   }
+
+   private CacheStream<ObjectFilter.FilterResult> filterResults() {
+      CacheStream<CacheEntry<Object, ObjectFilter.FilterResult>> stream =
+            (CacheStream) CacheFilters.filterAndConvert(cache.cacheEntrySet().stream(), createFilter());
+      return stream.map(StreamMarshalling.entryToValueFunction());
    }
 
    @Override
@@ -0,0 +1,145 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.configuration.cache.InMemoryIndexType;
+import org.infinispan.objectfilter.impl.util.ReflectionHelper;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * An in-memory secondary index on a single property of an entity, mapping the property values to the keys of the
+ * entries stored on this node. Only non-null values of instances of the entity class are indexed.
+ * <p>
+ * Updates of a key are expected to be serialized by the cache's locking. Lookups are weakly consistent, so the
+ * entries they point to must be re-checked against the full filter of the query.
+ *
+ * @since 9.0
+ */
+final class InMemoryIndex {
+
+   private final Class<?> entityClass;
+
+   private final String propertyPath;
+
+   private final InMemoryIndexType type;
+
+   private final ReflectionHelper.PropertyAccessor[] accessors;
+
+   /**
+    * The keys for each indexed value. This is a sorted map for {@link InMemoryIndexType#SORTED} indexes.
+    */
+   private final ConcurrentMap<Object, Set<Object>> keysByValue;
+
+   /**
+    * The currently indexed value of each key, needed for removing the key from its previous value on update.
+    */
+   private final ConcurrentMap<Object, Object> valueByKey = new ConcurrentHashMap<>();
+
+   InMemoryIndex(Class<?> entityClass, String propertyPath, InMemoryIndexType type, ReflectionHelper.PropertyAccessor[] accessors) {
+      this.entityClass = entityClass;
+      this.propertyPath = propertyPath;
+      this.type = type;
+      this.accessors = accessors;
+      keysByValue = type == InMemoryIndexType.SORTED ? new ConcurrentSkipListMap<>() : new ConcurrentHashMap<>();
+   }
+
+   String getPropertyPath() {
+      return propertyPath;
+   }
+
+   boolean isSorted() {
+      return type == InMemoryIndexType.SORTED;
+   }
+
+   /**
+    * Indexes the new value of an entry.
+    *
+    * @param instance the value of the entry, or {@code null} if it was removed
+    */
+   void update(Object key, Object instance) {
+      Object value = instance != null && entityClass.isInstance(instance) ? extractValue(instance) : null;
+      Object previous = value != null ? valueByKey.put(key, value) : valueByKey.remove(key);
+      if (previous != null && !previous.equals(value)) {
+         keysByValue.computeIfPresent(previous, (v, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+         });
+      }
+      if (value != null && !value.equals(previous)) {
+         keysByValue.compute(value, (v, keys) -> {
+            if (keys == null) {
+               keys = ConcurrentHashMap.newKeySet();
+            }
+            keys.add(key);
+            return keys;
+         });
+      }
+   }
+
+   private Object extractValue(Object instance) {
+      Object value = instance;
+      for (ReflectionHelper.PropertyAccessor accessor : accessors) {
+         value = accessor.getValue(value);
+         if (value == null) {
+            break;
+         }
+      }
+      return value;
+   }
+
+   /**
+    * Returns the keys of the entries having the given property value.
+    */
+   Set<Object> getKeys(Object value) {
+      Set<Object> keys = keysByValue.get(value);
+      return keys != null ? keys : Collections.emptySet();
+   }
+
+   /**
+    * Returns the keys of the entries having a property value in the given interval. Only supported by sorted indexes.
+    *
+    * @param from the lower bound or {@code null} if unbounded
+    * @param to   the upper bound or {@code null} if unbounded
+    */
+   Set<Object> getKeys(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+      NavigableMap<Object, Set<Object>> sorted = (NavigableMap<Object, Set<Object>>) keysByValue;
+      if (from != null && to != null) {
+         int c = from.compareTo(to);
+         if (c > 0 || c == 0 && !(fromInclusive && toInclusive)) {
+            return Collections.emptySet();
+         }
+         sorted = sorted.subMap(from, fromInclusive, to, toInclusive);
+      } else if (from != null) {
+         sorted = sorted.tailMap(from, fromInclusive);
+      } else if (to != null) {
+         sorted = sorted.headMap(to, toInclusive);
+      }
+      Set<Object> keys = new HashSet<>();
+      for (Map.Entry<Object, Set<Object>> e : sorted.entrySet()) {
+         keys.addAll(e.getValue());
+      }
+      return keys;
+   }
+
+   /**
+    * The number of indexed keys.
+    */
+   int size() {
+      return valueByKey.size();
+   }
+
+   @Override
+   public String toString() {
+      return "InMemoryIndex{" +
+            "entityClass=" + entityClass.getName() +
+            ", propertyPath=" + propertyPath +
+            ", type=" + type +
+            '}';
+   }
+}
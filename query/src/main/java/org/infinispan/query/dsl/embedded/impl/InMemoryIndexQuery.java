@@ -0,0 +1,121 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.AdvancedCache;
+import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.impl.syntax.ComparisonExpr;
+import org.infinispan.objectfilter.impl.syntax.ConstantValueExpr;
+import org.infinispan.objectfilter.impl.syntax.PropertyValueExpr;
+import org.infinispan.query.dsl.QueryFactory;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A non-indexed query that obtains its candidate entries from an {@link InMemoryIndex} instead of scanning the whole
+ * cache. The candidates are then filtered with the full filter of the query, so the index lookup only needs to be a
+ * superset of the matches.
+ *
+ * @since 9.0
+ */
+final class InMemoryIndexQuery extends HybridQuery {
+
+   private final InMemoryIndex index;
+
+   /**
+    * The predicates on the indexed property, which must all have the property as left child and a constant as right
+    * child.
+    */
+   private final List<ComparisonExpr> predicates;
+
+   /**
+    * Whether the predicates are equalities joined by OR (an IN predicate), or else they are joined by AND.
+    */
+   private final boolean isDisjunction;
+
+   InMemoryIndexQuery(QueryFactory queryFactory, AdvancedCache<?, ?> cache, String jpaQuery, Map<String, Object> namedParameters,
+                      ObjectFilter objectFilter, long startOffset, int maxResults,
+                      InMemoryIndex index, List<ComparisonExpr> predicates, boolean isDisjunction) {
+      super(queryFactory, cache, jpaQuery, namedParameters, objectFilter, startOffset, maxResults, null);
+      this.index = index;
+      this.predicates = predicates;
+      this.isDisjunction = isDisjunction;
+   }
+
+   @Override
+   protected Iterator<?> getBaseIterator() {
+      Set<Object> keys = lookup();
+      if (keys.isEmpty()) {
+         return keys.iterator();
+      }
+      return ((AdvancedCache<Object, Object>) cache).getAll(keys).values().iterator();
+   }
+
+   private Set<Object> lookup() {
+      if (isDisjunction) {
+         Set<Object> keys = new HashSet<>();
+         for (ComparisonExpr predicate : predicates) {
+            keys.addAll(index.getKeys(getValue(predicate)));
+         }
+         return keys;
+      }
+      Comparable from = null;
+      boolean fromInclusive = false;
+      Comparable to = null;
+      boolean toInclusive = false;
+      for (ComparisonExpr predicate : predicates) {
+         Comparable value = getValue(predicate);
+         switch (predicate.getComparisonType()) {
+            case EQUAL:
+               // an equality is the most selective predicate possible
+               return index.getKeys(value);
+            case GREATER:
+            case GREATER_OR_EQUAL: {
+               boolean inclusive = predicate.getComparisonType() == ComparisonExpr.Type.GREATER_OR_EQUAL;
+               int c = from == null ? 1 : value.compareTo(from);
+               if (c > 0 || c == 0 && !inclusive) {
+                  from = value;
+                  fromInclusive = inclusive;
+               }
+               break;
+            }
+            case LESS:
+            case LESS_OR_EQUAL: {
+               boolean inclusive = predicate.getComparisonType() == ComparisonExpr.Type.LESS_OR_EQUAL;
+               int c = to == null ? -1 : value.compareTo(to);
+               if (c < 0 || c == 0 && !inclusive) {
+                  to = value;
+                  toInclusive = inclusive;
+               }
+               break;
+            }
+            default:
+               throw new IllegalStateException("Unexpected comparison type " + predicate.getComparisonType());
+         }
+      }
+      return index.getKeys(from, fromInclusive, to, toInclusive);
+   }
+
+   private Comparable getValue(ComparisonExpr predicate) {
+      PropertyValueExpr property = (PropertyValueExpr) predicate.getLeftChild();
+      ConstantValueExpr constant = (ConstantValueExpr) predicate.getRightChild();
+      return constant.getConstantValueAs(property.getPrimitiveType(), namedParameters);
+   }
+
+   @Override
+   public String toString() {
+      return "InMemoryIndexQuery{" +
+            "jpaQuery=" + jpaQuery +
+            ", namedParameters=" + namedParameters +
+            ", projection=" + Arrays.toString(projection) +
+            ", startOffset=" + startOffset +
+            ", maxResults=" + maxResults +
+            ", index=" + index +
+            ", predicates=" + predicates +
+            ", isDisjunction=" + isDisjunction +
+            '}';
+   }
+}
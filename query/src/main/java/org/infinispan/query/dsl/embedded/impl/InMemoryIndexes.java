@@ -0,0 +1,134 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.InMemoryIndexType;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntriesEvicted;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntriesEvictedEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.objectfilter.impl.ReflectionMatcher;
+import org.infinispan.objectfilter.impl.util.ReflectionHelper;
+import org.infinispan.query.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+import java.beans.IntrospectionException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The in-memory secondary indexes of a cache, as defined by {@link org.infinispan.configuration.cache.IndexingConfiguration#inMemoryIndexes()}.
+ * The indexes cover the entries stored on this node and are maintained synchronously by listening to the entry
+ * events. They are only created when they cover all the entries a query would see, see {@link #isSupported}. The listener is registered once the cache has started, so it includes the current state of the cache: the
+ * entries a joining node received during the initial state transfer.
+ *
+ * @since 9.0
+ */
+@Listener(observation = Listener.Observation.POST, includeCurrentState = true)
+public final class InMemoryIndexes {
+
+   private static final Log log = LogFactory.getLog(InMemoryIndexes.class, Log.class);
+
+   /**
+    * Indexes by entity name and property path.
+    */
+   private final Map<String, Map<String, InMemoryIndex>> indexes = new HashMap<>();
+
+   private final List<InMemoryIndex> allIndexes = new ArrayList<>();
+
+   public InMemoryIndexes(Configuration cfg, ReflectionMatcher matcher) {
+      for (Map.Entry<String, Map<String, InMemoryIndexType>> entity : cfg.indexing().inMemoryIndexes().entrySet()) {
+         String entityName = entity.getKey();
+         Class<?> entityClass = matcher.getPropertyHelper().getEntityMetadata(entityName);
+         if (entityClass == null) {
+            throw log.invalidInMemoryIndex(entityName, entity.getValue().keySet().toString(), "unknown entity");
+         }
+         Map<String, InMemoryIndex> entityIndexes = new HashMap<>();
+         for (Map.Entry<String, InMemoryIndexType> property : entity.getValue().entrySet()) {
+            InMemoryIndex index = new InMemoryIndex(entityClass, property.getKey(), property.getValue(),
+                                                    getAccessors(entityName, entityClass, property.getKey(), property.getValue()));
+            entityIndexes.put(property.getKey(), index);
+            allIndexes.add(index);
+         }
+         indexes.put(entityName, entityIndexes);
+      }
+   }
+
+   /**
+    * Whether the indexes of a cache would cover all the entries a query sees on this node. This is not the case if
+    * entries can live only in a store or on other nodes, or if the values are not stored as objects.
+    */
+   public static boolean isSupported(Configuration cfg) {
+      return !cfg.clustering().cacheMode().isDistributed()
+            && !cfg.eviction().strategy().isEnabled() && !cfg.persistence().usingStores()
+            && !cfg.compatibility().enabled() && !cfg.storeAsBinary().enabled();
+   }
+
+   private static ReflectionHelper.PropertyAccessor[] getAccessors(String entityName, Class<?> entityClass, String propertyPath, InMemoryIndexType type) {
+      String[] path = propertyPath.split("\\.");
+      ReflectionHelper.PropertyAccessor[] accessors = new ReflectionHelper.PropertyAccessor[path.length];
+      try {
+         for (int i = 0; i < path.length; i++) {
+            accessors[i] = i == 0 ? ReflectionHelper.getAccessor(entityClass, path[i]) : accessors[i - 1].getAccessor(path[i]);
+            if (accessors[i].isMultiple()) {
+               throw log.invalidInMemoryIndex(entityName, propertyPath, "multi-valued properties cannot be indexed");
+            }
+         }
+      } catch (IntrospectionException e) {
+         throw log.invalidInMemoryIndex(entityName, propertyPath, e.getMessage());
+      }
+      Class<?> propertyType = accessors[path.length - 1].getPropertyType();
+      if (type == InMemoryIndexType.SORTED && !propertyType.isPrimitive() && !Comparable.class.isAssignableFrom(propertyType)) {
+         throw log.invalidInMemoryIndex(entityName, propertyPath, "a sorted index requires a Comparable property type");
+      }
+      return accessors;
+   }
+
+   /**
+    * Returns the indexes usable for queries on the given entity, by property path.
+    */
+   Map<String, InMemoryIndex> getIndexes(String entityName) {
+      Map<String, InMemoryIndex> entityIndexes = indexes.get(entityName);
+      return entityIndexes != null ? entityIndexes : Collections.emptyMap();
+   }
+
+   @CacheEntryCreated
+   @CacheEntryModified
+   public void entryWritten(CacheEntryEvent<Object, Object> event) {
+      update(event.getKey(), event.getValue());
+   }
+
+   @CacheEntryRemoved
+   @CacheEntryExpired
+   @CacheEntryInvalidated
+   public void entryRemoved(CacheEntryEvent<Object, Object> event) {
+      update(event.getKey(), null);
+   }
+
+   @CacheEntriesEvicted
+   public void entriesEvicted(CacheEntriesEvictedEvent<Object, Object> event) {
+      for (Object key : event.getEntries().keySet()) {
+         update(key, null);
+      }
+   }
+
+   private void update(Object key, Object value) {
+      for (InMemoryIndex index : allIndexes) {
+         index.update(key, value);
+      }
+   }
+
+   @Override
+   public String toString() {
+      return "InMemoryIndexes{" +
+            "indexes=" + allIndexes +
+            '}';
+   }
+}
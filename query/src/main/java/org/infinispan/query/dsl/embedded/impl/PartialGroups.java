@@ -0,0 +1,100 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.impl.aggregation.FieldAccumulator;
+import org.infinispan.objectfilter.impl.aggregation.Grouper;
+import org.infinispan.query.impl.externalizers.ExternalizerIds;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * The groups of a non-indexed aggregation query computed over the matches of a single node, with the aggregated
+ * values not yet finished. Only these partial groups are sent back to the originator, where the groups of all nodes
+ * are merged and then finished.
+ *
+ * @since 9.0
+ */
+public final class PartialGroups {
+
+   private final int noOfGroupingColumns;
+
+   private final FieldAccumulator[] accumulators;
+
+   private final Grouper grouper;
+
+   PartialGroups(int noOfGroupingColumns, FieldAccumulator[] accumulators) {
+      this.noOfGroupingColumns = noOfGroupingColumns;
+      this.accumulators = accumulators;
+      this.grouper = new Grouper(noOfGroupingColumns, accumulators, false);
+   }
+
+   void addRow(ObjectFilter.FilterResult result) {
+      grouper.addRow(result.getProjection());
+   }
+
+   void merge(PartialGroups other) {
+      for (Object[] row : other.grouper.getPartialRows()) {
+         grouper.mergePartialRow(row);
+      }
+   }
+
+   /**
+    * Finishes the aggregated values and returns the resulting rows.
+    */
+   Iterator<Object[]> finish() {
+      return grouper.finish();
+   }
+
+   @Override
+   public String toString() {
+      return "PartialGroups{" +
+            "noOfGroupingColumns=" + noOfGroupingColumns +
+            ", accumulators=" + Arrays.toString(accumulators) +
+            '}';
+   }
+
+   public static final class Externalizer extends AbstractExternalizer<PartialGroups> {
+
+      @Override
+      public void writeObject(ObjectOutput output, PartialGroups partialGroups) throws IOException {
+         UnsignedNumeric.writeUnsignedInt(output, partialGroups.noOfGroupingColumns);
+         output.writeObject(partialGroups.accumulators);
+         Collection<Object[]> rows = partialGroups.grouper.getPartialRows();
+         UnsignedNumeric.writeUnsignedInt(output, rows.size());
+         for (Object[] row : rows) {
+            output.writeObject(row);
+         }
+      }
+
+      @Override
+      public PartialGroups readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         int noOfGroupingColumns = UnsignedNumeric.readUnsignedInt(input);
+         FieldAccumulator[] accumulators = (FieldAccumulator[]) input.readObject();
+         PartialGroups partialGroups = new PartialGroups(noOfGroupingColumns, accumulators);
+         int size = UnsignedNumeric.readUnsignedInt(input);
+         for (int i = 0; i < size; i++) {
+            partialGroups.grouper.mergePartialRow((Object[]) input.readObject());
+         }
+         return partialGroups;
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.JPA_PARTIAL_GROUPS;
+      }
+
+      @Override
+      public Set<Class<? extends PartialGroups>> getTypeClasses() {
+         return Collections.singleton(PartialGroups.class);
+      }
+   }
+}
@@ -28,6 +28,7 @@
 import org.infinispan.objectfilter.impl.syntax.OrExpr;
 import org.infinispan.objectfilter.impl.syntax.PropertyValueExpr;
 import org.infinispan.objectfilter.impl.syntax.ValueExpr;
+import org.infinispan.objectfilter.impl.util.StringHelper;
 import org.infinispan.query.CacheQuery;
 import org.infinispan.query.Search;
 import org.infinispan.query.SearchManager;
@@ -43,6 +44,7 @@
 import org.infinispan.util.logging.LogFactory;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.LinkedHashMap;
 import java.util.LinkedList;
 import java.util.List;
@@ -81,6 +83,16 @@ public class QueryEngine {
     */
    private SearchIntegrator searchFactory;
 
+   /**
+    * Optional. This is {@code null} if the cache does not have in-memory indexes.
+    */
+   private final InMemoryIndexes inMemoryIndexes;
+
+   /**
+    * Optional. This is {@code null} if query results are not cached.
+    */
+   private final QueryResultCache queryResultCache;
+
    private final BooleanFilterNormalizer booleanFilterNormalizer = new BooleanFilterNormalizer();
 
    public QueryEngine(AdvancedCache<?, ?> cache, boolean isIndexed) {
@@ -93,6 +105,11 @@ protected QueryEngine(AdvancedCache<?, ?> cache, boolean isIndexed, Class<? exte
       this.queryCache = ComponentRegistryUtils.getQueryCache(cache);
       this.authorizationManager = SecurityActions.getCacheAuthorizationManager(cache);
       this.matcher = SecurityActions.getCacheComponentRegistry(cache).getComponent(matcherImplClass);
+      // in-memory indexes and result caching are only supported for Java entities
+      this.inMemoryIndexes = matcherImplClass == ReflectionMatcher.class ?
+            SecurityActions.getCacheComponentRegistry(cache).getComponent(InMemoryIndexes.class) : null;
+      this.queryResultCache = matcherImplClass == ReflectionMatcher.class ?
+            SecurityActions.getCacheComponentRegistry(cache).getComponent(QueryResultCache.class) : null;
    }
 
    private SearchManager getSearchManager() {
@@ -124,10 +141,19 @@ public BaseQuery buildQuery(QueryFactory queryFactory, String jpqlString, Map<St
       checkParameters(namedParameters);
 
       FilterParsingResult<?> parsingResult = parse(jpqlString);
+      BaseQuery query;
       if (parsingResult.hasGroupingOrAggregations()) {
-         return buildQueryWithAggregations(queryFactory, jpqlString, namedParameters, startOffset, maxResults, parsingResult);
+         query = buildQueryWithAggregations(queryFactory, jpqlString, namedParameters, startOffset, maxResults, parsingResult);
+      } else {
+         query = buildQueryNoAggregations(queryFactory, jpqlString, namedParameters, startOffset, maxResults, parsingResult);
+      }
+      if (queryResultCache != null && !(query instanceof EmptyResultQuery)) {
+         // any write of an entity matching the 'where' clause can change the results, including the aggregated ones
+         String invalidationQuery = JPATreePrinter.printTree(parsingResult.getTargetEntityName(), null, parsingResult.getWhereClause(), null);
+         return new CachedResultQuery(queryFactory, jpqlString, namedParameters, query.getProjection(), startOffset, maxResults,
+                                      queryResultCache, query, invalidationQuery);
       }
-      return buildQueryNoAggregations(queryFactory, jpqlString, namedParameters, startOffset, maxResults, parsingResult);
+      return query;
    }
 
    /**
@@ -520,6 +546,13 @@ private BaseQuery buildQueryNoAggregations(QueryFactory queryFactory, String jpq
       // if cache is indexed but there is no actual 'where' filter clause and we do have sorting or projections we should still use the index, otherwise just go for a non-indexed fetch-all
       if (!isIndexed || (normalizedWhereClause == null || normalizedWhereClause == ConstantBooleanExpr.TRUE) && parsingResult.getProjections() == null && parsingResult.getSortFields() == null) {
          // fully non-indexed execution because the filter matches everything or there is no indexing at all
+         if (!isIndexed && inMemoryIndexes != null && normalizedWhereClause != null) {
+            BaseQuery inMemoryIndexQuery = buildInMemoryIndexQuery(queryFactory, jpqlString, namedParameters, startOffset, maxResults,
+                  parsingResult.getTargetEntityName(), normalizedWhereClause);
+            if (inMemoryIndexQuery != null) {
+               return inMemoryIndexQuery;
+            }
+         }
          return new EmbeddedQuery(this, queryFactory, cache, jpqlString, namedParameters, parsingResult.getProjections(), startOffset, maxResults);
       }
 
@@ -630,6 +663,96 @@ private BaseQuery buildQueryNoAggregations(QueryFactory queryFactory, String jpq
       return new HybridQuery(queryFactory, cache, jpqlString, namedParameters, getObjectFilter(matcher, jpqlString, namedParameters, null), startOffset, maxResults, expandedQuery);
    }
 
+   /**
+    * Build a query that obtains its candidate entries from an in-memory index rather than from a full scan. This is
+    * possible if the normalized 'where' clause is, or has at top level a conjunct that is, an equality, an IN or a range
+    * predicate on a property having a suitable in-memory index. The whole filter is still applied to the candidates.
+    *
+    * @return the query or {@code null} if no in-memory index can be used
+    */
+   private BaseQuery buildInMemoryIndexQuery(QueryFactory queryFactory, String jpqlString, Map<String, Object> namedParameters,
+                                             long startOffset, int maxResults, String targetEntityName, BooleanExpr normalizedWhereClause) {
+      Map<String, InMemoryIndex> indexes = inMemoryIndexes.getIndexes(targetEntityName);
+      if (indexes.isEmpty()) {
+         return null;
+      }
+      List<BooleanExpr> conjuncts = normalizedWhereClause instanceof AndExpr ?
+            ((AndExpr) normalizedWhereClause).getChildren() : Collections.singletonList(normalizedWhereClause);
+
+      // prefer an equality, then an IN, then the range predicates on a sorted index
+      InMemoryIndex inIndex = null;
+      List<ComparisonExpr> inPredicates = null;
+      LinkedHashMap<InMemoryIndex, List<ComparisonExpr>> ranges = new LinkedHashMap<>();
+      for (BooleanExpr conjunct : conjuncts) {
+         if (conjunct instanceof ComparisonExpr) {
+            ComparisonExpr predicate = (ComparisonExpr) conjunct;
+            InMemoryIndex index = getInMemoryIndex(indexes, predicate);
+            if (index != null) {
+               ComparisonExpr.Type type = predicate.getComparisonType();
+               if (type == ComparisonExpr.Type.EQUAL) {
+                  return makeInMemoryIndexQuery(queryFactory, jpqlString, namedParameters, startOffset, maxResults,
+                        index, Collections.singletonList(predicate), false);
+               }
+               if (type != ComparisonExpr.Type.NOT_EQUAL && index.isSorted()) {
+                  List<ComparisonExpr> range = ranges.get(index);
+                  if (range == null) {
+                     range = new ArrayList<>(2);
+                     ranges.put(index, range);
+                  }
+                  range.add(predicate);
+               }
+            }
+         } else if (conjunct instanceof OrExpr && inIndex == null) {
+            // an IN predicate is normalized to a disjunction of equalities
+            List<ComparisonExpr> equalities = new ArrayList<>();
+            for (BooleanExpr child : ((OrExpr) conjunct).getChildren()) {
+               if (!(child instanceof ComparisonExpr) || ((ComparisonExpr) child).getComparisonType() != ComparisonExpr.Type.EQUAL) {
+                  equalities = null;
+                  break;
+               }
+               InMemoryIndex index = getInMemoryIndex(indexes, (ComparisonExpr) child);
+               if (index == null || inIndex != null && inIndex != index) {
+                  equalities = null;
+                  break;
+               }
+               inIndex = index;
+               equalities.add((ComparisonExpr) child);
+            }
+            if (equalities != null) {
+               inPredicates = equalities;
+            } else {
+               inIndex = null;
+            }
+         }
+      }
+      if (inIndex != null) {
+         return makeInMemoryIndexQuery(queryFactory, jpqlString, namedParameters, startOffset, maxResults, inIndex, inPredicates, true);
+      }
+      if (!ranges.isEmpty()) {
+         Map.Entry<InMemoryIndex, List<ComparisonExpr>> range = ranges.entrySet().iterator().next();
+         return makeInMemoryIndexQuery(queryFactory, jpqlString, namedParameters, startOffset, maxResults, range.getKey(), range.getValue(), false);
+      }
+      return null;
+   }
+
+   private InMemoryIndex getInMemoryIndex(Map<String, InMemoryIndex> indexes, ComparisonExpr predicate) {
+      if (!(predicate.getLeftChild() instanceof PropertyValueExpr) || predicate.getLeftChild() instanceof AggregationExpr
+            || !(predicate.getRightChild() instanceof ConstantValueExpr)) {
+         return null;
+      }
+      PropertyValueExpr property = (PropertyValueExpr) predicate.getLeftChild();
+      if (property.isRepeated()) {
+         return null;
+      }
+      return indexes.get(StringHelper.join(property.getPropertyPath()));
+   }
+
+   private BaseQuery makeInMemoryIndexQuery(QueryFactory queryFactory, String jpqlString, Map<String, Object> namedParameters,
+                                            long startOffset, int maxResults, InMemoryIndex index, List<ComparisonExpr> predicates, boolean isDisjunction) {
+      return new InMemoryIndexQuery(queryFactory, cache, jpqlString, namedParameters, getObjectFilter(matcher, jpqlString, namedParameters, null),
+            startOffset, maxResults, index, predicates, isDisjunction);
+   }
+
    /**
     * Make a new FilterParsingResult after normalizing the query. This FilterParsingResult is not supposed to have grouping/aggregation.
     */
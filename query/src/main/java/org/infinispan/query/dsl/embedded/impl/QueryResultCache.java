@@ -0,0 +1,334 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import net.jcip.annotations.ThreadSafe;
+import org.infinispan.commons.equivalence.AnyEquivalence;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.notifications.Listener;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryCreated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryExpired;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryInvalidated;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryModified;
+import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved;
+import org.infinispan.notifications.cachelistener.event.CacheEntryEvent;
+import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent;
+import org.infinispan.objectfilter.FilterCallback;
+import org.infinispan.objectfilter.FilterSubscription;
+import org.infinispan.objectfilter.impl.ReflectionMatcher;
+import org.infinispan.query.logging.Log;
+import org.infinispan.util.concurrent.BoundedConcurrentHashMap;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A per-cache cache of query results, enabled by {@link org.infinispan.configuration.cache.IndexingConfiguration#resultCacheSize()}.
+ * The results are keyed by query string, named parameters and paging. Each cached result registers a filter with the
+ * 'where' clause of its query in a dedicated {@link ReflectionMatcher}. Both the previous and the new value of every
+ * write are matched against these filters, so a cached result is invalidated only if the write concerns an entity that
+ * matched or now matches its query.
+ * <p>
+ * Results are only cached while executing the query, after its filter was registered, so a write that happens during
+ * the execution is also detected and the result is then discarded.
+ *
+ * @since 9.0
+ */
+@ThreadSafe
+@Listener(observation = Listener.Observation.BOTH)
+@MBean(objectName = "QueryResultCache", description = "Caches the results of queries until a write affects them")
+public final class QueryResultCache {
+
+   private static final Log log = LogFactory.getLog(QueryResultCache.class, Log.class);
+
+   private static final int CONCURRENCY_LEVEL = 16;
+
+   private final boolean trace = log.isTraceEnabled();
+
+   /**
+    * A matcher used only for detecting the writes that affect the cached results.
+    */
+   private final ReflectionMatcher matcher;
+
+   private final BoundedConcurrentHashMap<ResultKey, CachedResult> results;
+
+   /**
+    * The evicted or invalidated results whose filters still need to be unregistered. Filters cannot be unregistered
+    * from within a filter callback so this is done lazily by the query threads.
+    */
+   private final Queue<CachedResult> released = new ConcurrentLinkedQueue<>();
+
+   private final LongAdder hits = new LongAdder();
+
+   private final LongAdder misses = new LongAdder();
+
+   private final LongAdder invalidations = new LongAdder();
+
+   public QueryResultCache(int maxEntries, ReflectionMatcher matcher) {
+      this.matcher = matcher;
+      results = new BoundedConcurrentHashMap<>(maxEntries, CONCURRENCY_LEVEL, BoundedConcurrentHashMap.Eviction.LRU,
+                                               new EvictionListener(), AnyEquivalence.getInstance(), AnyEquivalence.getInstance());
+   }
+
+   /**
+    * Gets the cached result of a query.
+    *
+    * @return the cached result or {@code null} if there is none
+    */
+   CachedResult get(ResultKey key) {
+      unregisterReleased();
+      CachedResult cachedResult = results.get(key);
+      if (cachedResult != null && !cachedResult.isReleased()) {
+         hits.increment();
+         if (trace) {
+            log.tracef("Query result cache hit: %s", key);
+         }
+         return cachedResult;
+      }
+      misses.increment();
+      return null;
+   }
+
+   /**
+    * Starts tracking the writes that affect the result of a query. This must be called before executing the query.
+    *
+    * @param invalidationQuery a query having the same target entity and 'where' clause as the cached query, but no
+    *                          projections, grouping or ordering
+    */
+   CachedResult startCaching(ResultKey key, String invalidationQuery) {
+      CachedResult cachedResult = new CachedResult(key);
+      cachedResult.subscription = matcher.registerFilter(invalidationQuery, key.namedParameters, cachedResult);
+      return cachedResult;
+   }
+
+   /**
+    * Caches the result of a query that was executed after {@link #startCaching}, unless a write affecting it happened
+    * in the meantime.
+    */
+   void finishCaching(CachedResult cachedResult, List<?> list, int resultSize) {
+      cachedResult.list = list;
+      cachedResult.resultSize = resultSize;
+      if (!cachedResult.isReleased()) {
+         CachedResult previous = results.put(cachedResult.key, cachedResult);
+         if (previous != null) {
+            release(previous);
+         }
+         if (cachedResult.isReleased()) {
+            // invalidated concurrently, before it was put
+            results.remove(cachedResult.key, cachedResult);
+         }
+      }
+      unregisterReleased();
+   }
+
+   /**
+    * Stops tracking the writes for a query that could not be executed.
+    */
+   void cancelCaching(CachedResult cachedResult) {
+      release(cachedResult);
+      unregisterReleased();
+   }
+
+   private void release(CachedResult cachedResult) {
+      if (cachedResult.released.compareAndSet(false, true)) {
+         released.add(cachedResult);
+      }
+   }
+
+   private void unregisterReleased() {
+      for (int i = released.size(); i > 0; i--) {
+         CachedResult cachedResult = released.poll();
+         if (cachedResult == null) {
+            break;
+         }
+         if (cachedResult.subscription == null) {
+            // still being registered by another thread
+            released.add(cachedResult);
+         } else {
+            matcher.unregisterFilter(cachedResult.subscription);
+         }
+      }
+   }
+
+   @CacheEntryCreated
+   @CacheEntryModified
+   @CacheEntryRemoved
+   @CacheEntryExpired
+   @CacheEntryInvalidated
+   public void entryChanged(CacheEntryEvent<?, ?> event) {
+      // pre events carry the previous value and post events the new one, except for removals
+      Object value = event.getValue();
+      if (value == null && event instanceof CacheEntryRemovedEvent) {
+         value = ((CacheEntryRemovedEvent<?, ?>) event).getOldValue();
+      }
+      if (value != null) {
+         matcher.match(null, null, value);
+      }
+   }
+
+   @ManagedAttribute(description = "Number of queries answered from the result cache", displayName = "Hits",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getHits() {
+      return hits.sum();
+   }
+
+   @ManagedAttribute(description = "Number of queries that were not found in the result cache", displayName = "Misses",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getMisses() {
+      return misses.sum();
+   }
+
+   @ManagedAttribute(description = "Number of cached results invalidated by writes", displayName = "Invalidations",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getInvalidations() {
+      return invalidations.sum();
+   }
+
+   @ManagedAttribute(description = "Number of cached results", displayName = "Number of cached results",
+                     displayType = DisplayType.SUMMARY, dataType = DataType.MEASUREMENT)
+   public int getSize() {
+      return results.size();
+   }
+
+   @ManagedOperation(description = "Removes all cached results", displayName = "Clear query result cache")
+   public void clear() {
+      for (CachedResult cachedResult : results.values()) {
+         release(cachedResult);
+      }
+      results.clear();
+      unregisterReleased();
+   }
+
+   @ManagedOperation(description = "Resets the statistics", displayName = "Reset statistics")
+   public void resetStatistics() {
+      hits.reset();
+      misses.reset();
+      invalidations.reset();
+   }
+
+   private final class EvictionListener implements BoundedConcurrentHashMap.EvictionListener<ResultKey, CachedResult> {
+
+      @Override
+      public void onEntryEviction(Map<ResultKey, CachedResult> evicted) {
+         for (CachedResult cachedResult : evicted.values()) {
+            release(cachedResult);
+         }
+      }
+
+      @Override
+      public void onEntryChosenForEviction(CachedResult cachedResult) {
+      }
+
+      @Override
+      public void onEntryActivated(Object key) {
+      }
+
+      @Override
+      public void onEntryRemoved(Object key) {
+      }
+   }
+
+   /**
+    * The key of a cached query result.
+    */
+   static final class ResultKey {
+
+      private final String jpaQuery;
+
+      private final Map<String, Object> namedParameters;
+
+      private final long startOffset;
+
+      private final int maxResults;
+
+      ResultKey(String jpaQuery, Map<String, Object> namedParameters, long startOffset, int maxResults) {
+         this.jpaQuery = jpaQuery;
+         // the parameters of the query can change afterwards so they are copied
+         this.namedParameters = namedParameters == null || namedParameters.isEmpty() ? Collections.emptyMap() : new HashMap<>(namedParameters);
+         this.startOffset = startOffset;
+         this.maxResults = maxResults;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         ResultKey other = (ResultKey) o;
+         return startOffset == other.startOffset && maxResults == other.maxResults
+               && jpaQuery.equals(other.jpaQuery) && namedParameters.equals(other.namedParameters);
+      }
+
+      @Override
+      public int hashCode() {
+         int result = jpaQuery.hashCode();
+         result = 31 * result + namedParameters.hashCode();
+         result = 31 * result + (int) (startOffset ^ (startOffset >>> 32));
+         result = 31 * result + maxResults;
+         return result;
+      }
+
+      @Override
+      public String toString() {
+         return "ResultKey{" +
+               "jpaQuery=" + jpaQuery +
+               ", namedParameters=" + namedParameters +
+               ", startOffset=" + startOffset +
+               ", maxResults=" + maxResults +
+               '}';
+      }
+   }
+
+   /**
+    * A cached query result, which is also the callback of its invalidation filter.
+    */
+   final class CachedResult implements FilterCallback {
+
+      private final ResultKey key;
+
+      private final AtomicBoolean released = new AtomicBoolean();
+
+      private volatile FilterSubscription subscription;
+
+      private volatile List<?> list;
+
+      private volatile int resultSize;
+
+      private CachedResult(ResultKey key) {
+         this.key = key;
+      }
+
+      List<?> getList() {
+         return list;
+      }
+
+      int getResultSize() {
+         return resultSize;
+      }
+
+      private boolean isReleased() {
+         return released.get();
+      }
+
+      @Override
+      public void onFilterResult(boolean isDelta, Object userContext, Object eventType, Object instance, Object[] projection, Comparable[] sortProjection) {
+         if (!released.get()) {
+            if (trace) {
+               log.tracef("Query result cache invalidation: %s", key);
+            }
+            invalidations.increment();
+            release(this);
+            results.remove(key, this);
+         }
+      }
+   }
+}
@@ -0,0 +1,136 @@
+package org.infinispan.query.dsl.embedded.impl;
+
+import org.infinispan.commons.io.UnsignedNumeric;
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.objectfilter.ObjectFilter;
+import org.infinispan.objectfilter.impl.util.ComparableArrayComparator;
+import org.infinispan.query.impl.externalizers.ExternalizerIds;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * The first {@code limit} results of a sorted non-indexed query, together with the total number of matches. Each node
+ * accumulates its own matches into an instance of this class and only the retained results are sent back to the
+ * originator, where the partial results of all nodes are merged.
+ *
+ * @since 9.0
+ */
+public final class TopResults {
+
+   /**
+    * Initial capacity of the queue, to avoid allocating it based on a possibly huge limit.
+    */
+   private static final int INITIAL_CAPACITY = 1000;
+
+   private final boolean[] direction;
+
+   private final int limit;
+
+   /**
+    * The retained results, in reverse order so the head is the result to be evicted first.
+    */
+   private final PriorityQueue<ObjectFilter.FilterResult> results;
+
+   private int count;
+
+   TopResults(boolean[] direction, int limit) {
+      this.direction = direction;
+      this.limit = limit;
+      Comparator<Comparable[]> comparator = new ComparableArrayComparator(direction);
+      results = new PriorityQueue<>(Math.min(limit, INITIAL_CAPACITY) + 1,
+                                    (r1, r2) -> comparator.compare(r2.getSortProjection(), r1.getSortProjection()));
+   }
+
+   void add(ObjectFilter.FilterResult result) {
+      count++;
+      retain(result);
+   }
+
+   void merge(TopResults other) {
+      count += other.count;
+      for (ObjectFilter.FilterResult result : other.results) {
+         retain(result);
+      }
+   }
+
+   private void retain(ObjectFilter.FilterResult result) {
+      results.add(result);
+      if (results.size() > limit) {
+         // remove the head, which is actually the highest result
+         results.remove();
+      }
+   }
+
+   /**
+    * The total number of matches, including the ones that were not retained.
+    */
+   int getCount() {
+      return count;
+   }
+
+   /**
+    * Removes the retained results and returns them in sort order.
+    */
+   List<ObjectFilter.FilterResult> drainSorted() {
+      ObjectFilter.FilterResult[] sorted = new ObjectFilter.FilterResult[results.size()];
+      for (int i = sorted.length - 1; i >= 0; i--) {
+         sorted[i] = results.remove();
+      }
+      return Arrays.asList(sorted);
+   }
+
+   @Override
+   public String toString() {
+      return "TopResults{" +
+            "direction=" + Arrays.toString(direction) +
+            ", limit=" + limit +
+            ", count=" + count +
+            ", retained=" + results.size() +
+            '}';
+   }
+
+   public static final class Externalizer extends AbstractExternalizer<TopResults> {
+
+      @Override
+      public void writeObject(ObjectOutput output, TopResults topResults) throws IOException {
+         output.writeObject(topResults.direction);
+         UnsignedNumeric.writeUnsignedInt(output, topResults.limit);
+         UnsignedNumeric.writeUnsignedInt(output, topResults.count);
+         UnsignedNumeric.writeUnsignedInt(output, topResults.results.size());
+         for (ObjectFilter.FilterResult result : topResults.results) {
+            output.writeObject(result);
+         }
+      }
+
+      @Override
+      public TopResults readObject(ObjectInput input) throws IOException, ClassNotFoundException {
+         boolean[] direction = (boolean[]) input.readObject();
+         int limit = UnsignedNumeric.readUnsignedInt(input);
+         TopResults topResults = new TopResults(direction, limit);
+         topResults.count = UnsignedNumeric.readUnsignedInt(input);
+         int size = UnsignedNumeric.readUnsignedInt(input);
+         for (int i = 0; i < size; i++) {
+            topResults.results.add((ObjectFilter.FilterResult) input.readObject());
+         }
+         return topResults;
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.JPA_TOP_RESULTS;
+      }
+
+      @Override
+      public Set<Class<? extends TopResults>> getTypeClasses() {
+         return Collections.singleton(TopResults.class);
+      }
+   }
+}
@@ -28,6 +28,7 @@
 import org.infinispan.jmx.ResourceDMBean;
 import org.infinispan.lifecycle.AbstractModuleLifecycle;
 import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.notifications.cachelistener.CacheNotifier;
 import org.infinispan.objectfilter.impl.ReflectionMatcher;
 import org.infinispan.objectfilter.impl.hql.ReflectionEntityNamesResolver;
 import org.infinispan.query.MassIndexer;
@@ -39,10 +40,14 @@
 import org.infinispan.query.continuous.impl.ContinuousQueryResult;
 import org.infinispan.query.continuous.impl.JPAContinuousQueryCacheEventFilterConverter;
 import org.infinispan.query.dsl.embedded.impl.HibernateSearchPropertyHelper;
+import org.infinispan.query.dsl.embedded.impl.InMemoryIndexes;
 import org.infinispan.query.dsl.embedded.impl.JPACacheEventFilterConverter;
 import org.infinispan.query.dsl.embedded.impl.JPAFilterAndConverter;
+import org.infinispan.query.dsl.embedded.impl.PartialGroups;
 import org.infinispan.query.dsl.embedded.impl.QueryCache;
 import org.infinispan.query.dsl.embedded.impl.QueryEngine;
+import org.infinispan.query.dsl.embedded.impl.QueryResultCache;
+import org.infinispan.query.dsl.embedded.impl.TopResults;
 import org.infinispan.query.impl.externalizers.ClusteredTopDocsExternalizer;
 import org.infinispan.query.impl.externalizers.ExternalizerIds;
 import org.infinispan.query.impl.externalizers.LuceneBooleanQueryExternalizer;
@@ -56,8 +61,10 @@
 import org.infinispan.query.impl.externalizers.LuceneTermQueryExternalizer;
 import org.infinispan.query.impl.externalizers.LuceneTopDocsExternalizer;
 import org.infinispan.query.impl.externalizers.LuceneTopFieldDocsExternalizer;
-import org.infinispan.query.impl.massindex.DistributedExecutorMassIndexer;
+import org.infinispan.query.impl.massindex.DistributedMassIndexer;
 import org.infinispan.query.impl.massindex.IndexWorker;
+import org.infinispan.query.impl.massindex.IndexWorkerResult;
+import org.infinispan.query.indexmanager.IndexWorkQueues;
 import org.infinispan.query.logging.Log;
 import org.infinispan.query.spi.ProgrammaticSearchMappingProvider;
 import org.infinispan.registry.InternalCacheRegistry;
@@ -108,6 +115,11 @@ public void cacheStarting(ComponentRegistry cr, Configuration cfg, String cacheN
          SearchIntegrator searchFactory = null;
          if (isIndexed) {
             log.registeringQueryInterceptor(cacheName);
+            if (IndexWorkQueues.isEnabled(cfg.indexing().properties())) {
+               // must be registered before the index managers are created
+               String nodeName = cr.getGlobalComponentRegistry().getGlobalConfiguration().transport().nodeName();
+               cr.registerComponent(new IndexWorkQueues(nodeName, cacheName), IndexWorkQueues.class);
+            }
             searchFactory = getSearchFactory(cacheName, cfg.indexing(), cr);
             createQueryInterceptorIfNeeded(cr, cfg, searchFactory);
             addCacheDependencyIfNeeded(cacheName, cache.getCacheManager(), cfg.indexing());
@@ -124,6 +136,27 @@ public void cacheStarting(ComponentRegistry cr, Configuration cfg, String cacheN
 
          registerMatcher(cr, searchFactory);
 
+         if (!cfg.indexing().inMemoryIndexes().isEmpty()) {
+            // the indexes cover the entries stored on this node, so they are useless if a query can see other entries
+            if (!InMemoryIndexes.isSupported(cfg)) {
+               log.inMemoryIndexesNotSupported(cacheName);
+            } else {
+               InMemoryIndexes inMemoryIndexes = new InMemoryIndexes(cfg, cr.getComponent(ReflectionMatcher.class));
+               cr.registerComponent(inMemoryIndexes, InMemoryIndexes.class);
+            }
+         }
+
+         if (cfg.indexing().resultCacheSize() > 0) {
+            // writes are only observed locally, so all of them must be seen by each node
+            if (cfg.clustering().cacheMode().isDistributed() || cfg.storeAsBinary().enabled()) {
+               log.queryResultCacheNotSupported(cacheName);
+            } else {
+               ReflectionMatcher matcher = cr.getComponent(ReflectionMatcher.class);
+               QueryResultCache queryResultCache = new QueryResultCache(cfg.indexing().resultCacheSize(), new ReflectionMatcher(matcher.getPropertyHelper()));
+               cr.registerComponent(queryResultCache, QueryResultCache.class);
+            }
+         }
+
          QueryEngine queryEngine = new QueryEngine(cache, isIndexed);
          cr.registerComponent(queryEngine, QueryEngine.class);
       }
@@ -199,10 +232,21 @@ private QueryInterceptor buildQueryInterceptor(Configuration cfg, SearchIntegrat
    public void cacheStarted(ComponentRegistry cr, String cacheName) {
       Configuration configuration = cr.getComponent(Configuration.class);
       IndexingConfiguration indexingConfiguration = configuration.indexing();
+      InMemoryIndexes inMemoryIndexes = cr.getComponent(InMemoryIndexes.class);
+      if (inMemoryIndexes != null) {
+         cr.getComponent(CacheNotifier.class).addListener(inMemoryIndexes);
+      }
+      QueryResultCache queryResultCache = cr.getComponent(QueryResultCache.class);
+      if (queryResultCache != null) {
+         cr.getComponent(CacheNotifier.class).addListener(queryResultCache);
+      }
       if (!indexingConfiguration.index().isEnabled()) {
          if (verifyChainContainsQueryInterceptor(cr)) {
             throw new IllegalStateException("It was NOT expected to find the Query interceptor registered in the InterceptorChain as indexing was disabled, but it was found");
          }
+         if (queryResultCache != null) {
+            registerQueryResultCacheMBean(cr, initJmxDomain(cr));
+         }
          return;
       }
       if (!verifyChainContainsQueryInterceptor(cr)) {
@@ -242,7 +286,12 @@ private void checkIndexableClasses(SearchIntegrator searchFactory, Set<Class<?>>
       }
    }
 
-   private void registerQueryMBeans(ComponentRegistry cr, Configuration cfg, SearchIntegrator sf) {
+   /**
+    * Resolves the MBean server and the jmx domain to use for query mbeans.
+    *
+    * @return the query group name of the cache
+    */
+   private String initJmxDomain(ComponentRegistry cr) {
       AdvancedCache<?, ?> cache = cr.getComponent(Cache.class).getAdvancedCache();
       // Resolve MBean server instance
       GlobalConfiguration globalCfg = cr.getGlobalComponentRegistry().getGlobalConfiguration();
@@ -252,6 +301,12 @@ private void registerQueryMBeans(ComponentRegistry cr, Configuration cfg, Search
       String cacheManagerName = globalCfg.globalJmxStatistics().cacheManagerName();
       String queryGroupName = getQueryGroupName(cacheManagerName, cache.getName());
       jmxDomain = JmxUtil.buildJmxDomain(globalCfg, mbeanServer, queryGroupName);
+      return queryGroupName;
+   }
+
+   private void registerQueryMBeans(ComponentRegistry cr, Configuration cfg, SearchIntegrator sf) {
+      AdvancedCache<?, ?> cache = cr.getComponent(Cache.class).getAdvancedCache();
+      String queryGroupName = initJmxDomain(cr);
 
       // Register statistics MBean, but only enable if Infinispan config says so
       InfinispanQueryStatisticsInfo stats = new InfinispanQueryStatisticsInfo(sf);
@@ -270,8 +325,8 @@ private void registerQueryMBeans(ComponentRegistry cr, Configuration cfg, Search
             .findComponentMetadata(MassIndexer.class)
             .toManageableComponentMetadata();
       try {
-         // TODO: MassIndexer should be some kind of query cache component?
-         DistributedExecutorMassIndexer massIndexer = new DistributedExecutorMassIndexer(cache, sf);
+         DistributedMassIndexer massIndexer = new DistributedMassIndexer(cache, sf);
+         cr.registerComponent(massIndexer, MassIndexer.class);
          ResourceDMBean mbean = new ResourceDMBean(massIndexer, massIndexerCompMetadata);
          ObjectName massIndexerObjName = new ObjectName(jmxDomain + ":"
                + queryGroupName + ",component=" + massIndexerCompMetadata.getJmxObjectName());
@@ -279,6 +334,38 @@ private void registerQueryMBeans(ComponentRegistry cr, Configuration cfg, Search
       } catch (Exception e) {
          throw new CacheException("Unable to create ", e);
       }
+
+      if (cr.getComponent(QueryResultCache.class) != null) {
+         registerQueryResultCacheMBean(cr, queryGroupName);
+      }
+
+      IndexWorkQueues indexWorkQueues = cr.getComponent(IndexWorkQueues.class);
+      if (indexWorkQueues != null) {
+         ManageableComponentMetadata metadata = cr.getGlobalComponentRegistry().getComponentMetadataRepo()
+               .findComponentMetadata(IndexWorkQueues.class)
+               .toManageableComponentMetadata();
+         try {
+            ResourceDMBean mbean = new ResourceDMBean(indexWorkQueues, metadata);
+            ObjectName objName = new ObjectName(jmxDomain + ":" + queryGroupName + ",component=" + metadata.getJmxObjectName());
+            JmxUtil.registerMBean(mbean, objName, mbeanServer);
+         } catch (Exception e) {
+            throw new CacheException("Unable to register index work queues mbean", e);
+         }
+      }
+   }
+
+   private void registerQueryResultCacheMBean(ComponentRegistry cr, String queryGroupName) {
+      QueryResultCache queryResultCache = cr.getComponent(QueryResultCache.class);
+      ManageableComponentMetadata metadata = cr.getGlobalComponentRegistry().getComponentMetadataRepo()
+            .findComponentMetadata(QueryResultCache.class)
+            .toManageableComponentMetadata();
+      try {
+         ResourceDMBean mbean = new ResourceDMBean(queryResultCache, metadata);
+         ObjectName objName = new ObjectName(jmxDomain + ":" + queryGroupName + ",component=" + metadata.getJmxObjectName());
+         JmxUtil.registerMBean(mbean, objName, mbeanServer);
+      } catch (Exception e) {
+         throw new CacheException("Unable to register query result cache mbean", e);
+      }
    }
 
    private String getQueryGroupName(String cacheManagerName, String cacheName) {
@@ -355,6 +442,10 @@ public void cacheStopping(ComponentRegistry cr, String cacheName) {
          //free some memory by de-registering the SearchFactory
          cr.registerComponent(REMOVED_REGISTRY_COMPONENT, SearchIntegrator.class);
       }
+      IndexWorkQueues indexWorkQueues = cr.getComponent(IndexWorkQueues.class);
+      if (indexWorkQueues != null) {
+         indexWorkQueues.stop();
+      }
 
       // Unregister MBeans
       if (mbeanServer != null) {
@@ -394,6 +485,8 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
       externalizerMap.put(ExternalizerIds.JPA_CACHE_EVENT_FILTER_CONVERTER, new JPACacheEventFilterConverter.Externalizer());
       externalizerMap.put(ExternalizerIds.JPA_CONTINUOUS_QUERY_CACHE_EVENT_FILTER_CONVERTER, new JPAContinuousQueryCacheEventFilterConverter.Externalizer());
       externalizerMap.put(ExternalizerIds.JPA_CONTINUOUS_QUERY_RESULT, new ContinuousQueryResult.Externalizer());
+      externalizerMap.put(ExternalizerIds.JPA_TOP_RESULTS, new TopResults.Externalizer());
+      externalizerMap.put(ExternalizerIds.JPA_PARTIAL_GROUPS, new PartialGroups.Externalizer());
       externalizerMap.put(ExternalizerIds.LUCENE_QUERY_BOOLEAN, new LuceneBooleanQueryExternalizer());
       externalizerMap.put(ExternalizerIds.LUCENE_QUERY_TERM, new LuceneTermQueryExternalizer());
       externalizerMap.put(ExternalizerIds.LUCENE_TERM, new LuceneTermExternalizer());
@@ -406,6 +499,7 @@ public void cacheManagerStarting(GlobalComponentRegistry gcr, GlobalConfiguratio
       externalizerMap.put(ExternalizerIds.LUCENE_TOPFIELDDOCS, new LuceneTopFieldDocsExternalizer());
       externalizerMap.put(ExternalizerIds.LUCENE_QUERY_MATCH_ALL, new LuceneMatchAllQueryExternalizer());
       externalizerMap.put(ExternalizerIds.INDEX_WORKER, new IndexWorker.Externalizer());
+      externalizerMap.put(ExternalizerIds.INDEX_WORKER_RESULT, new IndexWorkerResult.Externalizer());
       externalizerMap.put(ExternalizerIds.LUCENE_BYTES_REF, new LuceneBytesRefExternalizer());
    }
 
@@ -0,0 +1,332 @@
+package org.infinispan.query.impl.massindex;
+
+import org.hibernate.search.engine.spi.EntityIndexBinding;
+import org.hibernate.search.spi.SearchIntegrator;
+import org.infinispan.AdvancedCache;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.manager.ClusterExecutor;
+import org.infinispan.query.MassIndexer;
+import org.infinispan.query.impl.massindex.MassIndexStrategy.CleanExecutionMode;
+import org.infinispan.query.impl.massindex.MassIndexStrategy.FlushExecutionMode;
+import org.infinispan.query.impl.massindex.MassIndexStrategy.IndexingExecutionMode;
+import org.infinispan.query.logging.Log;
+import org.infinispan.remoting.rpc.RpcManager;
+import org.infinispan.remoting.transport.Address;
+import org.infinispan.remoting.transport.jgroups.SuspectException;
+import org.infinispan.statetransfer.StateTransferLock;
+import org.infinispan.statetransfer.StateTransferManager;
+import org.infinispan.topology.CacheTopology;
+import org.infinispan.util.logging.LogFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.infinispan.query.impl.massindex.MassIndexStrategyFactory.calculateStrategy;
+
+/**
+ * Rebuilds the indexes running {@link IndexWorker}s on the cluster through the {@link ClusterExecutor}.
+ * <p>
+ * When the index is shared, the segments are reindexed by their primary owners, a few segments per task, and the
+ * segments a node completed are never reindexed in the same run. If a node leaves the cluster, only the segments it
+ * hadn't completed yet are reindexed, by their new primary owners. A task whose segments changed primary owner while
+ * it was scanning them is not counted, and its segments are reindexed by the new primary owners.
+ * <p>
+ * A single run can be in progress at a time: starting another run while one is in progress fails.
+ *
+ * @author gustavonalle
+ * @since 7.1
+ */
+public class DistributedMassIndexer implements MassIndexer {
+
+   private static final Log LOG = LogFactory.getLog(DistributedMassIndexer.class, Log.class);
+
+   /**
+    * Number of segments reindexed by a single task: the progress of a node is recorded each time it completes one.
+    */
+   private static final int SEGMENTS_PER_TASK = 16;
+
+   private final AdvancedCache<?, ?> cache;
+   private final SearchIntegrator searchIntegrator;
+   private final IndexUpdater indexUpdater;
+
+   private final AtomicInteger totalSegments = new AtomicInteger();
+   private final AtomicInteger indexedSegments = new AtomicInteger();
+   private final LongAdder indexedEntries = new LongAdder();
+   private final AtomicBoolean running = new AtomicBoolean();
+
+   public DistributedMassIndexer(AdvancedCache<?, ?> cache, SearchIntegrator searchIntegrator) {
+      this.cache = cache;
+      this.searchIntegrator = searchIntegrator;
+      this.indexUpdater = new IndexUpdater(cache);
+   }
+
+   @Override
+   public void start() {
+      if (!running.compareAndSet(false, true)) {
+         throw LOG.massIndexerAlreadyRunning(cache.getName());
+      }
+      try {
+         execute();
+      } finally {
+         running.set(false);
+      }
+   }
+
+   @Override
+   public CompletableFuture<Void> startAsync() {
+      if (!running.compareAndSet(false, true)) {
+         CompletableFuture<Void> rejected = new CompletableFuture<>();
+         rejected.completeExceptionally(LOG.massIndexerAlreadyRunning(cache.getName()));
+         return rejected;
+      }
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      CompletableFuture<Void> future;
+      try {
+         future = CompletableFuture.runAsync(() -> {
+            try {
+               execute();
+            } finally {
+               running.set(false);
+            }
+         }, executor);
+      } catch (RuntimeException e) {
+         running.set(false);
+         throw e;
+      } finally {
+         // the thread terminates once the task completes
+         executor.shutdown();
+      }
+      return future;
+   }
+
+   @Override
+   public int getTotalSegments() {
+      return totalSegments.get();
+   }
+
+   @Override
+   public int getIndexedSegments() {
+      return indexedSegments.get();
+   }
+
+   @Override
+   public long getIndexedEntries() {
+      return indexedEntries.sum();
+   }
+
+   private void execute() {
+      totalSegments.set(0);
+      indexedSegments.set(0);
+      indexedEntries.reset();
+      // the equivalent of no timeout: reindexing the data of a node can take hours
+      ClusterExecutor executor = cache.getCacheManager().executor().timeout(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+      StateTransferManager stateTransferManager = cache.getComponentRegistry().getStateTransferManager();
+      List<CompletableFuture<Void>> futures = new ArrayList<>();
+      List<Class<?>> segmented = new ArrayList<>();
+      Deque<Class<?>> toFlush = new LinkedList<>();
+
+      for (Class<?> indexedType : searchIntegrator.getIndexedTypes()) {
+         EntityIndexBinding indexBinding = searchIntegrator.getIndexBinding(indexedType);
+         MassIndexStrategy strategy = calculateStrategy(indexBinding, cache.getCacheConfiguration());
+         boolean workerClean = true, workerFlush = true;
+         if (strategy.getCleanStrategy() == CleanExecutionMode.ONCE_BEFORE) {
+            indexUpdater.purge(indexedType);
+            workerClean = false;
+         }
+         if (strategy.getFlushStrategy() == FlushExecutionMode.ONCE_AFTER) {
+            toFlush.add(indexedType);
+            workerFlush = false;
+         }
+
+         boolean primaryOwner = strategy.getIndexingStrategy() == IndexingExecutionMode.PRIMARY_OWNER;
+         if (primaryOwner && !workerClean && !workerFlush && stateTransferManager != null) {
+            segmented.add(indexedType);
+         } else {
+            IndexWorker indexWork = new IndexWorker(cache.getName(), indexedType, workerFlush, workerClean, primaryOwner, null);
+            futures.add(executor.filterTargets(getCacheMembers()).submitConsumer(indexWork, (address, result, t) -> {
+               if (t != null) {
+                  throw new CompletionException(t);
+               }
+               indexedEntries.add(result.getIndexedEntries());
+            }));
+         }
+      }
+      try {
+         for (Class<?> indexedType : segmented) {
+            indexSegments(executor, stateTransferManager, indexedType);
+         }
+         for (CompletableFuture<Void> future : futures) {
+            join(future);
+         }
+      } finally {
+         for (Class<?> type : toFlush) {
+            indexUpdater.flush(type);
+         }
+      }
+   }
+
+   private Collection<Address> getCacheMembers() {
+      RpcManager rpcManager = cache.getRpcManager();
+      return rpcManager != null ? rpcManager.getMembers() : Collections.singleton(cache.getCacheManager().getAddress());
+   }
+
+   private void indexSegments(ClusterExecutor executor, StateTransferManager stateTransferManager, Class<?> indexedType) {
+      int numSegments = stateTransferManager.getCacheTopology().getReadConsistentHash().getNumSegments();
+      Set<Integer> remaining = ConcurrentHashMap.newKeySet();
+      for (int segment = 0; segment < numSegments; segment++) {
+         remaining.add(segment);
+      }
+      totalSegments.addAndGet(numSegments);
+
+      while (!remaining.isEmpty()) {
+         CacheTopology topology = stateTransferManager.getCacheTopology();
+         ConsistentHash ch = topology.getReadConsistentHash();
+         Map<Address, Set<Integer>> segmentsByOwner = new HashMap<>();
+         for (Integer segment : remaining) {
+            segmentsByOwner.computeIfAbsent(ch.locatePrimaryOwnerForSegment(segment), a -> new TreeSet<>()).add(segment);
+         }
+         Map<Address, CompletableFuture<Void>> runs = new HashMap<>();
+         segmentsByOwner.forEach((owner, segments) ->
+               runs.put(owner, indexSegments(executor, stateTransferManager, indexedType, owner, segments, remaining)));
+
+         RuntimeException failure = null;
+         for (CompletableFuture<Void> run : runs.values()) {
+            try {
+               join(run);
+            } catch (RuntimeException e) {
+               // the segments of an owner that left are reindexed by the new owners
+               if (!(e.getCause() instanceof SuspectException) && failure == null) {
+                  failure = e;
+               }
+            }
+         }
+         if (failure != null) {
+            throw failure;
+         }
+         if (!remaining.isEmpty()) {
+            // the run of an owner that left the view may complete without reindexing its segments, and the segments
+            // that moved during a run are reindexed by their new owners
+            List<Address> members = stateTransferManager.getCacheTopology().getMembers();
+            segmentsByOwner.forEach((owner, segments) -> {
+               Set<Integer> notIndexed = new TreeSet<>(segments);
+               notIndexed.retainAll(remaining);
+               if (notIndexed.isEmpty()) {
+                  return;
+               }
+               if (members.contains(owner)) {
+                  LOG.debugf("Segments %s of cache %s moved away from %s while reindexing them, reindexing them on their new owners",
+                             notIndexed, cache.getName(), owner);
+               } else {
+                  LOG.reindexingSegmentsOnNewOwners(owner, notIndexed, cache.getName());
+               }
+            });
+            waitForTopology(topology.getTopologyId() + 1);
+         }
+      }
+   }
+
+   /**
+    * Reindexes the segments on their owner, one task after the other.
+    */
+   private CompletableFuture<Void> indexSegments(ClusterExecutor executor, StateTransferManager stateTransferManager,
+                                                 Class<?> indexedType, Address owner, Set<Integer> segments,
+                                                 Set<Integer> remaining) {
+      ClusterExecutor ownerExecutor = executor.filterTargets(Collections.singleton(owner));
+      CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+      for (Set<Integer> batch : split(segments)) {
+         IndexWorker indexWork = new IndexWorker(cache.getName(), indexedType, false, false, true, batch);
+         chain = chain.thenCompose(v -> ownerExecutor.submitConsumer(indexWork, (address, result, t) -> {
+            if (t != null) {
+               throw new CompletionException(t);
+            }
+            if (!isStillPrimaryOwner(stateTransferManager, owner, batch, result.getTopologyId())) {
+               // the segments may have been transferred before the owner scanned them: the batch is reindexed by the
+               // new owners, and not counted twice
+               return;
+            }
+            remaining.removeAll(batch);
+            indexedEntries.add(result.getIndexedEntries());
+            int indexed = indexedSegments.addAndGet(batch.size());
+            LOG.debugf("Reindexed %d of %d segments of cache %s", indexed, totalSegments.get(), cache.getName());
+         }));
+      }
+      return chain;
+   }
+
+   /**
+    * @return {@code true} if the node is still the primary owner of the segments in the topology it completed the scan
+    * with, or in a later one; {@code false} if the segments moved or if the topology is not installed locally yet
+    */
+   private static boolean isStillPrimaryOwner(StateTransferManager stateTransferManager, Address owner,
+                                              Set<Integer> segments, int topologyId) {
+      CacheTopology topology = stateTransferManager.getCacheTopology();
+      if (topology.getTopologyId() < topologyId) {
+         return false;
+      }
+      ConsistentHash ch = topology.getReadConsistentHash();
+      for (Integer segment : segments) {
+         if (!owner.equals(ch.locatePrimaryOwnerForSegment(segment))) {
+            return false;
+         }
+      }
+      return true;
+   }
+
+   private static List<Set<Integer>> split(Set<Integer> segments) {
+      List<Set<Integer>> batches = new ArrayList<>();
+      Set<Integer> batch = null;
+      for (Integer segment : segments) {
+         if (batch == null || batch.size() == SEGMENTS_PER_TASK) {
+            batch = new HashSet<>();
+            batches.add(batch);
+         }
+         batch.add(segment);
+      }
+      return batches;
+   }
+
+   private void waitForTopology(int topologyId) {
+      StateTransferLock stateTransferLock = cache.getComponentRegistry().getComponent(StateTransferLock.class);
+      try {
+         stateTransferLock.waitForTopology(topologyId, cache.getCacheConfiguration().clustering().stateTransfer().timeout(),
+                                           TimeUnit.MILLISECONDS);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw LOG.errorExecutingMassIndexer(e);
+      }
+   }
+
+   /**
+    * Waits for the tasks to complete, throwing a {@link org.infinispan.commons.CacheException} caused by the failure
+    * of a task.
+    */
+   private static void join(CompletableFuture<Void> future) {
+      try {
+         future.join();
+      } catch (CompletionException e) {
+         Throwable cause = e;
+         while (cause instanceof CompletionException && cause.getCause() != null) {
+            cause = cause.getCause();
+         }
+         throw LOG.errorExecutingMassIndexer(cause);
+      }
+   }
+}
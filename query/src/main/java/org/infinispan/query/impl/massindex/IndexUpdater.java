@@ -30,14 +30,22 @@ public class IndexUpdater {
    private final SearchIntegrator searchIntegrator;
    private final KeyTransformationHandler keyTransformationHandler;
    private final ExtendedBatchBackend defaultBatchBackend;
+   private final DefaultMassIndexerProgressMonitor progressMonitor;
 
    public IndexUpdater(Cache<?, ?> cache) {
       QueryInterceptor queryInterceptor = ComponentRegistryUtils.getQueryInterceptor(cache);
       this.searchIntegrator = queryInterceptor.getSearchFactory();
       this.keyTransformationHandler = queryInterceptor.getKeyTransformationHandler();
       ComponentRegistry componentRegistry = cache.getAdvancedCache().getComponentRegistry();
-      DefaultMassIndexerProgressMonitor monitor = new DefaultMassIndexerProgressMonitor(componentRegistry.getTimeService());
-      this.defaultBatchBackend = new ExtendedBatchBackend(searchIntegrator, monitor);
+      this.progressMonitor = new DefaultMassIndexerProgressMonitor(componentRegistry.getTimeService());
+      this.defaultBatchBackend = new ExtendedBatchBackend(searchIntegrator, progressMonitor);
+   }
+
+   /**
+    * Logs the number of documents written through this updater.
+    */
+   public void indexingCompleted() {
+      progressMonitor.indexingCompleted();
    }
 
    public void flush(Class<?> entityType) {
@@ -1,69 +1,70 @@
 package org.infinispan.query.impl.massindex;
 
-import org.infinispan.Cache;
+import org.infinispan.AdvancedCache;
 import org.infinispan.commons.marshall.AbstractExternalizer;
 import org.infinispan.container.entries.CacheEntry;
 import org.infinispan.context.Flag;
-import org.infinispan.distexec.DistributedCallable;
-import org.infinispan.factories.ComponentRegistry;
-import org.infinispan.filter.AcceptAllKeyValueFilter;
-import org.infinispan.filter.CacheFilters;
-import org.infinispan.filter.KeyValueFilter;
-import org.infinispan.interceptors.locking.ClusteringDependentLogic;
+import org.infinispan.distribution.ch.ConsistentHash;
+import org.infinispan.factories.threads.DefaultThreadFactory;
+import org.infinispan.manager.EmbeddedCacheManager;
 import org.infinispan.marshall.core.MarshalledValue;
-import org.infinispan.metadata.Metadata;
 import org.infinispan.query.impl.externalizers.ExternalizerIds;
+import org.infinispan.statetransfer.StateTransferManager;
 
 import java.io.IOException;
 import java.io.ObjectInput;
 import java.io.ObjectOutput;
+import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
 import java.util.stream.Stream;
 
 /**
- * Base class for mass indexer tasks.
+ * Mass indexer task, reindexing the entries of an entity type stored on a node.
+ * <p>
+ * The local entries are scanned once, and handed in batches to a pool with a thread per core building the documents
+ * and writing them to the index. The pool has a bounded queue and the scanning thread indexes a batch itself when the
+ * queue is full, so the scan can't get ahead of the indexing backend.
+ * <p>
+ * The task indexes either the given segments, or all the local data, or the data the node is primary owner of. The
+ * result carries the topology installed when the scan completed, so that the caller can tell whether the segments
+ * could have moved to another node during the scan.
  *
  * @author gustavonalle
  * @since 7.1
  */
-public class IndexWorker implements DistributedCallable<Object, Object, Void> {
+public class IndexWorker implements Function<EmbeddedCacheManager, IndexWorkerResult> {
 
-   protected Cache<Object, Object> cache;
+   private static final int ENTRIES_PER_BATCH = 100;
+   private static final int QUEUED_BATCHES_PER_THREAD = 2;
+
+   private final String cacheName;
    protected final Class<?> entity;
    private final boolean flush;
    private final boolean clean;
    private final boolean primaryOwner;
-   protected IndexUpdater indexUpdater;
-
-   private ClusteringDependentLogic clusteringDependentLogic;
-
-   public IndexWorker(Class<?> entity, boolean flush, boolean clean, boolean primaryOwner) {
+   private final Set<Integer> segments;
+
+   /**
+    * @param segments the segments to index, or {@code null} to index all the segments of the node, or the segments
+    *                 it is primary owner of, depending on {@code primaryOwner}
+    */
+   public IndexWorker(String cacheName, Class<?> entity, boolean flush, boolean clean, boolean primaryOwner, Set<Integer> segments) {
+      this.cacheName = cacheName;
       this.entity = entity;
       this.flush = flush;
       this.clean = clean;
       this.primaryOwner = primaryOwner;
-   }
-
-   @Override
-   public void setEnvironment(Cache<Object, Object> cache, Set<Object> inputKeys) {
-      this.cache = cache;
-      this.indexUpdater = new IndexUpdater(cache);
-      ComponentRegistry componentRegistry = cache.getAdvancedCache().getComponentRegistry();
-      this.clusteringDependentLogic = componentRegistry.getComponent(ClusteringDependentLogic.class);
-   }
-
-   protected void preIndex() {
-      if (clean) indexUpdater.purge(entity);
-   }
-
-   protected void postIndex() {
-      if (flush) indexUpdater.flush(entity);
-   }
-
-   private KeyValueFilter getFilter() {
-      return primaryOwner ? new PrimaryOwnersKeyValueFilter() : AcceptAllKeyValueFilter.getInstance();
+      this.segments = segments;
    }
 
    private Object extractValue(Object wrappedValue) {
@@ -74,29 +75,76 @@ private Object extractValue(Object wrappedValue) {
 
    @Override
    @SuppressWarnings("unchecked")
-   public Void call() throws Exception {
-      preIndex();
-      KeyValueFilter filter = getFilter();
-      try (Stream<CacheEntry<Object, Object>> stream = cache.getAdvancedCache().withFlags(Flag.CACHE_MODE_LOCAL)
-              .cacheEntrySet().stream()) {
-         Iterator<CacheEntry<Object, Object>> iterator = stream.filter(CacheFilters.predicate(filter)).iterator();
-         while (iterator.hasNext()) {
-            CacheEntry<Object, Object> next = iterator.next();
-            Object value = extractValue(next.getValue());
-            if (value != null && value.getClass().equals(entity))
-               indexUpdater.updateIndex(next.getKey(), value);
+   public IndexWorkerResult apply(EmbeddedCacheManager cacheManager) {
+      AdvancedCache<Object, Object> cache = cacheManager.<Object, Object>getCache(cacheName).getAdvancedCache();
+      IndexUpdater indexUpdater = new IndexUpdater(cache);
+      if (clean) indexUpdater.purge(entity);
+
+      int parallelism = Runtime.getRuntime().availableProcessors();
+      String nodeName = cacheManager.getCacheManagerConfiguration().transport().nodeName();
+      ThreadPoolExecutor indexers = new ThreadPoolExecutor(parallelism, parallelism, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(parallelism * QUEUED_BATCHES_PER_THREAD),
+            new DefaultThreadFactory(null, Thread.NORM_PRIORITY, DefaultThreadFactory.DEFAULT_PATTERN, nodeName, "MassIndexer-" + cacheName),
+            new ThreadPoolExecutor.CallerRunsPolicy());
+      LongAdder indexed = new LongAdder();
+      AtomicReference<RuntimeException> failure = new AtomicReference<>();
+      try (Stream<CacheEntry<Object, Object>> stream = cache.withFlags(Flag.CACHE_MODE_LOCAL).cacheEntrySet().stream()) {
+         Iterator<CacheEntry<Object, Object>> iterator = filterSegments(cache, stream).iterator();
+         List<CacheEntry<Object, Object>> batch = new ArrayList<>(ENTRIES_PER_BATCH);
+         while (iterator.hasNext() && failure.get() == null) {
+            batch.add(iterator.next());
+            if (batch.size() == ENTRIES_PER_BATCH || !iterator.hasNext()) {
+               List<CacheEntry<Object, Object>> entries = batch;
+               indexers.execute(() -> index(indexUpdater, entries, indexed, failure));
+               batch = new ArrayList<>(ENTRIES_PER_BATCH);
+            }
          }
+      } finally {
+         indexers.shutdown();
+         try {
+            indexers.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+         } catch (InterruptedException e) {
+            indexers.shutdownNow();
+            Thread.currentThread().interrupt();
+         }
+      }
+      if (failure.get() != null) {
+         throw failure.get();
       }
-      postIndex();
-      return null;
+      if (flush) indexUpdater.flush(entity);
+      indexUpdater.indexingCompleted();
+      StateTransferManager stateTransferManager = cache.getComponentRegistry().getStateTransferManager();
+      int topologyId = stateTransferManager != null ? stateTransferManager.getCacheTopology().getTopologyId() : -1;
+      return new IndexWorkerResult(indexed.sum(), topologyId);
    }
 
+   private Stream<CacheEntry<Object, Object>> filterSegments(AdvancedCache<Object, Object> cache, Stream<CacheEntry<Object, Object>> stream) {
+      StateTransferManager stateTransferManager = cache.getComponentRegistry().getStateTransferManager();
+      if (stateTransferManager == null || (segments == null && !primaryOwner)) {
+         return stream;
+      }
+      ConsistentHash ch = stateTransferManager.getCacheTopology().getReadConsistentHash();
+      Set<Integer> toIndex = segments != null ? segments : ch.getPrimarySegmentsForOwner(cache.getRpcManager().getAddress());
+      BitSet bitSet = new BitSet(ch.getNumSegments());
+      toIndex.forEach(bitSet::set);
+      return stream.filter(e -> bitSet.get(ch.getSegment(e.getKey())));
+   }
 
-   private class PrimaryOwnersKeyValueFilter implements KeyValueFilter {
-
-      @Override
-      public boolean accept(Object key, Object value, Metadata metadata) {
-         return clusteringDependentLogic.localNodeIsPrimaryOwner(key);
+   private void index(IndexUpdater indexUpdater, List<CacheEntry<Object, Object>> entries, LongAdder indexed,
+                      AtomicReference<RuntimeException> failure) {
+      if (failure.get() != null) {
+         return;
+      }
+      try {
+         for (CacheEntry<Object, Object> entry : entries) {
+            Object value = extractValue(entry.getValue());
+            if (value != null && value.getClass().equals(entity)) {
+               indexUpdater.updateIndex(entry.getKey(), value);
+               indexed.increment();
+            }
+         }
+      } catch (RuntimeException e) {
+         failure.compareAndSet(null, e);
       }
    }
 
@@ -109,15 +157,19 @@ public Set<Class<? extends IndexWorker>> getTypeClasses() {
 
       @Override
       public void writeObject(ObjectOutput output, IndexWorker worker) throws IOException {
+         output.writeUTF(worker.cacheName);
          output.writeObject(worker.entity);
          output.writeBoolean(worker.flush);
          output.writeBoolean(worker.clean);
          output.writeBoolean(worker.primaryOwner);
+         output.writeObject(worker.segments);
       }
 
       @Override
+      @SuppressWarnings("unchecked")
       public IndexWorker readObject(ObjectInput input) throws IOException, ClassNotFoundException {
-         return new IndexWorker((Class<?>) input.readObject(), input.readBoolean(), input.readBoolean(), input.readBoolean());
+         return new IndexWorker(input.readUTF(), (Class<?>) input.readObject(), input.readBoolean(), input.readBoolean(),
+                                input.readBoolean(), (Set<Integer>) input.readObject());
       }
 
       @Override
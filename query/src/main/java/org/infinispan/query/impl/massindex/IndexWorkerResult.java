@@ -0,0 +1,70 @@
+package org.infinispan.query.impl.massindex;
+
+import org.infinispan.commons.marshall.AbstractExternalizer;
+import org.infinispan.query.impl.externalizers.ExternalizerIds;
+
+import java.io.IOException;
+import java.io.ObjectInput;
+import java.io.ObjectOutput;
+import java.util.Collections;
+import java.util.Set;
+
+/**
+ * The outcome of an {@link IndexWorker} run on a node.
+ *
+ * @since 9.0
+ */
+public final class IndexWorkerResult {
+
+   private final long indexedEntries;
+   private final int topologyId;
+
+   public IndexWorkerResult(long indexedEntries, int topologyId) {
+      this.indexedEntries = indexedEntries;
+      this.topologyId = topologyId;
+   }
+
+   /**
+    * @return the number of entries indexed
+    */
+   public long getIndexedEntries() {
+      return indexedEntries;
+   }
+
+   /**
+    * @return the id of the cache topology installed on the node when the scan of its entries completed, or -1 if
+    * the cache is not clustered
+    */
+   public int getTopologyId() {
+      return topologyId;
+   }
+
+   @Override
+   public String toString() {
+      return "IndexWorkerResult{indexedEntries=" + indexedEntries + ", topologyId=" + topologyId + '}';
+   }
+
+   public static class Externalizer extends AbstractExternalizer<IndexWorkerResult> {
+
+      @Override
+      public Set<Class<? extends IndexWorkerResult>> getTypeClasses() {
+         return Collections.singleton(IndexWorkerResult.class);
+      }
+
+      @Override
+      public void writeObject(ObjectOutput output, IndexWorkerResult result) throws IOException {
+         output.writeLong(result.indexedEntries);
+         output.writeInt(result.topologyId);
+      }
+
+      @Override
+      public IndexWorkerResult readObject(ObjectInput input) throws IOException {
+         return new IndexWorkerResult(input.readLong(), input.readInt());
+      }
+
+      @Override
+      public Integer getId() {
+         return ExternalizerIds.INDEX_WORKER_RESULT;
+      }
+   }
+}
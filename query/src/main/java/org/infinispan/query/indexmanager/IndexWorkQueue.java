@@ -0,0 +1,283 @@
+package org.infinispan.query.indexmanager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+import net.jcip.annotations.GuardedBy;
+import org.hibernate.search.backend.AddLuceneWork;
+import org.hibernate.search.backend.IndexingMonitor;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.backend.UpdateLuceneWork;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.infinispan.query.logging.Log;
+import org.infinispan.util.logging.LogFactory;
+
+/**
+ * Queues the index update operations of an index, so that the writers don't wait for them to be applied.
+ * The queued operations on the same entity are coalesced, and they are applied in batches, each being a single
+ * change list for the backend and therefore a single commit: when the batch is full, by the writer filling it, or at
+ * most {@code maxDelay} milliseconds after the oldest queued operation, by the scheduler.
+ * <p>
+ * Operations which don't target a single entity, like optimize, are never reordered with the other operations.
+ * Purge-all and flush operations, as well as change lists carrying an {@link IndexingMonitor}, flush the queue and
+ * are applied synchronously.
+ * <p>
+ * A batch that fails to apply is queued again ahead of the newer operations and retried by the scheduler. After
+ * {@link #MAX_APPLY_ATTEMPTS} consecutive failures it is discarded, and the index must be rebuilt.
+ *
+ * @since 9.0
+ */
+final class IndexWorkQueue {
+
+   private static final Log log = LogFactory.getLog(IndexWorkQueue.class, Log.class);
+
+   /**
+    * How many times a batch is applied before it's discarded
+    */
+   static final int MAX_APPLY_ATTEMPTS = 5;
+
+   private final String indexName;
+   private final IndexManager indexManager;
+   private final SwitchingBackend backend;
+   private final ScheduledExecutorService scheduler;
+   private final long maxDelay;
+   private final int maxBatchSize;
+
+   // Held while applying a batch, so that the batches are applied in order
+   private final ReentrantLock applyLock = new ReentrantLock();
+
+   @GuardedBy("this")
+   private List<LuceneWork> pending = new ArrayList<>();
+
+   /**
+    * Position in the pending list of the operation on each entity, since the last operation not targeting an entity.
+    */
+   @GuardedBy("this")
+   private final HashMap<EntityKey, Integer> positions = new HashMap<>();
+
+   @GuardedBy("this")
+   private long oldestPendingNanos;
+
+   @GuardedBy("this")
+   private ScheduledFuture<?> scheduledFlush;
+
+   @GuardedBy("this")
+   private int failedAttempts;
+
+   private final LongAdder batches = new LongAdder();
+   private final LongAdder appliedWorks = new LongAdder();
+   private final LongAdder coalescedWorks = new LongAdder();
+
+   IndexWorkQueue(String indexName, IndexManager indexManager, SwitchingBackend backend,
+                  ScheduledExecutorService scheduler, long maxDelay, int maxBatchSize) {
+      this.indexName = indexName;
+      this.indexManager = indexManager;
+      this.backend = backend;
+      this.scheduler = scheduler;
+      this.maxDelay = maxDelay;
+      this.maxBatchSize = maxBatchSize;
+   }
+
+   String getIndexName() {
+      return indexName;
+   }
+
+   void add(List<LuceneWork> workList, IndexingMonitor monitor) {
+      if (monitor != null || requiresSync(workList)) {
+         flush();
+         applyLock.lock();
+         try {
+            backend.getCurrentIndexingBackend().applyWork(workList, monitor, indexManager);
+         } finally {
+            applyLock.unlock();
+         }
+         return;
+      }
+      boolean full;
+      synchronized (this) {
+         if (pending.isEmpty()) {
+            oldestPendingNanos = System.nanoTime();
+         }
+         for (LuceneWork work : workList) {
+            enqueue(work);
+         }
+         full = pending.size() >= maxBatchSize;
+         if (!full && scheduledFlush == null) {
+            scheduledFlush = scheduler.schedule(this::scheduledFlush, maxDelay, TimeUnit.MILLISECONDS);
+         }
+      }
+      if (full) {
+         // The writers wait for the batch to be applied rather than letting the queue grow
+         flush();
+      }
+   }
+
+   @GuardedBy("this")
+   private void enqueue(LuceneWork work) {
+      String id = work.getIdInString();
+      if (id == null) {
+         pending.add(work);
+         positions.clear();
+         return;
+      }
+      EntityKey key = new EntityKey(work.getEntityClass(), id);
+      Integer position = positions.putIfAbsent(key, pending.size());
+      if (position == null) {
+         pending.add(work);
+      } else {
+         pending.set(position, coalesce(work));
+         coalescedWorks.increment();
+      }
+   }
+
+   /**
+    * Returns the operation replacing the previous operations on the same entity. An add must replace the document
+    * the previous operations might have added.
+    */
+   private static LuceneWork coalesce(LuceneWork work) {
+      if (work instanceof AddLuceneWork) {
+         return new UpdateLuceneWork(work.getId(), work.getIdInString(), work.getEntityClass(), work.getDocument(),
+                                     work.getFieldToAnalyzerMap());
+      }
+      return work;
+   }
+
+   private static boolean requiresSync(List<LuceneWork> workList) {
+      for (LuceneWork work : workList) {
+         if (RemoteIndexingBackend.SYNC_ONLY_WORKS.contains(work.getClass())) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   private void scheduledFlush() {
+      try {
+         flush();
+      } catch (RuntimeException e) {
+         // Already logged
+      }
+   }
+
+   /**
+    * Applies the queued operations.
+    */
+   void flush() {
+      applyLock.lock();
+      try {
+         List<LuceneWork> batch;
+         long batchOldestNanos;
+         synchronized (this) {
+            if (scheduledFlush != null) {
+               scheduledFlush.cancel(false);
+               scheduledFlush = null;
+            }
+            if (pending.isEmpty()) {
+               return;
+            }
+            batch = pending;
+            batchOldestNanos = oldestPendingNanos;
+            pending = new ArrayList<>();
+            positions.clear();
+         }
+         try {
+            backend.getCurrentIndexingBackend().applyWork(batch, null, indexManager);
+         } catch (RuntimeException e) {
+            requeue(batch, batchOldestNanos, e);
+            throw e;
+         }
+         synchronized (this) {
+            failedAttempts = 0;
+         }
+         batches.increment();
+         appliedWorks.add(batch.size());
+      } finally {
+         applyLock.unlock();
+      }
+   }
+
+   /**
+    * Puts a batch that failed to apply back in front of the operations queued since, unless it failed too many times.
+    */
+   private synchronized void requeue(List<LuceneWork> batch, long batchOldestNanos, RuntimeException cause) {
+      failedAttempts++;
+      if (failedAttempts >= MAX_APPLY_ATTEMPTS) {
+         failedAttempts = 0;
+         log.discardedQueuedIndexWork(batch.size(), indexName, MAX_APPLY_ATTEMPTS, cause);
+         return;
+      }
+      log.failedToApplyQueuedIndexWork(batch.size(), indexName, cause);
+      List<LuceneWork> newer = pending;
+      pending = batch;
+      positions.clear();
+      for (int i = 0; i < batch.size(); i++) {
+         LuceneWork work = batch.get(i);
+         String id = work.getIdInString();
+         if (id == null) {
+            positions.clear();
+         } else {
+            positions.put(new EntityKey(work.getEntityClass(), id), i);
+         }
+      }
+      for (LuceneWork work : newer) {
+         enqueue(work);
+      }
+      oldestPendingNanos = batchOldestNanos;
+      if (scheduledFlush == null) {
+         scheduledFlush = scheduler.schedule(this::scheduledFlush, maxDelay, TimeUnit.MILLISECONDS);
+      }
+   }
+
+   synchronized int getQueueDepth() {
+      return pending.size();
+   }
+
+   /**
+    * @return how long the oldest queued operation has been waiting, in milliseconds
+    */
+   synchronized long getLag() {
+      return pending.isEmpty() ? 0 : TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - oldestPendingNanos);
+   }
+
+   long getBatches() {
+      return batches.sum();
+   }
+
+   long getAppliedWorks() {
+      return appliedWorks.sum();
+   }
+
+   long getCoalescedWorks() {
+      return coalescedWorks.sum();
+   }
+
+   private static final class EntityKey {
+      private final Class<?> entityClass;
+      private final String id;
+
+      EntityKey(Class<?> entityClass, String id) {
+         this.entityClass = entityClass;
+         this.id = id;
+      }
+
+      @Override
+      public boolean equals(Object o) {
+         if (this == o) return true;
+         if (o == null || getClass() != o.getClass()) return false;
+         EntityKey other = (EntityKey) o;
+         return entityClass == other.entityClass && id.equals(other.id);
+      }
+
+      @Override
+      public int hashCode() {
+         return 31 * entityClass.hashCode() + id.hashCode();
+      }
+   }
+
+}
@@ -0,0 +1,134 @@
+package org.infinispan.query.indexmanager;
+
+import java.util.Properties;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.infinispan.factories.threads.DefaultThreadFactory;
+import org.infinispan.jmx.annotations.DataType;
+import org.infinispan.jmx.annotations.DisplayType;
+import org.infinispan.jmx.annotations.MBean;
+import org.infinispan.jmx.annotations.ManagedAttribute;
+import org.infinispan.jmx.annotations.ManagedOperation;
+import org.infinispan.jmx.annotations.MeasurementType;
+import org.infinispan.jmx.annotations.Units;
+
+/**
+ * The queues of asynchronous index update operations of the indexes of a cache. An index queues its operations
+ * when its {@value #MAX_DELAY} property is set to the maximum time, in milliseconds, an operation can wait before
+ * being applied. Its {@value #MAX_BATCH_SIZE} property limits the number of operations applied in a single commit,
+ * and defaults to {@value #DEFAULT_MAX_BATCH_SIZE}.
+ *
+ * @since 9.0
+ */
+@MBean(objectName = "IndexWorkQueues", description = "Queues the index update operations to apply them asynchronously in batches")
+public final class IndexWorkQueues {
+
+   public static final String MAX_DELAY = "async_batch_max_delay";
+
+   public static final String MAX_BATCH_SIZE = "async_batch_max_size";
+
+   public static final int DEFAULT_MAX_BATCH_SIZE = 1000;
+
+   private final ConcurrentMap<String, IndexWorkQueue> queues = new ConcurrentHashMap<>();
+
+   private final ScheduledExecutorService scheduler;
+
+   public IndexWorkQueues(String nodeName, String cacheName) {
+      scheduler = Executors.newSingleThreadScheduledExecutor(new DefaultThreadFactory(null, Thread.NORM_PRIORITY,
+            DefaultThreadFactory.DEFAULT_PATTERN, nodeName, "IndexWorkQueue-" + cacheName));
+   }
+
+   /**
+    * @return whether some index of a cache having the given indexing properties queues its operations
+    */
+   public static boolean isEnabled(Properties indexingProperties) {
+      for (String name : indexingProperties.stringPropertyNames()) {
+         if (name.endsWith(MAX_DELAY)) {
+            return true;
+         }
+      }
+      return false;
+   }
+
+   IndexWorkQueue createQueue(String indexName, IndexManager indexManager,
+                              SwitchingBackend backend, long maxDelay, int maxBatchSize) {
+      IndexWorkQueue queue = new IndexWorkQueue(indexName, indexManager, backend, scheduler, maxDelay, maxBatchSize);
+      queues.put(indexName, queue);
+      return queue;
+   }
+
+   void removeQueue(IndexWorkQueue queue) {
+      queues.remove(queue.getIndexName(), queue);
+   }
+
+   @ManagedOperation(description = "Applies all the queued index update operations", displayName = "Flush")
+   public void flush() {
+      for (IndexWorkQueue queue : queues.values()) {
+         queue.flush();
+      }
+   }
+
+   public void stop() {
+      try {
+         flush();
+      } finally {
+         scheduler.shutdownNow();
+      }
+   }
+
+   @ManagedAttribute(description = "Number of queued index update operations", displayName = "Queue depth",
+                     displayType = DisplayType.SUMMARY, dataType = DataType.MEASUREMENT)
+   public int getQueueDepth() {
+      int depth = 0;
+      for (IndexWorkQueue queue : queues.values()) {
+         depth += queue.getQueueDepth();
+      }
+      return depth;
+   }
+
+   @ManagedAttribute(description = "How long the oldest queued index update operation has been waiting", displayName = "Lag",
+                     units = Units.MILLISECONDS, displayType = DisplayType.SUMMARY, dataType = DataType.MEASUREMENT)
+   public long getLag() {
+      long lag = 0;
+      for (IndexWorkQueue queue : queues.values()) {
+         lag = Math.max(lag, queue.getLag());
+      }
+      return lag;
+   }
+
+   @ManagedAttribute(description = "Number of batches of index update operations applied", displayName = "Batches",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getBatches() {
+      long batches = 0;
+      for (IndexWorkQueue queue : queues.values()) {
+         batches += queue.getBatches();
+      }
+      return batches;
+   }
+
+   @ManagedAttribute(description = "Number of queued index update operations applied", displayName = "Applied operations",
+                     measurementType = MeasurementType.TRENDSUP, displayType = DisplayType.SUMMARY)
+   public long getAppliedOperations() {
+      long applied = 0;
+      for (IndexWorkQueue queue : queues.values()) {
+         applied += queue.getAppliedWorks();
+      }
+      return applied;
+   }
+
+   @ManagedAttribute(description = "Number of index update operations replaced by a later operation on the same entity",
+                     displayName = "Coalesced operations", measurementType = MeasurementType.TRENDSUP,
+                     displayType = DisplayType.SUMMARY)
+   public long getCoalescedOperations() {
+      long coalesced = 0;
+      for (IndexWorkQueue queue : queues.values()) {
+         coalesced += queue.getCoalescedWorks();
+      }
+      return coalesced;
+   }
+
+}
@@ -37,6 +37,8 @@ final class InfinispanBackendQueueProcessor implements BackendQueueProcessor {
    private String indexName;
    private IndexManager indexManager;
    private SwitchingBackend fowardingBackend;
+   private IndexWorkQueues workQueues;
+   private IndexWorkQueue workQueue;
 
    @Override
    public void initialize(Properties props, WorkerBuildContext context, IndexManager indexManager) {
@@ -48,6 +50,12 @@ public void initialize(Properties props, WorkerBuildContext context, IndexManage
       ComponentRegistryService componentRegistryService = serviceManager.requestService(ComponentRegistryService.class);
       ComponentRegistry componentRegistry = componentRegistryService.getComponentRegistry();
       this.fowardingBackend = createForwardingBackend(props, componentRegistry, indexName, localBackendFactory, cacheManagerService, indexManager);
+      long maxDelay = Long.parseLong(props.getProperty(IndexWorkQueues.MAX_DELAY, "0"));
+      if (maxDelay > 0) {
+         int maxBatchSize = Integer.parseInt(props.getProperty(IndexWorkQueues.MAX_BATCH_SIZE, String.valueOf(IndexWorkQueues.DEFAULT_MAX_BATCH_SIZE)));
+         this.workQueues = componentRegistry.getComponent(IndexWorkQueues.class);
+         this.workQueue = workQueues.createQueue(indexName, indexManager, fowardingBackend, maxDelay, maxBatchSize);
+      }
       log.commandsBackendInitialized(indexName);
    }
 
@@ -76,6 +84,13 @@ private static SwitchingBackend createForwardingBackend(Properties props, Compon
 
    @Override
    public void close() {
+      if (workQueue != null) {
+         try {
+            workQueue.flush();
+         } finally {
+            workQueues.removeQueue(workQueue);
+         }
+      }
       fowardingBackend.shutdown();
       serviceManager.releaseService(CacheManagerService.class);
       serviceManager.releaseService(ComponentRegistryService.class);
@@ -84,12 +99,20 @@ public void close() {
 
    @Override
    public void applyWork(List<LuceneWork> workList, IndexingMonitor monitor) {
-      fowardingBackend.getCurrentIndexingBackend()
-            .applyWork(workList, monitor, indexManager);
+      if (workQueue != null) {
+         workQueue.add(workList, monitor);
+      } else {
+         fowardingBackend.getCurrentIndexingBackend()
+               .applyWork(workList, monitor, indexManager);
+      }
    }
 
    @Override
    public void applyStreamWork(LuceneWork singleOperation, IndexingMonitor monitor) {
+      if (workQueue != null) {
+         // the stream operations must not overtake the queued ones
+         workQueue.flush();
+      }
       fowardingBackend.getCurrentIndexingBackend()
             .applyStreamWork(singleOperation, monitor, indexManager);
    }
@@ -2,9 +2,11 @@
 
 import java.io.IOException;
 import java.util.List;
+import java.util.Set;
 
 import org.hibernate.hql.ParsingException;
 import org.hibernate.search.backend.LuceneWork;
+import org.infinispan.commons.CacheConfigurationException;
 import org.infinispan.commons.CacheException;
 import org.infinispan.remoting.transport.Address;
 import org.jboss.logging.annotations.Cause;
@@ -140,4 +142,30 @@ public interface Log extends org.infinispan.util.logging.Log {
 
    @Message(value = "No queries can be applied to property %2$s in type %1$s since the property is analyzed.", id = 14031)
    ParsingException getQueryOnAnalyzedPropertyNotSupportedException(String typeName, String propertyName);
+
+   @Message(value = "Cannot define an in-memory index on property '%2$s' of entity %1$s: %3$s", id = 14032)
+   CacheConfigurationException invalidInMemoryIndex(String entityName, String propertyPath, String reason);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The query result cache of cache %s is disabled because it requires a non-distributed cache that does not store values as binary", id = 14033)
+   void queryResultCacheNotSupported(String cacheName);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Failed to apply a batch of %d queued index operations to index %s", id = 14034)
+   void failedToApplyQueuedIndexWork(int size, String indexName, @Cause Throwable cause);
+
+   @LogMessage(level = WARN)
+   @Message(value = "Node %s left the cluster while reindexing segments %s of cache %s, reindexing them on their new owners", id = 14035)
+   void reindexingSegmentsOnNewOwners(Address node, Set<Integer> segments, String cacheName);
+
+   @LogMessage(level = WARN)
+   @Message(value = "The in-memory indexes of cache %s are disabled because they require a non-distributed cache without eviction or stores that does not store values as binary", id = 14036)
+   void inMemoryIndexesNotSupported(String cacheName);
+
+   @LogMessage(level = ERROR)
+   @Message(value = "Discarded a batch of %d queued index operations to index %s after %d failed attempts, the index must be rebuilt with the MassIndexer", id = 14037)
+   void discardedQueuedIndexWork(int size, String indexName, int attempts, @Cause Throwable cause);
+
+   @Message(value = "The MassIndexer of cache %s is already running", id = 14038)
+   IllegalStateException massIndexerAlreadyRunning(String cacheName);
 }
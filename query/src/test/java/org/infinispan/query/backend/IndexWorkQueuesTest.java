@@ -0,0 +1,116 @@
+package org.infinispan.query.backend;
+
+import org.apache.lucene.search.MatchAllDocsQuery;
+import org.hibernate.search.annotations.Field;
+import org.hibernate.search.annotations.Indexed;
+import org.infinispan.configuration.cache.Configuration;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.Index;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.Search;
+import org.infinispan.query.indexmanager.IndexWorkQueues;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import static org.infinispan.test.TestingUtil.extractComponent;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertNotNull;
+
+/**
+ * Tests the index operations are queued, coalesced and applied in batches when the async batching is enabled.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.backend.IndexWorkQueuesTest")
+public class IndexWorkQueuesTest extends SingleCacheManagerTest {
+
+   public IndexWorkQueuesTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Test
+   public void testOperationsAreCoalescedAndAppliedOnFlush() {
+      IndexWorkQueues queues = extractComponent(cache, IndexWorkQueues.class);
+      assertNotNull(queues);
+
+      cache.put(1, new Entity("a"));
+      cache.put(1, new Entity("b"));
+      cache.put(1, new Entity("c"));
+      cache.put(2, new Entity("d"));
+
+      assertEquals(2, queues.getQueueDepth());
+      assertEquals(2, queues.getCoalescedOperations());
+      assertEquals(0, countIndexedDocuments());
+
+      queues.flush();
+
+      assertEquals(0, queues.getQueueDepth());
+      assertEquals(1, queues.getBatches());
+      assertEquals(2, queues.getAppliedOperations());
+      assertEquals(2, countIndexedDocuments());
+      assertEquals(1, Search.getSearchManager(cache).getQuery(
+            Search.getSearchManager(cache).buildQueryBuilderForClass(Entity.class).get()
+                  .keyword().onField("attribute").matching("c").createQuery(), Entity.class).list().size());
+   }
+
+   @Test
+   public void testRemoveAfterPutIsApplied() {
+      IndexWorkQueues queues = extractComponent(cache, IndexWorkQueues.class);
+
+      cache.put(1, new Entity("a"));
+      cache.remove(1);
+      cache.put(2, new Entity("b"));
+      queues.flush();
+
+      assertEquals(1, countIndexedDocuments());
+   }
+
+   @Test
+   public void testBatchIsAppliedWhenFull() {
+      IndexWorkQueues queues = extractComponent(cache, IndexWorkQueues.class);
+
+      for (int i = 0; i < 5; i++) {
+         cache.put(i, new Entity("e" + i));
+      }
+
+      assertEquals(1, queues.getBatches());
+      assertEquals(1, queues.getQueueDepth());
+      assertEquals(4, countIndexedDocuments());
+   }
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = getDefaultStandaloneCacheConfig(false);
+      builder.indexing().index(Index.ALL)
+            .addIndexedEntity(Entity.class)
+            .addProperty("default.indexmanager", "org.infinispan.query.indexmanager.InfinispanIndexManager")
+            .addProperty("default." + IndexWorkQueues.MAX_DELAY, "600000")
+            .addProperty("default." + IndexWorkQueues.MAX_BATCH_SIZE, "4")
+            .addProperty("lucene_version", "LUCENE_CURRENT");
+      EmbeddedCacheManager cm = TestCacheManagerFactory.createCacheManager(builder);
+      Configuration nonIndexed = new ConfigurationBuilder().indexing().index(Index.NONE)
+            .addProperty("lucene_version", "LUCENE_CURRENT").build();
+      cm.defineConfiguration("LuceneIndexesMetadata", nonIndexed);
+      cm.defineConfiguration("LuceneIndexesData", nonIndexed);
+      cm.defineConfiguration("LuceneIndexesLocking", nonIndexed);
+      return cm;
+   }
+
+   private int countIndexedDocuments() {
+      return Search.getSearchManager(cache).getQuery(new MatchAllDocsQuery(), Entity.class).list().size();
+   }
+
+   @Indexed(index = "queuedIndex")
+   @SuppressWarnings("unused")
+   static class Entity {
+
+      @Field
+      private final String attribute;
+
+      Entity(String attribute) {
+         this.attribute = attribute;
+      }
+   }
+
+}
@@ -0,0 +1,184 @@
+package org.infinispan.query.distributed;
+
+import org.infinispan.Cache;
+import org.infinispan.commands.read.EntrySetCommand;
+import org.infinispan.context.InvocationContext;
+import org.infinispan.interceptors.DDSequentialInterceptor;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.MassIndexer;
+import org.infinispan.query.Search;
+import org.infinispan.query.queries.faceting.Car;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.CheckPoint;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Verifies the progress of a mass indexer distributing the segments of a shared index to their primary owners, when
+ * the owners change during the run, and that concurrent runs are rejected.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.distributed.SegmentedMassIndexingTest")
+public class SegmentedMassIndexingTest extends DistributedMassIndexingTest {
+
+   private static final int NUM_ENTRIES = 50;
+
+   public SegmentedMassIndexingTest() {
+      cleanup = CleanupPhase.AFTER_METHOD;
+   }
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      caches.clear();
+      super.createCacheManagers();
+   }
+
+   public void testProgress() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         caches.get(i % NUM_NODES).put(key("K" + i), new Car("skoda", "red", i));
+      }
+      Cache cache = caches.get(0);
+      MassIndexer massIndexer = Search.getSearchManager(cache).getMassIndexer();
+      massIndexer.start();
+
+      int numSegments = cache.getCacheConfiguration().clustering().hash().numSegments();
+      assertEquals(numSegments, massIndexer.getTotalSegments());
+      assertEquals(numSegments, massIndexer.getIndexedSegments());
+      // all the values are cars, whatever the tests run before
+      assertEquals(cache.size(), massIndexer.getIndexedEntries());
+      verifyFindsCar(NUM_ENTRIES, "skoda");
+   }
+
+   public void testOwnerLeavesDuringReindexing() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         caches.get(i % NUM_NODES).put(key("K" + i), new Car("skoda", "red", i));
+      }
+      CheckPoint checkPoint = new CheckPoint();
+      Cache leaver = caches.get(2);
+      leaver.getAdvancedCache().getSequentialInterceptorChain().addInterceptor(new LeavingInterceptor(checkPoint), 0);
+      MassIndexer massIndexer = Search.getSearchManager(caches.get(0)).getMassIndexer();
+      CompletableFuture<Void> reindexing = massIndexer.startAsync();
+
+      // the leaver completed its first task, and is running the second one
+      checkPoint.awaitStrict("second_task_started", 30, TimeUnit.SECONDS);
+      caches.remove(leaver);
+      Future<?> kill = fork(() -> killMember(2));
+      TestingUtil.blockUntilViewsReceived(30000, false, caches.toArray(new Cache[caches.size()]));
+      checkPoint.triggerForever("left");
+      kill.get(30, TimeUnit.SECONDS);
+      reindexing.get(30, TimeUnit.SECONDS);
+
+      // the segments indexed by the first task are not reindexed by their new owners
+      assertEquals(massIndexer.getTotalSegments(), massIndexer.getIndexedSegments());
+      assertEquals(caches.get(0).size(), massIndexer.getIndexedEntries());
+      verifyFindsCar(NUM_ENTRIES, "skoda");
+   }
+
+   public void testSegmentsMovingDuringReindexing() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         caches.get(i % NUM_NODES).put(key("K" + i), new Car("skoda", "red", i));
+      }
+      CheckPoint checkPoint = new CheckPoint();
+      caches.get(1).getAdvancedCache().getSequentialInterceptorChain().addInterceptor(new BlockingInterceptor(checkPoint), 0);
+      MassIndexer massIndexer = Search.getSearchManager(caches.get(0)).getMassIndexer();
+      CompletableFuture<Void> reindexing = massIndexer.startAsync();
+
+      // a joiner takes some of the segments of the blocked task before they are scanned
+      checkPoint.awaitStrict("blocked", 30, TimeUnit.SECONDS);
+      EmbeddedCacheManager joiner = TestCacheManagerFactory.fromXml(getConfigurationFile());
+      registerCacheManager(joiner);
+      caches.add(joiner.getCache());
+      waitForClusterToForm(neededCacheNames);
+      checkPoint.triggerForever("release");
+      reindexing.get(30, TimeUnit.SECONDS);
+
+      // the segments that moved are reindexed by their new owner, and counted once
+      assertEquals(massIndexer.getTotalSegments(), massIndexer.getIndexedSegments());
+      assertEquals(caches.get(0).size(), massIndexer.getIndexedEntries());
+      verifyFindsCar(NUM_ENTRIES, "skoda");
+   }
+
+   public void testConcurrentRunsAreRejected() throws Exception {
+      for (int i = 0; i < NUM_ENTRIES; i++) {
+         caches.get(i % NUM_NODES).put(key("K" + i), new Car("skoda", "red", i));
+      }
+      CheckPoint checkPoint = new CheckPoint();
+      caches.get(1).getAdvancedCache().getSequentialInterceptorChain().addInterceptor(new BlockingInterceptor(checkPoint), 0);
+      MassIndexer massIndexer = Search.getSearchManager(caches.get(0)).getMassIndexer();
+      CompletableFuture<Void> reindexing = massIndexer.startAsync();
+      checkPoint.awaitStrict("blocked", 30, TimeUnit.SECONDS);
+
+      try {
+         massIndexer.start();
+         fail("A run is already in progress");
+      } catch (IllegalStateException e) {
+         // expected
+      }
+      CompletableFuture<Void> rejected = massIndexer.startAsync();
+      assertTrue(rejected.isCompletedExceptionally());
+
+      checkPoint.triggerForever("release");
+      reindexing.get(30, TimeUnit.SECONDS);
+      assertEquals(massIndexer.getTotalSegments(), massIndexer.getIndexedSegments());
+      assertEquals(caches.get(0).size(), massIndexer.getIndexedEntries());
+
+      // the next run can start once the previous one completed
+      massIndexer.start();
+      assertEquals(caches.get(0).size(), massIndexer.getIndexedEntries());
+      verifyFindsCar(NUM_ENTRIES, "skoda");
+   }
+
+   /**
+    * Blocks the first task reindexing the entries of the node until {@code release} is triggered.
+    */
+   private static class BlockingInterceptor extends DDSequentialInterceptor {
+      private final CheckPoint checkPoint;
+      private final AtomicInteger tasks = new AtomicInteger();
+
+      BlockingInterceptor(CheckPoint checkPoint) {
+         this.checkPoint = checkPoint;
+      }
+
+      @Override
+      public CompletableFuture<Void> visitEntrySetCommand(InvocationContext ctx, EntrySetCommand command) throws Throwable {
+         if (tasks.incrementAndGet() == 1) {
+            checkPoint.trigger("blocked");
+            checkPoint.awaitStrict("release", 30, TimeUnit.SECONDS);
+         }
+         return ctx.continueInvocation();
+      }
+   }
+
+   /**
+    * Fails the second task reindexing the entries of the node, once the node has left the cluster.
+    */
+   private static class LeavingInterceptor extends DDSequentialInterceptor {
+      private final CheckPoint checkPoint;
+      private final AtomicInteger tasks = new AtomicInteger();
+
+      LeavingInterceptor(CheckPoint checkPoint) {
+         this.checkPoint = checkPoint;
+      }
+
+      @Override
+      public CompletableFuture<Void> visitEntrySetCommand(InvocationContext ctx, EntrySetCommand command) throws Throwable {
+         if (tasks.incrementAndGet() == 2) {
+            checkPoint.trigger("second_task_started");
+            checkPoint.awaitStrict("left", 30, TimeUnit.SECONDS);
+            throw new IllegalStateException("The node left the cluster");
+         }
+         return ctx.continueInvocation();
+      }
+   }
+
+}
@@ -0,0 +1,58 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.InMemoryIndexType;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.embedded.impl.InMemoryIndexes;
+import org.infinispan.query.dsl.embedded.testdomain.hsearch.UserHS;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.infinispan.test.TestingUtil;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertFalse;
+import static org.testng.AssertJUnit.assertNull;
+
+/**
+ * Tests the in-memory indexes are not created for a distributed cache, as they would only cover the entries owned by
+ * each node.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.InMemoryIndexDistTest")
+public class InMemoryIndexDistTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_USERS = 20;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.DIST_SYNC, false);
+      cfg.clustering().hash().numOwners(1);
+      cfg.indexing().addInMemoryIndex(UserHS.class, "name", InMemoryIndexType.HASH);
+      createClusteredCaches(2, cfg);
+   }
+
+   public void testQueryDoesNotUseInMemoryIndexes() {
+      for (int i = 0; i < NUM_USERS; i++) {
+         UserHS user = new UserHS();
+         user.setId(i);
+         user.setName(i % 2 == 0 ? "Even" : "Odd");
+         user.setSurname("Surname" + i);
+         cache(0).put("user_" + i, user);
+      }
+
+      for (int i = 0; i < 2; i++) {
+         assertNull(TestingUtil.extractComponent(cache(i), InMemoryIndexes.class));
+
+         QueryFactory qf = Search.getQueryFactory(cache(i));
+         Query q = qf.from(UserHS.class)
+               .having("name").eq("Even")
+               .toBuilder().build();
+         assertEquals(NUM_USERS / 2, q.list().size());
+         assertFalse(q.toString().contains("query=InMemoryIndexQuery{"));
+      }
+   }
+}
@@ -0,0 +1,157 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.InMemoryIndexType;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.embedded.testdomain.Transaction;
+import org.infinispan.query.dsl.embedded.testdomain.User;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs the non-indexed queries on a cache having in-memory indexes on some of the properties, so that the candidate
+ * entries of the queries having a suitable predicate are obtained from the in-memory index instead of a full scan.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.InMemoryIndexQueryDslConditionsTest")
+public class InMemoryIndexQueryDslConditionsTest extends NonIndexedQueryDslConditionsTest {
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      ConfigurationBuilder cfg = TestCacheManagerFactory.getDefaultCacheConfiguration(true);
+      cfg.indexing()
+            .addInMemoryIndex(getModelFactory().getUserImplClass(), "name", InMemoryIndexType.HASH)
+            .addInMemoryIndex(getModelFactory().getUserImplClass(), "gender", InMemoryIndexType.HASH)
+            .addInMemoryIndex(getModelFactory().getUserImplClass(), "age", InMemoryIndexType.SORTED)
+            .addInMemoryIndex(getModelFactory().getTransactionImplClass(), "amount", InMemoryIndexType.SORTED)
+            .addInMemoryIndex(getModelFactory().getTransactionImplClass(), "date", InMemoryIndexType.SORTED);
+      createClusteredCaches(1, cfg);
+   }
+
+   public void testInMemoryIndexEq() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(getModelFactory().getUserImplClass())
+            .having("name").eq("Spider")
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertInMemoryIndexQuery(q);
+      assertEquals(2, list.size());
+      assertEquals("Spider", list.get(0).getName());
+      assertEquals("Spider", list.get(1).getName());
+   }
+
+   public void testInMemoryIndexIn() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(getModelFactory().getUserImplClass())
+            .having("name").in("John", "Spider")
+            .toBuilder().build();
+
+      assertEquals(3, q.list().size());
+      assertInMemoryIndexQuery(q);
+   }
+
+   public void testInMemoryIndexRange() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(getModelFactory().getTransactionImplClass())
+            .having("amount").gt(1000)
+            .and().having("amount").lte(1600)
+            .toBuilder().build();
+
+      int expected = 0;
+      List<Transaction> all = qf.from(getModelFactory().getTransactionImplClass()).build().list();
+      for (Transaction t : all) {
+         if (t.getAmount() > 1000 && t.getAmount() <= 1600) {
+            expected++;
+         }
+      }
+      assertTrue(expected > 0);
+      List<Transaction> list = q.list();
+      assertInMemoryIndexQuery(q);
+      assertEquals(expected, list.size());
+   }
+
+   public void testInMemoryIndexWithResidualFilter() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(getModelFactory().getUserImplClass())
+            .having("name").eq("Spider")
+            .and().having("surname").eq("Man")
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertInMemoryIndexQuery(q);
+      assertEquals(1, list.size());
+      assertEquals(2, list.get(0).getId());
+   }
+
+   public void testInMemoryIndexIsUpdated() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      User newUser = getModelFactory().makeUser();
+      newUser.setId(15);
+      newUser.setName("Batman");
+      newUser.setSurname("Wayne");
+      newUser.setGender(User.Gender.MALE);
+      newUser.setAge(35);
+      cache(0).put("new_user_" + newUser.getId(), newUser);
+
+      Query q = qf.from(getModelFactory().getUserImplClass())
+            .having("name").eq("Batman")
+            .toBuilder().build();
+      assertEquals(1, q.list().size());
+
+      newUser.setName("Robin");
+      cache(0).put("new_user_" + newUser.getId(), newUser);
+
+      // a query instance keeps its results, so a new one is needed after each update
+      q = qf.from(getModelFactory().getUserImplClass())
+            .having("name").eq("Batman")
+            .toBuilder().build();
+      assertEquals(0, q.list().size());
+
+      q = qf.from(getModelFactory().getUserImplClass())
+            .having("age").gte(35)
+            .toBuilder().build();
+      assertEquals(1, q.list().size());
+      assertInMemoryIndexQuery(q);
+
+      cache(0).remove("new_user_" + newUser.getId());
+
+      q = qf.from(getModelFactory().getUserImplClass())
+            .having("age").gte(35)
+            .toBuilder().build();
+      assertEquals(0, q.list().size());
+   }
+
+   public void testNoInMemoryIndexForNotEqual() throws Exception {
+      QueryFactory qf = getQueryFactory();
+
+      Query q = qf.from(getModelFactory().getUserImplClass())
+            .not().having("name").eq("Spider")
+            .toBuilder().build();
+
+      List<User> list = q.list();
+      assertFalse(q.toString().contains("InMemoryIndexQuery"));
+      assertEquals(1, list.size());
+      assertEquals("John", list.get(0).getName());
+   }
+
+   /**
+    * Checks the executed query, which is wrapped by a DelegatingQuery, was an InMemoryIndexQuery.
+    */
+   private void assertInMemoryIndexQuery(Query q) {
+      assertTrue("Expected the query to use an in-memory index: " + q, q.toString().contains("query=InMemoryIndexQuery{"));
+   }
+}
@@ -0,0 +1,57 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.configuration.cache.CacheMode;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.configuration.cache.InMemoryIndexType;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.embedded.testdomain.hsearch.UserHS;
+import org.infinispan.test.MultipleCacheManagersTest;
+import org.testng.annotations.Test;
+
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.assertTrue;
+
+/**
+ * Tests the in-memory indexes of a node joining a replicated cache cover the entries it received through state
+ * transfer.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.InMemoryIndexReplJoinTest")
+public class InMemoryIndexReplJoinTest extends MultipleCacheManagersTest {
+
+   private static final int NUM_USERS = 20;
+
+   @Override
+   protected void createCacheManagers() throws Throwable {
+      createClusteredCaches(1, getConfiguration());
+   }
+
+   private ConfigurationBuilder getConfiguration() {
+      ConfigurationBuilder cfg = getDefaultClusteredCacheConfig(CacheMode.REPL_SYNC, false);
+      cfg.indexing().addInMemoryIndex(UserHS.class, "name", InMemoryIndexType.HASH);
+      return cfg;
+   }
+
+   public void testJoinerQueriesReceivedEntries() {
+      for (int i = 0; i < NUM_USERS; i++) {
+         UserHS user = new UserHS();
+         user.setId(i);
+         user.setName(i % 2 == 0 ? "Even" : "Odd");
+         user.setSurname("Surname" + i);
+         cache(0).put("user_" + i, user);
+      }
+
+      addClusterEnabledCacheManager(getConfiguration());
+      waitForClusterToForm();
+
+      QueryFactory qf = Search.getQueryFactory(cache(1));
+      Query q = qf.from(UserHS.class)
+            .having("name").eq("Even")
+            .toBuilder().build();
+      assertEquals(NUM_USERS / 2, q.list().size());
+      assertTrue("Expected the query to use an in-memory index: " + q, q.toString().contains("query=InMemoryIndexQuery{"));
+   }
+}
@@ -0,0 +1,136 @@
+package org.infinispan.query.dsl.embedded;
+
+import org.infinispan.Cache;
+import org.infinispan.configuration.cache.ConfigurationBuilder;
+import org.infinispan.manager.EmbeddedCacheManager;
+import org.infinispan.query.Search;
+import org.infinispan.query.dsl.Query;
+import org.infinispan.query.dsl.QueryFactory;
+import org.infinispan.query.dsl.embedded.impl.QueryResultCache;
+import org.infinispan.query.dsl.embedded.testdomain.hsearch.UserHS;
+import org.infinispan.test.SingleCacheManagerTest;
+import org.infinispan.test.TestingUtil;
+import org.infinispan.test.fwk.TestCacheManagerFactory;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.List;
+
+import static org.testng.Assert.assertEquals;
+import static org.testng.Assert.assertNotNull;
+
+/**
+ * Tests that repeated queries are answered from the query result cache and that only the writes affecting a cached
+ * result invalidate it.
+ *
+ * @since 9.0
+ */
+@Test(groups = "functional", testName = "query.dsl.embedded.QueryResultCacheTest")
+public class QueryResultCacheTest extends SingleCacheManagerTest {
+
+   @Override
+   protected EmbeddedCacheManager createCacheManager() throws Exception {
+      ConfigurationBuilder builder = new ConfigurationBuilder();
+      builder.indexing().resultCacheSize(10);
+      return TestCacheManagerFactory.createCacheManager(builder);
+   }
+
+   @BeforeMethod
+   public void populateCache() {
+      cache.put("user_1", makeUser(1, "John", 22));
+      cache.put("user_2", makeUser(2, "Spider", 30));
+      cache.put("user_3", makeUser(3, "Spider", 40));
+   }
+
+   private UserHS makeUser(int id, String name, int age) {
+      UserHS user = new UserHS();
+      user.setId(id);
+      user.setName(name);
+      user.setAge(age);
+      return user;
+   }
+
+   private QueryResultCache getQueryResultCache() {
+      QueryResultCache queryResultCache = TestingUtil.extractComponent(cache, QueryResultCache.class);
+      assertNotNull(queryResultCache);
+      return queryResultCache;
+   }
+
+   private List<UserHS> findSpiders() {
+      QueryFactory qf = Search.getQueryFactory((Cache) cache);
+      Query q = qf.from(UserHS.class)
+            .having("name").eq("Spider")
+            .toBuilder().build();
+      return q.list();
+   }
+
+   public void testRepeatedQueryIsCached() {
+      QueryResultCache queryResultCache = getQueryResultCache();
+      queryResultCache.resetStatistics();
+
+      assertEquals(findSpiders().size(), 2);
+      assertEquals(queryResultCache.getMisses(), 1);
+      assertEquals(queryResultCache.getHits(), 0);
+
+      assertEquals(findSpiders().size(), 2);
+      assertEquals(findSpiders().size(), 2);
+      assertEquals(queryResultCache.getMisses(), 1);
+      assertEquals(queryResultCache.getHits(), 2);
+   }
+
+   public void testUnrelatedWriteDoesNotInvalidate() {
+      QueryResultCache queryResultCache = getQueryResultCache();
+      assertEquals(findSpiders().size(), 2);
+      queryResultCache.resetStatistics();
+
+      cache.put("user_1", makeUser(1, "John", 23));
+      cache.put("user_4", makeUser(4, "Batman", 35));
+      cache.put("other", "not an entity");
+
+      assertEquals(findSpiders().size(), 2);
+      assertEquals(queryResultCache.getInvalidations(), 0);
+      assertEquals(queryResultCache.getHits(), 1);
+   }
+
+   public void testEntityEnteringResultInvalidates() {
+      QueryResultCache queryResultCache = getQueryResultCache();
+      assertEquals(findSpiders().size(), 2);
+      queryResultCache.resetStatistics();
+
+      cache.put("user_1", makeUser(1, "Spider", 22));
+
+      assertEquals(queryResultCache.getInvalidations(), 1);
+      assertEquals(findSpiders().size(), 3);
+      assertEquals(queryResultCache.getMisses(), 1);
+   }
+
+   public void testEntityLeavingResultInvalidates() {
+      QueryResultCache queryResultCache = getQueryResultCache();
+      assertEquals(findSpiders().size(), 2);
+      queryResultCache.resetStatistics();
+
+      cache.put("user_2", makeUser(2, "Peter", 30));
+
+      assertEquals(queryResultCache.getInvalidations(), 1);
+      assertEquals(findSpiders().size(), 1);
+   }
+
+   public void testRemovalInvalidates() {
+      QueryResultCache queryResultCache = getQueryResultCache();
+      assertEquals(findSpiders().size(), 2);
+      queryResultCache.resetStatistics();
+
+      cache.remove("user_3");
+
+      assertEquals(queryResultCache.getInvalidations(), 1);
+      assertEquals(findSpiders().size(), 1);
+   }
+
+   public void testClearInvalidates() {
+      assertEquals(findSpiders().size(), 2);
+
+      cache.clear();
+
+      assertEquals(findSpiders().size(), 0);
+   }
+}
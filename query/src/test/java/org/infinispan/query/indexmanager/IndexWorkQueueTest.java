@@ -0,0 +1,111 @@
+package org.infinispan.query.indexmanager;
+
+import org.apache.lucene.document.Document;
+import org.hibernate.search.backend.AddLuceneWork;
+import org.hibernate.search.backend.LuceneWork;
+import org.hibernate.search.indexes.spi.IndexManager;
+import org.infinispan.test.AbstractInfinispanTest;
+import org.testng.annotations.AfterMethod;
+import org.testng.annotations.BeforeMethod;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyListOf;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+import static org.testng.AssertJUnit.assertEquals;
+import static org.testng.AssertJUnit.fail;
+
+/**
+ * Tests the batches of an {@link IndexWorkQueue} that fail to apply are retried before the newer operations.
+ *
+ * @since 9.0
+ */
+@Test(groups = "unit", testName = "query.indexmanager.IndexWorkQueueTest")
+public class IndexWorkQueueTest extends AbstractInfinispanTest {
+
+   private ScheduledExecutorService scheduler;
+   private IndexWorkQueue queue;
+   private int failures;
+   private final List<List<String>> appliedBatches = new ArrayList<>();
+
+   @BeforeMethod
+   @SuppressWarnings("unchecked")
+   public void setUp() {
+      failures = 0;
+      appliedBatches.clear();
+      IndexingBackend indexingBackend = mock(IndexingBackend.class);
+      doAnswer(invocation -> {
+         if (failures > 0) {
+            failures--;
+            throw new IllegalStateException("Induced failure");
+         }
+         List<String> ids = new ArrayList<>();
+         for (LuceneWork work : (List<LuceneWork>) invocation.getArguments()[0]) {
+            ids.add(work.getIdInString());
+         }
+         appliedBatches.add(ids);
+         return null;
+      }).when(indexingBackend).applyWork(anyListOf(LuceneWork.class), any(), any());
+      SwitchingBackend backend = mock(SwitchingBackend.class);
+      when(backend.getCurrentIndexingBackend()).thenReturn(indexingBackend);
+      scheduler = Executors.newSingleThreadScheduledExecutor();
+      // The scheduled flushes don't run during the test
+      queue = new IndexWorkQueue("index", mock(IndexManager.class), backend, scheduler, 600000, 100);
+   }
+
+   @AfterMethod
+   public void tearDown() {
+      scheduler.shutdownNow();
+   }
+
+   public void testFailedBatchIsRetriedBeforeNewerOperations() {
+      queue.add(work("1"), null);
+      queue.add(work("2"), null);
+      failures = 1;
+      flushAndExpectFailure();
+      assertEquals(2, queue.getQueueDepth());
+
+      queue.add(work("3"), null);
+      // coalesced with the operation of the failed batch
+      queue.add(work("1"), null);
+      queue.flush();
+
+      assertEquals(0, queue.getQueueDepth());
+      assertEquals(Collections.singletonList(Arrays.asList("1", "2", "3")), appliedBatches);
+   }
+
+   public void testBatchIsDiscardedAfterTooManyFailures() {
+      queue.add(work("1"), null);
+      failures = IndexWorkQueue.MAX_APPLY_ATTEMPTS;
+      for (int i = 0; i < IndexWorkQueue.MAX_APPLY_ATTEMPTS; i++) {
+         flushAndExpectFailure();
+      }
+      assertEquals(0, queue.getQueueDepth());
+
+      queue.add(work("2"), null);
+      queue.flush();
+      assertEquals(Collections.singletonList(Collections.singletonList("2")), appliedBatches);
+   }
+
+   private void flushAndExpectFailure() {
+      try {
+         queue.flush();
+         fail("The batch should have failed to apply");
+      } catch (IllegalStateException e) {
+         // expected
+      }
+   }
+
+   private static List<LuceneWork> work(String id) {
+      return Collections.singletonList(new AddLuceneWork(id, id, String.class, new Document()));
+   }
+}
@@ -23,5 +23,6 @@ object ExternalizerIds {
    val KEY_VALUE_WITH_PREVIOUS_CONVERTER = 1110
    val ITERATION_FILTER = 1111
    val QUERY_ITERATION_FILTER = 1112
+   val MEMCACHED_FUNCTION = 1113
 
 }
\ No newline at end of file
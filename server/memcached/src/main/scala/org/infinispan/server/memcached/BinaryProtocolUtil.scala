@@ -0,0 +1,79 @@
+package org.infinispan.server.memcached
+
+/**
+ * Memcached binary protocol constants.
+ *
+ * @since 9.0
+ */
+object BinaryProtocolUtil {
+
+   val HEADER_LENGTH = 24
+
+   val MAGIC_REQUEST: Short = 0x80
+   val MAGIC_RESPONSE: Byte = 0x81.toByte
+
+   // Opcodes
+   val GET: Byte = 0x00
+   val SET: Byte = 0x01
+   val ADD: Byte = 0x02
+   val REPLACE: Byte = 0x03
+   val DELETE: Byte = 0x04
+   val INCREMENT: Byte = 0x05
+   val DECREMENT: Byte = 0x06
+   val QUIT: Byte = 0x07
+   val FLUSH: Byte = 0x08
+   val GETQ: Byte = 0x09
+   val NOOP: Byte = 0x0a
+   val VERSION: Byte = 0x0b
+   val GETK: Byte = 0x0c
+   val GETKQ: Byte = 0x0d
+   val APPEND: Byte = 0x0e
+   val PREPEND: Byte = 0x0f
+   val SETQ: Byte = 0x11
+   val ADDQ: Byte = 0x12
+   val REPLACEQ: Byte = 0x13
+   val DELETEQ: Byte = 0x14
+   val INCREMENTQ: Byte = 0x15
+   val DECREMENTQ: Byte = 0x16
+   val QUITQ: Byte = 0x17
+   val FLUSHQ: Byte = 0x18
+   val APPENDQ: Byte = 0x19
+   val PREPENDQ: Byte = 0x1a
+
+   // Response status codes
+   val NO_ERROR: Short = 0x0000
+   val KEY_NOT_FOUND: Short = 0x0001
+   val KEY_EXISTS: Short = 0x0002
+   val VALUE_TOO_LARGE: Short = 0x0003
+   val INVALID_ARGUMENTS: Short = 0x0004
+   val ITEM_NOT_STORED: Short = 0x0005
+   val NON_NUMERIC_VALUE: Short = 0x0006
+   val UNKNOWN_COMMAND: Short = 0x0081
+   val INTERNAL_ERROR: Short = 0x0084
+
+   val MAX_KEY_LENGTH = 250
+
+   def isQuietGet(opcode: Byte): Boolean = opcode == GETQ || opcode == GETKQ
+
+   /**
+    * Returns the non-quiet equivalent of a quiet opcode, or the opcode itself if it's not quiet.
+    */
+   def toLoudOpcode(opcode: Byte): Byte = opcode match {
+      case GETQ => GET
+      case GETKQ => GETK
+      case SETQ => SET
+      case ADDQ => ADD
+      case REPLACEQ => REPLACE
+      case DELETEQ => DELETE
+      case INCREMENTQ => INCREMENT
+      case DECREMENTQ => DECREMENT
+      case QUITQ => QUIT
+      case FLUSHQ => FLUSH
+      case APPENDQ => APPEND
+      case PREPENDQ => PREPEND
+      case _ => opcode
+   }
+
+   def isQuiet(opcode: Byte): Boolean = toLoudOpcode(opcode) != opcode
+
+}
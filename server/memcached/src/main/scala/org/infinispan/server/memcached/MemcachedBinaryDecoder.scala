@@ -0,0 +1,506 @@
+package org.infinispan.server.memcached
+
+import java.nio.ByteBuffer
+import java.util
+import java.util.concurrent.{ScheduledExecutorService, TimeUnit}
+
+import io.netty.buffer.{ByteBuf, Unpooled}
+import io.netty.channel.{ChannelFutureListener, ChannelHandlerContext}
+import io.netty.handler.codec.ByteToMessageDecoder
+import io.netty.util.CharsetUtil
+import org.infinispan.AdvancedCache
+import org.infinispan.commons.api.functional.FunctionalMap.ReadWriteMap
+import org.infinispan.commons.api.functional.Param.FutureMode
+import org.infinispan.container.entries.CacheEntry
+import org.infinispan.container.versioning.{NumericVersion, NumericVersionGenerator, VersionGenerator}
+import org.infinispan.context.Flag
+import org.infinispan.functional.impl.{FunctionalMapImpl, ReadWriteMapImpl}
+import org.infinispan.metadata.Metadata
+import org.infinispan.remoting.rpc.RpcManager
+import org.infinispan.server.core.transport.NettyTransport
+import org.infinispan.server.memcached.BinaryProtocolUtil._
+import org.infinispan.server.memcached.MemcachedFunctions._
+import org.infinispan.server.memcached.TextProtocolUtil.concat
+import org.infinispan.server.memcached.logging.Log
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * A Memcached binary protocol decoder.
+ *
+ * Requests are only decoded once the whole frame is available. All the requests received in a single read are passed
+ * down the pipeline as one {@link MemcachedRequest} and executed outside the event loop by the
+ * {@link MemcachedContextHandler}, and their responses are written with a single flush. Consecutive quiet gets
+ * (GETQ/GETKQ) are accumulated and resolved with a single {@code getAllCacheEntries} call when any other request is
+ * processed or when the batch is complete, and only the hits are answered. Like in the text protocol, increments,
+ * decrements, appends and prepends are executed as a single read-write command on the primary owner of the key. Decoding resumes once the batch is
+ * complete, so the responses are always written in order. A request with a value larger than {@code maxItemSize} is
+ * answered with a "value too large" error without buffering its body, and the connection is closed.
+ *
+ * @since 9.0
+ */
+class MemcachedBinaryDecoder(memcachedCache: AdvancedCache[String, Array[Byte]], scheduler: ScheduledExecutorService,
+                             val transport: NettyTransport, val cacheIgnoreAware: String => Boolean = Function.const(false),
+                             maxItemSize: Int = 1024 * 1024)
+extends ByteToMessageDecoder with Log {
+
+   private val SecondsInAMonth = 60 * 60 * 24 * 30
+
+   private val cache =
+      if (memcachedCache.getCacheConfiguration.compatibility().enabled())
+         memcachedCache.withFlags(Flag.OPERATION_MEMCACHED)
+      else memcachedCache
+
+   // As in the text decoder, compatibility mode needs the conversions the functional API skips
+   private lazy val readWriteMap: ReadWriteMap[String, Array[Byte]] =
+      if (cache.getCacheConfiguration.compatibility().enabled()) null
+      else ReadWriteMapImpl.create(FunctionalMapImpl.create(cache)).withParams(FutureMode.COMPLETED)
+
+   private val isTrace = isTraceEnabled
+   private val pendingGets = new ArrayBuffer[PendingGet]
+   private lazy val versionGenerator = createVersionGenerator
+   // Set while a batch of requests is executing
+   @volatile private var inFlight = false
+   @volatile private var closing = false
+
+   override def decode(ctx: ChannelHandlerContext, in: ByteBuf, out: util.List[AnyRef]): Unit = {
+      // The remaining frames stay in the cumulation buffer until the current batch is complete
+      if (inFlight || closing)
+         return
+
+      val batch = new ArrayBuffer[BinaryRequest]
+      var corrupted = false
+      while (!corrupted && in.readableBytes >= HEADER_LENGTH && readFrame(in, batch)) {
+         corrupted = batch.last == null
+      }
+      if (corrupted) {
+         in.skipBytes(in.readableBytes)
+         batch.remove(batch.size - 1)
+      }
+      if (batch.nonEmpty || corrupted) {
+         inFlight = true
+         out.add(new BinaryRequestBatch(ctx, batch, corrupted))
+      }
+   }
+
+   /**
+    * Reads a frame into the batch, or appends {@code null} if the frame is corrupted.
+    *
+    * @return {@code false} if the frame is incomplete
+    */
+   private def readFrame(in: ByteBuf, batch: ArrayBuffer[BinaryRequest]): Boolean = {
+      val start = in.readerIndex
+      if (in.getUnsignedByte(start) != MAGIC_REQUEST) {
+         debug("Invalid binary request magic %x, closing channel", in.getUnsignedByte(start))
+         batch += null
+         return true
+      }
+      val opcode = in.getByte(start + 1)
+      val keyLength = in.getUnsignedShort(start + 2)
+      val extrasLength = in.getUnsignedByte(start + 4)
+      val opaque = in.getInt(start + 12)
+      val bodyLength = in.getUnsignedInt(start + 8)
+      if (bodyLength - keyLength - extrasLength > maxItemSize) {
+         // The rest of the connection can't be decoded without reading the body, so it isn't worth buffering
+         debug("Binary request value length %d exceeds the maximum item size %d, closing channel",
+            bodyLength - keyLength - extrasLength, maxItemSize)
+         batch += new BinaryRequest(opcode, null, null, null, opaque, 0, VALUE_TOO_LARGE)
+         batch += null
+         return true
+      }
+      if (in.readableBytes < HEADER_LENGTH + bodyLength)
+         return false // Wait for the rest of the frame
+
+      if (bodyLength < keyLength + extrasLength) {
+         debug("Invalid binary request body length %d, closing channel", bodyLength)
+         batch += null
+         return true
+      }
+      val cas = in.getLong(start + 16)
+      in.skipBytes(HEADER_LENGTH)
+      // Copy everything, the cumulation buffer can be discarded before the request is executed
+      val extras = new Array[Byte](extrasLength)
+      in.readBytes(extras)
+      val key = if (keyLength > 0) in.readSlice(keyLength).toString(CharsetUtil.UTF_8) else null
+      val value = new Array[Byte](bodyLength.toInt - extrasLength - keyLength)
+      in.readBytes(value)
+
+      if (isTrace) trace("Binary request opcode=%x, key=%s, opaque=%d", opcode, key, opaque)
+      batch += new BinaryRequest(opcode, key, extras, value, opaque, cas)
+      true
+   }
+
+   private class BinaryRequestBatch(ctx: ChannelHandlerContext, batch: Seq[BinaryRequest], corrupted: Boolean)
+         extends MemcachedRequest {
+
+      override def run(): Unit = {
+         try {
+            batch.foreach { request =>
+               if (!closing)
+                  process(ctx, request)
+            }
+            // Quiet gets must be answered even if the client didn't send a NOOP in the same batch
+            resolvePendingGets(ctx)
+            if (corrupted)
+               writeAndClose(ctx)
+            else
+               ctx.flush()
+         } finally {
+            ctx.executor.execute(new Runnable {
+               override def run(): Unit = resume(ctx)
+            })
+         }
+      }
+   }
+
+   private def resume(ctx: ChannelHandlerContext): Unit = {
+      inFlight = false
+      // Decode any requests received while the batch was executing
+      if (ctx.channel.isActive && !closing)
+         channelRead(ctx, Unpooled.EMPTY_BUFFER)
+   }
+
+   private def process(ctx: ChannelHandlerContext, request: BinaryRequest): Unit = {
+      if (request.status != NO_ERROR) {
+         resolvePendingGets(ctx)
+         writeResponse(ctx, request.opcode, request.status, request.opaque, 0, null, null,
+            "Too large.".getBytes(CharsetUtil.UTF_8))
+      } else if (isQuietGet(request.opcode)) {
+         pendingGets += new PendingGet(request.opcode, request.key, request.opaque)
+      } else {
+         // Resolve the queued quiet gets first so that the responses stay in order
+         resolvePendingGets(ctx)
+         try {
+            handleRequest(ctx, request.opcode, request.key, Unpooled.wrappedBuffer(request.extras), request.value,
+               request.opaque, request.cas)
+         } catch {
+            case e: Exception =>
+               debug(e, "Exception processing binary request")
+               writeResponse(ctx, request.opcode, INTERNAL_ERROR, request.opaque, 0, null, null,
+                  String.valueOf(e.getMessage).getBytes(CharsetUtil.UTF_8))
+         }
+      }
+   }
+
+   override def exceptionCaught(ctx: ChannelHandlerContext, cause: Throwable): Unit = {
+      debug(cause, "Exception caught")
+      ctx.close()
+   }
+
+   private def handleRequest(ctx: ChannelHandlerContext, opcode: Byte, key: String, extras: ByteBuf,
+                             value: Array[Byte], opaque: Int, cas: Long): Unit = {
+      if (cacheIgnoreAware(cache.getName))
+         throw new CacheUnavailableException(cache.getName)
+
+      val quiet = isQuiet(opcode)
+      toLoudOpcode(opcode) match {
+         case GET | GETK =>
+            if (!checkKey(ctx, opcode, key, opaque))
+               return
+            val entry = cache.getCacheEntry(key)
+            if (entry != null)
+               writeGetResponse(ctx, opcode, key, entry, opaque)
+            else
+               writeResponse(ctx, opcode, KEY_NOT_FOUND, opaque, 0, null, null, null)
+         case SET | ADD | REPLACE =>
+            if (!checkKey(ctx, opcode, key, opaque))
+               return
+            if (extras.readableBytes != 8) {
+               writeResponse(ctx, opcode, INVALID_ARGUMENTS, opaque, 0, null, null, null)
+               return
+            }
+            val metadata = buildMetadata(extras.readUnsignedInt(), extras.readInt())
+            val status = store(toLoudOpcode(opcode), key, value, cas, metadata)
+            if (status != NO_ERROR || !quiet)
+               writeResponse(ctx, opcode, status, opaque, versionOf(metadata, status), null, null, null)
+         case DELETE =>
+            if (!checkKey(ctx, opcode, key, opaque))
+               return
+            val status = delete(key, cas)
+            if (status != NO_ERROR || !quiet)
+               writeResponse(ctx, opcode, status, opaque, 0, null, null, null)
+         case INCREMENT | DECREMENT =>
+            if (!checkKey(ctx, opcode, key, opaque))
+               return
+            if (extras.readableBytes != 20) {
+               writeResponse(ctx, opcode, INVALID_ARGUMENTS, opaque, 0, null, null, null)
+               return
+            }
+            val delta = toUnsigned(extras.readLong())
+            val initial = toUnsigned(extras.readLong())
+            val expiration = extras.readInt()
+            // An expiration of 0xffffffff means the counter must not be created if it doesn't exist
+            val create = expiration != -1
+            val metadata = buildMetadata(0, if (create) expiration else 0)
+            val (status, counter) =
+               try {
+                  incrDecr(toLoudOpcode(opcode) == INCREMENT, key, delta,
+                     if (create) initial.toString.getBytes else null, cas, metadata)
+               } catch {
+                  case e: Exception if isNonNumeric(e) => (NON_NUMERIC_VALUE, null)
+               }
+            if (status != NO_ERROR)
+               writeResponse(ctx, opcode, status, opaque, 0, null, null, null)
+            else if (!quiet)
+               writeResponse(ctx, opcode, status, opaque, versionOf(metadata), null, null,
+                  ByteBuffer.allocate(8).putLong(BigInt(new String(counter)).toLong).array())
+         case APPEND | PREPEND =>
+            if (!checkKey(ctx, opcode, key, opaque))
+               return
+            if (extras.readableBytes != 0) {
+               writeResponse(ctx, opcode, INVALID_ARGUMENTS, opaque, 0, null, null, null)
+               return
+            }
+            val metadata = buildMetadata(0, 0)
+            val status = appendOrPrepend(toLoudOpcode(opcode) == APPEND, key, value, cas, metadata)
+            if (status != NO_ERROR || !quiet)
+               writeResponse(ctx, opcode, status, opaque, versionOf(metadata, status), null, null, null)
+         case NOOP =>
+            writeResponse(ctx, opcode, NO_ERROR, opaque, 0, null, null, null)
+         case VERSION =>
+            writeResponse(ctx, opcode, NO_ERROR, opaque, 0, null, null,
+               org.infinispan.Version.getVersion.getBytes(CharsetUtil.UTF_8))
+         case FLUSH =>
+            val delay = if (extras.readableBytes == 4) extras.readInt() else 0
+            if (delay == 0)
+               cache.clear()
+            else
+               scheduler.schedule(new DelayedFlushAll(cache, c => c.clear()), toMillis(delay), TimeUnit.MILLISECONDS)
+            if (!quiet)
+               writeResponse(ctx, opcode, NO_ERROR, opaque, 0, null, null, null)
+         case QUIT =>
+            if (!quiet)
+               writeResponse(ctx, opcode, NO_ERROR, opaque, 0, null, null, null)
+            writeAndClose(ctx)
+         case _ =>
+            writeResponse(ctx, opcode, UNKNOWN_COMMAND, opaque, 0, null, null, null)
+      }
+   }
+
+   private def store(opcode: Byte, key: String, value: Array[Byte], cas: Long, metadata: Metadata): Short = {
+      if (cas != 0) {
+         // Compare and swap, valid for set and replace
+         if (opcode == ADD)
+            return KEY_EXISTS
+         val entry = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION).getCacheEntry(key)
+         if (entry == null)
+            KEY_NOT_FOUND
+         else if (entry.getMetadata.version() != new NumericVersion(cas))
+            KEY_EXISTS
+         else if (cache.replace(key, entry.getValue, value, metadata))
+            NO_ERROR
+         else
+            KEY_EXISTS
+      } else opcode match {
+         case SET =>
+            cache.withFlags(Flag.IGNORE_RETURN_VALUES).put(key, value, metadata)
+            NO_ERROR
+         case ADD =>
+            if (cache.putIfAbsent(key, value, metadata) == null) NO_ERROR else KEY_EXISTS
+         case REPLACE =>
+            if (cache.replace(key, value, metadata) != null) NO_ERROR else KEY_NOT_FOUND
+      }
+   }
+
+   private def delete(key: String, cas: Long): Short = {
+      if (cas != 0) {
+         val entry = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION).getCacheEntry(key)
+         if (entry == null)
+            KEY_NOT_FOUND
+         else if (entry.getMetadata.version() != new NumericVersion(cas) || !cache.remove(key, entry.getValue))
+            KEY_EXISTS
+         else
+            NO_ERROR
+      } else {
+         if (cache.remove(key) != null) NO_ERROR else KEY_NOT_FOUND
+      }
+   }
+
+   /**
+    * Increments or decrements the counter, creating it with the initial value if it doesn't exist and the initial
+    * value is not {@code null}.
+    *
+    * @return the status and the new value of the counter
+    */
+   private def incrDecr(increment: Boolean, key: String, delta: BigInt, initial: Array[Byte], cas: Long,
+                        metadata: Metadata): (Short, Array[Byte]) = {
+      if (readWriteMap != null && cas == 0) {
+         // Single round trip to the primary owner, which updates the value under the key lock
+         val next = readWriteMap.eval(key, delta.toString.getBytes, new CounterFunction(increment, initial, metadata)).join()
+         if (next != null) (NO_ERROR, next) else (KEY_NOT_FOUND, null)
+      } else {
+         replaceEntry(key, cas, metadata, prev => nextCounter(prev, delta, increment)) match {
+            case (KEY_NOT_FOUND, _) if initial != null && cas == 0 =>
+               if (cache.putIfAbsent(key, initial, metadata) == null) (NO_ERROR, initial) else (KEY_EXISTS, null)
+            case result => result
+         }
+      }
+   }
+
+   private def appendOrPrepend(append: Boolean, key: String, value: Array[Byte], cas: Long, metadata: Metadata): Short = {
+      if (readWriteMap != null && cas == 0) {
+         // Single round trip to the primary owner, which updates the value under the key lock
+         if (readWriteMap.eval(key, value, new ConcatFunction(append, metadata)).join().booleanValue) NO_ERROR
+         else ITEM_NOT_STORED
+      } else {
+         replaceEntry(key, cas, metadata, prev => if (append) concat(prev, value) else concat(value, prev)) match {
+            case (KEY_NOT_FOUND, _) => ITEM_NOT_STORED
+            case (status, _) => status
+         }
+      }
+   }
+
+   /**
+    * Updates the value with a get followed by a conditional replace, for the compare and swap variants of the
+    * read-modify-write operations and in compatibility mode.
+    */
+   private def replaceEntry(key: String, cas: Long, metadata: Metadata,
+                            update: Array[Byte] => Array[Byte]): (Short, Array[Byte]) = {
+      val entry = cache.withFlags(Flag.SKIP_LISTENER_NOTIFICATION).getCacheEntry(key)
+      if (entry == null)
+         (KEY_NOT_FOUND, null)
+      else if (cas != 0 && entry.getMetadata.version() != new NumericVersion(cas))
+         (KEY_EXISTS, null)
+      else {
+         val next = update(entry.getValue)
+         if (cache.replace(key, entry.getValue, next, metadata)) (NO_ERROR, next) else (KEY_EXISTS, null)
+      }
+   }
+
+   /**
+    * The counter functions fail with a {@link NumberFormatException} when the value is not a number, possibly
+    * wrapped by the remote invocation.
+    */
+   private def isNonNumeric(e: Throwable): Boolean = {
+      var cause = e
+      while (cause != null && !cause.isInstanceOf[NumberFormatException])
+         cause = cause.getCause
+      cause != null
+   }
+
+   private def toUnsigned(value: Long): BigInt = BigInt(java.lang.Long.toUnsignedString(value))
+
+   private def resolvePendingGets(ctx: ChannelHandlerContext): Unit = {
+      if (pendingGets.isEmpty)
+         return
+
+      try {
+         val keys = new util.HashSet[String]()
+         pendingGets.foreach(get => keys.add(get.key))
+         val entries = cache.getAllCacheEntries(keys)
+         if (isTrace) trace("Resolved %d quiet gets with %d hits", pendingGets.size, entries.size)
+         pendingGets.foreach { get =>
+            val entry = entries.get(get.key)
+            if (entry != null)
+               writeGetResponse(ctx, get.opcode, get.key, entry, get.opaque)
+         }
+      } catch {
+         case e: Exception =>
+            debug(e, "Exception processing quiet gets")
+            val message = String.valueOf(e.getMessage).getBytes(CharsetUtil.UTF_8)
+            pendingGets.foreach(get => writeResponse(ctx, get.opcode, INTERNAL_ERROR, get.opaque, 0, null, null, message))
+      } finally {
+         pendingGets.clear()
+      }
+   }
+
+   private def checkKey(ctx: ChannelHandlerContext, opcode: Byte, key: String, opaque: Int): Boolean = {
+      if (key == null || key.length > MAX_KEY_LENGTH) {
+         writeResponse(ctx, opcode, INVALID_ARGUMENTS, opaque, 0, null, null, null)
+         false
+      } else true
+   }
+
+   private def writeGetResponse(ctx: ChannelHandlerContext, opcode: Byte, key: String,
+                                entry: CacheEntry[String, Array[Byte]], opaque: Int): Unit = {
+      val (flags, version) = entry.getMetadata match {
+         case meta: MemcachedMetadata => (meta.flags, versionOf(meta))
+         case meta => (0L, versionOf(meta))
+      }
+      val withKey = opcode == GETK || opcode == GETKQ
+      writeResponse(ctx, opcode, NO_ERROR, opaque, version, flags.toInt,
+         if (withKey) key.getBytes(CharsetUtil.UTF_8) else null, entry.getValue)
+   }
+
+   private def writeResponse(ctx: ChannelHandlerContext, opcode: Byte, status: Short, opaque: Int, cas: Long,
+                             flags: Integer, key: Array[Byte], value: Array[Byte]): Unit = {
+      val extrasLength = if (flags != null) 4 else 0
+      val keyLength = if (key != null) key.length else 0
+      val valueLength = if (value != null) value.length else 0
+      val bodyLength = extrasLength + keyLength + valueLength
+      val buf = ctx.alloc().buffer(HEADER_LENGTH + bodyLength)
+      buf.writeByte(MAGIC_RESPONSE)
+      buf.writeByte(opcode)
+      buf.writeShort(keyLength)
+      buf.writeByte(extrasLength)
+      buf.writeByte(0) // Data type
+      buf.writeShort(status)
+      buf.writeInt(bodyLength)
+      buf.writeInt(opaque)
+      buf.writeLong(cas)
+      if (flags != null) buf.writeInt(flags)
+      if (key != null) buf.writeBytes(key)
+      if (value != null) buf.writeBytes(value)
+      // Flushed once the whole read has been processed
+      ctx.write(buf, ctx.voidPromise)
+   }
+
+   private def writeAndClose(ctx: ChannelHandlerContext): Unit = {
+      closing = true
+      pendingGets.clear()
+      ctx.writeAndFlush(Unpooled.EMPTY_BUFFER).addListener(ChannelFutureListener.CLOSE)
+   }
+
+   private def buildMetadata(flags: Long, expiration: Int): Metadata = {
+      val metadata = new MemcachedMetadataBuilder
+      metadata.version(versionGenerator.generateNew())
+      metadata.flags(flags)
+      if (expiration > 0)
+         metadata.lifespan(toMillis(expiration))
+      metadata.build()
+   }
+
+   private def versionOf(metadata: Metadata, status: Short): Long =
+      if (status == NO_ERROR) versionOf(metadata) else 0
+
+   private def versionOf(metadata: Metadata): Long = metadata.version() match {
+      case v: NumericVersion => v.getVersion
+      case _ => 0
+   }
+
+   private def createVersionGenerator: VersionGenerator = {
+      val registry = cache.getComponentRegistry
+      val cacheVersionGenerator = registry.getComponent(classOf[VersionGenerator])
+      if (cacheVersionGenerator == null) {
+         // Same as the text decoder, the version generator is only registered when some other component needs it
+         val newVersionGenerator = new NumericVersionGenerator()
+            .clustered(registry.getComponent(classOf[RpcManager]) != null)
+         registry.registerComponent(newVersionGenerator, classOf[VersionGenerator])
+         newVersionGenerator
+      } else {
+         cacheVersionGenerator
+      }
+   }
+
+   /**
+    * Transforms the expiration in seconds into milliseconds, using the same rules as the text protocol: values
+    * bigger than 30 days are considered unix time.
+    */
+   private def toMillis(expiration: Int): Long = {
+      if (expiration > SecondsInAMonth) {
+         val unixTimeExpiry = TimeUnit.SECONDS.toMillis(expiration) - System.currentTimeMillis
+         if (unixTimeExpiry < 0) 0 else unixTimeExpiry
+      } else {
+         TimeUnit.SECONDS.toMillis(expiration)
+      }
+   }
+
+}
+
+/**
+ * A decoded request, or the error to answer it with when its {@code status} is not {@code NO_ERROR}.
+ */
+private class BinaryRequest(val opcode: Byte, val key: String, val extras: Array[Byte], val value: Array[Byte],
+                            val opaque: Int, val cas: Long, val status: Short = NO_ERROR)
+
+private class PendingGet(val opcode: Byte, val key: String, val opaque: Int)
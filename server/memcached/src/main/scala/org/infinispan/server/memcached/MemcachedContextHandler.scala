@@ -0,0 +1,19 @@
+package org.infinispan.server.memcached
+
+import java.util.concurrent.Executor
+
+import io.netty.channel.{ChannelHandlerContext, SimpleChannelInboundHandler}
+
+/**
+ * Handler that executes the cache operations of the decoded requests, so that a slow remote get or store load does
+ * not stall the other connections sharing the event loop.
+ *
+ * @since 9.0
+ */
+class MemcachedContextHandler(executor: Executor) extends SimpleChannelInboundHandler[MemcachedRequest] {
+
+   override def channelRead0(ctx: ChannelHandlerContext, request: MemcachedRequest): Unit = {
+      executor.execute(request)
+   }
+
+}
@@ -14,11 +14,14 @@ import io.netty.channel._
 import io.netty.util.CharsetUtil
 import org.infinispan._
 import org.infinispan.commons.CacheException
+import org.infinispan.commons.api.functional.FunctionalMap.ReadWriteMap
+import org.infinispan.commons.api.functional.Param.FutureMode
 import org.infinispan.configuration.cache.Configuration
 import org.infinispan.container.entries.CacheEntry
 import org.infinispan.container.versioning.{EntryVersion, NumericVersion, NumericVersionGenerator, VersionGenerator}
 import org.infinispan.context.Flag
 import org.infinispan.factories.ComponentRegistry
+import org.infinispan.functional.impl.{FunctionalMapImpl, ReadWriteMapImpl}
 import org.infinispan.metadata.Metadata
 import org.infinispan.remoting.rpc.RpcManager
 import org.infinispan.server.core.Operation._
@@ -26,15 +29,21 @@ import org.infinispan.server.core._
 import org.infinispan.server.core.transport.ExtendedByteBuf._
 import org.infinispan.server.core.transport.NettyTransport
 import org.infinispan.server.memcached.MemcachedDecoderState._
+import org.infinispan.server.memcached.MemcachedFunctions._
 import org.infinispan.server.memcached.MemcachedOperation._
 import org.infinispan.server.memcached.TextProtocolUtil._
 import org.infinispan.server.memcached.logging.Log
 
+import scala.collection.JavaConverters._
 import scala.collection.mutable.ListBuffer
-import scala.collection.{immutable, mutable}
 
 /**
- * A Memcached protocol specific decoder
+ * A Memcached protocol specific decoder.
+ *
+ * Cache operations are not executed on the Netty event loop: once a request has been decoded, its operation is passed
+ * down the pipeline as a {@link MemcachedRequest} and executed by the {@link MemcachedContextHandler}. Since the text
+ * protocol has no way to correlate responses with requests, decoding of the next request only resumes once the
+ * response to the current one has been written.
  *
  * @author Galder Zamarreño
  * @since 4.1
@@ -59,6 +68,12 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
 
    import org.infinispan.server.memcached.RequestResolver._
 
+   // The functional API bypasses the compatibility mode conversions, so the read-modify-write operations fall back
+   // to a get followed by a conditional replace when compatibility is enabled
+   private lazy val readWriteMap: ReadWriteMap[String, Array[Byte]] =
+      if (cache.getCacheConfiguration.compatibility().enabled()) null
+      else ReadWriteMapImpl.create(FunctionalMapImpl.create(cache)).withParams(FutureMode.COMPLETED)
+
    protected var params: MemcachedParameters = null
    private lazy val isStatsEnabled = cache.getCacheConfiguration.jmxStatistics().enabled()
    private final val incrMisses = new AtomicLong(0)
@@ -68,19 +83,72 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
    private final val replaceIfUnmodifiedMisses = new AtomicLong(0)
    private final val replaceIfUnmodifiedHits = new AtomicLong(0)
    private final val replaceIfUnmodifiedBadval = new AtomicLong(0)
+   private final val readModifyWriteCount = new AtomicLong(0)
+   private final val readModifyWriteNanos = new AtomicLong(0)
+   private final val readModifyWriteConflicts = new AtomicLong(0)
    private val isTrace = isTraceEnabled
    private val byteBuffer = new ByteArrayOutputStream()
    protected var header: RequestHeader = _
+   // Set while the operation of the last decoded request is executing
+   @volatile private var inFlight = false
+   private var requests: util.List[AnyRef] = _
+
+   // Stop decoding after each request that needs a cache operation
+   setSingleDecode(true)
 
    override def decode(ctx: ChannelHandlerContext, in: ByteBuf, out: util.List[AnyRef]): Unit = {
+      if (inFlight)
+         return
+
+      requests = out
       try {
          decodeDispatch(ctx, in, out)
       } finally {
          // reset in all cases
          byteBuffer.reset()
+         requests = null
       }
    }
 
+   override protected def callDecode(ctx: ChannelHandlerContext, in: ByteBuf, out: util.List[AnyRef]): Unit = {
+      // The remaining bytes stay in the cumulation buffer until the current request is complete
+      if (!inFlight)
+         super.callDecode(ctx, in, out)
+   }
+
+   /**
+    * Passes the cache operation of the current request down the pipeline, to be executed outside the event loop.
+    * The operation can still read the request state because decoding is suspended until it completes.
+    */
+   private def dispatch(ctx: ChannelHandlerContext)(operation: => AnyRef): AnyRef = {
+      val ch = ctx.channel
+      inFlight = true
+      requests.add(new MemcachedRequest {
+         override def run(): Unit = {
+            try {
+               sendResponse(ch, operation)
+            } catch {
+               case e: Exception =>
+                  val (serverException, _) = createServerException(e, null)
+                  ctx.pipeline.fireExceptionCaught(serverException)
+            } finally {
+               ctx.executor.execute(new Runnable {
+                  override def run(): Unit = resume(ctx)
+               })
+            }
+         }
+      })
+      null
+   }
+
+   private def resume(ctx: ChannelHandlerContext): Unit = {
+      resetParams
+      inFlight = false
+      // Decode any requests received while the operation was executing
+      if (ctx.channel.isActive)
+         channelRead(ctx, Unpooled.EMPTY_BUFFER)
+   }
+
    protected def replace: AnyRef = {
       // Avoid listener notification for a simple optimization
       // on whether a new version should be calculated or not.
@@ -170,15 +238,15 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
    }
 
    def decodeKey(ctx: ChannelHandlerContext, buffer: ByteBuf, state: MemcachedDecoderState): AnyRef = {
-      val ch = ctx.channel
       header.op match {
          // Get, put and remove are the most typical operations, so they're first
-         case GetRequest => writeResponse(ch, get(buffer))
-         case PutRequest => handleModification(ch, buffer)
-         case RemoveRequest => handleModification(ch, buffer)
-         case GetWithVersionRequest => writeResponse(ch, get(buffer))
+         case GetRequest | GetWithVersionRequest =>
+            val keys = readGetKeys(buffer)
+            dispatch(ctx)(get(keys))
+         case PutRequest => handleModification(ctx, buffer)
+         case RemoveRequest => handleModification(ctx, buffer)
          case PutIfAbsentRequest | ReplaceRequest | ReplaceIfUnmodifiedRequest =>
-            handleModification(ch, buffer)
+            handleModification(ctx, buffer)
          case _ => customDecodeKey(ctx, buffer)
       }
    }
@@ -199,20 +267,18 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
    }
 
    def decodeValue(ctx: ChannelHandlerContext, buffer: ByteBuf, state: MemcachedDecoderState): AnyRef = {
-      val ch = ctx.channel
-      val ret = header.op match {
+      header.op match {
          case PutRequest | PutIfAbsentRequest | ReplaceRequest | ReplaceIfUnmodifiedRequest =>
             readValue(buffer)
             header.op match {
-               case PutRequest => put
-               case PutIfAbsentRequest => putIfAbsent
-               case ReplaceRequest => replace
-               case ReplaceIfUnmodifiedRequest => replaceIfUnmodified
+               case PutRequest => dispatch(ctx)(put)
+               case PutIfAbsentRequest => dispatch(ctx)(putIfAbsent)
+               case ReplaceRequest => dispatch(ctx)(replace)
+               case ReplaceIfUnmodifiedRequest => dispatch(ctx)(replaceIfUnmodified)
             }
-         case RemoveRequest => remove
+         case RemoveRequest => dispatch(ctx)(remove)
          case _ => customDecodeValue(ctx, buffer)
       }
-      writeResponse(ch, ret)
    }
 
 
@@ -286,18 +352,19 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
       resetParams
    }
 
-   protected def get(buffer: ByteBuf): AnyRef = {
+   private def readGetKeys(buffer: ByteBuf): Seq[String] = {
       val keys = readKeys(buffer)
+      keys.foreach(k => checkKeyLength(k, endOfOp = true, buffer))
+      keys
+   }
+
+   protected def get(keys: Seq[String]): AnyRef = {
       if (keys.length > 1) {
-         val map = new mutable.HashMap[String, CacheEntry[String, Array[Byte]]]()
-         for (k <- keys) {
-            val entry = cache.getCacheEntry(checkKeyLength(k, endOfOp = true, buffer))
-            if (entry != null)
-               map += (k -> entry)
-         }
-         createMultiGetResponse(new immutable.HashMap ++ map)
+         // A single call, so that the keys owned by the same node are retrieved with a single remote get
+         val entries = cache.getAllCacheEntries(keys.toSet.asJava)
+         createMultiGetResponse(keys.distinct.filter(entries.containsKey).map(k => (k, entries.get(k))))
       } else {
-         val key = checkKeyLength(keys(0), endOfOp = true, buffer)
+         val key = keys(0)
          val entry = cache.getCacheEntry(key)
          createGetResponse(key, entry)
       }
@@ -464,7 +531,7 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
    protected def customDecodeHeader(ctx: ChannelHandlerContext, buffer: ByteBuf): AnyRef = {
       val ch = ctx.channel
       header.op match {
-         case FlushAllRequest => flushAll(buffer, ch, isReadParams = false) // Without params
+         case FlushAllRequest => flushAll(buffer, ctx, isReadParams = false) // Without params
          case VersionRequest =>
             val ret = new StringBuilder().append("VERSION ").append(Version.getVersion).append(CRLF)
             writeResponse(ch, ret)
@@ -473,85 +540,102 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
    }
 
    protected def customDecodeKey(ctx: ChannelHandlerContext, buffer: ByteBuf): AnyRef = {
-      val ch = ctx.channel
       header.op match {
          case AppendRequest | PrependRequest | IncrementRequest | DecrementRequest =>
             key = readKey(buffer)._1
             checkpointTo(DECODE_PARAMETERS)
-         case FlushAllRequest => flushAll(buffer, ch, isReadParams = true) // With params
+         case FlushAllRequest => flushAll(buffer, ctx, isReadParams = true) // With params
       }
    }
 
    protected def customDecodeValue(ctx: ChannelHandlerContext, buffer: ByteBuf): AnyRef = {
-      val ch = ctx.channel
-      val op = header.op
-      op match {
+      header.op match {
          case AppendRequest | PrependRequest =>
             readValue(buffer)
+            dispatch(ctx)(appendOrPrepend)
+         case IncrementRequest | DecrementRequest => dispatch(ctx)(incrDecr)
+      }
+   }
+
+   private def appendOrPrepend: AnyRef = {
+      val append = header.op == AppendRequest
+      val stored = timeReadModifyWrite {
+         if (readWriteMap != null) {
+            // Single round trip to the primary owner, which updates the value under the key lock
+            readWriteMap.eval(key, rawValue, new ConcatFunction(append, buildMetadata())).join().booleanValue
+         } else {
             val prev = cache.get(key)
-            val ret =
-               if (prev != null) {
-                  val concatenated = header.op match {
-                     case AppendRequest => concat(prev, rawValue)
-                     case PrependRequest => concat(rawValue, prev)
-                  }
-                  val replaced = cache.replace(key, prev, concatenated, buildMetadata())
-                  if (replaced)
-                     if (!params.noReply) STORED else null
-                  else // If there's a concurrent modification on this key, treat it as we couldn't replace it
-                  if (!params.noReply) NOT_STORED else null
-               } else {
-                  if (!params.noReply) NOT_STORED else null
-               }
-            writeResponse(ch, ret)
-         case IncrementRequest | DecrementRequest => incrDecr(ch)
+            prev != null && {
+               val concatenated = if (append) concat(prev, rawValue) else concat(rawValue, prev)
+               val replaced = cache.replace(key, prev, concatenated, buildMetadata())
+               // If there's a concurrent modification on this key, treat it as we couldn't replace it
+               if (!replaced) readModifyWriteConflicts.incrementAndGet()
+               replaced
+            }
+         }
       }
+      if (params.noReply) null
+      else if (stored) STORED
+      else NOT_STORED
    }
 
-   private def incrDecr(ch: Channel): AnyRef = {
-      val prev = cache.get(key)
+   private def incrDecr: AnyRef = {
       val op = header.op
-      val ret =
-         if (prev != null) {
-            val prevCounter = BigInt(new String(prev))
-            val delta = validateDelta(params.delta)
-            val newCounter =
-               op match {
-                  case IncrementRequest =>
-                     val candidateCounter = prevCounter + delta
-                     if (candidateCounter > MAX_UNSIGNED_LONG) 0 else candidateCounter
-                  case DecrementRequest =>
-                     val candidateCounter = prevCounter - delta
-                     if (candidateCounter < 0) 0 else candidateCounter
+      val increment = op == IncrementRequest
+      val delta = validateDelta(params.delta)
+      val next = timeReadModifyWrite {
+         if (readWriteMap != null) {
+            // Single round trip to the primary owner, which updates the value under the key lock
+            readWriteMap.eval(key, delta.toString.getBytes, new CounterFunction(increment, null, buildMetadata())).join()
+         } else {
+            val prev = cache.get(key)
+            if (prev != null) {
+               val next = nextCounter(prev, delta, increment)
+               if (!cache.replace(key, prev, next, buildMetadata())) {
+                  readModifyWriteConflicts.incrementAndGet()
+                  // If there's a concurrent modification on this key, the spec does not say what to do, so treat it as exceptional
+                  throw new CacheException("Value modified since we retrieved from the cache, old value was " + new String(prev))
                }
-
-            val next = newCounter.toString.getBytes
-            val replaced = cache.replace(key, prev, next, buildMetadata())
-            if (replaced) {
-               if (isStatsEnabled) if (op == IncrementRequest) incrHits.incrementAndGet() else decrHits.incrementAndGet
-               if (!params.noReply) new String(next) + CRLF else null
-            } else {
-               // If there's a concurrent modification on this key, the spec does not say what to do, so treat it as exceptional
-               throw new CacheException("Value modified since we retrieved from the cache, old value was " + prevCounter)
-            }
+               next
+            } else null
          }
-         else {
-            if (isStatsEnabled) if (op == IncrementRequest) incrMisses.incrementAndGet() else decrMisses.incrementAndGet
-            if (!params.noReply) NOT_FOUND else null
-         }
-      writeResponse(ch, ret)
+      }
+      if (next != null) {
+         if (isStatsEnabled) if (increment) incrHits.incrementAndGet() else decrHits.incrementAndGet
+         if (!params.noReply) new String(next) + CRLF else null
+      } else {
+         if (isStatsEnabled) if (increment) incrMisses.incrementAndGet() else decrMisses.incrementAndGet
+         if (!params.noReply) NOT_FOUND else null
+      }
    }
 
-   private def flushAll(b: ByteBuf, ch: Channel, isReadParams: Boolean): AnyRef = {
-      if (isReadParams) readParameters(ch, b)
+   private def timeReadModifyWrite[T](operation: => T): T = {
+      if (!isStatsEnabled)
+         return operation
+
+      val start = System.nanoTime
+      try {
+         operation
+      } finally {
+         readModifyWriteCount.incrementAndGet()
+         readModifyWriteNanos.addAndGet(System.nanoTime - start)
+      }
+   }
+
+   private def flushAll(b: ByteBuf, ctx: ChannelHandlerContext, isReadParams: Boolean): AnyRef = {
+      if (isReadParams) readParameters(ctx.channel, b)
       val flushFunction = (cache: AdvancedCache[String, Array[Byte]]) => cache.clear()
       val flushDelay = if (params == null) 0 else params.flushDelay
-      if (flushDelay == 0)
-         flushFunction(cache)
-      else
+      if (flushDelay == 0) {
+         dispatch(ctx) {
+            flushFunction(cache)
+            if (params == null || !params.noReply) OK else null
+         }
+      } else {
          scheduler.schedule(new DelayedFlushAll(cache, flushFunction), toMillis(flushDelay), MILLIS)
-      val ret = if (params == null || !params.noReply) OK else null
-      writeResponse(ch, ret)
+         val ret = if (params == null || !params.noReply) OK else null
+         writeResponse(ctx.channel, ret)
+      }
    }
 
    private def validateDelta(delta: String): BigInt = {
@@ -625,7 +709,7 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
       writeGetHeaderEnd(buf)
    }
 
-   def createMultiGetResponse(pairs: Map[String, CacheEntry[String, Array[Byte]]]): AnyRef = {
+   def createMultiGetResponse(pairs: Seq[(String, CacheEntry[String, Array[Byte]])]): AnyRef = {
       val elements = new ListBuffer[ByteBuf]
       val op = header.op
       op match {
@@ -637,12 +721,12 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
       elements.toArray
    }
 
-   def handleModification(ch: Channel, buf: ByteBuf): AnyRef = {
+   def handleModification(ctx: ChannelHandlerContext, buf: ByteBuf): AnyRef = {
       val (k, endOfOp) = readKey(buf)
       key = k
       if (endOfOp) {
          // If it's the end of the operation, it can only be a remove
-         writeResponse(ch, remove)
+         dispatch(ctx)(remove)
       } else {
          checkpointTo(DECODE_PARAMETERS)
       }
@@ -748,25 +832,29 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
 
    protected def writeResponse(ch: Channel, response: AnyRef): AnyRef = {
       try {
-         if (response != null) {
-            if (isTrace) trace("Write response %s", response)
-            response match {
-               // We only expect Lists of ChannelBuffer instances, so don't worry about type erasure
-               case l: Array[ByteBuf] =>
-                  l.foreach(buf => ch.write(buf, ch.voidPromise))
-                  ch.flush
-               case a: Array[Byte] => ch.writeAndFlush(wrappedBuffer(a), ch.voidPromise)
-               case cs: CharSequence => ch.writeAndFlush(Unpooled.copiedBuffer(cs, CharsetUtil.UTF_8), ch.voidPromise)
-               case pr: PartialResponse => return pr
-               case _ => ch.writeAndFlush(response, ch.voidPromise)
-            }
-         }
-         null
+         sendResponse(ch, response)
       } finally {
          resetParams
       }
    }
 
+   private def sendResponse(ch: Channel, response: AnyRef): AnyRef = {
+      if (response != null) {
+         if (isTrace) trace("Write response %s", response)
+         response match {
+            // We only expect Lists of ChannelBuffer instances, so don't worry about type erasure
+            case l: Array[ByteBuf] =>
+               l.foreach(buf => ch.write(buf, ch.voidPromise))
+               ch.flush
+            case a: Array[Byte] => ch.writeAndFlush(wrappedBuffer(a), ch.voidPromise)
+            case cs: CharSequence => ch.writeAndFlush(Unpooled.copiedBuffer(cs, CharsetUtil.UTF_8), ch.voidPromise)
+            case pr: PartialResponse => return pr
+            case _ => ch.writeAndFlush(response, ch.voidPromise)
+         }
+      }
+      null
+   }
+
    def createStatsResponse: AnyRef = {
       val stats = cache.getAdvancedCache.getStats
       val sb = new StringBuilder
@@ -798,6 +886,9 @@ extends ReplayingDecoder[MemcachedDecoderState](DECODE_HEADER) with ServerConsta
          buildStat("cas_misses", replaceIfUnmodifiedMisses, sb),
          buildStat("cas_hits", replaceIfUnmodifiedHits, sb),
          buildStat("cas_badval", replaceIfUnmodifiedBadval, sb),
+         buildStat("rmw_cmds", readModifyWriteCount, sb),
+         buildStat("rmw_time", TimeUnit.NANOSECONDS.toMicros(readModifyWriteNanos.get), sb),
+         buildStat("rmw_conflicts", readModifyWriteConflicts, sb),
          buildStat("auth_cmds", 0, sb), // Unsupported
          buildStat("auth_errors", 0, sb), // Unsupported
          //TODO: Evictions are measure by evict calls, but not by nodes are that are expired after the entry's lifespan has expired.
@@ -0,0 +1,113 @@
+package org.infinispan.server.memcached
+
+import java.io.{ObjectInput, ObjectOutput}
+import java.util
+import java.util.function.BiFunction
+
+import org.infinispan.commons.api.functional.EntryView.ReadWriteEntryView
+import org.infinispan.commons.marshall.AbstractExternalizer
+import org.infinispan.functional.impl.MetaMetadata
+import org.infinispan.metadata.Metadata
+import org.infinispan.server.memcached.TextProtocolUtil._
+
+import scala.collection.JavaConversions.setAsJavaSet
+
+/**
+ * Functions executed on the primary owner of the key to update the value in a single round trip, used for the
+ * Memcached read-modify-write operations.
+ *
+ * @since 9.0
+ */
+object MemcachedFunctions {
+
+   /**
+    * Computes the next value of a counter, following the Memcached wrapping rules: increments wrap around
+    * at 64 bits, and decrements stop at 0.
+    */
+   def nextCounter(prev: Array[Byte], delta: BigInt, increment: Boolean): Array[Byte] = {
+      val prevCounter = BigInt(new String(prev))
+      val newCounter =
+         if (increment) {
+            val candidateCounter = prevCounter + delta
+            if (candidateCounter > MAX_UNSIGNED_LONG) 0 else candidateCounter
+         } else {
+            val candidateCounter = prevCounter - delta
+            if (candidateCounter < 0) 0 else candidateCounter
+         }
+      newCounter.toString.getBytes
+   }
+
+   /**
+    * Increments or decrements the counter stored in the entry by the delta passed as value.
+    * Returns the new value, or {@code null} if the entry does not exist and no initial value is given.
+    *
+    * @param initial the value stored if the entry does not exist, or {@code null} to leave it absent
+    */
+   class CounterFunction(val increment: Boolean, val initial: Array[Byte], val metadata: Metadata)
+         extends BiFunction[Array[Byte], ReadWriteEntryView[String, Array[Byte]], Array[Byte]] {
+
+      override def apply(delta: Array[Byte], view: ReadWriteEntryView[String, Array[Byte]]): Array[Byte] = {
+         if (!view.find().isPresent) {
+            if (initial != null)
+               view.set(initial, new MetaMetadata(metadata))
+            return initial
+         }
+
+         val next = nextCounter(view.get(), BigInt(new String(delta)), increment)
+         view.set(next, new MetaMetadata(metadata))
+         next
+      }
+   }
+
+   /**
+    * Appends or prepends the value passed to the value stored in the entry.
+    * Returns {@code true} if the entry existed and was updated.
+    */
+   class ConcatFunction(val append: Boolean, val metadata: Metadata)
+         extends BiFunction[Array[Byte], ReadWriteEntryView[String, Array[Byte]], java.lang.Boolean] {
+
+      override def apply(value: Array[Byte], view: ReadWriteEntryView[String, Array[Byte]]): java.lang.Boolean = {
+         if (!view.find().isPresent)
+            return false
+
+         val prev = view.get()
+         view.set(if (append) concat(prev, value) else concat(value, prev), new MetaMetadata(metadata))
+         true
+      }
+   }
+
+   class Externalizer extends AbstractExternalizer[AnyRef] {
+
+      final val Counter = 0
+      final val Concat = 1
+
+      def writeObject(output: ObjectOutput, function: AnyRef) {
+         function match {
+            case f: CounterFunction =>
+               output.writeByte(Counter)
+               output.writeBoolean(f.increment)
+               output.writeObject(f.metadata)
+               output.writeObject(f.initial)
+            case f: ConcatFunction =>
+               output.writeByte(Concat)
+               output.writeBoolean(f.append)
+               output.writeObject(f.metadata)
+         }
+      }
+
+      def readObject(input: ObjectInput): AnyRef = {
+         val kind = input.readUnsignedByte()
+         val flag = input.readBoolean()
+         val metadata = input.readObject().asInstanceOf[Metadata]
+         kind match {
+            case Counter => new CounterFunction(flag, input.readObject().asInstanceOf[Array[Byte]], metadata)
+            case Concat => new ConcatFunction(flag, metadata)
+         }
+      }
+
+      def getTypeClasses: util.Set[Class[_ <: AnyRef]] =
+         setAsJavaSet(Set[java.lang.Class[_ <: AnyRef]](classOf[CounterFunction], classOf[ConcatFunction]))
+
+   }
+
+}
@@ -0,0 +1,32 @@
+package org.infinispan.server.memcached
+
+import io.netty.buffer.ByteBuf
+import io.netty.channel.{ChannelHandlerContext, ChannelInboundHandlerAdapter}
+import org.infinispan.server.memcached.BinaryProtocolUtil.MAGIC_REQUEST
+import org.infinispan.server.memcached.logging.Log
+
+/**
+ * Detects whether a connection uses the Memcached text or binary protocol by looking at the first byte received.
+ * Binary requests always start with the request magic byte, which can't start a text command. If the connection uses
+ * the binary protocol, the text decoder is replaced with a binary one. Either way, the detector removes itself from
+ * the pipeline after the first read.
+ *
+ * @since 9.0
+ */
+class MemcachedProtocolDetector(server: MemcachedServer) extends ChannelInboundHandlerAdapter with Log {
+
+   override def channelRead(ctx: ChannelHandlerContext, msg: AnyRef): Unit = {
+      msg match {
+         case buf: ByteBuf if buf.isReadable =>
+            val pipeline = ctx.pipeline
+            if (buf.getUnsignedByte(buf.readerIndex) == MAGIC_REQUEST) {
+               if (isTraceEnabled) trace("Switching channel %s to the binary protocol", ctx.channel)
+               pipeline.replace("decoder", "decoder", server.getBinaryDecoder)
+            }
+            pipeline.remove(this)
+         case _ => // Wait for the first byte
+      }
+      ctx.fireChannelRead(msg)
+   }
+
+}
@@ -0,0 +1,9 @@
+package org.infinispan.server.memcached
+
+/**
+ * A decoded request, or a batch of requests, whose cache operations must be executed outside the Netty event loop.
+ * Running it writes the responses to the channel.
+ *
+ * @since 9.0
+ */
+trait MemcachedRequest extends Runnable
@@ -1,12 +1,14 @@
 package org.infinispan.server.memcached
 
 import io.netty.channel.{Channel, ChannelInitializer}
+import io.netty.util.concurrent.DefaultThreadFactory
 import org.infinispan.server.core.AbstractProtocolServer
-import java.util.concurrent.Executors
+import java.util.concurrent.ThreadPoolExecutor.AbortPolicy
+import java.util.concurrent._
 import org.infinispan.manager.EmbeddedCacheManager
-import org.infinispan.server.core.transport.NettyChannelInitializer
 import org.infinispan.server.memcached.configuration.MemcachedServerConfiguration
-import org.infinispan.AdvancedCache
+import org.infinispan.server.memcached.transport.MemcachedChannelInitializer
+import org.infinispan.{AdvancedCache, IllegalLifecycleStateException}
 import org.infinispan.configuration.cache.ConfigurationBuilder
 import org.infinispan.server.memcached.logging.Log
 
@@ -14,6 +16,10 @@ import org.infinispan.server.memcached.logging.Log
  * Memcached server defining its decoder/encoder settings. In fact, Memcached does not use an encoder since there's
  * no really common headers between protocol operations.
  *
+ * Both the text and the binary protocols are served on the same port: the protocol of each connection is detected
+ * from the first byte received, see {@link MemcachedProtocolDetector}. The cache operations are executed by the
+ * {@link MemcachedContextHandler} in a separate thread pool, sized with the configured number of worker threads.
+ *
  * @author Galder Zamarreño
  * @since 4.1
  */
@@ -22,6 +28,7 @@ class MemcachedServer extends AbstractProtocolServer("Memcached") with Log {
 
    protected lazy val scheduler = Executors.newScheduledThreadPool(1)
    private var memcachedCache: AdvancedCache[String, Array[Byte]] = _
+   protected var executor: ExecutorService = _
 
    override def startInternal(configuration: MemcachedServerConfiguration, cacheManager: EmbeddedCacheManager) {
       if (!cacheManager.cacheExists(configuration.defaultCacheName)) {
@@ -42,15 +49,42 @@ class MemcachedServer extends AbstractProtocolServer("Memcached") with Log {
    override def getDecoder: MemcachedDecoder =
       new MemcachedDecoder(memcachedCache, scheduler, transport, isCacheIgnored)
 
+   def getBinaryDecoder: MemcachedBinaryDecoder =
+      new MemcachedBinaryDecoder(memcachedCache, scheduler, transport, isCacheIgnored, configuration.maxItemSize)
+
    override def stop {
       super.stop
       scheduler.shutdown()
+      if (executor != null) executor.shutdownNow()
+   }
+
+   val abortPolicy = new AbortPolicy {
+      override def rejectedExecution(r: Runnable, e: ThreadPoolExecutor) = {
+         if (executor.isShutdown)
+            throw new IllegalLifecycleStateException("Server has been stopped")
+         else
+            super.rejectedExecution(r, e)
+      }
+   }
+
+   def getExecutor(threadPrefix: String) = {
+      if (this.executor == null || this.executor.isShutdown) {
+         val factory = new DefaultThreadFactory(threadPrefix + "ServerHandler")
+         this.executor = new ThreadPoolExecutor(
+            getConfiguration.workerThreads(),
+            getConfiguration.workerThreads(),
+            0L, TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue[Runnable],
+            factory,
+            abortPolicy)
+      }
+      executor
    }
 
    /**
      * Returns a pipeline factory
      */
    override def getInitializer: ChannelInitializer[Channel] = {
-      new NettyChannelInitializer(this, transport, getEncoder) {}
+      new MemcachedChannelInitializer(this, transport, getEncoder, getExecutor(getQualifiedName()))
    }
 }
@@ -15,12 +15,22 @@
 @BuiltBy(MemcachedServerConfigurationBuilder.class)
 public class MemcachedServerConfiguration extends ProtocolServerConfiguration {
 
-   MemcachedServerConfiguration(String defaultCacheName, String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads, Set<String> ignoredCaches) {
+   private final int maxItemSize;
+
+   MemcachedServerConfiguration(String defaultCacheName, String name, String host, int port, int idleTimeout, int recvBufSize, int sendBufSize, SslConfiguration ssl, boolean tcpNoDelay, int workerThreads, Set<String> ignoredCaches, int maxItemSize) {
       super(defaultCacheName, name, host, port, idleTimeout, recvBufSize, sendBufSize, ssl, tcpNoDelay, workerThreads, ignoredCaches);
+      this.maxItemSize = maxItemSize;
+   }
+
+   /**
+    * @return the maximum size in bytes of the values stored through the binary protocol
+    */
+   public int maxItemSize() {
+      return maxItemSize;
    }
 
    @Override
    public String toString() {
-      return "MemcachedServerConfiguration [" + super.toString() + "]";
+      return "MemcachedServerConfiguration [maxItemSize=" + maxItemSize + ", " + super.toString() + "]";
    }
 }
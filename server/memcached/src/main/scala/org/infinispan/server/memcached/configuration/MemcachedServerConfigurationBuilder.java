@@ -2,6 +2,8 @@
 
 import org.infinispan.commons.configuration.Builder;
 import org.infinispan.server.core.configuration.ProtocolServerConfigurationBuilder;
+import org.infinispan.server.memcached.logging.JavaLog;
+import org.infinispan.util.logging.LogFactory;
 
 /**
  * MemcachedServerConfigurationBuilder.
@@ -11,6 +13,9 @@
  */
 public class MemcachedServerConfigurationBuilder extends ProtocolServerConfigurationBuilder<MemcachedServerConfiguration, MemcachedServerConfigurationBuilder> implements
       Builder<MemcachedServerConfiguration> {
+   private static final JavaLog log = LogFactory.getLog(MemcachedServerConfigurationBuilder.class, JavaLog.class);
+
+   private int maxItemSize = 1024 * 1024;
 
    public MemcachedServerConfigurationBuilder() {
       super(11211);
@@ -31,9 +36,26 @@ public MemcachedServerConfigurationBuilder cache(String cache) {
       return this;
    }
 
+   /**
+    * Sets the maximum size in bytes of the values stored through the binary protocol. The connections sending larger
+    * requests are answered with a "value too large" error and closed. Defaults to 1 MB, like Memcached.
+    */
+   public MemcachedServerConfigurationBuilder maxItemSize(int maxItemSize) {
+      this.maxItemSize = maxItemSize;
+      return this;
+   }
+
+   @Override
+   public void validate() {
+      super.validate();
+      if (maxItemSize <= 0) {
+         throw log.illegalMaxItemSize(maxItemSize);
+      }
+   }
+
    @Override
    public MemcachedServerConfiguration create() {
-      return new MemcachedServerConfiguration(defaultCacheName, name, host, port, idleTimeout, recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads, ignoredCaches);
+      return new MemcachedServerConfiguration(defaultCacheName, name, host, port, idleTimeout, recvBufSize, sendBufSize, ssl.create(), tcpNoDelay, workerThreads, ignoredCaches, maxItemSize);
    }
 
    public MemcachedServerConfiguration build(boolean validate) {
@@ -51,6 +73,7 @@ public MemcachedServerConfiguration build() {
    @Override
    public Builder<?> read(MemcachedServerConfiguration template) {
       super.read(template);
+      this.maxItemSize = template.maxItemSize();
       return this;
    }
 }
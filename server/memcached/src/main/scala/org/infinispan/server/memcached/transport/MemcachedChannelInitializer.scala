@@ -0,0 +1,23 @@
+package org.infinispan.server.memcached.transport
+
+import java.util.concurrent.ExecutorService
+
+import io.netty.channel.{Channel, ChannelOutboundHandler}
+import org.infinispan.server.core.transport.{NettyChannelInitializer, NettyTransport}
+import org.infinispan.server.memcached.{MemcachedContextHandler, MemcachedProtocolDetector, MemcachedServer}
+
+/**
+  * Memcached specific channel initializer
+  *
+  * @since 9.0
+  */
+class MemcachedChannelInitializer(val server: MemcachedServer, transport: => NettyTransport,
+                                  val encoder: ChannelOutboundHandler, executor: ExecutorService)
+      extends NettyChannelInitializer(server, transport, encoder) {
+
+   override def initChannel(ch: Channel): Unit = {
+      super.initChannel(ch)
+      ch.pipeline.addBefore("decoder", "protocol-detector", new MemcachedProtocolDetector(server))
+      ch.pipeline.addAfter("decoder", "handler", new MemcachedContextHandler(executor))
+   }
+}
@@ -0,0 +1,252 @@
+package org.infinispan.server.memcached
+
+import java.io.{DataInputStream, DataOutputStream}
+import java.lang.reflect.Method
+import java.net.{InetSocketAddress, Socket}
+import java.nio.ByteBuffer
+import java.util
+import java.util.concurrent.TimeUnit
+
+import net.spy.memcached.{BinaryConnectionFactory, MemcachedClient}
+import org.infinispan.server.memcached.BinaryProtocolUtil._
+import org.infinispan.test.TestingUtil._
+import org.testng.Assert._
+import org.testng.annotations.{AfterClass, Test}
+
+import scala.collection.JavaConverters._
+
+/**
+ * Tests the Memcached binary protocol, which is served on the same port as the text protocol.
+ *
+ * @since 9.0
+ */
+@Test(groups = Array("functional"), testName = "server.memcached.MemcachedBinaryProtocolTest")
+class MemcachedBinaryProtocolTest extends MemcachedSingleNodeTest {
+
+   private lazy val binaryClient = new MemcachedClient(new BinaryConnectionFactory,
+      util.Arrays.asList(new InetSocketAddress(server.getHost, server.getPort)))
+
+   @AfterClass(alwaysRun = true)
+   def shutdownBinaryClient() {
+      binaryClient.shutdown()
+   }
+
+   def testSetAndGet(m: Method) {
+      val f = binaryClient.set(k(m), 0, v(m))
+      assertTrue(f.get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertEquals(binaryClient.get(k(m)), v(m))
+      // The text protocol sees the same data
+      assertEquals(client.get(k(m)), v(m))
+   }
+
+   def testAddAndReplace(m: Method) {
+      assertFalse(binaryClient.replace(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.add(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertFalse(binaryClient.add(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.replace(k(m), 0, v(m, "v1-")).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertEquals(binaryClient.get(k(m)), v(m, "v1-"))
+   }
+
+   def testDelete(m: Method) {
+      assertTrue(binaryClient.set(k(m), 0, v(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.delete(k(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertNull(binaryClient.get(k(m)))
+      assertFalse(binaryClient.delete(k(m)).get(timeout, TimeUnit.SECONDS).booleanValue)
+   }
+
+   def testGetBulk(m: Method) {
+      for (i <- 1 to 3)
+         assertTrue(binaryClient.set(k(m, "k" + i + "-"), 0, v(m, "v" + i + "-")).get(timeout, TimeUnit.SECONDS).booleanValue)
+      val keys = (1 to 4).map(i => k(m, "k" + i + "-"))
+      val values = binaryClient.getBulk(keys.asJava).asScala
+      assertEquals(values.size, 3)
+      for (i <- 1 to 3)
+         assertEquals(values(k(m, "k" + i + "-")), v(m, "v" + i + "-"))
+   }
+
+   def testPipelinedQuietRequests(m: Method) {
+      val socket = new Socket(server.getHost, server.getPort)
+      try {
+         val out = new DataOutputStream(socket.getOutputStream)
+         // SETQ only answers on failure, GETQ only on hits and NOOP always answers
+         writeRequest(out, SETQ, k(m, "k1-"), v(m, "v1-"), 1)
+         writeRequest(out, SETQ, k(m, "k2-"), v(m, "v2-"), 2)
+         writeRequest(out, GETQ, k(m, "k1-"), null, 3)
+         writeRequest(out, GETQ, k(m, "missing-"), null, 4)
+         writeRequest(out, GETKQ, k(m, "k2-"), null, 5)
+         writeRequest(out, NOOP, null, null, 6)
+         out.flush()
+
+         val in = new DataInputStream(socket.getInputStream)
+         val first = readResponse(in)
+         assertEquals(first.opcode, GETQ)
+         assertEquals(first.status, NO_ERROR)
+         assertEquals(first.opaque, 3)
+         assertEquals(new String(first.value), v(m, "v1-"))
+         val second = readResponse(in)
+         assertEquals(second.opcode, GETKQ)
+         assertEquals(second.opaque, 5)
+         assertEquals(second.key, k(m, "k2-"))
+         assertEquals(new String(second.value), v(m, "v2-"))
+         val noop = readResponse(in)
+         assertEquals(noop.opcode, NOOP)
+         assertEquals(noop.opaque, 6)
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testIncrementAndDecrement(m: Method) {
+      assertEquals(binaryClient.incr(k(m), 1L), -1L)
+      assertTrue(binaryClient.set(k(m), 0, "1").get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertEquals(binaryClient.incr(k(m), 10L), 11L)
+      assertEquals(binaryClient.decr(k(m), 20L), 0L)
+      // The counter is stored as text, so the text protocol sees the same value
+      assertEquals(client.get(k(m)), "0")
+   }
+
+   def testIncrementCreatesCounter(m: Method) {
+      assertEquals(binaryClient.incr(k(m), 5L, 100L), 100L)
+      assertEquals(binaryClient.incr(k(m), 5L, 100L), 105L)
+      assertEquals(binaryClient.decr(k(m), 5L, 100L), 100L)
+   }
+
+   def testAppendAndPrepend(m: Method) {
+      assertFalse(binaryClient.append(0, k(m), "c").get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.set(k(m), 0, "b").get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.append(0, k(m), "c").get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertTrue(binaryClient.prepend(0, k(m), "a").get(timeout, TimeUnit.SECONDS).booleanValue)
+      assertEquals(binaryClient.get(k(m)), "abc")
+   }
+
+   def testPipelinedQuietReadModifyWrite(m: Method) {
+      val socket = new Socket(server.getHost, server.getPort)
+      try {
+         val out = new DataOutputStream(socket.getOutputStream)
+         // The quiet increments and appends only answer on failure
+         writeRequest(out, SETQ, k(m, "k1-"), "1", 1)
+         writeRequest(out, INCREMENTQ, k(m, "k1-"), counterExtras(2), null, 2)
+         writeRequest(out, APPENDQ, k(m, "k1-"), Array.empty[Byte], "0", 3)
+         writeRequest(out, APPENDQ, k(m, "missing-"), Array.empty[Byte], "0", 4)
+         writeRequest(out, SETQ, k(m, "k2-"), "not a number", 5)
+         writeRequest(out, INCREMENTQ, k(m, "k2-"), counterExtras(1), null, 6)
+         writeRequest(out, GETQ, k(m, "k1-"), null, 7)
+         writeRequest(out, NOOP, null, null, 8)
+         out.flush()
+
+         val in = new DataInputStream(socket.getInputStream)
+         val notStored = readResponse(in)
+         assertEquals(notStored.opcode, APPENDQ)
+         assertEquals(notStored.status, ITEM_NOT_STORED)
+         assertEquals(notStored.opaque, 4)
+         val nonNumeric = readResponse(in)
+         assertEquals(nonNumeric.opcode, INCREMENTQ)
+         assertEquals(nonNumeric.status, NON_NUMERIC_VALUE)
+         assertEquals(nonNumeric.opaque, 6)
+         val get = readResponse(in)
+         assertEquals(get.opaque, 7)
+         assertEquals(new String(get.value), "30")
+         val noop = readResponse(in)
+         assertEquals(noop.opcode, NOOP)
+         assertEquals(noop.opaque, 8)
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testUnknownCommand() {
+      val socket = new Socket(server.getHost, server.getPort)
+      try {
+         val out = new DataOutputStream(socket.getOutputStream)
+         writeRequest(out, 0x1f.toByte, null, null, 7)
+         out.flush()
+         val response = readResponse(new DataInputStream(socket.getInputStream))
+         assertEquals(response.status, UNKNOWN_COMMAND)
+         assertEquals(response.opaque, 7)
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testValueTooLarge(m: Method) {
+      val socket = new Socket(server.getHost, server.getPort)
+      try {
+         val out = new DataOutputStream(socket.getOutputStream)
+         val key = k(m).getBytes
+         // Only the header of a request announcing a value larger than the default maximum item size
+         out.writeByte(MAGIC_REQUEST)
+         out.writeByte(SET)
+         out.writeShort(key.length)
+         out.writeByte(8)
+         out.writeByte(0)
+         out.writeShort(0)
+         out.writeInt(8 + key.length + 2 * 1024 * 1024)
+         out.writeInt(9)
+         out.writeLong(0)
+         out.flush()
+
+         val in = new DataInputStream(socket.getInputStream)
+         val response = readResponse(in)
+         assertEquals(response.opcode, SET)
+         assertEquals(response.status, VALUE_TOO_LARGE)
+         assertEquals(response.opaque, 9)
+         // The body isn't buffered, the connection is closed
+         assertEquals(in.read(), -1)
+      } finally {
+         socket.close()
+      }
+      assertNull(binaryClient.get(k(m)))
+   }
+
+   private def writeRequest(out: DataOutputStream, opcode: Byte, key: String, value: String, opaque: Int) {
+      // Flags and expiration
+      val extras = if (value != null) new Array[Byte](8) else Array.empty[Byte]
+      writeRequest(out, opcode, key, extras, value, opaque)
+   }
+
+   private def writeRequest(out: DataOutputStream, opcode: Byte, key: String, extras: Array[Byte], value: String,
+                            opaque: Int) {
+      val keyBytes = if (key != null) key.getBytes else Array.empty[Byte]
+      val valueBytes = if (value != null) value.getBytes else Array.empty[Byte]
+      out.writeByte(MAGIC_REQUEST)
+      out.writeByte(opcode)
+      out.writeShort(keyBytes.length)
+      out.writeByte(extras.length)
+      out.writeByte(0)
+      out.writeShort(0)
+      out.writeInt(extras.length + keyBytes.length + valueBytes.length)
+      out.writeInt(opaque)
+      out.writeLong(0)
+      out.write(extras)
+      out.write(keyBytes)
+      out.write(valueBytes)
+   }
+
+   /**
+    * The extras of an increment or decrement which doesn't create the counter.
+    */
+   private def counterExtras(delta: Long): Array[Byte] =
+      ByteBuffer.allocate(20).putLong(delta).putLong(0).putInt(-1).array()
+
+   private def readResponse(in: DataInputStream): BinaryResponse = {
+      assertEquals(in.readByte(), MAGIC_RESPONSE)
+      val opcode = in.readByte()
+      val keyLength = in.readUnsignedShort()
+      val extrasLength = in.readUnsignedByte()
+      in.readByte() // Data type
+      val status = in.readShort()
+      val bodyLength = in.readInt()
+      val opaque = in.readInt()
+      in.readLong() // CAS
+      in.skipBytes(extrasLength)
+      val key = new Array[Byte](keyLength)
+      in.readFully(key)
+      val value = new Array[Byte](bodyLength - extrasLength - keyLength)
+      in.readFully(value)
+      new BinaryResponse(opcode, status, opaque, new String(key), value)
+   }
+
+   private class BinaryResponse(val opcode: Byte, val status: Short, val opaque: Int, val key: String,
+                                val value: Array[Byte])
+
+}
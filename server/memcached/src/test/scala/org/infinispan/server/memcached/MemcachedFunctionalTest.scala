@@ -9,7 +9,7 @@ import org.infinispan.test.TestingUtil._
 import org.infinispan.notifications.Listener
 import org.infinispan.notifications.cachelistener.annotation.CacheEntryRemoved
 import org.infinispan.notifications.cachelistener.event.CacheEntryRemovedEvent
-import java.util.concurrent.{CountDownLatch, TimeUnit}
+import java.util.concurrent.{Callable, CountDownLatch, TimeUnit}
 import org.infinispan.test.fwk.TestCacheManagerFactory
 import org.infinispan.Version
 import test.MemcachedTestingUtil._
@@ -266,6 +266,22 @@ class MemcachedFunctionalTest extends MemcachedSingleNodeTest {
       assertEquals(responses.tail.tail.tail.head, "NOT_FOUND")
    }
 
+   def testPipelinedSetAndMultiGet(m: Method) {
+      val k1 = k(m, "k1-")
+      val k2 = k(m, "k2-")
+      val responses = sendMulti(
+         "set %s 0 0 1\r\na\r\nset %s 0 0 1 noreply\r\nb\r\nget %s missing %s %s\r\n"
+                 .format(k1, k2, k2, k1, k2), 6, true)
+      assertEquals(responses.length, 6)
+      assertEquals(responses.head, "STORED")
+      // The values are returned in the order of the keys, without duplicates
+      assertEquals(responses(1), "VALUE %s 0 1".format(k2))
+      assertEquals(responses(2), "b")
+      assertEquals(responses(3), "VALUE %s 0 1".format(k1))
+      assertEquals(responses(4), "a")
+      assertEquals(responses(5), "END")
+   }
+
    private def withNoReply(m: Method, op: String) {
       val f = client.set(k(m), 0, "blah")
       assertTrue(f.get(timeout, TimeUnit.SECONDS).booleanValue)
@@ -302,6 +318,24 @@ class MemcachedFunctionalTest extends MemcachedSingleNodeTest {
       assertEquals(result, 2)
    }
 
+   def testConcurrentIncrements(m: Method) {
+      val f = client.set(k(m), 0, "0")
+      assertTrue(f.get(timeout, TimeUnit.SECONDS).booleanValue)
+      val numClients = 4
+      val numIncrements = 100
+      val clients = (1 to numClients).map(_ => createMemcachedClient(60000, server.getPort))
+      try {
+         val futures = clients.map(c => fork(new Callable[Unit] {
+            override def call(): Unit = for (i <- 1 to numIncrements) c.incr(k(m), 1)
+         }))
+         futures.foreach(_.get(timeout, TimeUnit.SECONDS))
+      } finally {
+         clients.foreach(killMemcachedClient)
+      }
+      // Increments are executed atomically on the owner, so none of them can be lost or fail
+      assertEquals(client.get(k(m)), (numClients * numIncrements).toString)
+   }
+
    def testIncrementTriple(m: Method) {
       val f = client.set(k(m), 0, "1")
       assertTrue(f.get(timeout, TimeUnit.SECONDS).booleanValue)
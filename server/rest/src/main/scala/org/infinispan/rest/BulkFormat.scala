@@ -0,0 +1,165 @@
+package org.infinispan.rest
+
+import java.io.ByteArrayInputStream
+import java.net.URLEncoder
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util.UUID
+
+import io.netty.buffer.{ByteBufAllocator, ByteBufOutputStream, CompositeByteBuf, Unpooled}
+import org.codehaus.jackson.{JsonEncoding, JsonNode, JsonProcessingException}
+import org.infinispan.container.entries.CacheEntry
+import org.infinispan.rest.RestRequestHandler._
+
+import scala.collection.mutable.ArrayBuffer
+
+/**
+ * Encodings of the bulk operations of the native endpoint, which carry several entries in a single body.
+ *
+ * @since 9.0
+ */
+sealed trait BulkFormat {
+
+   /**
+    * The value of the Content-Type header of the responses.
+    */
+   def contentType: String
+
+   /**
+    * Appends an entry, or only its key, to the buffer.
+    */
+   def append(buf: CompositeByteBuf, alloc: ByteBufAllocator, cacheName: String, key: String, contentType: String,
+              value: Array[Byte]): Unit
+
+   /**
+    * Appends whatever has to follow the last entry.
+    */
+   def appendEnd(buf: CompositeByteBuf): Unit
+
+   protected final def addComponent(buf: CompositeByteBuf, component: io.netty.buffer.ByteBuf): Unit = {
+      buf.addComponent(component)
+      buf.writerIndex(buf.writerIndex + component.readableBytes)
+   }
+
+}
+
+object BulkFormat {
+
+   val ApplicationNdJson = "application/x-ndjson"
+   val MultipartMixed = "multipart/mixed"
+
+   val MediaTypes = Seq(MultipartMixed, ApplicationNdJson)
+
+   def apply(mediaType: String): BulkFormat = mediaType match {
+      case ApplicationNdJson => NdJson
+      case MultipartMixed => new Multipart("infinispan-" + UUID.randomUUID())
+   }
+
+   def contentTypeOf(entry: CacheEntry[String, AnyRef]): String = entry.getMetadata match {
+      case mime: MimeMetadata => mime.contentType
+      case _ => entry.getValue match {
+         case _: Array[Byte] => ApplicationOctetStream
+         case _ => TextPlain
+      }
+   }
+
+   def valueOf(entry: CacheEntry[String, AnyRef]): Array[Byte] = entry.getValue match {
+      case ba: Array[Byte] => ba
+      case other => other.toString.getBytes(UTF_8)
+   }
+
+   /**
+    * One JSON object per line, with the key, the content type and the Base64 encoded value.
+    */
+   object NdJson extends BulkFormat {
+
+      val contentType = ApplicationNdJson
+
+      def append(buf: CompositeByteBuf, alloc: ByteBufAllocator, cacheName: String, key: String, contentType: String,
+                 value: Array[Byte]): Unit = {
+         val line = alloc.heapBuffer()
+         val generator = Server.JsonMapper.getJsonFactory.createJsonGenerator(new ByteBufOutputStream(line), JsonEncoding.UTF8)
+         generator.writeStartObject()
+         generator.writeStringField("key", key)
+         if (value != null) {
+            generator.writeStringField("contentType", contentType)
+            generator.writeBinaryField("value", value)
+         }
+         generator.writeEndObject()
+         generator.close()
+         line.writeByte('\n')
+         addComponent(buf, line)
+      }
+
+      def appendEnd(buf: CompositeByteBuf): Unit = {
+         // Nothing follows the last line
+      }
+
+      /**
+       * Parses the entries of a body, ignoring blank lines.
+       */
+      def parse(data: Array[Byte]): Seq[(String, String, Array[Byte])] = {
+         val entries = new ArrayBuffer[(String, String, Array[Byte])]
+         var start = 0
+         while (start < data.length) {
+            val newLine = data.indexOf('\n'.toByte, start)
+            val end = if (newLine < 0) data.length else newLine
+            if (data.slice(start, end).exists(b => !Character.isWhitespace(b)))
+               entries += parseLine(data, start, end - start)
+            start = end + 1
+         }
+         entries
+      }
+
+      private def parseLine(data: Array[Byte], offset: Int, length: Int): (String, String, Array[Byte]) = {
+         val node = try {
+            Server.JsonMapper.readTree(new ByteArrayInputStream(data, offset, length))
+         } catch {
+            case e: JsonProcessingException => throw new InvalidRequestException("Invalid entry: " + e.getMessage)
+         }
+         val key = field(node, "key").getTextValue
+         val contentType = Option(node.get("contentType")).map(_.getTextValue).getOrElse(ApplicationOctetStream)
+         (key, contentType, field(node, "value").getBinaryValue)
+      }
+
+      private def field(node: JsonNode, name: String): JsonNode = {
+         val value = node.get(name)
+         if (value == null || value.isNull)
+            throw new InvalidRequestException("Entry without " + name)
+         value
+      }
+
+   }
+
+   /**
+    * A part per entry, located by its URL relative to the cache. Values are appended without copying them.
+    */
+   class Multipart(boundary: String) extends BulkFormat {
+
+      val contentType = MultipartMixed + "; boundary=" + boundary
+
+      def append(buf: CompositeByteBuf, alloc: ByteBufAllocator, cacheName: String, key: String, contentType: String,
+                 value: Array[Byte]): Unit = {
+         val headers = new StringBuilder
+         headers.append("--").append(boundary).append("\r\n")
+         headers.append("Content-Location: ").append(cacheName).append('/').append(encodePathSegment(key)).append("\r\n")
+         if (value != null)
+            headers.append("Content-Type: ").append(contentType).append("\r\n")
+                  .append("Content-Length: ").append(value.length).append("\r\n")
+         headers.append("\r\n")
+         addComponent(buf, Unpooled.wrappedBuffer(headers.toString.getBytes(UTF_8)))
+         if (value != null && value.length > 0)
+            addComponent(buf, Unpooled.wrappedBuffer(value))
+         addComponent(buf, Unpooled.wrappedBuffer(CRLF))
+      }
+
+      def appendEnd(buf: CompositeByteBuf): Unit =
+         addComponent(buf, Unpooled.wrappedBuffer(("--" + boundary + "--\r\n").getBytes(UTF_8)))
+
+      private def encodePathSegment(segment: String): String =
+         URLEncoder.encode(segment, "UTF-8").replace("+", "%20")
+
+   }
+
+   private val CRLF = "\r\n".getBytes(UTF_8)
+
+}
@@ -131,6 +131,36 @@ private class MimeMaxIdleExpirableMetadata(override val contentType: String,
 
 }
 
+private class MimeVersionedMetadata(override val contentType: String,
+      lifespanTime: Long, lifespanUnit: TimeUnit,
+      maxIdleTime: Long, maxIdleUnit: TimeUnit,
+      entryVersion: EntryVersion) extends MimeExpirableMetadata(contentType, lifespanTime, lifespanUnit, maxIdleTime, maxIdleUnit) {
+
+   override def version(): EntryVersion = entryVersion
+
+   override def builder(): Builder = super.builder().version(entryVersion)
+
+   override def equals(obj: Any): Boolean = {
+      obj match {
+         case that: MimeVersionedMetadata =>
+            that.canEqual(this) &&
+                  contentType == that.contentType &&
+                  lifespan == that.lifespan &&
+                  maxIdle == that.maxIdle &&
+                  entryVersion == that.version()
+         case _ => false
+      }
+   }
+
+   override def canEqual(other: Any): Boolean = other.isInstanceOf[MimeVersionedMetadata]
+
+   override def hashCode(): Int = 41 * super.hashCode() + entryVersion.hashCode
+
+   override def toString: String =
+      s"MimeVersionedMetadata(contentType=$contentType, lifespan=$lifespan, maxIdle=$maxIdle, version=$entryVersion)"
+
+}
+
 class MimeMetadataBuilder extends EmbeddedMetadata.Builder {
 
    private var contentType: String = _
@@ -141,7 +171,10 @@ class MimeMetadataBuilder extends EmbeddedMetadata.Builder {
    }
 
    override def build(): Metadata = {
-      new MimeExpirableMetadata(contentType, lifespan, lifespanUnit, maxIdle, maxIdleUnit)
+      if (version != null)
+         new MimeVersionedMetadata(contentType, lifespan, lifespanUnit, maxIdle, maxIdleUnit, version)
+      else
+         new MimeExpirableMetadata(contentType, lifespan, lifespanUnit, maxIdle, maxIdleUnit)
    }
 }
 
@@ -155,13 +188,15 @@ object MimeMetadata {
       final val Expirable = 1
       final val LifespanExpirable = 2
       final val MaxIdleExpirable = 3
+      final val Versioned = 4
 
-      final val numbers = new IdentityIntMap[Class[_]](4)
+      final val numbers = new IdentityIntMap[Class[_]](5)
 
       numbers.put(classOf[MimeMetadata], Immortal)
       numbers.put(classOf[MimeExpirableMetadata], Expirable)
       numbers.put(classOf[MimeLifespanExpirableMetadata], LifespanExpirable)
       numbers.put(classOf[MimeMaxIdleExpirableMetadata], MaxIdleExpirable)
+      numbers.put(classOf[MimeVersionedMetadata], Versioned)
 
       def readObject(input: ObjectInput): MimeMetadata = {
          val contentType = input.readUTF()
@@ -178,6 +213,11 @@ object MimeMetadata {
             case MaxIdleExpirable =>
                val maxIdle = input.readLong()
                new MimeMaxIdleExpirableMetadata(contentType, maxIdle, MILLIS)
+            case Versioned =>
+               val lifespan = input.readLong()
+               val maxIdle = input.readLong()
+               val version = input.readObject().asInstanceOf[EntryVersion]
+               new MimeVersionedMetadata(contentType, lifespan, MILLIS, maxIdle, MILLIS, version)
          }
       }
 
@@ -194,13 +234,18 @@ object MimeMetadata {
                output.writeLong(meta.lifespan())
             case MaxIdleExpirable =>
                output.writeLong(meta.maxIdle())
+            case Versioned =>
+               output.writeLong(meta.lifespan())
+               output.writeLong(meta.maxIdle())
+               output.writeObject(meta.version())
          }
       }
 
       def getTypeClasses: util.Set[Class[_ <: MimeMetadata]] =
          setAsJavaSet(Set[java.lang.Class[_ <: MimeMetadata]](
             classOf[MimeMetadata], classOf[MimeExpirableMetadata],
-            classOf[MimeLifespanExpirableMetadata], classOf[MimeMaxIdleExpirableMetadata]))
+            classOf[MimeLifespanExpirableMetadata], classOf[MimeMaxIdleExpirableMetadata],
+            classOf[MimeVersionedMetadata]))
 
    }
 
@@ -7,6 +7,7 @@ import org.infinispan.commons.api.Lifecycle
 import org.infinispan.manager.{DefaultCacheManager, EmbeddedCacheManager}
 import org.infinispan.rest.configuration.{RestServerConfiguration, RestServerConfigurationBuilder}
 import org.infinispan.rest.logging.{RestAccessLoggingHandler, Log}
+import org.infinispan.rest.transport.RestTransport
 import org.infinispan.server.core.CacheIgnoreAware
 import org.jboss.resteasy.plugins.server.netty.NettyJaxrsServer
 import org.jboss.resteasy.spi.ResteasyDeployment
@@ -14,22 +15,32 @@ import scala.collection.JavaConversions._
 
 final class NettyRestServer (
       val cacheManager: EmbeddedCacheManager, val configuration: RestServerConfiguration,
-      netty: NettyJaxrsServer, onStop: EmbeddedCacheManager => Unit) extends Lifecycle with Log with CacheIgnoreAware {
+      netty: Option[NettyJaxrsServer], onStop: EmbeddedCacheManager => Unit) extends Lifecycle with Log with CacheIgnoreAware {
+
+   private var transport: RestTransport = _
 
    override def start(): Unit = {
-      netty.start()
-      val deployment = netty.getDeployment
       configuration.getIgnoredCaches.foreach(ignoreCache)
       val restCacheManager = new RestCacheManager(cacheManager, isCacheIgnored)
-      val server = new Server(configuration, restCacheManager)
-      deployment.getRegistry.addSingletonResource(server)
-      deployment.getProviderFactory.register(new RestAccessLoggingHandler, classOf[ContainerResponseFilter],
-         classOf[ContainerRequestFilter])
+      netty match {
+         case Some(jaxrs) =>
+            jaxrs.start()
+            val deployment = jaxrs.getDeployment
+            val server = new Server(configuration, restCacheManager)
+            deployment.getRegistry.addSingletonResource(server)
+            deployment.getProviderFactory.register(new RestAccessLoggingHandler, classOf[ContainerResponseFilter],
+               classOf[ContainerRequestFilter])
+         case None =>
+            transport = new RestTransport(configuration, restCacheManager)
+            transport.start()
+      }
       logStartRestServer(configuration.host(), configuration.port())
    }
 
    override def stop(): Unit = {
-      netty.stop()
+      netty.foreach(_.stop())
+      if (transport != null)
+         transport.stop()
       onStop(cacheManager)
    }
 
@@ -54,14 +65,18 @@ object NettyRestServer extends Log {
       // Start caches first, if not started
       startCaches(cm)
 
-      val netty = new NettyJaxrsServer()
-      val deployment = new ResteasyDeployment()
-      netty.setDeployment(deployment)
-      netty.setHostname(config.host())
-      netty.setPort(config.port())
-      netty.setRootResourcePath("")
-      netty.setSecurityDomain(null)
-      new NettyRestServer(cm, config, netty, onStop)
+      if (config.nativeEndpoint()) {
+         new NettyRestServer(cm, config, None, onStop)
+      } else {
+         val netty = new NettyJaxrsServer()
+         val deployment = new ResteasyDeployment()
+         netty.setDeployment(deployment)
+         netty.setHostname(config.host())
+         netty.setPort(config.port())
+         netty.setRootResourcePath("")
+         netty.setSecurityDomain(null)
+         new NettyRestServer(cm, config, Some(netty), onStop)
+      }
    }
 
    private def createCacheManager(cfgFile: String): EmbeddedCacheManager = {
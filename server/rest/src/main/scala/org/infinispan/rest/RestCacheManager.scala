@@ -6,10 +6,12 @@ import org.infinispan.{AdvancedCache, Cache}
 import org.infinispan.commons.api.BasicCacheContainer
 import org.infinispan.commons.util.CollectionFactory
 import org.infinispan.container.entries.{CacheEntry, InternalCacheEntry, MVCCEntry}
+import org.infinispan.container.versioning.{NumericVersionGenerator, VersionGenerator}
 import org.infinispan.context.Flag
 import org.infinispan.distribution.DistributionManager
 import org.infinispan.manager.EmbeddedCacheManager
 import org.infinispan.registry.InternalCacheRegistry
+import org.infinispan.remoting.rpc.RpcManager
 import org.infinispan.remoting.transport.Address
 import org.infinispan.remoting.transport.jgroups.JGroupsTransport
 
@@ -20,6 +22,9 @@ class RestCacheManager(instance: EmbeddedCacheManager, isCacheIgnored: String =>
    private val knownCaches : java.util.Map[String, AdvancedCache[String, Array[Byte]]] =
       CollectionFactory.makeConcurrentMap(4, 0.9f, 16)
 
+   private val versionGenerators : java.util.concurrent.ConcurrentMap[String, VersionGenerator] =
+      CollectionFactory.makeConcurrentMap(4, 0.9f, 16)
+
    def getCache(name: String): AdvancedCache[String, Array[Byte]] = {
       if(isCacheIgnored(name)) {
          throw new CacheUnavailableException("Cache with name '" + name + "' is temporarily unavailable.")
@@ -62,6 +67,27 @@ class RestCacheManager(instance: EmbeddedCacheManager, isCacheIgnored: String =>
       }
    }
 
+   /**
+    * Returns the generator for the versions used as entity tags by the native endpoint, registering one in the cache
+    * if no other component needs versions.
+    */
+   def getVersionGenerator(cacheName: String): VersionGenerator =
+      // Atomic, so that concurrent requests on a new cache share the same generator
+      versionGenerators.computeIfAbsent(cacheName, new java.util.function.Function[String, VersionGenerator] {
+         override def apply(name: String): VersionGenerator = {
+            val registry = getCache(name).getComponentRegistry
+            val cacheVersionGenerator = registry.getComponent(classOf[VersionGenerator])
+            if (cacheVersionGenerator == null) {
+               val numericGenerator = new NumericVersionGenerator()
+                  .clustered(registry.getComponent(classOf[RpcManager]) != null)
+               registry.registerComponent(numericGenerator, classOf[VersionGenerator])
+               numericGenerator
+            } else {
+               cacheVersionGenerator
+            }
+         }
+      })
+
    def getNodeName: Address = instance.getAddress
 
    def getServerAddress: String =
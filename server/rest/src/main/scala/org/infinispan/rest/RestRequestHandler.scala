@@ -0,0 +1,735 @@
+package org.infinispan.rest
+
+import java.io.{ObjectOutputStream, Serializable}
+import java.nio.charset.StandardCharsets.UTF_8
+import java.time.format.DateTimeFormatter
+import java.time.{Instant, ZoneId, ZonedDateTime}
+import java.util.concurrent.TimeUnit.{MILLISECONDS => MILLIS}
+import java.util.{Date, Locale}
+
+import io.netty.buffer.{ByteBuf, ByteBufOutputStream, CompositeByteBuf, Unpooled}
+import io.netty.channel.{ChannelFutureListener, ChannelHandlerContext, SimpleChannelInboundHandler}
+import io.netty.handler.codec.http.HttpHeaderNames._
+import io.netty.handler.codec.http.HttpMethod._
+import io.netty.handler.codec.http.HttpResponseStatus._
+import io.netty.handler.codec.http.HttpVersion.HTTP_1_1
+import io.netty.handler.codec.http._
+import io.netty.handler.codec.http2.HttpConversionUtil.ExtensionHeaderNames
+import io.netty.handler.stream.ChunkedInput
+import org.infinispan.AdvancedCache
+import org.infinispan.commons.hash.MurmurHash3
+import org.infinispan.container.entries.{CacheEntry, InternalCacheEntry}
+import org.infinispan.container.versioning.NumericVersion
+import org.infinispan.metadata.Metadata
+import org.infinispan.rest.RestRequestHandler._
+import org.infinispan.rest.configuration.{ExtendedHeaders, RestServerConfiguration}
+import org.infinispan.rest.logging.Log
+import org.infinispan.rest.transport.{ByteArrayChunkedInput, EntryChunkedInput}
+
+import scala.collection.JavaConverters._
+
+/**
+ * Serves the REST API directly from Netty, without going through the JAX-RS dispatch. It handles the same URLs,
+ * headers and {@link MimeMetadata} as {@link Server}, so both endpoints can be used against the same caches.
+ *
+ * Request bodies are copied once, chunk by chunk, into the array stored in the cache, and values are written back
+ * by wrapping the stored arrays. Values bigger than {@link ChunkSize} are written in chunks, so that a slow client
+ * does not cause whole values to be queued in the channel. Entity tags are derived from the entry versions.
+ * Requests with more content than {@link RestServerConfiguration#maxContentLength} are answered with 413.
+ *
+ * A handler instance is created per channel and runs on a separate executor, which keeps the responses to pipelined
+ * requests in order.
+ *
+ * @since 9.0
+ */
+class RestRequestHandler(configuration: RestServerConfiguration, manager: RestCacheManager)
+      extends SimpleChannelInboundHandler[HttpObject] with Log {
+
+   private var request: HttpRequest = _
+   private var body: RequestBody = _
+   // Set when the content of the current request is larger than the maximum, until the request has been read
+   private var tooLarge = false
+   // Set once a request has been rejected, until the connection is closed
+   private var rejected = false
+
+   override def channelRead0(ctx: ChannelHandlerContext, msg: HttpObject): Unit = {
+      if (rejected)
+         return
+
+      msg match {
+         case req: HttpRequest =>
+            request = req
+            val contentLength = HttpUtil.getContentLength(req, -1L)
+            if (contentLength > configuration.maxContentLength()) {
+               rejectTooLarge(ctx)
+               return
+            }
+            if (HttpUtil.is100ContinueExpected(req))
+               ctx.writeAndFlush(new DefaultFullHttpResponse(HTTP_1_1, CONTINUE))
+            if (req.method == PUT || req.method == POST)
+               body = new RequestBody(ctx, contentLength, configuration.maxContentLength())
+         case _ => // Content of the current request
+      }
+      msg match {
+         case content: HttpContent =>
+            if (body != null && !body.append(content)) {
+               // The rest of the content is discarded, and the request answered once it has been read
+               releaseBody()
+               tooLarge = true
+            }
+            if (content.isInstanceOf[LastHttpContent]) {
+               val req = request
+               val data = if (body != null) body.toArray else null
+               request = null
+               body = null
+               if (tooLarge) {
+                  tooLarge = false
+                  write(ctx, req, new Reply(REQUEST_ENTITY_TOO_LARGE))
+               } else {
+                  handle(ctx, req, data)
+               }
+            }
+         case _ => // Request without content
+      }
+   }
+
+   override def userEventTriggered(ctx: ChannelHandlerContext, evt: AnyRef): Unit = {
+      evt match {
+         case upgrade: HttpServerUpgradeHandler.UpgradeEvent =>
+            // The request that asked for the HTTP/2 upgrade is answered on the first stream
+            try {
+               val req = upgrade.upgradeRequest
+               req.headers.setInt(ExtensionHeaderNames.STREAM_ID.text, 1)
+               channelRead0(ctx, req)
+            } finally {
+               upgrade.release()
+            }
+         case _ => super.userEventTriggered(ctx, evt)
+      }
+   }
+
+   override def channelInactive(ctx: ChannelHandlerContext): Unit = {
+      releaseBody()
+      super.channelInactive(ctx)
+   }
+
+   override def exceptionCaught(ctx: ChannelHandlerContext, cause: Throwable): Unit = {
+      releaseBody()
+      logExceptionReported(cause)
+      ctx.close()
+   }
+
+   /**
+    * Answers 413 to a request whose declared content length is larger than the configured maximum. The content is
+    * not read, so the connection is closed.
+    */
+   private def rejectTooLarge(ctx: ChannelHandlerContext): Unit = {
+      val req = request
+      releaseBody()
+      request = null
+      rejected = true
+      HttpUtil.setKeepAlive(req, false)
+      write(ctx, req, new Reply(REQUEST_ENTITY_TOO_LARGE))
+   }
+
+   private def releaseBody(): Unit = {
+      if (body != null) {
+         body.release()
+         body = null
+      }
+   }
+
+   private def handle(ctx: ChannelHandlerContext, req: HttpRequest, data: Array[Byte]): Unit = {
+      val reply =
+         if (req.decoderResult.isFailure) {
+            new Reply(BAD_REQUEST)
+         } else {
+            try {
+               route(req, data)
+            } catch {
+               case e: CacheNotFoundException => new Reply(NOT_FOUND)
+               case e: InvalidRequestException => new Reply(BAD_REQUEST).text(e.getMessage)
+               case e: Exception => new Reply(INTERNAL_SERVER_ERROR).text(e.getMessage)
+            }
+         }
+      write(ctx, req, reply)
+   }
+
+   private def route(req: HttpRequest, data: Array[Byte]): Reply = {
+      val uri = req.uri
+      val queryStart = uri.indexOf('?')
+      val path = if (queryStart < 0) uri else uri.substring(0, queryStart)
+      val segments = path.split('/').filter(!_.isEmpty).map(decodePathSegment)
+      val params = new QueryStringDecoder(uri).parameters.asScala
+      segments match {
+         case Array("rest", cacheName) => (req.method, params.get("action").flatMap(_.asScala.headOption)) match {
+            case (GET, None) => getKeys(req, cacheName)
+            case (GET, Some("export")) => exportEntries(req, cacheName, params)
+            case (POST, Some("getAll")) => getAll(req, cacheName, params, data)
+            case (POST, Some("putAll")) => putAll(req, cacheName, data)
+            case (DELETE, None) => killCache(req, cacheName)
+            case (_, Some(action)) => new Reply(BAD_REQUEST).text("Unknown action: " + action)
+            case _ => new Reply(METHOD_NOT_ALLOWED)
+         }
+         case Array("rest", cacheName, key) => req.method match {
+            case GET | HEAD => getEntry(req, cacheName, key, params.contains("extended"))
+            case PUT | POST => putEntry(req, cacheName, key, data)
+            case DELETE => removeEntry(req, cacheName, key)
+            case _ => new Reply(METHOD_NOT_ALLOWED)
+         }
+         case _ => new Reply(NOT_FOUND)
+      }
+   }
+
+   private def getKeys(req: HttpRequest, cacheName: String): Reply = {
+      val keys = manager.getCache(cacheName).keySet.asScala
+      val sb = new StringBuilder
+      selectMediaType(req.headers.get(ACCEPT), CollectionMediaTypes) match {
+         case Some(TextHtml) =>
+            sb.append("<html><body>")
+            keys.foreach { key =>
+               val hkey = Escaper.escapeHtml(key)
+               sb.append("<a href=\"").append(cacheName).append('/').append(hkey).append("\">")
+                     .append(hkey).append("</a><br/>")
+            }
+            sb.append("</body></html>")
+            new Reply(OK).contentType(TextHtml).body(sb.toString.getBytes(UTF_8))
+         case Some(ApplicationXml) =>
+            sb.append("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n\n<keys>")
+            keys.foreach(key => sb.append("<key>").append(Escaper.escapeXml(key)).append("</key>"))
+            sb.append("</keys>")
+            new Reply(OK).contentType(ApplicationXml).body(sb.toString.getBytes(UTF_8))
+         case Some(ApplicationJson) =>
+            sb.append(keys.map(key => "\"" + Escaper.escapeJson(key) + "\"").mkString("keys=[", ",", "]"))
+            new Reply(OK).contentType(ApplicationJson).body(sb.toString.getBytes(UTF_8))
+         case Some(mediaType) =>
+            keys.foreach(key => sb.append(key).append(System.lineSeparator()))
+            new Reply(OK).contentType(mediaType).body(sb.toString.getBytes(UTF_8))
+         case None => new Reply(NOT_ACCEPTABLE)
+      }
+   }
+
+   private def getEntry(req: HttpRequest, cacheName: String, key: String, extended: Boolean): Reply = {
+      manager.getInternalEntry[AnyRef](cacheName, key) match {
+         case ice: InternalCacheEntry[String, AnyRef] =>
+            val lastMod = lastModified(ice)
+            val expires = if (ice.canExpire) new Date(ice.getExpiryTime) else null
+            if (!entryFreshEnough(expires, minFresh(req))) {
+               new Reply(NOT_FOUND)
+            } else {
+               val reply = ice.getMetadata match {
+                  case meta: MimeMetadata =>
+                     val etag = calcETag(ice, meta)
+                     evaluatePreconditions(req, lastMod, etag).getOrElse(
+                        new Reply(OK).contentType(meta.contentType).etag(etag).body(toBytes(ice.getValue)))
+                  case meta: Metadata => ice.getValue match {
+                     case s: String => new Reply(OK).contentType(TextPlain).body(s.getBytes(UTF_8))
+                     case ba: Array[Byte] => new Reply(OK).contentType(ApplicationOctetStream).body(ba)
+                     case obj => marshall(req, obj)
+                  }
+               }
+               if (reply.status == OK)
+                  reply.lastModified(lastMod).expires(expires).mortality(ice.getMetadata)
+                        .extended(cacheName, key, wantExtendedHeaders(extended))
+               else
+                  reply
+            }
+         case _ => new Reply(NOT_FOUND)
+      }
+   }
+
+   private def marshall(req: HttpRequest, obj: AnyRef): Reply = {
+      // For objects other than String or byte arrays, accept only JSON, XML and X_JAVA_SERIALIZABLE_OBJECT
+      selectMediaType(req.headers.get(ACCEPT), EntryMediaTypes) match {
+         case Some(ApplicationJson) =>
+            new Reply(OK).contentType(ApplicationJson).body(streamIt(Server.JsonMapper.writeValue(_, obj)))
+         case Some(ApplicationXml) =>
+            new Reply(OK).contentType(ApplicationXml).body(streamIt(Server.Xstream.toXML(obj, _)))
+         case Some(ApplicationXJavaSerializedObject) => obj match {
+            case ser: Serializable =>
+               new Reply(OK).contentType(ApplicationXJavaSerializedObject)
+                     .body(streamIt(new ObjectOutputStream(_).writeObject(ser)))
+            case _ => new Reply(NOT_ACCEPTABLE)
+         }
+         case _ => new Reply(NOT_ACCEPTABLE)
+      }
+   }
+
+   private def putEntry(req: HttpRequest, cacheName: String, key: String, data: Array[Byte]): Reply = {
+      val cache = manager.getCache(cacheName)
+      if (req.method == POST && cache.containsKey(key)) {
+         new Reply(CONFLICT)
+      } else {
+         val builder = Server.metadataBuilder(cache.getCacheConfiguration,
+            Option(req.headers.get(CONTENT_TYPE)).getOrElse(ApplicationOctetStream),
+            longHeader(req, Server.TimeToLiveHeader), longHeader(req, Server.MaxIdleTimeHeader))
+         builder.version(manager.getVersionGenerator(cacheName).generateNew())
+         val metadata = builder.build()
+         manager.getInternalEntry[Array[Byte]](cacheName, key, skipListener = true) match {
+            case ice: InternalCacheEntry[String, Array[Byte]] => ice.getMetadata match {
+               case mime: MimeMetadata =>
+                  // The item already exists in the cache, evaluate preconditions based on its attributes and the headers
+                  evaluatePreconditions(req, lastModified(ice), calcETag(ice, mime)).getOrElse {
+                     if (performAsync(req)) {
+                        cache.putAsync(key, data, metadata)
+                        new Reply(OK)
+                     } else if (cache.replace(key, ice.getValue, data, metadata)) {
+                        new Reply(OK)
+                     } else {
+                        // If not replaced, simply send back that the precondition failed
+                        new Reply(PRECONDITION_FAILED)
+                     }
+                  }
+               case _ => put(req, cache, key, data, metadata)
+            }
+            case _ => put(req, cache, key, data, metadata)
+         }
+      }
+   }
+
+   private def put(req: HttpRequest, cache: AdvancedCache[String, Array[Byte]], key: String,
+                   data: Array[Byte], metadata: Metadata): Reply = {
+      if (performAsync(req))
+         cache.putAsync(key, data, metadata)
+      else
+         cache.put(key, data, metadata)
+      new Reply(OK)
+   }
+
+   private def removeEntry(req: HttpRequest, cacheName: String, key: String): Reply = {
+      manager.getInternalEntry[AnyRef](cacheName, key) match {
+         case ice: InternalCacheEntry[String, AnyRef] =>
+            val precondition = ice.getMetadata match {
+               // The item exists in the cache, evaluate preconditions based on its attributes and the headers
+               case meta: MimeMetadata => evaluatePreconditions(req, lastModified(ice), calcETag(ice, meta))
+               case _ => None
+            }
+            precondition.getOrElse {
+               val cache = manager.getCache(cacheName)
+               if (performAsync(req)) cache.removeAsync(key) else cache.remove(key)
+               new Reply(OK)
+            }
+         case _ => new Reply(NOT_FOUND)
+      }
+   }
+
+   /**
+    * Returns the entries of the keys listed in the body, one per line, and in the key parameters. Keys without an
+    * entry are left out of the response.
+    */
+   private def getAll(req: HttpRequest, cacheName: String, params: collection.Map[String, java.util.List[String]],
+                      data: Array[Byte]): Reply = {
+      val bodyKeys = if (data != null) new String(data, UTF_8).split("\r?\n").filter(!_.isEmpty).toSeq else Seq.empty
+      val keys = (params.get("key").map(_.asScala).getOrElse(Seq.empty) ++ bodyKeys).distinct
+      selectMediaType(req.headers.get(ACCEPT), BulkFormat.MediaTypes) match {
+         case Some(mediaType) =>
+            val entries = manager.getCache(cacheName).getAllCacheEntries(keys.toSet.asJava)
+            val found = keys.iterator.map(entries.get).filter(_ != null).asInstanceOf[Iterator[CacheEntry[String, AnyRef]]]
+            streamEntries(cacheName, found, BulkFormat(mediaType), keysOnly = false, () => ())
+         case None => new Reply(NOT_ACCEPTABLE)
+      }
+   }
+
+   /**
+    * Stores the entries of a body with one JSON entry per line. Entries are grouped by content type, and each group
+    * is stored with a single putAll.
+    */
+   private def putAll(req: HttpRequest, cacheName: String, data: Array[Byte]): Reply = {
+      val entries = if (data != null) BulkFormat.NdJson.parse(data) else Seq.empty
+      val cache = manager.getCache(cacheName)
+      val ttl = longHeader(req, Server.TimeToLiveHeader)
+      val idleTime = longHeader(req, Server.MaxIdleTimeHeader)
+      entries.groupBy(_._2).foreach { case (contentType, group) =>
+         val builder = Server.metadataBuilder(cache.getCacheConfiguration, contentType, ttl, idleTime)
+         builder.version(manager.getVersionGenerator(cacheName).generateNew())
+         val map = new java.util.HashMap[String, Array[Byte]](group.size * 2)
+         group.foreach { case (key, _, value) => map.put(key, value) }
+         cache.putAll(map, builder.build())
+      }
+      new Reply(OK)
+   }
+
+   /**
+    * Streams all the entries of the cache, or only their keys, optionally restricted to some segments. Entries are
+    * retrieved with the distributed iterator, which only fetches the next batch when the client has read the
+    * previous ones.
+    */
+   private def exportEntries(req: HttpRequest, cacheName: String,
+                             params: collection.Map[String, java.util.List[String]]): Reply = {
+      def param(name: String): Option[String] = params.get(name).flatMap(_.asScala.headOption)
+      selectMediaType(req.headers.get(ACCEPT), BulkFormat.MediaTypes) match {
+         case Some(mediaType) =>
+            val cache = manager.getCache(cacheName)
+            var stream = cache.cacheEntrySet.stream
+            param("segments").foreach { segments =>
+               if (cache.getDistributionManager == null)
+                  throw new InvalidRequestException("Segments can only be used with distributed caches")
+               val ids = try segments.split(",").map(s => Integer.valueOf(s.trim)) catch {
+                  case e: NumberFormatException => throw new InvalidRequestException("Invalid segments: " + segments)
+               }
+               stream = stream.filterKeySegments(ids.toSet.asJava)
+            }
+            param("batchSize").foreach(batchSize => stream = stream.distributedBatchSize(batchSize.toInt))
+            val entries = stream.iterator.asScala.asInstanceOf[Iterator[CacheEntry[String, AnyRef]]]
+            val closeable = stream
+            streamEntries(cacheName, entries, BulkFormat(mediaType), param("keysOnly").exists(_.toBoolean),
+               () => closeable.close())
+         case None => new Reply(NOT_ACCEPTABLE)
+      }
+   }
+
+   private def streamEntries(cacheName: String, entries: Iterator[CacheEntry[String, AnyRef]], format: BulkFormat,
+                             keysOnly: Boolean, onClose: () => Unit): Reply =
+      new Reply(OK).contentType(format.contentType)
+            .stream(new EntryChunkedInput(cacheName, entries, format, keysOnly, ChunkSize, onClose))
+
+   private def killCache(req: HttpRequest, cacheName: String): Reply = {
+      val headers = req.headers
+      if (headers.contains(IF_MATCH) || headers.contains(IF_NONE_MATCH)
+            || headers.contains(IF_MODIFIED_SINCE) || headers.contains(IF_UNMODIFIED_SINCE)) {
+         new Reply(NOT_IMPLEMENTED).text("Preconditions were not implemented yet for PUT, POST, and DELETE methods.")
+      } else {
+         manager.getCache(cacheName).clear()
+         new Reply(OK)
+      }
+   }
+
+   /**
+    * Evaluates the conditional request headers, returning the reply to send if any of them fails.
+    */
+   private def evaluatePreconditions(req: HttpRequest, lastMod: Date, etag: String): Option[Reply] = {
+      val headers = req.headers
+      val ifMatch = headers.get(IF_MATCH)
+      val ifNoneMatch = headers.get(IF_NONE_MATCH)
+      if (ifMatch != null && !matchesETag(ifMatch, etag)) {
+         Some(new Reply(PRECONDITION_FAILED).etag(etag))
+      } else if (ifNoneMatch != null && matchesETag(ifNoneMatch, etag)) {
+         if (req.method == GET || req.method == HEAD)
+            Some(new Reply(NOT_MODIFIED).etag(etag))
+         else
+            Some(new Reply(PRECONDITION_FAILED).etag(etag))
+      } else {
+         val ifUnmodifiedSince = parseDate(headers.get(IF_UNMODIFIED_SINCE))
+         val ifModifiedSince = parseDate(headers.get(IF_MODIFIED_SINCE))
+         if (ifUnmodifiedSince.exists(lastMod.after))
+            Some(new Reply(PRECONDITION_FAILED).etag(etag))
+         else if (ifModifiedSince.exists(!lastMod.after(_)))
+            Some(new Reply(NOT_MODIFIED).etag(etag))
+         else
+            None
+      }
+   }
+
+   private def matchesETag(header: String, etag: String): Boolean =
+      header.split(",").map(_.trim).exists(tag => tag == "*" || tag == etag || tag == "W/" + etag)
+
+   /**
+    * The entity tag is based on the entry version, which changes on every write. Entries stored without a version,
+    * e.g. by the JAX-RS endpoint, fall back to hashing the value.
+    */
+   private def calcETag[K, V](entry: InternalCacheEntry[K, V], meta: MimeMetadata): String = meta.version() match {
+      case v: NumericVersion => "\"" + meta.contentType + "-" + v.getVersion + "\""
+      case _ => "\"" + meta.contentType + HashFunction.hash(entry.getValue) + "\""
+   }
+
+   private def lastModified[K, V](ice: InternalCacheEntry[K, V]): Date = new Date(ice.getCreated / 1000 * 1000)
+
+   private def minFresh(req: HttpRequest): Option[Int] = {
+      val cacheControl = req.headers.get(CACHE_CONTROL)
+      if (cacheControl == null)
+         None
+      else
+         cacheControl.split(",").find(_.contains("min-fresh")).map(_.split("=").last.trim.toInt)
+   }
+
+   private def entryFreshEnough(entryExpires: Date, minFresh: Option[Int]): Boolean = minFresh match {
+      case Some(minFreshValue) => minFreshValue < calcFreshness(entryExpires)
+      case None => true
+   }
+
+   private def calcFreshness(expires: Date): Int = expires match {
+      case null => Int.MaxValue
+      case expiry => ((expiry.getTime - new Date().getTime) / 1000).toInt
+   }
+
+   private def wantExtendedHeaders(extended: Boolean): Boolean = configuration.extendedHeaders() match {
+      case ExtendedHeaders.NEVER => false
+      case ExtendedHeaders.ON_DEMAND => extended
+   }
+
+   private def performAsync(req: HttpRequest): Boolean = java.lang.Boolean.parseBoolean(req.headers.get("performAsync"))
+
+   private def longHeader(req: HttpRequest, name: String): Long = {
+      val value = req.headers.get(name)
+      if (value == null || value.trim.isEmpty) -1 else value.trim.toLong
+   }
+
+   private def toBytes(value: AnyRef): Array[Byte] = value match {
+      case ba: Array[Byte] => ba
+      case other => other.toString.getBytes(UTF_8)
+   }
+
+   private def streamIt(action: ByteBufOutputStream => Unit): Array[Byte] = {
+      val buf = Unpooled.buffer()
+      val out = new ByteBufOutputStream(buf)
+      try {
+         action(out)
+         out.flush()
+         val bytes = new Array[Byte](buf.readableBytes)
+         buf.readBytes(bytes)
+         bytes
+      } finally {
+         buf.release()
+      }
+   }
+
+   private def write(ctx: ChannelHandlerContext, req: HttpRequest, reply: Reply): Unit = {
+      val keepAlive = HttpUtil.isKeepAlive(req)
+      val headers = reply.headers
+      val value = reply.value
+      val length = if (value != null) value.length else 0
+      headers.setInt(CONTENT_LENGTH, length)
+      // Responses sent over HTTP/2 must reference the stream of the request
+      val streamId = req.headers.get(ExtensionHeaderNames.STREAM_ID.text)
+      if (streamId != null)
+         headers.set(ExtensionHeaderNames.STREAM_ID.text, streamId)
+      if (!keepAlive)
+         headers.set(CONNECTION, HttpHeaderValues.CLOSE)
+      else if (req.protocolVersion == HttpVersion.HTTP_1_0)
+         headers.set(CONNECTION, HttpHeaderValues.KEEP_ALIVE)
+
+      val future =
+         if (reply.input != null) {
+            // The length of streamed bodies is not known up front
+            headers.remove(CONTENT_LENGTH)
+            headers.set(TRANSFER_ENCODING, HttpHeaderValues.CHUNKED)
+            val response = new DefaultHttpResponse(HTTP_1_1, reply.status)
+            response.headers.set(headers)
+            ctx.write(response)
+            ctx.writeAndFlush(new HttpChunkedInput(reply.input))
+         } else if (value == null || req.method == HEAD || length <= ChunkSize) {
+            val content = if (value == null || req.method == HEAD) Unpooled.EMPTY_BUFFER else Unpooled.wrappedBuffer(value)
+            val response = new DefaultFullHttpResponse(HTTP_1_1, reply.status, content)
+            response.headers.set(headers)
+            ctx.writeAndFlush(response)
+         } else {
+            val response = new DefaultHttpResponse(HTTP_1_1, reply.status)
+            response.headers.set(headers)
+            ctx.write(response)
+            ctx.writeAndFlush(new HttpChunkedInput(new ByteArrayChunkedInput(value, ChunkSize)))
+         }
+      if (!keepAlive)
+         future.addListener(ChannelFutureListener.CLOSE)
+   }
+
+   /**
+    * Response status, headers and value, which are only turned into Netty messages once the operation completes.
+    */
+   private class Reply(val status: HttpResponseStatus) {
+      val headers: HttpHeaders = new DefaultHttpHeaders(false)
+      var value: Array[Byte] = _
+      var input: ChunkedInput[ByteBuf] = _
+
+      def body(bytes: Array[Byte]): Reply = {
+         value = bytes
+         this
+      }
+
+      def stream(chunks: ChunkedInput[ByteBuf]): Reply = {
+         input = chunks
+         this
+      }
+
+      def text(message: String): Reply = {
+         headers.set(CONTENT_TYPE, TextPlain)
+         body(if (message != null) message.getBytes(UTF_8) else null)
+      }
+
+      def contentType(mediaType: String): Reply = {
+         if (mediaType != null)
+            headers.set(CONTENT_TYPE, mediaType)
+         this
+      }
+
+      def etag(tag: String): Reply = {
+         headers.set(ETAG, tag)
+         this
+      }
+
+      def lastModified(date: Date): Reply = {
+         headers.set(LAST_MODIFIED, formatDate(date))
+         this
+      }
+
+      def expires(date: Date): Reply = {
+         if (date != null) {
+            headers.set(EXPIRES, formatDate(date))
+            val maxAgeSeconds = calcFreshness(date)
+            headers.set(CACHE_CONTROL, if (maxAgeSeconds > 0) "max-age=" + maxAgeSeconds else "no-cache")
+         }
+         this
+      }
+
+      def mortality(meta: Metadata): Reply = {
+         if (meta.lifespan() > -1)
+            headers.set(Server.TimeToLiveHeader, MILLIS.toSeconds(meta.lifespan()))
+         if (meta.maxIdle() > -1)
+            headers.set(Server.MaxIdleTimeHeader, MILLIS.toSeconds(meta.maxIdle()))
+         this
+      }
+
+      def extended(cacheName: String, key: String, b: Boolean): Reply = {
+         if (b) {
+            setIfNotNull("Cluster-Primary-Owner", manager.getPrimaryOwner(cacheName, key))
+            setIfNotNull("Cluster-Node-Name", manager.getNodeName)
+            setIfNotNull("Cluster-Server-Address", manager.getServerAddress)
+         }
+         this
+      }
+
+      private def setIfNotNull(name: String, value: Any): Unit = {
+         if (value != null)
+            headers.set(name, value.toString)
+      }
+   }
+
+   /**
+    * Collects the content of a request. When the length is known the chunks are copied straight into the array that
+    * will be stored, otherwise they are retained and copied once the last one is received, up to the maximum length.
+    */
+   private class RequestBody(ctx: ChannelHandlerContext, contentLength: Long, maxLength: Int) {
+      private val array = if (contentLength >= 0 && contentLength <= Int.MaxValue) new Array[Byte](contentLength.toInt) else null
+      private var offset = 0
+      private val chunks: CompositeByteBuf = if (array == null) ctx.alloc.compositeBuffer(Int.MaxValue) else null
+
+      /**
+       * @return {@code false} if the content is larger than the maximum length
+       */
+      def append(content: HttpContent): Boolean = {
+         val buf = content.content
+         val readable = buf.readableBytes
+         if (readable == 0) {
+            true
+         } else if (array != null) {
+            val length = math.min(readable, array.length - offset)
+            buf.getBytes(buf.readerIndex, array, offset, length)
+            offset += length
+            true
+         } else if (chunks.readableBytes.toLong + readable > maxLength) {
+            false
+         } else {
+            chunks.addComponent(buf.retain())
+            chunks.writerIndex(chunks.writerIndex + readable)
+            true
+         }
+      }
+
+      def toArray: Array[Byte] = {
+         if (array != null) {
+            array
+         } else {
+            try {
+               val bytes = new Array[Byte](chunks.readableBytes)
+               chunks.readBytes(bytes)
+               bytes
+            } finally {
+               chunks.release()
+            }
+         }
+      }
+
+      def release(): Unit = {
+         if (chunks != null && chunks.refCnt > 0)
+            chunks.release()
+      }
+   }
+
+}
+
+object RestRequestHandler {
+
+   private val HashFunction = MurmurHash3.getInstance
+
+   /**
+    * Values bigger than this are written in chunks of this size.
+    */
+   val ChunkSize = 8192
+
+   val TextHtml = "text/html"
+   val TextPlain = "text/plain"
+   val TextPlainUtf8 = "text/plain;charset=UTF-8"
+   val ApplicationXml = "application/xml"
+   val ApplicationJson = "application/json"
+   val ApplicationOctetStream = "application/octet-stream"
+   val ApplicationXJavaSerializedObject = "application/x-java-serialized-object"
+
+   val CollectionMediaTypes = Seq(TextHtml, ApplicationXml, ApplicationJson, TextPlain, TextPlainUtf8)
+   val EntryMediaTypes = Seq(ApplicationXml, ApplicationXJavaSerializedObject, ApplicationJson)
+
+   private val DateFormat = DateTimeFormatter.ofPattern("EEE, dd MMM yyyy HH:mm:ss zzz", Locale.US)
+         .withZone(ZoneId.of("GMT"))
+
+   def formatDate(date: Date): String = DateFormat.format(date.toInstant)
+
+   def parseDate(value: String): Option[Date] = {
+      if (value == null) {
+         None
+      } else {
+         try {
+            Some(Date.from(Instant.from(ZonedDateTime.parse(value.trim, DateTimeFormatter.RFC_1123_DATE_TIME))))
+         } catch {
+            case e: java.time.DateTimeException => None
+         }
+      }
+   }
+
+   /**
+    * Path segments are percent-encoded, but unlike query parameters, a plus sign doesn't stand for a space.
+    */
+   def decodePathSegment(segment: String): String =
+      QueryStringDecoder.decodeComponent(segment.replace("+", "%2B"), UTF_8)
+
+   /**
+    * Selects the media type in the candidates preferred by the Accept header. Ties are resolved in favour of the
+    * candidate that comes first, which is also the one chosen when the header is missing.
+    */
+   def selectMediaType(accept: String, candidates: Seq[String]): Option[String] = {
+      if (accept == null || accept.trim.isEmpty) {
+         candidates.headOption
+      } else {
+         val ranges = accept.split(",").map(MediaRange.parse)
+         var selected: Option[String] = None
+         var selectedQuality = 0.0
+         candidates.foreach { candidate =>
+            val mediaType = MediaRange.parse(candidate)
+            val quality = ranges.filter(_.includes(mediaType)).map(_.quality).foldLeft(0.0)(math.max)
+            if (quality > selectedQuality) {
+               selected = Some(candidate)
+               selectedQuality = quality
+            }
+         }
+         selected
+      }
+   }
+
+   private case class MediaRange(mainType: String, subType: String, params: Map[String, String], quality: Double) {
+      def includes(mediaType: MediaRange): Boolean =
+         (mainType == "*" || mainType == mediaType.mainType) &&
+               (subType == "*" || subType == mediaType.subType) &&
+               params.forall { case (name, value) => mediaType.params.get(name).exists(_.equalsIgnoreCase(value)) }
+   }
+
+   private object MediaRange {
+      def parse(value: String): MediaRange = {
+         val parts = value.split(";").map(_.trim)
+         val types = parts(0).toLowerCase(Locale.ENGLISH).split("/")
+         val params = parts.drop(1).filter(_.contains('=')).map { param =>
+            val separator = param.indexOf('=')
+            param.substring(0, separator).trim.toLowerCase(Locale.ENGLISH) -> param.substring(separator + 1).trim
+         }.toMap
+         val quality = params.get("q").map(q => try q.toDouble catch { case e: NumberFormatException => 0.0 })
+         MediaRange(types(0), if (types.length > 1) types(1) else "*", params - "q", quality.getOrElse(1.0))
+      }
+   }
+
+}
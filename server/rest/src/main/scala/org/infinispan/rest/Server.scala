@@ -388,25 +388,8 @@ class Server(configuration: RestServerConfiguration, manager: RestCacheManager)
       Response.ok.build
    }
 
-   def createMetadata(cfg: Configuration, dataType: String, ttl: Long, idleTime: Long): Metadata = {
-      val metadata = new MimeMetadataBuilder
-      metadata.contentType(dataType)
-      (ttl, idleTime) match {
-         case (0, 0) =>
-            metadata.lifespan(cfg.expiration().lifespan(), MILLIS)
-                  .maxIdle(cfg.expiration().maxIdle(), MILLIS)
-         case (0, maxIdle) =>
-            metadata.lifespan(cfg.expiration().lifespan(), MILLIS)
-                  .maxIdle(maxIdle, SECS)
-         case (lifespan, 0) =>
-            metadata.lifespan(lifespan, SECS)
-                  .maxIdle(cfg.expiration().maxIdle(), MILLIS)
-         case (lifespan, maxIdle) =>
-            metadata.lifespan(lifespan, SECS)
-                  .maxIdle(maxIdle, SECS)
-      }
-      metadata.build()
-   }
+   def createMetadata(cfg: Configuration, dataType: String, ttl: Long, idleTime: Long): Metadata =
+      Server.metadataBuilder(cfg, dataType, ttl, idleTime).build()
 
    private def putOrReplace(cache: AdvancedCache[String, Array[Byte]],
            key: String, data: Array[Byte], dataType: String,
@@ -524,6 +507,30 @@ object Server {
       TextPlainUtf8Type
    ).build
 
+   /**
+    * Creates the builder for the metadata of a REST entry. A time to live or max idle time of 0 seconds means that
+    * the cache configured value is used.
+    */
+   def metadataBuilder(cfg: Configuration, dataType: String, ttl: Long, idleTime: Long): MimeMetadataBuilder = {
+      val metadata = new MimeMetadataBuilder
+      metadata.contentType(dataType)
+      (ttl, idleTime) match {
+         case (0, 0) =>
+            metadata.lifespan(cfg.expiration().lifespan(), MILLIS)
+                  .maxIdle(cfg.expiration().maxIdle(), MILLIS)
+         case (0, maxIdle) =>
+            metadata.lifespan(cfg.expiration().lifespan(), MILLIS)
+                  .maxIdle(maxIdle, SECS)
+         case (lifespan, 0) =>
+            metadata.lifespan(lifespan, SECS)
+                  .maxIdle(cfg.expiration().maxIdle(), MILLIS)
+         case (lifespan, maxIdle) =>
+            metadata.lifespan(lifespan, SECS)
+                  .maxIdle(maxIdle, SECS)
+      }
+      metadata
+   }
+
    lazy val JsonMapper = new ObjectMapper
    lazy val Xstream = new XStream
 
@@ -534,6 +541,7 @@ object Server {
 
 class CacheNotFoundException(msg: String) extends CacheException(msg)
 class CacheUnavailableException(msg: String) extends CacheException(msg)
+class InvalidRequestException(msg: String) extends CacheException(msg)
 
 object Escaper {
    def escapeHtml(html: String): String = {
@@ -10,12 +10,21 @@ public class RestServerConfiguration {
    private final String host;
    private final int port;
    private Set<String> ignoredCaches;
+   private final boolean nativeEndpoint;
+   private final boolean http2;
+   private final int workerThreads;
+   private final int maxContentLength;
 
-   RestServerConfiguration(ExtendedHeaders extendedHeaders, String host, int port, Set<String> ignoredCaches) {
+   RestServerConfiguration(ExtendedHeaders extendedHeaders, String host, int port, Set<String> ignoredCaches,
+                           boolean nativeEndpoint, boolean http2, int workerThreads, int maxContentLength) {
       this.extendedHeaders = extendedHeaders;
       this.host = host;
       this.port = port;
       this.ignoredCaches = ignoredCaches;
+      this.nativeEndpoint = nativeEndpoint;
+      this.http2 = http2;
+      this.workerThreads = workerThreads;
+      this.maxContentLength = maxContentLength;
    }
 
    public ExtendedHeaders extendedHeaders() {
@@ -33,4 +42,32 @@ public String host() {
    public Set<String> getIgnoredCaches() {
       return ignoredCaches;
    }
+
+   /**
+    * Whether requests are served by Netty handlers directly instead of the RESTEasy JAX-RS resources.
+    */
+   public boolean nativeEndpoint() {
+      return nativeEndpoint;
+   }
+
+   /**
+    * Whether the native endpoint accepts cleartext HTTP/2 (h2c) upgrades.
+    */
+   public boolean http2() {
+      return http2;
+   }
+
+   /**
+    * The number of threads executing cache operations for the native endpoint.
+    */
+   public int workerThreads() {
+      return workerThreads;
+   }
+
+   /**
+    * The maximum size in bytes of the content of a request sent to the native endpoint.
+    */
+   public int maxContentLength() {
+      return maxContentLength;
+   }
 }
@@ -1,6 +1,8 @@
 package org.infinispan.rest.configuration;
 
 import org.infinispan.commons.configuration.Builder;
+import org.infinispan.rest.logging.JavaLog;
+import org.infinispan.util.logging.LogFactory;
 
 import java.util.HashSet;
 import java.util.Set;
@@ -12,11 +14,16 @@
  * @since 5.3
  */
 public class RestServerConfigurationBuilder implements Builder<RestServerConfiguration> {
+   private static final JavaLog log = LogFactory.getLog(RestServerConfigurationBuilder.class, JavaLog.class);
 
    private ExtendedHeaders extendedHeaders = ExtendedHeaders.ON_DEMAND;
    private int port = 8080;
    private String host = "localhost";
    private Set<String> ignoredCaches = new HashSet<String>();
+   private boolean nativeEndpoint = false;
+   private boolean http2 = false;
+   private int workerThreads = 2 * Runtime.getRuntime().availableProcessors();
+   private int maxContentLength = 64 * 1024 * 1024;
 
    public RestServerConfigurationBuilder extendedHeaders(ExtendedHeaders extendedHeaders) {
       this.extendedHeaders = extendedHeaders;
@@ -38,14 +45,53 @@ public RestServerConfigurationBuilder ignoredCaches(Set<String> ignoredCaches) {
       return this;
    }
 
+   /**
+    * Serves requests with Netty handlers instead of the RESTEasy JAX-RS resources. Defaults to false.
+    */
+   public RestServerConfigurationBuilder nativeEndpoint(boolean nativeEndpoint) {
+      this.nativeEndpoint = nativeEndpoint;
+      return this;
+   }
+
+   /**
+    * Accepts cleartext HTTP/2 (h2c) upgrades on the native endpoint. Defaults to false.
+    */
+   public RestServerConfigurationBuilder http2(boolean http2) {
+      this.http2 = http2;
+      return this;
+   }
+
+   /**
+    * Sets the number of threads executing cache operations for the native endpoint.
+    */
+   public RestServerConfigurationBuilder workerThreads(int workerThreads) {
+      this.workerThreads = workerThreads;
+      return this;
+   }
+
+   /**
+    * Sets the maximum size in bytes of the content of a request sent to the native endpoint. Larger requests are
+    * answered with 413 (Request Entity Too Large). Defaults to 64MB.
+    */
+   public RestServerConfigurationBuilder maxContentLength(int maxContentLength) {
+      this.maxContentLength = maxContentLength;
+      return this;
+   }
+
    @Override
    public void validate() {
-      // Nothing to do
+      if (workerThreads < 1)
+         throw log.illegalWorkerThreads(workerThreads);
+      if (maxContentLength < 1)
+         throw log.illegalMaxContentLength(maxContentLength);
+      if (http2 && !nativeEndpoint)
+         throw log.http2RequiresNativeEndpoint();
    }
 
    @Override
    public RestServerConfiguration create() {
-      return new RestServerConfiguration(extendedHeaders, host, port, ignoredCaches);
+      return new RestServerConfiguration(extendedHeaders, host, port, ignoredCaches, nativeEndpoint, http2,
+            workerThreads, maxContentLength);
    }
 
    @Override
@@ -53,6 +99,10 @@ public Builder<?> read(RestServerConfiguration template) {
       this.extendedHeaders = template.extendedHeaders();
       this.host = template.host();
       this.port = template.port();
+      this.nativeEndpoint = template.nativeEndpoint();
+      this.http2 = template.http2();
+      this.workerThreads = template.workerThreads();
+      this.maxContentLength = template.maxContentLength();
       return this;
    }
 
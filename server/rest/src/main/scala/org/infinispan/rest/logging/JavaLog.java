@@ -30,4 +30,13 @@ public interface JavaLog extends org.infinispan.util.logging.Log {
    @Message(value = "REST server starting, listening on %s:%s", id = 12003)
    void startRestServer(String host, int port);
 
+   @Message(value = "Illegal number of workerThreads: %d", id = 12004)
+   IllegalArgumentException illegalWorkerThreads(int workerThreads);
+
+   @Message(value = "HTTP/2 can only be enabled together with the native endpoint", id = 12005)
+   IllegalArgumentException http2RequiresNativeEndpoint();
+
+   @Message(value = "Illegal maxContentLength: %d", id = 12006)
+   IllegalArgumentException illegalMaxContentLength(int maxContentLength);
+
 }
@@ -0,0 +1,39 @@
+package org.infinispan.rest.transport
+
+import io.netty.buffer.{ByteBuf, ByteBufAllocator, Unpooled}
+import io.netty.channel.ChannelHandlerContext
+import io.netty.handler.stream.ChunkedInput
+
+/**
+ * Splits an array into chunks that wrap it, so that a value can be written in pieces without copying it.
+ *
+ * @since 9.0
+ */
+class ByteArrayChunkedInput(array: Array[Byte], chunkSize: Int) extends ChunkedInput[ByteBuf] {
+
+   private var offset = 0
+
+   def isEndOfInput: Boolean = offset >= array.length
+
+   def close(): Unit = {
+      // Nothing to release, the array belongs to the cache
+   }
+
+   def readChunk(ctx: ChannelHandlerContext): ByteBuf = readChunk(ctx.alloc)
+
+   def readChunk(allocator: ByteBufAllocator): ByteBuf = {
+      if (isEndOfInput) {
+         null
+      } else {
+         val length = math.min(chunkSize, array.length - offset)
+         val chunk = Unpooled.wrappedBuffer(array, offset, length)
+         offset += length
+         chunk
+      }
+   }
+
+   def length(): Long = array.length
+
+   def progress(): Long = offset
+
+}
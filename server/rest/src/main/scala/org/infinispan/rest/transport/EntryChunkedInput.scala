@@ -0,0 +1,50 @@
+package org.infinispan.rest.transport
+
+import io.netty.buffer.{ByteBuf, ByteBufAllocator}
+import io.netty.channel.ChannelHandlerContext
+import io.netty.handler.stream.ChunkedInput
+import org.infinispan.container.entries.CacheEntry
+import org.infinispan.rest.BulkFormat
+
+/**
+ * Encodes entries lazily, a chunk at a time. Chunks are only requested while the channel is writable, so entries
+ * are pulled from the iterator at the pace of the client.
+ *
+ * @since 9.0
+ */
+class EntryChunkedInput(cacheName: String, entries: Iterator[CacheEntry[String, AnyRef]], format: BulkFormat,
+                        keysOnly: Boolean, chunkSize: Int, onClose: () => Unit) extends ChunkedInput[ByteBuf] {
+
+   private var count = 0L
+   private var ended = false
+
+   def isEndOfInput: Boolean = ended
+
+   def close(): Unit = onClose()
+
+   def readChunk(ctx: ChannelHandlerContext): ByteBuf = readChunk(ctx.alloc)
+
+   def readChunk(allocator: ByteBufAllocator): ByteBuf = {
+      if (ended) {
+         null
+      } else {
+         val chunk = allocator.compositeBuffer(Int.MaxValue)
+         while (chunk.readableBytes < chunkSize && entries.hasNext) {
+            val entry = entries.next()
+            val value = if (keysOnly) null else BulkFormat.valueOf(entry)
+            format.append(chunk, allocator, cacheName, entry.getKey, BulkFormat.contentTypeOf(entry), value)
+            count += 1
+         }
+         if (!entries.hasNext) {
+            format.appendEnd(chunk)
+            ended = true
+         }
+         chunk
+      }
+   }
+
+   def length(): Long = -1
+
+   def progress(): Long = count
+
+}
@@ -0,0 +1,56 @@
+package org.infinispan.rest.transport
+
+import io.netty.channel.{Channel, ChannelInitializer}
+import io.netty.handler.codec.http.HttpServerUpgradeHandler.{UpgradeCodec, UpgradeCodecFactory}
+import io.netty.handler.codec.http.{HttpServerCodec, HttpServerUpgradeHandler}
+import io.netty.handler.codec.http2._
+import io.netty.handler.stream.ChunkedWriteHandler
+import io.netty.util.AsciiString
+import io.netty.util.concurrent.EventExecutorGroup
+import org.infinispan.rest.configuration.RestServerConfiguration
+import org.infinispan.rest.{RestCacheManager, RestRequestHandler}
+
+/**
+ * Pipeline of the native REST endpoint. HTTP/1.1 requests are decoded in parts and handed to the request handler
+ * without aggregating their content. When HTTP/2 is enabled, connections can be upgraded to cleartext HTTP/2 (h2c),
+ * whose streams are translated to HTTP/1.1 messages so that the same request handler serves both protocols.
+ *
+ * @since 9.0
+ */
+class RestChannelInitializer(configuration: RestServerConfiguration, manager: RestCacheManager,
+                             executorGroup: EventExecutorGroup) extends ChannelInitializer[Channel] {
+
+   override def initChannel(ch: Channel): Unit = {
+      val pipeline = ch.pipeline
+      val sourceCodec = new HttpServerCodec
+      pipeline.addLast("codec", sourceCodec)
+      if (configuration.http2()) {
+         pipeline.addLast("upgrade", new HttpServerUpgradeHandler(sourceCodec, new UpgradeCodecFactory {
+            override def newUpgradeCodec(protocol: CharSequence): UpgradeCodec =
+               if (AsciiString.contentEquals(Http2CodecUtil.HTTP_UPGRADE_PROTOCOL_NAME, protocol))
+                  new Http2ServerUpgradeCodec(createHttp2Handler())
+               else
+                  null
+         }, configuration.maxContentLength()))
+      }
+      // Cache operations can block, so they are executed outside of the event loop. This includes pulling the entries
+      // of streamed responses, which can fetch them from other nodes.
+      pipeline.addLast(executorGroup, "chunked", new ChunkedWriteHandler)
+      pipeline.addLast(executorGroup, "handler", new RestRequestHandler(configuration, manager))
+   }
+
+   private def createHttp2Handler(): HttpToHttp2ConnectionHandler = {
+      val connection = new DefaultHttp2Connection(true)
+      val listener = new InboundHttp2ToHttpAdapterBuilder(connection)
+            // HTTP/2 streams are aggregated into a single message before being handed to the request handler
+            .maxContentLength(configuration.maxContentLength())
+            .propagateSettings(false)
+            .validateHttpHeaders(false)
+            .build()
+      new HttpToHttp2ConnectionHandlerBuilder()
+            .frameListener(listener)
+            .connection(connection)
+            .build()
+   }
+
+}
@@ -0,0 +1,44 @@
+package org.infinispan.rest.transport
+
+import io.netty.bootstrap.ServerBootstrap
+import io.netty.buffer.PooledByteBufAllocator
+import io.netty.channel.nio.NioEventLoopGroup
+import io.netty.channel.socket.nio.NioServerSocketChannel
+import io.netty.channel.{Channel, ChannelOption}
+import io.netty.util.concurrent.{DefaultEventExecutorGroup, DefaultThreadFactory}
+import org.infinispan.rest.RestCacheManager
+import org.infinispan.rest.configuration.RestServerConfiguration
+
+/**
+ * Binds the native REST endpoint. Channels are served by the worker event loops, while the cache operations run
+ * on a separate group of threads, each channel being always bound to the same thread.
+ *
+ * @since 9.0
+ */
+class RestTransport(configuration: RestServerConfiguration, manager: RestCacheManager) {
+
+   private val masterGroup = new NioEventLoopGroup(1, new DefaultThreadFactory("RestServerMaster"))
+   private val workerGroup = new NioEventLoopGroup(0, new DefaultThreadFactory("RestServerWorker"))
+   private val executorGroup = new DefaultEventExecutorGroup(configuration.workerThreads(),
+      new DefaultThreadFactory("RestServerHandler"))
+   private var serverChannel: Channel = _
+
+   def start(): Unit = {
+      val bootstrap = new ServerBootstrap()
+      bootstrap.group(masterGroup, workerGroup)
+      bootstrap.channel(classOf[NioServerSocketChannel])
+      bootstrap.childHandler(new RestChannelInitializer(configuration, manager, executorGroup))
+      bootstrap.childOption(ChannelOption.ALLOCATOR, PooledByteBufAllocator.DEFAULT)
+      bootstrap.childOption[java.lang.Boolean](ChannelOption.TCP_NODELAY, true)
+      serverChannel = bootstrap.bind(configuration.host(), configuration.port()).sync().channel()
+   }
+
+   def stop(): Unit = {
+      if (serverChannel != null)
+         serverChannel.close().awaitUninterruptibly()
+      masterGroup.shutdownGracefully()
+      workerGroup.shutdownGracefully()
+      executorGroup.shutdownGracefully()
+   }
+
+}
@@ -27,6 +27,7 @@ import org.infinispan.util.logging.LogFactory
 import org.infinispan.test.fwk.TestCacheManagerFactory
 import java.util
 import org.infinispan.metadata.Metadata
+import org.infinispan.rest.configuration.RestServerConfigurationBuilder
 import javax.ws.rs.core.CacheControl
 import scala.concurrent.ExecutionContext.Implicits.global
 
@@ -43,7 +44,7 @@ import scala.concurrent.ExecutionContext.Implicits.global
 @Test(groups = Array("functional"), testName = "rest.IntegrationTest")
 class IntegrationTest extends RestServerTestBase {
 
-   val HOST = "http://localhost:8888"
+   val HOST = s"http://localhost:$port"
    val cacheName = BasicCacheContainer.DEFAULT_CACHE_NAME
    val fullPath = HOST + "/rest/" + cacheName
    val DATE_PATTERN_RFC1123 = "EEE, dd MMM yyyy HH:mm:ss zzz"
@@ -52,10 +53,16 @@ class IntegrationTest extends RestServerTestBase {
    private def fullPathWithPort(m: Method, port: Int): String =
       s"http://localhost:$port/rest/$cacheName/${m.getName}"
 
+   protected def port: Int = 8888
+
+   protected def configureServer(builder: RestServerConfigurationBuilder): Unit = {}
+
    @BeforeClass(alwaysRun = true)
    def setUp() {
       cacheManager = TestCacheManagerFactory.fromXml("test-config.xml")
-      addServer("single", 8888, cacheManager)
+      val builder = new RestServerConfigurationBuilder().port(port)
+      configureServer(builder)
+      addServer("single", cacheManager, builder.build())
       startServers()
       createClient()
    }
@@ -0,0 +1,19 @@
+package org.infinispan.rest
+
+import org.infinispan.rest.configuration.RestServerConfigurationBuilder
+import org.testng.annotations.Test
+
+/**
+ * Runs the integration tests against the native endpoint, which must behave like the JAX-RS one.
+ *
+ * @since 9.0
+ */
+@Test(groups = Array("functional"), testName = "rest.NativeIntegrationTest")
+class NativeIntegrationTest extends IntegrationTest {
+
+   override protected def port: Int = 8889
+
+   override protected def configureServer(builder: RestServerConfigurationBuilder): Unit =
+      builder.nativeEndpoint(true)
+
+}
@@ -0,0 +1,284 @@
+package org.infinispan.rest
+
+import java.io.{BufferedReader, ByteArrayInputStream, DataInputStream, InputStreamReader}
+import java.lang.reflect.Method
+import java.net.Socket
+import java.nio.charset.StandardCharsets.UTF_8
+import java.util
+import java.util.Base64
+
+import org.apache.commons.httpclient.methods._
+import org.codehaus.jackson.map.ObjectMapper
+import org.infinispan.commons.api.BasicCacheContainer
+import org.infinispan.manager.EmbeddedCacheManager
+import org.infinispan.rest.configuration.RestServerConfigurationBuilder
+import org.infinispan.test.TestingUtil
+import org.infinispan.test.fwk.TestCacheManagerFactory
+import org.testng.Assert._
+import org.testng.annotations.{AfterClass, BeforeClass, Test}
+
+/**
+ * Tests the features specific to the native REST endpoint.
+ *
+ * @since 9.0
+ */
+@Test(groups = Array("functional"), testName = "rest.NativeRestEndpointTest")
+class NativeRestEndpointTest extends RestServerTestBase {
+
+   private val port = 8892
+   private val maxContentLength = RestRequestHandler.ChunkSize * 16
+   private val fullPath = s"http://localhost:$port/rest/${BasicCacheContainer.DEFAULT_CACHE_NAME}"
+   private var cacheManager: EmbeddedCacheManager = _
+
+   @BeforeClass(alwaysRun = true)
+   def setUp() {
+      cacheManager = TestCacheManagerFactory.createCacheManager()
+      addServer("native", cacheManager, new RestServerConfigurationBuilder().port(port).nativeEndpoint(true)
+         .http2(true).maxContentLength(maxContentLength).build())
+      startServers()
+      createClient()
+   }
+
+   @AfterClass(alwaysRun = true)
+   def tearDown() {
+      destroyClient()
+      stopServers()
+      TestingUtil.killCacheManagers(cacheManager)
+   }
+
+   def testChunkedUploadAndLargeValue(m: Method) {
+      val data = new Array[Byte](RestRequestHandler.ChunkSize * 10 + 7)
+      for (i <- data.indices) data(i) = i.toByte
+      val put = new PutMethod(s"$fullPath/${m.getName}")
+      // An unknown length makes the client send the body in chunks
+      put.setRequestEntity(new InputStreamRequestEntity(new ByteArrayInputStream(data), -1, "application/octet-stream"))
+      assertEquals(call(put).getStatusCode, 200)
+
+      val get = call(new GetMethod(s"$fullPath/${m.getName}"))
+      assertEquals(get.getStatusCode, 200)
+      assertEquals(get.getResponseHeader("Content-Length").getValue, data.length.toString)
+      assertTrue(util.Arrays.equals(get.getResponseBody, data))
+   }
+
+   def testETagFromVersion(m: Method) {
+      val path = s"$fullPath/${m.getName}"
+      put(path, "v1")
+      val etag = call(new GetMethod(path)).getResponseHeader("ETag").getValue
+
+      val conditionalGet = new GetMethod(path)
+      conditionalGet.setRequestHeader("If-None-Match", etag)
+      assertEquals(call(conditionalGet).getStatusCode, 304)
+      assertEquals(conditionalGet.getResponseHeader("ETag").getValue, etag)
+
+      // Writing the same value again still changes the version
+      put(path, "v1")
+      val newEtag = call(new GetMethod(path)).getResponseHeader("ETag").getValue
+      assertFalse(newEtag == etag)
+
+      val staleGet = new GetMethod(path)
+      staleGet.setRequestHeader("If-None-Match", etag)
+      assertEquals(call(staleGet).getStatusCode, 200)
+      assertEquals(staleGet.getResponseBodyAsString, "v1")
+   }
+
+   def testPipelinedRequests(m: Method) {
+      val socket = new Socket("localhost", port)
+      try {
+         val path = s"/rest/${BasicCacheContainer.DEFAULT_CACHE_NAME}/${m.getName}"
+         val requests =
+            s"PUT $path HTTP/1.1\r\nHost: localhost\r\nContent-Type: text/plain\r\nContent-Length: 2\r\n\r\nv1" +
+            s"GET $path HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+            s"DELETE $path HTTP/1.1\r\nHost: localhost\r\n\r\n" +
+            s"GET $path HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n"
+         // Send all the requests before reading any response
+         socket.getOutputStream.write(requests.getBytes(UTF_8))
+         socket.getOutputStream.flush()
+
+         val in = new BufferedReader(new InputStreamReader(socket.getInputStream, UTF_8))
+         assertEquals(readResponse(in), (200, ""))
+         assertEquals(readResponse(in), (200, "v1"))
+         assertEquals(readResponse(in), (200, ""))
+         assertEquals(readResponse(in), (404, ""))
+         assertNull(in.readLine())
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testPutAllAndGetAll(m: Method) {
+      val encoder = Base64.getEncoder
+      val putAll = new PostMethod(s"$fullPath?action=putAll")
+      val lines = (1 to 3).map(i =>
+         s"""{"key":"${m.getName}-$i","contentType":"text/plain","value":"${encoder.encodeToString(s"v$i".getBytes(UTF_8))}"}""")
+      putAll.setRequestEntity(new StringRequestEntity(lines.mkString("\n"), "application/x-ndjson", "UTF-8"))
+      assertEquals(call(putAll).getStatusCode, 200)
+      assertEquals(call(new GetMethod(s"$fullPath/${m.getName}-2")).getResponseBodyAsString, "v2")
+
+      val getAll = new PostMethod(s"$fullPath?action=getAll&key=${m.getName}-3")
+      getAll.setRequestHeader("Accept", "application/x-ndjson")
+      getAll.setRequestEntity(new StringRequestEntity(s"${m.getName}-1\n${m.getName}-missing", "text/plain", "UTF-8"))
+      assertEquals(call(getAll).getStatusCode, 200)
+      val entries = getAll.getResponseBodyAsString.split("\n").map(new ObjectMapper().readTree(_))
+      assertEquals(entries.map(_.get("key").getTextValue).toSeq, Seq(s"${m.getName}-3", s"${m.getName}-1"))
+      assertEquals(new String(entries(0).get("value").getBinaryValue, UTF_8), "v3")
+      assertEquals(entries(0).get("contentType").getTextValue, "text/plain")
+
+      val multipart = new PostMethod(s"$fullPath?action=getAll&key=${m.getName}-2")
+      assertEquals(call(multipart).getStatusCode, 200)
+      val contentType = multipart.getResponseHeader("Content-Type").getValue
+      assertTrue(contentType.startsWith("multipart/mixed; boundary="))
+      val boundary = contentType.substring(contentType.indexOf('=') + 1)
+      val body = multipart.getResponseBodyAsString
+      assertTrue(body.startsWith(s"--$boundary\r\nContent-Location: ${BasicCacheContainer.DEFAULT_CACHE_NAME}/${m.getName}-2\r\n"))
+      assertTrue(body.endsWith(s"\r\n\r\nv2\r\n--$boundary--\r\n"))
+   }
+
+   def testExport(m: Method) {
+      for (i <- 1 to 50)
+         put(s"$fullPath/${m.getName}-$i", s"v$i")
+      val export = new GetMethod(s"$fullPath?action=export&keysOnly=true")
+      export.setRequestHeader("Accept", "application/x-ndjson")
+      assertEquals(call(export).getStatusCode, 200)
+      assertEquals(export.getResponseHeader("Transfer-Encoding").getValue, "chunked")
+      val keys = export.getResponseBodyAsString.split("\n").map(new ObjectMapper().readTree(_)).map { node =>
+         assertNull(node.get("value"))
+         node.get("key").getTextValue
+      }
+      for (i <- 1 to 50)
+         assertTrue(keys.contains(s"${m.getName}-$i"))
+   }
+
+   def testDeclaredContentTooLarge(m: Method) {
+      val socket = new Socket("localhost", port)
+      try {
+         val path = s"/rest/${BasicCacheContainer.DEFAULT_CACHE_NAME}/${m.getName}"
+         val request = s"PUT $path HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/octet-stream\r\n" +
+            s"Content-Length: ${maxContentLength + 1}\r\nExpect: 100-continue\r\n\r\n"
+         socket.getOutputStream.write(request.getBytes(UTF_8))
+         socket.getOutputStream.flush()
+
+         // Rejected before the content is sent, and the connection is closed
+         val in = new BufferedReader(new InputStreamReader(socket.getInputStream, UTF_8))
+         assertEquals(readResponse(in), (413, ""))
+         assertNull(in.readLine())
+      } finally {
+         socket.close()
+      }
+      assertEquals(call(new GetMethod(s"$fullPath/${m.getName}")).getStatusCode, 404)
+   }
+
+   def testChunkedContentTooLarge(m: Method) {
+      val socket = new Socket("localhost", port)
+      try {
+         val path = s"/rest/${BasicCacheContainer.DEFAULT_CACHE_NAME}/${m.getName}"
+         val out = socket.getOutputStream
+         out.write(s"PUT $path HTTP/1.1\r\nHost: localhost\r\nContent-Type: application/octet-stream\r\n".getBytes(UTF_8))
+         out.write("Transfer-Encoding: chunked\r\n\r\n".getBytes(UTF_8))
+         val chunk = new Array[Byte](RestRequestHandler.ChunkSize)
+         for (i <- 0 to 16) {
+            out.write(s"${Integer.toHexString(chunk.length)}\r\n".getBytes(UTF_8))
+            out.write(chunk)
+            out.write("\r\n".getBytes(UTF_8))
+         }
+         out.write("0\r\n\r\n".getBytes(UTF_8))
+         // The connection can still be used once the content has been discarded
+         out.write(s"GET $path HTTP/1.1\r\nHost: localhost\r\nConnection: close\r\n\r\n".getBytes(UTF_8))
+         out.flush()
+
+         val in = new BufferedReader(new InputStreamReader(socket.getInputStream, UTF_8))
+         assertEquals(readResponse(in), (413, ""))
+         assertEquals(readResponse(in), (404, ""))
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testHttp2Upgrade(m: Method) {
+      put(s"$fullPath/${m.getName}", "v1")
+      val socket = new Socket("localhost", port)
+      try {
+         socket.setSoTimeout(10000)
+         val path = s"/rest/${BasicCacheContainer.DEFAULT_CACHE_NAME}/${m.getName}"
+         val out = socket.getOutputStream
+         // The settings curl sends when upgrading
+         out.write((s"GET $path HTTP/1.1\r\nHost: localhost\r\nConnection: Upgrade, HTTP2-Settings\r\n" +
+            "Upgrade: h2c\r\nHTTP2-Settings: AAMAAABkAARAAAAAAAIAAAAA\r\n\r\n").getBytes(UTF_8))
+         out.flush()
+
+         val in = new DataInputStream(socket.getInputStream)
+         assertTrue(readLine(in).startsWith("HTTP/1.1 101"))
+         var headers = Map.empty[String, String]
+         var line = readLine(in)
+         while (!line.isEmpty) {
+            val separator = line.indexOf(':')
+            headers += line.substring(0, separator).toLowerCase -> line.substring(separator + 1).trim
+            line = readLine(in)
+         }
+         assertEquals(headers("upgrade"), "h2c")
+
+         // The client preface, then an empty SETTINGS frame
+         out.write("PRI * HTTP/2.0\r\n\r\nSM\r\n\r\n".getBytes(UTF_8))
+         out.write(Array[Byte](0, 0, 0, 4, 0, 0, 0, 0, 0))
+         out.flush()
+         // The upgrade request is answered on stream 1, with a 200 status taken from the HPACK static table
+         var headersFrame: Array[Byte] = null
+         while (headersFrame == null) {
+            val length = (in.readUnsignedByte() << 16) | (in.readUnsignedByte() << 8) | in.readUnsignedByte()
+            val frameType = in.readByte()
+            in.readByte() // Flags
+            val streamId = in.readInt() & Int.MaxValue
+            val payload = new Array[Byte](length)
+            in.readFully(payload)
+            if (frameType == 1 && streamId == 1)
+               headersFrame = payload
+         }
+         assertEquals(headersFrame(0), 0x88.toByte)
+      } finally {
+         socket.close()
+      }
+   }
+
+   def testUnknownAction() {
+      assertEquals(call(new PostMethod(s"$fullPath?action=other")).getStatusCode, 400)
+   }
+
+   def testUnknownPath() {
+      assertEquals(call(new GetMethod(s"http://localhost:$port/other")).getStatusCode, 404)
+      assertEquals(call(new GetMethod(s"$fullPath/a/b")).getStatusCode, 404)
+   }
+
+   private def put(path: String, value: String) {
+      val put = new PutMethod(path)
+      put.setRequestEntity(new StringRequestEntity(value, "text/plain", "UTF-8"))
+      assertEquals(call(put).getStatusCode, 200)
+   }
+
+   private def readLine(in: DataInputStream): String = {
+      val line = new StringBuilder
+      var c = in.read()
+      while (c != '\n' && c != -1) {
+         if (c != '\r')
+            line.append(c.toChar)
+         c = in.read()
+      }
+      line.toString
+   }
+
+   private def readResponse(in: BufferedReader): (Int, String) = {
+      val status = in.readLine().split(" ")(1).toInt
+      var contentLength = 0
+      var line = in.readLine()
+      while (!line.isEmpty) {
+         val separator = line.indexOf(':')
+         if (line.substring(0, separator).equalsIgnoreCase("Content-Length"))
+            contentLength = line.substring(separator + 1).trim.toInt
+         line = in.readLine()
+      }
+      val body = new Array[Char](contentLength)
+      var read = 0
+      while (read < contentLength)
+         read += in.read(body, read, contentLength - read)
+      (status, new String(body))
+   }
+
+}